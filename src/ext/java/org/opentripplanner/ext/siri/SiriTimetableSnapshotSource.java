@@ -11,13 +11,10 @@ import static org.opentripplanner.updater.spi.UpdateError.UpdateErrorType.UNKNOW
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.locks.ReentrantLock;
 import javax.annotation.Nullable;
-import org.opentripplanner.framework.time.CountdownTimer;
 import org.opentripplanner.model.Timetable;
 import org.opentripplanner.model.TimetableSnapshot;
 import org.opentripplanner.model.TimetableSnapshotProvider;
-import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.TransitLayerUpdater;
 import org.opentripplanner.transit.model.framework.DataValidationException;
 import org.opentripplanner.transit.model.framework.Result;
 import org.opentripplanner.transit.model.network.TripPattern;
@@ -32,6 +29,7 @@ import org.opentripplanner.updater.spi.DataValidationExceptionMapper;
 import org.opentripplanner.updater.spi.UpdateError;
 import org.opentripplanner.updater.spi.UpdateResult;
 import org.opentripplanner.updater.spi.UpdateSuccess;
+import org.opentripplanner.updater.trip.TimetableSnapshotManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.org.siri.siri20.EstimatedTimetableDeliveryStructure;
@@ -47,15 +45,16 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
   private static final Logger LOG = LoggerFactory.getLogger(SiriTimetableSnapshotSource.class);
 
   /**
-   * The working copy of the timetable snapshot. Should not be visible to routing threads. Should
-   * only be modified by a thread that holds a lock on {@link #bufferLock}. All public methods that
-   * might modify this buffer will correctly acquire the lock.
+   * Owns the working copy of the timetable snapshot, and publishes the committed snapshots to the
+   * routing threads. All public methods that might modify the buffer will correctly acquire the
+   * buffer lock.
    */
-  private final TimetableSnapshot buffer = new TimetableSnapshot();
+  private final TimetableSnapshotManager snapshotManager;
   /**
-   * Lock to indicate that buffer is in use
+   * The working copy of the timetable snapshot, owned by the {@link #snapshotManager}. Should not
+   * be visible to routing threads. Should only be modified by a thread that holds the buffer lock.
    */
-  private final ReentrantLock bufferLock = new ReentrantLock(true);
+  private final TimetableSnapshot buffer;
   /**
    * Use a id generator to generate TripPattern ids for new TripPatterns created by RealTime
    * updates.
@@ -69,20 +68,6 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
   private final TransitModel transitModel;
 
   private final TransitService transitService;
-  private final TransitLayerUpdater transitLayerUpdater;
-
-  /**
-   * If a timetable snapshot is requested less than this number of milliseconds after the previous
-   * snapshot, just return the same one. Throttles the potentially resource-consuming task of
-   * duplicating a TripPattern -> Timetable map and indexing the new Timetables.
-   */
-  protected CountdownTimer snapshotFrequencyThrottle;
-
-  /**
-   * The last committed snapshot that was handed off to a routing thread. This snapshot may be given
-   * to more than one routing thread if the maximum snapshot frequency is exceeded.
-   */
-  private volatile TimetableSnapshot snapshot = null;
 
   /** Should expired real-time data be purged from the graph. */
   private final boolean purgeExpiredData;
@@ -95,8 +80,13 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
   ) {
     this.transitModel = transitModel;
     this.transitService = new DefaultTransitService(transitModel);
-    this.transitLayerUpdater = transitModel.getTransitLayerUpdater();
-    this.snapshotFrequencyThrottle = new CountdownTimer(parameters.maxSnapshotFrequency());
+    this.snapshotManager =
+      new TimetableSnapshotManager(
+        "siri",
+        transitModel.getTransitLayerUpdater(),
+        parameters.maxSnapshotFrequency()
+      );
+    this.buffer = snapshotManager.getBuffer();
     this.purgeExpiredData = parameters.purgeExpiredData();
     this.tripPatternCache =
       new SiriTripPatternCache(tripPatternIdGenerator, transitService::getPatternForTrip);
@@ -104,31 +94,23 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
     transitModel.initTimetableSnapshotProvider(this);
 
     // Force commit so that snapshot initializes
-    commitTimetableSnapshot(true);
+    snapshotManager.lockBuffer();
+    try {
+      snapshotManager.commitTimetableSnapshot(true);
+    } finally {
+      snapshotManager.unlockBuffer();
+    }
   }
 
   /**
    * @return an up-to-date snapshot mapping TripPatterns to Timetables. This snapshot and the
    * timetable objects it references are guaranteed to never change, so the requesting thread is
    * provided a consistent view of all TripTimes. The routing thread need only release its reference
-   * to the snapshot to release resources.
+   * to the snapshot to release resources. This never blocks, the snapshot is committed by the
+   * thread applying the updates.
    */
   public TimetableSnapshot getTimetableSnapshot() {
-    TimetableSnapshot snapshotToReturn;
-
-    // Try to get a lock on the buffer
-    if (bufferLock.tryLock()) {
-      // Make a new snapshot if necessary
-      try {
-        commitTimetableSnapshot(false);
-        return snapshot;
-      } finally {
-        bufferLock.unlock();
-      }
-    }
-    // No lock could be obtained because there is either a snapshot commit busy or updates
-    // are applied at this moment, just return the current snapshot
-    return snapshot;
+    return snapshotManager.getTimetableSnapshot();
   }
 
   /**
@@ -151,7 +133,7 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
     }
 
     // Acquire lock on buffer
-    bufferLock.lock();
+    snapshotManager.lockBuffer();
 
     List<Result<UpdateSuccess, UpdateError>> results = new ArrayList<>();
 
@@ -175,16 +157,15 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
 
       // Make a snapshot after each message in anticipation of incoming requests
       // Purge data if necessary (and force new snapshot if anything was purged)
-      // Make sure that the public (locking) getTimetableSnapshot function is not called.
       if (purgeExpiredData) {
         final boolean modified = purgeExpiredData();
-        commitTimetableSnapshot(modified);
+        snapshotManager.commitTimetableSnapshot(modified);
       } else {
-        commitTimetableSnapshot(false);
+        snapshotManager.commitTimetableSnapshot(false);
       }
     } finally {
       // Always release lock
-      bufferLock.unlock();
+      snapshotManager.unlockBuffer();
     }
     return UpdateResult.ofResults(results);
   }
@@ -247,31 +228,13 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
     return entityResolver.resolveTrip(vehicleJourney) == null;
   }
 
-  private void commitTimetableSnapshot(final boolean force) {
-    if (force || snapshotFrequencyThrottle.timeIsUp()) {
-      if (force || buffer.isDirty()) {
-        LOG.debug("Committing {}", buffer);
-        snapshot = buffer.commit(transitLayerUpdater, force);
-
-        // We only reset the timer when the snapshot is updated. This will cause the first
-        // update to be committed after a silent period. This should not have any effect in
-        // a busy updater. It is however useful when manually testing the updater.
-        snapshotFrequencyThrottle.restart();
-      } else {
-        LOG.debug("Buffer was unchanged, keeping old snapshot.");
-      }
-    } else {
-      LOG.debug("Snapshot frequency exceeded. Reusing snapshot {}", snapshot);
-    }
-  }
-
   /**
    * Get the latest timetable for TripPattern for a given service date.
    * <p>
    * Snapshot timetable is used as source if initialised, trip patterns scheduled timetable if not.
    */
   private Timetable getCurrentTimetable(TripPattern tripPattern, LocalDate serviceDate) {
-    TimetableSnapshot timetableSnapshot = snapshot;
+    TimetableSnapshot timetableSnapshot = snapshotManager.getTimetableSnapshot();
     if (timetableSnapshot != null) {
       return timetableSnapshot.resolve(tripPattern, serviceDate);
     }
@@ -17,6 +17,7 @@ import java.util.Locale;
 import java.util.Objects;
 import java.util.function.Predicate;
 import org.glassfish.grizzly.http.server.Request;
+import org.locationtech.jts.geom.Envelope;
 import org.opentripplanner.apis.support.TileJson;
 import org.opentripplanner.ext.vectortiles.layers.stations.StationsLayerBuilder;
 import org.opentripplanner.ext.vectortiles.layers.stops.StopsLayerBuilder;
@@ -105,6 +106,34 @@ public class VectorTilesResource {
       });
   }
 
+  /**
+   * Render the tiles of the layers with a {@code prerenderMaxZoom}, covering the area of the graph,
+   * and put them in the server side cache. The tiles are rendered for the default locale.
+   *
+   * @return the number of layer tiles rendered.
+   */
+  public static int prerenderTiles(OtpServerRequestContext serverContext) {
+    var worldEnvelope = serverContext.worldEnvelopeService().envelope();
+    if (worldEnvelope.isEmpty()) {
+      return 0;
+    }
+    var lowerLeft = worldEnvelope.get().lowerLeft();
+    var upperRight = worldEnvelope.get().upperRight();
+    var area = new Envelope(
+      lowerLeft.longitude(),
+      upperRight.longitude(),
+      lowerLeft.latitude(),
+      upperRight.latitude()
+    );
+    return VectorTileResponseFactory.prerender(
+      area,
+      serverContext.defaultLocale(),
+      serverContext.vectorTileConfig().layers(),
+      VectorTilesResource::crateLayerBuilder,
+      serverContext
+    );
+  }
+
   private List<FeedInfo> getFeedInfos() {
     return serverContext
       .transitService()
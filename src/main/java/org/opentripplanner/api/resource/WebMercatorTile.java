@@ -19,6 +19,24 @@ public class WebMercatorTile {
     return new Envelope(maxLon, minLon, maxLat, minLat);
   }
 
+  /**
+   * Implements https://wiki.openstreetmap.org/wiki/Slippy_map_tilenames#Lon./lat._to_tile_numbers.
+   */
+  public static int lon2tileX(double lon, int zoom) {
+    int n = 1 << zoom;
+    return Math.clamp((long) Math.floor((lon + 180) / 360 * n), 0, n - 1);
+  }
+
+  /**
+   * Implements https://wiki.openstreetmap.org/wiki/Slippy_map_tilenames#Lon./lat._to_tile_numbers.
+   */
+  public static int lat2tileY(double lat, int zoom) {
+    int n = 1 << zoom;
+    double latRad = Math.toRadians(lat);
+    double y = (1 - Math.log(Math.tan(latRad) + 1 / Math.cos(latRad)) / Math.PI) / 2 * n;
+    return Math.clamp((long) Math.floor(y), 0, n - 1);
+  }
+
   private static double tile2lon(int x, int z) {
     return x / Math.pow(2.0, z) * 360.0 - 180;
   }
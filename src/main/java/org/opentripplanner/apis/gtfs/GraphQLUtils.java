@@ -1,7 +1,9 @@
 package org.opentripplanner.apis.gtfs;
 
+import graphql.schema.DataFetcher;
 import java.time.Instant;
 import java.util.Locale;
+import java.util.concurrent.CompletionStage;
 import org.opentripplanner.apis.gtfs.generated.GraphQLTypes.GraphQLFilterPlaceType;
 import org.opentripplanner.apis.gtfs.generated.GraphQLTypes.GraphQLFormFactor;
 import org.opentripplanner.apis.gtfs.generated.GraphQLTypes.GraphQLInputField;
@@ -102,6 +104,18 @@ public class GraphQLUtils {
     return epochSeconds != 0 ? Instant.ofEpochSecond(epochSeconds) : Instant.now();
   }
 
+  /**
+   * Use a data fetcher returning a {@link CompletionStage} where the generated interfaces expect
+   * a data fetcher returning the value itself. This is safe, graphql-java waits for the completion
+   * stage of a data fetcher before resolving its sub-fields.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> DataFetcher<T> async(
+    DataFetcher<? extends CompletionStage<? extends T>> fetcher
+  ) {
+    return (DataFetcher<T>) (DataFetcher<?>) fetcher;
+  }
+
   public static boolean startsWith(String str, String name, Locale locale) {
     return str != null && str.toLowerCase(locale).startsWith(name);
   }
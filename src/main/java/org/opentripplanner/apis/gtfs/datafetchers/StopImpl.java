@@ -11,11 +11,14 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.opentripplanner.apis.gtfs.GraphQLRequestContext;
 import org.opentripplanner.apis.gtfs.GraphQLUtils;
+import org.opentripplanner.apis.gtfs.dataloaders.GtfsDataLoaders;
+import org.opentripplanner.apis.gtfs.dataloaders.StopOnRouteOrTripAlert;
 import org.opentripplanner.apis.gtfs.generated.GraphQLDataFetchers;
 import org.opentripplanner.apis.gtfs.generated.GraphQLTypes;
 import org.opentripplanner.framework.time.ServiceDateUtils;
@@ -40,44 +43,32 @@ public class StopImpl implements GraphQLDataFetchers.GraphQLStop {
 
   @Override
   public DataFetcher<Iterable<TransitAlert>> alerts() {
-    return environment -> {
+    return GraphQLUtils.async(environment -> {
       TransitAlertService alertService = getTransitService(environment).getTransitAlertService();
       var args = new GraphQLTypes.GraphQLStopAlertsArgs(environment.getArguments());
       List<GraphQLTypes.GraphQLStopAlertType> types = args.getGraphQLTypes();
       FeedScopedId id = getValue(environment, StopLocation::getId, AbstractTransitEntity::getId);
-      if (types != null) {
+      if (types == null) {
+        return CompletableFuture.completedFuture(alertService.getStopAlerts(id));
+      }
+      boolean onRoutes = types.contains(GraphQLTypes.GraphQLStopAlertType.STOP_ON_ROUTES);
+      boolean onTrips = types.contains(GraphQLTypes.GraphQLStopAlertType.STOP_ON_TRIPS);
+
+      // The alerts on a stop for a route or a trip are not indexed, load them in one batch
+      CompletableFuture<List<StopOnRouteOrTripAlert>> stopOnRouteOrTripAlerts = onRoutes ||
+        onTrips
+        ? GtfsDataLoaders.stopOnRouteOrTripAlerts(environment, id)
+        : CompletableFuture.completedFuture(List.of());
+
+      return stopOnRouteOrTripAlerts.thenApply(stopOnAlerts -> {
         Collection<TransitAlert> alerts = new ArrayList<>();
         if (types.contains(GraphQLTypes.GraphQLStopAlertType.STOP)) {
           alerts.addAll(alertService.getStopAlerts(id));
         }
-        if (
-          types.contains(GraphQLTypes.GraphQLStopAlertType.STOP_ON_ROUTES) ||
-          types.contains(GraphQLTypes.GraphQLStopAlertType.STOP_ON_TRIPS)
-        ) {
-          alerts.addAll(
-            alertService
-              .getAllAlerts()
-              .stream()
-              .filter(alert ->
-                alert
-                  .entities()
-                  .stream()
-                  .anyMatch(entity ->
-                    (
-                      types.contains(GraphQLTypes.GraphQLStopAlertType.STOP_ON_ROUTES) &&
-                      entity instanceof StopAndRoute stopAndRoute &&
-                      stopAndRoute.stopId().equals(id)
-                    ) ||
-                    (
-                      types.contains(GraphQLTypes.GraphQLStopAlertType.STOP_ON_TRIPS) &&
-                      entity instanceof EntitySelector.StopAndTrip stopAndTrip &&
-                      stopAndTrip.stopId().equals(id)
-                    )
-                  )
-              )
-              .toList()
-          );
-        }
+        stopOnAlerts
+          .stream()
+          .filter(it -> (onRoutes && it.onRoute()) || (onTrips && it.onTrip()))
+          .forEach(it -> alerts.add(it.alert()));
         if (
           types.contains(GraphQLTypes.GraphQLStopAlertType.PATTERNS) ||
           types.contains(GraphQLTypes.GraphQLStopAlertType.TRIPS)
@@ -114,10 +105,8 @@ public class StopImpl implements GraphQLDataFetchers.GraphQLStop {
             });
         }
         return alerts.stream().distinct().collect(Collectors.toList());
-      } else {
-        return alertService.getStopAlerts(id);
-      }
-    };
+      });
+    });
   }
 
   @Override
@@ -299,32 +288,10 @@ public class StopImpl implements GraphQLDataFetchers.GraphQLStop {
 
   @Override
   public DataFetcher<Iterable<StopTimesInPattern>> stoptimesForPatterns() {
-    return environment -> {
-      TransitService transitService = getTransitService(environment);
+    return GraphQLUtils.async(environment -> {
       var args = new GraphQLTypes.GraphQLStopStoptimesForPatternsArgs(environment.getArguments());
-
-      Function<StopLocation, List<StopTimesInPattern>> stopTFunction = stop ->
-        transitService.stopTimesForStop(
-          stop,
-          GraphQLUtils.getTimeOrNow(args.getGraphQLStartTime()),
-          Duration.ofSeconds(args.getGraphQLTimeRange()),
-          args.getGraphQLNumberOfDepartures(),
-          args.getGraphQLOmitNonPickups() ? ArrivalDeparture.DEPARTURES : ArrivalDeparture.BOTH,
-          !args.getGraphQLOmitCanceled()
-        );
-
-      return getValue(
-        environment,
-        stopTFunction,
-        station ->
-          station
-            .getChildStops()
-            .stream()
-            .map(stopTFunction)
-            .flatMap(Collection::stream)
-            .collect(Collectors.toList())
-      );
-    };
+      return GtfsDataLoaders.stopTimes(environment, getStops(environment), args);
+    });
   }
 
   @Override
@@ -365,34 +332,19 @@ public class StopImpl implements GraphQLDataFetchers.GraphQLStop {
 
   @Override
   public DataFetcher<Iterable<TripTimeOnDate>> stoptimesWithoutPatterns() {
-    return environment -> {
-      TransitService transitService = getTransitService(environment);
+    return GraphQLUtils.async(environment -> {
       var args = new GraphQLTypes.GraphQLStopStoptimesForPatternsArgs(environment.getArguments());
-
-      Function<StopLocation, Stream<StopTimesInPattern>> stopTFunction = stop ->
-        transitService
-          .stopTimesForStop(
-            stop,
-            GraphQLUtils.getTimeOrNow(args.getGraphQLStartTime()),
-            Duration.ofSeconds(args.getGraphQLTimeRange()),
-            args.getGraphQLNumberOfDepartures(),
-            args.getGraphQLOmitNonPickups() ? ArrivalDeparture.DEPARTURES : ArrivalDeparture.BOTH,
-            !args.getGraphQLOmitCanceled()
-          )
-          .stream();
-
-      Stream<StopTimesInPattern> stream = getValue(
-        environment,
-        stopTFunction,
-        station -> station.getChildStops().stream().flatMap(stopTFunction)
-      );
-
-      return stream
-        .flatMap(stoptimesWithPattern -> stoptimesWithPattern.times.stream())
-        .sorted(Comparator.comparing(t -> t.getServiceDayMidnight() + t.getRealtimeDeparture()))
-        .limit(args.getGraphQLNumberOfDepartures())
-        .collect(Collectors.toList());
-    };
+      return GtfsDataLoaders
+        .stopTimes(environment, getStops(environment), args)
+        .thenApply(stopTimes ->
+          stopTimes
+            .stream()
+            .flatMap(stoptimesWithPattern -> stoptimesWithPattern.times.stream())
+            .sorted(Comparator.comparing(t -> t.getServiceDayMidnight() + t.getRealtimeDeparture()))
+            .limit(args.getGraphQLNumberOfDepartures())
+            .collect(Collectors.toList())
+        );
+    });
   }
 
   @Override
@@ -494,6 +446,17 @@ public class StopImpl implements GraphQLDataFetchers.GraphQLStop {
     );
   }
 
+  /**
+   * The stop itself, or the child stops of a station.
+   */
+  private List<StopLocation> getStops(DataFetchingEnvironment environment) {
+    return getValue(
+      environment,
+      stop -> List.of(stop),
+      station -> List.copyOf(station.getChildStops())
+    );
+  }
+
   private TransitService getTransitService(DataFetchingEnvironment environment) {
     return environment.<GraphQLRequestContext>getContext().transitService();
   }
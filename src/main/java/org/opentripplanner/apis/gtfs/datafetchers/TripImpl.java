@@ -6,17 +6,18 @@ import graphql.schema.DataFetchingEnvironment;
 import java.text.ParseException;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.LineString;
 import org.opentripplanner.apis.gtfs.GraphQLRequestContext;
 import org.opentripplanner.apis.gtfs.GraphQLUtils;
+import org.opentripplanner.apis.gtfs.dataloaders.GtfsDataLoaders;
 import org.opentripplanner.apis.gtfs.generated.GraphQLDataFetchers;
 import org.opentripplanner.apis.gtfs.generated.GraphQLTypes;
 import org.opentripplanner.apis.gtfs.generated.GraphQLTypes.GraphQLBikesAllowed;
@@ -26,7 +27,6 @@ import org.opentripplanner.apis.support.SemanticHash;
 import org.opentripplanner.framework.time.ServiceDateUtils;
 import org.opentripplanner.model.Timetable;
 import org.opentripplanner.model.TripTimeOnDate;
-import org.opentripplanner.routing.alertpatch.EntitySelector;
 import org.opentripplanner.routing.alertpatch.TransitAlert;
 import org.opentripplanner.routing.services.TransitAlertService;
 import org.opentripplanner.service.realtimevehicles.RealtimeVehicleService;
@@ -55,11 +55,23 @@ public class TripImpl implements GraphQLDataFetchers.GraphQLTrip {
 
   @Override
   public DataFetcher<Iterable<TransitAlert>> alerts() {
-    return environment -> {
+    return GraphQLUtils.async(environment -> {
       TransitAlertService alertService = getTransitService(environment).getTransitAlertService();
       var args = new GraphQLTypes.GraphQLTripAlertsArgs(environment.getArguments());
       List<GraphQLTypes.GraphQLTripAlertType> types = args.getGraphQLTypes();
-      if (types != null) {
+      if (types == null) {
+        return CompletableFuture.completedFuture(
+          alertService.getTripAlerts(getSource(environment).getId(), null)
+        );
+      }
+
+      // The alerts on a stop for a route or a trip are not indexed, load them in one batch
+      boolean onStops = types.contains(GraphQLTypes.GraphQLTripAlertType.STOPS_ON_TRIP);
+      CompletableFuture<List<TransitAlert>> stopOnTripAlerts = onStops
+        ? GtfsDataLoaders.tripStopAlerts(environment, getSource(environment))
+        : CompletableFuture.completedFuture(List.of());
+
+      return stopOnTripAlerts.thenApply(stopAlerts -> {
         Collection<TransitAlert> alerts = new ArrayList<>();
         types.forEach(type -> {
           switch (type) {
@@ -93,27 +105,7 @@ public class TripImpl implements GraphQLDataFetchers.GraphQLTrip {
               );
               break;
             case STOPS_ON_TRIP:
-              alerts.addAll(
-                alertService
-                  .getAllAlerts()
-                  .stream()
-                  .filter(alert ->
-                    alert
-                      .entities()
-                      .stream()
-                      .anyMatch(entity ->
-                        (
-                          entity instanceof EntitySelector.StopAndRoute stopAndRoute &&
-                          stopAndRoute.routeId().equals(getRoute(environment).getId())
-                        ) ||
-                        (
-                          entity instanceof EntitySelector.StopAndTrip stopAndTrip &&
-                          stopAndTrip.tripId().equals(getSource(environment).getId())
-                        )
-                      )
-                  )
-                  .toList()
-              );
+              alerts.addAll(stopAlerts);
               getStops(environment)
                 .forEach(stop -> {
                   FeedScopedId stopId = ((StopLocation) stop).getId();
@@ -123,10 +115,8 @@ public class TripImpl implements GraphQLDataFetchers.GraphQLTrip {
           }
         });
         return alerts.stream().distinct().collect(Collectors.toList());
-      } else {
-        return alertService.getTripAlerts(getSource(environment).getId(), null);
-      }
-    };
+      });
+    });
   }
 
   @Override
@@ -300,44 +290,26 @@ public class TripImpl implements GraphQLDataFetchers.GraphQLTrip {
 
   @Override
   public DataFetcher<Iterable<TripTimeOnDate>> stoptimes() {
-    return environment -> {
-      TripPattern tripPattern = getTripPattern(environment);
-      if (tripPattern == null) {
-        return List.of();
-      }
-      return TripTimeOnDate.fromTripTimes(
-        tripPattern.getScheduledTimetable(),
-        getSource(environment)
-      );
-    };
+    return GraphQLUtils.async(environment ->
+      GtfsDataLoaders.tripStopTimes(environment, getSource(environment), null)
+    );
   }
 
   @Override
   public DataFetcher<Iterable<TripTimeOnDate>> stoptimesForDate() {
-    return environment -> {
+    return GraphQLUtils.async(environment -> {
+      LocalDate serviceDate;
       try {
-        TransitService transitService = getTransitService(environment);
-        Trip trip = getSource(environment);
         var args = new GraphQLTypes.GraphQLTripStoptimesForDateArgs(environment.getArguments());
-
-        ZoneId timeZone = transitService.getTimeZone();
-        LocalDate serviceDate = args.getGraphQLServiceDate() != null
-          ? ServiceDateUtils.parseString(args.getGraphQLServiceDate())
-          : LocalDate.now(timeZone);
-
-        TripPattern tripPattern = transitService.getPatternForTrip(trip, serviceDate);
-        // no matching pattern found
-        if (tripPattern == null) {
-          return List.of();
-        }
-
-        Instant midnight = ServiceDateUtils.asStartOfService(serviceDate, timeZone).toInstant();
-        Timetable timetable = transitService.getTimetableForTripPattern(tripPattern, serviceDate);
-        return TripTimeOnDate.fromTripTimes(timetable, trip, serviceDate, midnight);
+        serviceDate =
+          args.getGraphQLServiceDate() != null
+            ? ServiceDateUtils.parseString(args.getGraphQLServiceDate())
+            : LocalDate.now(getTransitService(environment).getTimeZone());
       } catch (ParseException e) {
-        return null; // Invalid date format
+        return CompletableFuture.completedFuture(null); // Invalid date format
       }
-    };
+      return GtfsDataLoaders.tripStopTimes(environment, getSource(environment), serviceDate);
+    });
   }
 
   @Override
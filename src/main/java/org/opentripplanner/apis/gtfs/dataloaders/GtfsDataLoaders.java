@@ -0,0 +1,126 @@
+package org.opentripplanner.apis.gtfs.dataloaders;
+
+import graphql.schema.DataFetchingEnvironment;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javax.annotation.Nullable;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderFactory;
+import org.dataloader.DataLoaderRegistry;
+import org.opentripplanner.apis.gtfs.generated.GraphQLTypes;
+import org.opentripplanner.model.StopTimesInPattern;
+import org.opentripplanner.model.TripTimeOnDate;
+import org.opentripplanner.routing.alertpatch.TransitAlert;
+import org.opentripplanner.transit.model.framework.FeedScopedId;
+import org.opentripplanner.transit.model.site.StopLocation;
+import org.opentripplanner.transit.model.timetable.Trip;
+import org.opentripplanner.transit.service.TransitService;
+
+/**
+ * The data loaders used by the GTFS GraphQL API. A data loader collects the keys requested by the
+ * data fetchers on the same level of the query, and loads them all in one batch. This is used for
+ * fields which are expensive to resolve one by one, like the stop times of all stops returned by
+ * a nearest or a stops-by-bbox query, or the stop times of all trips of a route.
+ * <p>
+ * A new registry must be created for each request, the loaded values are cached for the duration
+ * of the request.
+ */
+public final class GtfsDataLoaders {
+
+  private static final String STOP_TIMES = "stopTimes";
+  private static final String STOP_ALERTS = "stopAlerts";
+  private static final String TRIP_STOP_TIMES = "tripStopTimes";
+  private static final String TRIP_STOP_ALERTS = "tripStopAlerts";
+
+  private GtfsDataLoaders() {}
+
+  public static DataLoaderRegistry createRegistry(TransitService transitService) {
+    return DataLoaderRegistry
+      .newRegistry()
+      .register(
+        STOP_TIMES,
+        DataLoaderFactory.newDataLoader(new StopTimesBatchLoader(transitService))
+      )
+      .register(
+        STOP_ALERTS,
+        DataLoaderFactory.newDataLoader(new StopAlertsBatchLoader(transitService))
+      )
+      .register(
+        TRIP_STOP_TIMES,
+        DataLoaderFactory.newDataLoader(new TripStopTimesBatchLoader(transitService))
+      )
+      .register(
+        TRIP_STOP_ALERTS,
+        DataLoaderFactory.newDataLoader(new TripStopAlertsBatchLoader(transitService))
+      )
+      .build();
+  }
+
+  /**
+   * Load the upcoming stop times for the given stops, using the arguments of the
+   * {@code stoptimesForPatterns} and {@code stoptimesWithoutPatterns} fields.
+   */
+  public static CompletableFuture<List<StopTimesInPattern>> stopTimes(
+    DataFetchingEnvironment environment,
+    Collection<? extends StopLocation> stops,
+    GraphQLTypes.GraphQLStopStoptimesForPatternsArgs args
+  ) {
+    var parameters = new StopTimesBatchLoader.Parameters(
+      args.getGraphQLStartTime(),
+      args.getGraphQLTimeRange(),
+      args.getGraphQLNumberOfDepartures(),
+      args.getGraphQLOmitNonPickups(),
+      args.getGraphQLOmitCanceled()
+    );
+    var keys = stops
+      .stream()
+      .map(stop -> new StopTimesBatchLoader.Key(stop, parameters))
+      .toList();
+
+    DataLoader<StopTimesBatchLoader.Key, List<StopTimesInPattern>> loader =
+      environment.getDataLoader(STOP_TIMES);
+    return loader
+      .loadMany(keys)
+      .thenApply(result -> result.stream().flatMap(Collection::stream).toList());
+  }
+
+  /**
+   * Load the alerts on the given stop for a route or a trip.
+   */
+  public static CompletableFuture<List<StopOnRouteOrTripAlert>> stopOnRouteOrTripAlerts(
+    DataFetchingEnvironment environment,
+    FeedScopedId stopId
+  ) {
+    DataLoader<FeedScopedId, List<StopOnRouteOrTripAlert>> loader = environment.getDataLoader(
+      STOP_ALERTS
+    );
+    return loader.load(stopId);
+  }
+
+  /**
+   * Load the stop times of the given trip. If the service date is {@code null}, the scheduled stop
+   * times are loaded, otherwise the stop times on the given date, including real-time updates.
+   */
+  public static CompletableFuture<List<TripTimeOnDate>> tripStopTimes(
+    DataFetchingEnvironment environment,
+    Trip trip,
+    @Nullable LocalDate serviceDate
+  ) {
+    DataLoader<TripStopTimesBatchLoader.Key, List<TripTimeOnDate>> loader =
+      environment.getDataLoader(TRIP_STOP_TIMES);
+    return loader.load(new TripStopTimesBatchLoader.Key(trip, serviceDate));
+  }
+
+  /**
+   * Load the alerts on a stop for the route of the given trip, or for the trip itself.
+   */
+  public static CompletableFuture<List<TransitAlert>> tripStopAlerts(
+    DataFetchingEnvironment environment,
+    Trip trip
+  ) {
+    DataLoader<Trip, List<TransitAlert>> loader = environment.getDataLoader(TRIP_STOP_ALERTS);
+    return loader.load(trip);
+  }
+}
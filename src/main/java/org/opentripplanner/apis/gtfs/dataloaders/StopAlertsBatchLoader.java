@@ -0,0 +1,68 @@
+package org.opentripplanner.apis.gtfs.dataloaders;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.dataloader.BatchLoader;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
+import org.opentripplanner.routing.alertpatch.TransitAlert;
+import org.opentripplanner.transit.model.framework.FeedScopedId;
+import org.opentripplanner.transit.service.TransitService;
+
+/**
+ * Load the alerts for a stop on a given route or trip. These alerts are not indexed by stop, so
+ * all alerts must be searched. The batch loader searches all alerts once for all stops in the
+ * batch, instead of once for each stop.
+ */
+class StopAlertsBatchLoader implements BatchLoader<FeedScopedId, List<StopOnRouteOrTripAlert>> {
+
+  private final TransitService transitService;
+
+  StopAlertsBatchLoader(TransitService transitService) {
+    this.transitService = transitService;
+  }
+
+  @Override
+  public CompletionStage<List<List<StopOnRouteOrTripAlert>>> load(List<FeedScopedId> stopIds) {
+    Set<FeedScopedId> ids = new HashSet<>(stopIds);
+    Map<FeedScopedId, List<StopOnRouteOrTripAlert>> alertsByStop = new HashMap<>();
+
+    for (TransitAlert alert : transitService.getTransitAlertService().getAllAlerts()) {
+      // The same alert may be on more than one stop, and on the same stop more than once
+      Map<FeedScopedId, StopOnRouteOrTripAlert> alertByStop = new HashMap<>();
+      for (EntitySelector entity : alert.entities()) {
+        if (entity instanceof EntitySelector.StopAndRoute stopAndRoute) {
+          if (ids.contains(stopAndRoute.stopId())) {
+            alertByStop.merge(
+              stopAndRoute.stopId(),
+              new StopOnRouteOrTripAlert(alert, true, false),
+              StopOnRouteOrTripAlert::merge
+            );
+          }
+        } else if (entity instanceof EntitySelector.StopAndTrip stopAndTrip) {
+          if (ids.contains(stopAndTrip.stopId())) {
+            alertByStop.merge(
+              stopAndTrip.stopId(),
+              new StopOnRouteOrTripAlert(alert, false, true),
+              StopOnRouteOrTripAlert::merge
+            );
+          }
+        }
+      }
+      alertByStop.forEach((stopId, it) ->
+        alertsByStop.computeIfAbsent(stopId, id -> new ArrayList<>()).add(it)
+      );
+    }
+
+    var values = new ArrayList<List<StopOnRouteOrTripAlert>>(stopIds.size());
+    for (FeedScopedId stopId : stopIds) {
+      values.add(alertsByStop.getOrDefault(stopId, List.of()));
+    }
+    return CompletableFuture.completedFuture(values);
+  }
+}
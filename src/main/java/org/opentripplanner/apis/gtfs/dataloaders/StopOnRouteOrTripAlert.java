@@ -0,0 +1,12 @@
+package org.opentripplanner.apis.gtfs.dataloaders;
+
+import org.opentripplanner.routing.alertpatch.TransitAlert;
+
+/**
+ * An alert on a stop for a given route and/or for a given trip.
+ */
+public record StopOnRouteOrTripAlert(TransitAlert alert, boolean onRoute, boolean onTrip) {
+  StopOnRouteOrTripAlert merge(StopOnRouteOrTripAlert other) {
+    return new StopOnRouteOrTripAlert(alert, onRoute || other.onRoute, onTrip || other.onTrip);
+  }
+}
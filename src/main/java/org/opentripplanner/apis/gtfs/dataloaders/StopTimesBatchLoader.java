@@ -0,0 +1,78 @@
+package org.opentripplanner.apis.gtfs.dataloaders;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.dataloader.BatchLoader;
+import org.opentripplanner.apis.gtfs.GraphQLUtils;
+import org.opentripplanner.model.StopTimesInPattern;
+import org.opentripplanner.routing.stoptimes.ArrivalDeparture;
+import org.opentripplanner.transit.model.site.StopLocation;
+import org.opentripplanner.transit.service.TransitService;
+
+/**
+ * Load the upcoming stop times for many stops in one pass over the patterns, using
+ * {@link TransitService#stopTimesForStops}. The keys are grouped by the search parameters, so
+ * stops queried with different arguments are searched separately.
+ * <p>
+ * A start time of {@code 0} means "now". Now is resolved once for each batch, not for each stop,
+ * so all stops in a batch are searched from the same time.
+ */
+class StopTimesBatchLoader
+  implements BatchLoader<StopTimesBatchLoader.Key, List<StopTimesInPattern>> {
+
+  private final TransitService transitService;
+
+  StopTimesBatchLoader(TransitService transitService) {
+    this.transitService = transitService;
+  }
+
+  @Override
+  public CompletionStage<List<List<StopTimesInPattern>>> load(List<Key> keys) {
+    Map<Parameters, Set<StopLocation>> stopsByParameters = new LinkedHashMap<>();
+    for (Key key : keys) {
+      stopsByParameters.computeIfAbsent(key.parameters, p -> new LinkedHashSet<>()).add(key.stop);
+    }
+
+    Map<Parameters, Map<StopLocation, List<StopTimesInPattern>>> results = new LinkedHashMap<>();
+    stopsByParameters.forEach((p, stops) ->
+      results.put(
+        p,
+        transitService.stopTimesForStops(
+          stops,
+          GraphQLUtils.getTimeOrNow(p.startTime),
+          Duration.ofSeconds(p.timeRange),
+          p.numberOfDepartures,
+          p.omitNonPickups ? ArrivalDeparture.DEPARTURES : ArrivalDeparture.BOTH,
+          !p.omitCanceled
+        )
+      )
+    );
+
+    var values = new ArrayList<List<StopTimesInPattern>>(keys.size());
+    for (Key key : keys) {
+      values.add(results.get(key.parameters).get(key.stop));
+    }
+    return CompletableFuture.completedFuture(values);
+  }
+
+  /**
+   * The stop times search parameters, the same as the arguments of the stop times fields in the
+   * GraphQL schema.
+   */
+  record Parameters(
+    long startTime,
+    int timeRange,
+    int numberOfDepartures,
+    boolean omitNonPickups,
+    boolean omitCanceled
+  ) {}
+
+  record Key(StopLocation stop, Parameters parameters) {}
+}
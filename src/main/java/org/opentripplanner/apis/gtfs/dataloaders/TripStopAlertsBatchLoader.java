@@ -0,0 +1,72 @@
+package org.opentripplanner.apis.gtfs.dataloaders;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.dataloader.BatchLoader;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
+import org.opentripplanner.routing.alertpatch.TransitAlert;
+import org.opentripplanner.transit.model.framework.FeedScopedId;
+import org.opentripplanner.transit.model.timetable.Trip;
+import org.opentripplanner.transit.service.TransitService;
+
+/**
+ * Load the alerts on a stop for the route of a trip, or for the trip itself. These alerts are not
+ * indexed by route or trip, so all alerts must be searched. The batch loader searches all alerts
+ * once for all trips in the batch, instead of once for each trip.
+ */
+class TripStopAlertsBatchLoader implements BatchLoader<Trip, List<TransitAlert>> {
+
+  private final TransitService transitService;
+
+  TripStopAlertsBatchLoader(TransitService transitService) {
+    this.transitService = transitService;
+  }
+
+  @Override
+  public CompletionStage<List<List<TransitAlert>>> load(List<Trip> trips) {
+    Set<FeedScopedId> routeIds = new HashSet<>();
+    Set<FeedScopedId> tripIds = new HashSet<>();
+    for (Trip trip : trips) {
+      routeIds.add(trip.getRoute().getId());
+      tripIds.add(trip.getId());
+    }
+
+    Map<FeedScopedId, Set<TransitAlert>> alertsByRoute = new HashMap<>();
+    Map<FeedScopedId, Set<TransitAlert>> alertsByTrip = new HashMap<>();
+
+    for (TransitAlert alert : transitService.getTransitAlertService().getAllAlerts()) {
+      for (EntitySelector entity : alert.entities()) {
+        if (entity instanceof EntitySelector.StopAndRoute stopAndRoute) {
+          if (routeIds.contains(stopAndRoute.routeId())) {
+            alertsByRoute
+              .computeIfAbsent(stopAndRoute.routeId(), id -> new LinkedHashSet<>())
+              .add(alert);
+          }
+        } else if (entity instanceof EntitySelector.StopAndTrip stopAndTrip) {
+          if (tripIds.contains(stopAndTrip.tripId())) {
+            alertsByTrip
+              .computeIfAbsent(stopAndTrip.tripId(), id -> new LinkedHashSet<>())
+              .add(alert);
+          }
+        }
+      }
+    }
+
+    var values = new ArrayList<List<TransitAlert>>(trips.size());
+    for (Trip trip : trips) {
+      // Keep the order of the alerts, an alert may be on both the route and the trip
+      Set<TransitAlert> alerts = new LinkedHashSet<>();
+      alerts.addAll(alertsByRoute.getOrDefault(trip.getRoute().getId(), Set.of()));
+      alerts.addAll(alertsByTrip.getOrDefault(trip.getId(), Set.of()));
+      values.add(List.copyOf(alerts));
+    }
+    return CompletableFuture.completedFuture(values);
+  }
+}
@@ -0,0 +1,75 @@
+package org.opentripplanner.apis.gtfs.dataloaders;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import javax.annotation.Nullable;
+import org.dataloader.BatchLoader;
+import org.opentripplanner.framework.time.ServiceDateUtils;
+import org.opentripplanner.model.Timetable;
+import org.opentripplanner.model.TripTimeOnDate;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.timetable.Trip;
+import org.opentripplanner.transit.service.TransitService;
+
+/**
+ * Load the stop times of many trips. The trips are grouped by pattern and service date, so the
+ * timetable of each pattern, which for real-time updated patterns is resolved by searching the
+ * timetables of the pattern, is only looked up once for each batch. The start of service is also
+ * computed once for each service date.
+ * <p>
+ * A key without a service date loads the scheduled stop times of the trip.
+ */
+class TripStopTimesBatchLoader
+  implements BatchLoader<TripStopTimesBatchLoader.Key, List<TripTimeOnDate>> {
+
+  private final TransitService transitService;
+
+  TripStopTimesBatchLoader(TransitService transitService) {
+    this.transitService = transitService;
+  }
+
+  @Override
+  public CompletionStage<List<List<TripTimeOnDate>>> load(List<Key> keys) {
+    Map<PatternOnDate, Timetable> timetables = new HashMap<>();
+    Map<LocalDate, Instant> midnights = new HashMap<>();
+
+    var values = new ArrayList<List<TripTimeOnDate>>(keys.size());
+    for (Key key : keys) {
+      if (key.serviceDate == null) {
+        TripPattern pattern = transitService.getPatternForTrip(key.trip);
+        values.add(
+          pattern == null
+            ? List.of()
+            : TripTimeOnDate.fromTripTimes(pattern.getScheduledTimetable(), key.trip)
+        );
+        continue;
+      }
+      TripPattern pattern = transitService.getPatternForTrip(key.trip, key.serviceDate);
+      // no matching pattern found
+      if (pattern == null) {
+        values.add(List.of());
+        continue;
+      }
+      Timetable timetable = timetables.computeIfAbsent(
+        new PatternOnDate(pattern, key.serviceDate),
+        it -> transitService.getTimetableForTripPattern(it.pattern, it.serviceDate)
+      );
+      Instant midnight = midnights.computeIfAbsent(
+        key.serviceDate,
+        date -> ServiceDateUtils.asStartOfService(date, transitService.getTimeZone()).toInstant()
+      );
+      values.add(TripTimeOnDate.fromTripTimes(timetable, key.trip, key.serviceDate, midnight));
+    }
+    return CompletableFuture.completedFuture(values);
+  }
+
+  record Key(Trip trip, @Nullable LocalDate serviceDate) {}
+
+  private record PatternOnDate(TripPattern pattern, LocalDate serviceDate) {}
+}
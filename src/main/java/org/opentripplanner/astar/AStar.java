@@ -11,6 +11,7 @@ import javax.annotation.Nonnull;
 import org.opentripplanner.astar.model.BinHeap;
 import org.opentripplanner.astar.model.GraphPath;
 import org.opentripplanner.astar.model.ShortestPathTree;
+import org.opentripplanner.astar.model.VertexStateTable;
 import org.opentripplanner.astar.spi.AStarEdge;
 import org.opentripplanner.astar.spi.AStarState;
 import org.opentripplanner.astar.spi.AStarVertex;
@@ -64,7 +65,8 @@ public class AStar<
     SearchTerminationStrategy<State> terminationStrategy,
     DominanceFunction<State> dominanceFunction,
     @Nonnull Duration timeout,
-    Collection<State> initialStates
+    Collection<State> initialStates,
+    VertexStateTable<Vertex, State> stateTable
   ) {
     this.heuristic = heuristic;
     this.skipEdgeStrategy = skipEdgeStrategy;
@@ -75,7 +77,7 @@ public class AStar<
     this.terminationStrategy = terminationStrategy;
     this.timeout = Objects.requireNonNull(timeout);
 
-    this.spt = new ShortestPathTree<>(dominanceFunction);
+    this.spt = new ShortestPathTree<>(dominanceFunction, stateTable);
 
     // Initialized with a reasonable size, see #4445
     this.pq = new BinHeap<>(1000);
@@ -88,20 +90,63 @@ public class AStar<
     }
   }
 
+  /**
+   * Run the search and return the shortest path tree. The caller must release the tree, unless
+   * the search fails; then it is released here.
+   */
   ShortestPathTree<State, Edge, Vertex> getShortestPathTree() {
-    runSearch();
-
+    try {
+      runSearch();
+    } catch (RuntimeException | Error e) {
+      spt.release();
+      throw e;
+    }
     return spt;
   }
 
+  /**
+   * Run the search and return the paths to the target. The shortest path tree is not exposed, so
+   * it is released when the paths are created.
+   */
   List<GraphPath<State, Edge, Vertex>> getPathsToTarget() {
-    runSearch();
+    try {
+      runSearch();
+
+      return targetAcceptedStates
+        .stream()
+        .filter(State::isFinal)
+        .map(GraphPath::new)
+        .collect(Collectors.toList());
+    } finally {
+      spt.release();
+    }
+  }
+
+  /* Single step access to the search, used by the {@link BidirectionalAStar}. */
+
+  boolean hasNext() {
+    return !pq.empty();
+  }
+
+  double peekMinKey() {
+    return pq.peek_min_key();
+  }
 
-    return targetAcceptedStates
-      .stream()
-      .filter(State::isFinal)
-      .map(GraphPath::new)
-      .collect(Collectors.toList());
+  /**
+   * Visit the next state in the queue and add the adjacent states to the queue.
+   *
+   * @return the visited state, or {@code null} if the state was dominated and not visited.
+   */
+  State step() {
+    return iterate() ? u : null;
+  }
+
+  int nVisited() {
+    return nVisited;
+  }
+
+  ShortestPathTree<State, Edge, Vertex> shortestPathTree() {
+    return spt;
   }
 
   private boolean iterate() {
@@ -140,6 +185,11 @@ public class AStar<
         continue;
       }
 
+      // Do not create states which are dominated by the states already at the target vertex
+      if (spt.isTraversalDominated(u, edge, arriveBy ? edge.getFromVertex() : edge.getToVertex())) {
+        continue;
+      }
+
       // Iterate over traversal results. When an edge leads nowhere (as indicated by
       // returning an empty array), the iteration is over.
       var states = edge.traverse(u);
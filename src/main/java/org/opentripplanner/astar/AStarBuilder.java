@@ -9,6 +9,7 @@ import java.util.Set;
 import javax.annotation.Nonnull;
 import org.opentripplanner.astar.model.GraphPath;
 import org.opentripplanner.astar.model.ShortestPathTree;
+import org.opentripplanner.astar.model.VertexStateTable;
 import org.opentripplanner.astar.spi.AStarEdge;
 import org.opentripplanner.astar.spi.AStarState;
 import org.opentripplanner.astar.spi.AStarVertex;
@@ -36,6 +37,8 @@ public abstract class AStarBuilder<
   private DominanceFunction<State> dominanceFunction;
   private Edge originBackEdge;
   private Collection<State> initialStates;
+  private boolean pooledStorage = false;
+  private boolean bidirectional = false;
 
   protected AStarBuilder() {}
 
@@ -111,15 +114,87 @@ public abstract class AStarBuilder<
     return builder;
   }
 
+  /**
+   * Reuse pooled state storage for the {@link ShortestPathTree} returned by
+   * {@link #getShortestPathTree()}, instead of allocating new storage, see
+   * {@link VertexStateTable#acquire()}. The caller must call {@link ShortestPathTree#release()}
+   * when done with the tree, in a {@code finally} block. This is only needed for the tree,
+   * {@link #getPathsToTarget()} always reuses the storage.
+   */
+  public Builder setPooledStorage(boolean pooledStorage) {
+    this.pooledStorage = pooledStorage;
+    return builder;
+  }
+
+  /**
+   * Search from both the origin and the destination in {@link #getPathsToTarget()}, see
+   * {@link BidirectionalAStar}. This is only used when the search starts at the origin vertices,
+   * not at the given initial states, and without a termination strategy. If the paths can not be
+   * created from the bidirectional search, a normal search is done.
+   */
+  public Builder setBidirectional(boolean bidirectional) {
+    this.bidirectional = bidirectional;
+    return builder;
+  }
+
   public ShortestPathTree<State, Edge, Vertex> getShortestPathTree() {
-    return build().getShortestPathTree();
+    return build(pooledStorage).getShortestPathTree();
   }
 
   public List<GraphPath<State, Edge, Vertex>> getPathsToTarget() {
-    return build().getPathsToTarget();
+    if (useBidirectionalSearch()) {
+      var paths = buildBidirectional().getPathsToTarget();
+      if (paths != null) {
+        return paths;
+      }
+    }
+    return build(true).getPathsToTarget();
   }
 
-  private AStar<State, Edge, Vertex> build() {
+  private boolean useBidirectionalSearch() {
+    return (
+      bidirectional &&
+      supportsBidirectionalSearch() &&
+      initialStates == null &&
+      terminationStrategy == null &&
+      fromVertices != null &&
+      !fromVertices.isEmpty() &&
+      toVertices != null &&
+      !toVertices.isEmpty()
+    );
+  }
+
+  private BidirectionalAStar<State, Edge, Vertex> buildBidirectional() {
+    final Set<Vertex> origin = arriveBy ? toVertices : fromVertices;
+    final Set<Vertex> destination = arriveBy ? fromVertices : toVertices;
+
+    // The reverse search starts at the destination and searches in the opposite direction
+    Collection<State> reverseInitialStates = createInitialStates(destination, !arriveBy);
+    prepareInitialStates(reverseInitialStates);
+    RemainingWeightHeuristic<State> reverseHeuristic = createReverseHeuristic(heuristic);
+    initializeHeuristic(reverseHeuristic, destination, origin, !arriveBy);
+
+    var dominance = Optional
+      .ofNullable(dominanceFunction)
+      .orElseGet(this::createDefaultDominanceFunction);
+
+    var reverse = new AStar<>(
+      reverseHeuristic,
+      skipEdgeStrategy,
+      null,
+      !arriveBy,
+      destination,
+      origin,
+      null,
+      dominance,
+      streetRoutingTimeout(),
+      reverseInitialStates,
+      new VertexStateTable<Vertex, State>()
+    );
+    return new BidirectionalAStar<>(build(true), reverse, streetRoutingTimeout());
+  }
+
+  private AStar<State, Edge, Vertex> build(boolean pooledStorage) {
     final Set<Vertex> origin = arriveBy ? toVertices : fromVertices;
     final Set<Vertex> destination = arriveBy ? fromVertices : toVertices;
 
@@ -128,7 +203,7 @@ public abstract class AStarBuilder<
     if (this.initialStates != null) {
       initialStates = this.initialStates;
     } else {
-      initialStates = createInitialStates(origin);
+      initialStates = createInitialStates(origin, arriveBy);
 
       if (originBackEdge != null) {
         for (var state : initialStates) {
@@ -150,11 +225,15 @@ public abstract class AStarBuilder<
       terminationStrategy,
       Optional.ofNullable(dominanceFunction).orElseGet(this::createDefaultDominanceFunction),
       streetRoutingTimeout(),
-      initialStates
+      initialStates,
+      pooledStorage ? VertexStateTable.acquire() : new VertexStateTable<>()
     );
   }
 
-  protected abstract Collection<State> createInitialStates(Set<Vertex> originVertices);
+  protected abstract Collection<State> createInitialStates(
+    Set<Vertex> originVertices,
+    boolean arriveBy
+  );
 
   protected abstract void prepareInitialStates(Collection<State> initialStates);
 
@@ -165,5 +244,27 @@ public abstract class AStarBuilder<
     boolean arriveBy
   );
 
+  /**
+   * Create a new heuristic of the same kind as the given one, for the reverse search of the
+   * bidirectional search. The heuristic is initialized with {@link #initializeHeuristic}. The
+   * default is the trivial heuristic.
+   */
+  @SuppressWarnings("unchecked")
+  protected RemainingWeightHeuristic<State> createReverseHeuristic(
+    RemainingWeightHeuristic<State> heuristic
+  ) {
+    return RemainingWeightHeuristic.TRIVIAL;
+  }
+
   protected abstract DominanceFunction<State> createDefaultDominanceFunction();
+
+  /**
+   * Return true if the request can be searched with the {@link BidirectionalAStar}. The
+   * bidirectional search joins the forward and reverse states by weight, so it should only be used
+   * if the state of a path does not change in a way the reverse search can not predict. The
+   * default is true.
+   */
+  protected boolean supportsBidirectionalSearch() {
+    return true;
+  }
 }
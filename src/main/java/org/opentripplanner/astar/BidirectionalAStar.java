@@ -0,0 +1,172 @@
+package org.opentripplanner.astar;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.opentripplanner.astar.model.GraphPath;
+import org.opentripplanner.astar.spi.AStarEdge;
+import org.opentripplanner.astar.spi.AStarState;
+import org.opentripplanner.astar.spi.AStarVertex;
+import org.opentripplanner.framework.application.OTPRequestTimeoutException;
+import org.opentripplanner.framework.time.DateUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Find the shortest path between two sets of vertices by running an A* search from the origin and
+ * a reverse A* search from the destination at the same time, until the two meet. For long trips
+ * the two searches together visit far fewer vertices than a single search.
+ * <p>
+ * The queue with the lowest minimum key is expanded in each step. When a state is visited, the
+ * states of the other search at the same vertex are candidates for the shortest path. The search
+ * stops when the minimum key of one of the queues is larger than or equal to the weight of the
+ * best candidate: with admissible heuristics no better path can be found after that (the
+ * "symmetric approach").
+ * <p>
+ * The path is created by traversing the edges of the reverse search again, starting with the state
+ * of the forward search. This gives the same time and weight as a unidirectional search, and makes
+ * sure the edges are traversable in the main search direction. If this fails, {@code null} is
+ * returned, and the caller should fall back to a unidirectional search.
+ */
+class BidirectionalAStar<
+  State extends AStarState<State, Edge, Vertex>,
+  Edge extends AStarEdge<State, Edge, Vertex>,
+  Vertex extends AStarVertex<State, Edge, Vertex>
+> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BidirectionalAStar.class);
+
+  private final AStar<State, Edge, Vertex> forward;
+  private final AStar<State, Edge, Vertex> reverse;
+  private final Duration timeout;
+
+  private State bestForward;
+  private State bestReverse;
+  private double bestWeight = Double.POSITIVE_INFINITY;
+  private boolean aborted = false;
+
+  BidirectionalAStar(
+    AStar<State, Edge, Vertex> forward,
+    AStar<State, Edge, Vertex> reverse,
+    @Nonnull Duration timeout
+  ) {
+    this.forward = forward;
+    this.reverse = reverse;
+    this.timeout = Objects.requireNonNull(timeout);
+  }
+
+  /**
+   * Run the search and return the paths to the target, or {@code null} if the searches did not
+   * meet, or the path could not be created in the main search direction.
+   */
+  @Nullable
+  List<GraphPath<State, Edge, Vertex>> getPathsToTarget() {
+    try {
+      runSearch();
+
+      // If the searches did not meet on the same plane, let the caller search again
+      if (bestForward == null) {
+        return aborted ? List.of() : null;
+      }
+      State target = join(bestForward, bestReverse);
+      return target == null ? null : List.of(new GraphPath<>(target));
+    } finally {
+      forward.shortestPathTree().release();
+      reverse.shortestPathTree().release();
+    }
+  }
+
+  private void runSearch() {
+    OTPRequestTimeoutException.checkForTimeout();
+    long abortTime = DateUtils.absoluteTimeout(timeout);
+    int nSteps = 0;
+
+    while (forward.hasNext() && reverse.hasNext()) {
+      double forwardKey = forward.peekMinKey();
+      double reverseKey = reverse.peekMinKey();
+      if (forwardKey >= bestWeight || reverseKey >= bestWeight) {
+        break;
+      }
+
+      // See AStar#runSearch, the time is only checked every 100 steps
+      if (++nSteps % 100 == 0 && System.currentTimeMillis() > abortTime) {
+        LOG.warn("Bidirectional search timeout.");
+        forward.shortestPathTree().setAborted();
+        reverse.shortestPathTree().setAborted();
+        aborted = true;
+        break;
+      }
+
+      if (forwardKey <= reverseKey) {
+        State u = forward.step();
+        if (u != null) {
+          meet(u, reverse, true);
+        }
+      } else {
+        State u = reverse.step();
+        if (u != null) {
+          meet(u, forward, false);
+        }
+      }
+    }
+    LOG.debug(
+      "total vertices visited {} forward, {} reverse",
+      forward.nVisited(),
+      reverse.nVisited()
+    );
+  }
+
+  /**
+   * Check the states of the other search at the vertex of the visited state {@code u}, and keep
+   * the best pair. Only states on the same plane as {@code u} can be joined, see
+   * {@link org.opentripplanner.astar.spi.DominanceFunction#isOnSamePlane}.
+   */
+  private void meet(State u, AStar<State, Edge, Vertex> other, boolean isForward) {
+    var spt = other.shortestPathTree();
+    List<State> states = spt.getStates(u.getVertex());
+    if (states == null) {
+      return;
+    }
+    for (State s : states) {
+      if (!spt.dominanceFunction.isOnSamePlane(u, s)) {
+        continue;
+      }
+      double weight = u.getWeight() + s.getWeight();
+      if (weight < bestWeight) {
+        bestWeight = weight;
+        bestForward = isForward ? u : s;
+        bestReverse = isForward ? s : u;
+      }
+    }
+  }
+
+  /**
+   * Continue the forward state along the edges of the reverse state, back to the start of the
+   * reverse search.
+   */
+  @Nullable
+  private State join(State forwardState, State reverseState) {
+    List<Edge> edges = new ArrayList<>();
+    for (State s = reverseState; s.getBackState() != null; s = s.getBackState()) {
+      edges.add(s.getBackEdge());
+    }
+
+    State state = forwardState;
+    for (Edge edge : edges) {
+      State next = null;
+      for (State s : edge.traverse(state)) {
+        if (next == null || s.getWeight() < next.getWeight()) {
+          next = s;
+        }
+      }
+      if (next == null) {
+        return null;
+      }
+      state = next;
+    }
+    return state.isFinal() ? state : null;
+  }
+}
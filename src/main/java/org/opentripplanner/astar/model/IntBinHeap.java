@@ -0,0 +1,98 @@
+package org.opentripplanner.astar.model;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of primitive int elements, like {@link BinHeap}, but without boxing. This is
+ * used by the index based street searches where the elements are vertex indexes.
+ * <p>
+ * There is no decrease-key operation, an element may be inserted more than once. The caller is
+ * responsible for skipping elements which are already settled when they are extracted.
+ * <p>
+ * THIS CLASS IS NOT THREAD-SAFE.
+ */
+public class IntBinHeap {
+
+  private static final double GROW_FACTOR = 2.0;
+
+  private double[] prio;
+  private int[] elem;
+  private int size;
+  private int capacity;
+
+  public IntBinHeap(int capacity) {
+    if (capacity < 10) capacity = 10;
+    this.capacity = capacity;
+    elem = new int[capacity + 1];
+    prio = new double[capacity + 1]; // 1-based indexing
+    size = 0;
+    prio[0] = Double.NEGATIVE_INFINITY; // set sentinel
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size <= 0;
+  }
+
+  public double peekMinKey() {
+    if (size > 0) {
+      return prio[1];
+    }
+    throw new IllegalStateException("An empty queue does not have a minimum key.");
+  }
+
+  public void reset() {
+    // empties the queue in one operation
+    size = 0;
+  }
+
+  public void insert(int e, double p) {
+    int i;
+    size += 1;
+    if (size > capacity) {
+      resize((int) (capacity * GROW_FACTOR));
+    }
+    for (i = size; prio[i / 2] > p; i /= 2) {
+      elem[i] = elem[i / 2];
+      prio[i] = prio[i / 2];
+    }
+    elem[i] = e;
+    prio[i] = p;
+  }
+
+  /**
+   * Remove and return the element with the lowest priority.
+   *
+   * @throws IllegalStateException if the heap is empty.
+   */
+  public int extractMin() {
+    if (size <= 0) {
+      throw new IllegalStateException("The queue is empty.");
+    }
+    int i, child;
+    int minElem = elem[1];
+    int lastElem = elem[size];
+    double lastPrio = prio[size];
+    size -= 1;
+    for (i = 1; i * 2 <= size; i = child) {
+      child = i * 2;
+      if (child != size && prio[child + 1] < prio[child]) child++;
+      if (lastPrio > prio[child]) {
+        elem[i] = elem[child];
+        prio[i] = prio[child];
+      } else break;
+    }
+    elem[i] = lastElem;
+    prio[i] = lastPrio;
+    return minElem;
+  }
+
+  private void resize(int capacity) {
+    this.capacity = capacity;
+    prio = Arrays.copyOf(prio, capacity + 1);
+    elem = Arrays.copyOf(elem, capacity + 1);
+  }
+}
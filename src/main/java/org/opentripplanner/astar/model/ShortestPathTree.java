@@ -6,10 +6,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import org.opentripplanner.astar.spi.AStarEdge;
 import org.opentripplanner.astar.spi.AStarState;
@@ -33,6 +31,10 @@ import org.slf4j.LoggerFactory;
  * when walking. The turn restriction handling is done in the base dominance function
  * implementation, and applies to all subclasses. It essentially splits each vertex into N vertices
  * depending on the incoming edge being taken.
+ * <p>
+ * The states are kept in a {@link VertexStateTable}. A tree created with a table from
+ * {@link VertexStateTable#acquire()} must be {@link #release()}d when the caller is done with
+ * it, and can not be used after that.
  */
 public class ShortestPathTree<
   State extends AStarState<State, Edge, Vertex>,
@@ -44,15 +46,23 @@ public class ShortestPathTree<
 
   public final DominanceFunction<State> dominanceFunction;
 
-  private final Map<Vertex, List<State>> stateSets;
+  /** The state storage, {@code null} after the tree is released. */
+  private VertexStateTable<Vertex, State> stateSets;
 
   /** Indicates that the search timed out or was otherwise aborted. */
   private boolean aborted = false;
 
   public ShortestPathTree(DominanceFunction<State> dominanceFunction) {
-    this.dominanceFunction = dominanceFunction;
     // Initialized with a reasonable size, see #4445
-    stateSets = new IdentityHashMap<>(10_000);
+    this(dominanceFunction, new VertexStateTable<>());
+  }
+
+  public ShortestPathTree(
+    DominanceFunction<State> dominanceFunction,
+    VertexStateTable<Vertex, State> stateSets
+  ) {
+    this.dominanceFunction = dominanceFunction;
+    this.stateSets = stateSets;
   }
 
   /** @return a list of GraphPaths, sometimes empty but never null. */
@@ -85,9 +95,8 @@ public class ShortestPathTree<
     Multiset<Integer> histogram = HashMultiset.create();
     int statesCount = 0;
     int maxSize = 0;
-    for (Map.Entry<Vertex, List<State>> kv : stateSets.entrySet()) {
-      List<State> states = kv.getValue();
-      int size = states.size();
+    for (int i = 0; i < stateSets.size(); i++) {
+      int size = stateSets.stateCount(stateSets.slotAt(i));
       histogram.add(size);
       statesCount += size;
       if (size > maxSize) {
@@ -112,7 +121,11 @@ public class ShortestPathTree<
   }
 
   public Set<Vertex> getVertices() {
-    return stateSets.keySet();
+    Set<Vertex> vertices = Collections.newSetFromMap(new IdentityHashMap<>(stateSets.size()));
+    for (int i = 0; i < stateSets.size(); i++) {
+      vertices.add(stateSets.vertexAt(i));
+    }
+    return vertices;
   }
 
   /**
@@ -127,36 +140,61 @@ public class ShortestPathTree<
    */
   public boolean add(State newState) {
     Vertex vertex = newState.getVertex();
-    List<State> states = stateSets.get(vertex);
+    int slot = stateSets.find(vertex);
 
     // if the vertex has no states, add one and return
-    if (states == null) {
-      states = new ArrayList<>();
-      stateSets.put(vertex, states);
-      states.add(newState);
+    if (slot == VertexStateTable.NOT_FOUND) {
+      stateSets.insert(vertex, newState);
       return true;
     }
 
     // if the vertex has any states that dominate the new state, don't add the state
     // if the new state dominates any old states, remove them
-    Iterator<State> it = states.iterator();
-    while (it.hasNext()) {
-      State oldState = it.next();
+    int i = 0;
+    while (i < stateSets.stateCount(slot)) {
+      State oldState = stateSets.state(slot, i);
       // order is important, because in the case of a tie
       // we want to reject the new state
       if (dominanceFunction.betterOrEqualAndComparable(oldState, newState)) {
         return false;
       }
       if (dominanceFunction.betterOrEqualAndComparable(newState, oldState)) {
-        it.remove();
+        // the new state replaces the old one, a vertex is never left without states
+        if (stateSets.stateCount(slot) == 1) {
+          stateSets.replaceState(slot, 0, newState);
+          return true;
+        }
+        stateSets.removeState(slot, i);
+      } else {
+        ++i;
       }
     }
 
     // any states remaining are co-dominant with the new state
-    states.add(newState);
+    stateSets.addState(slot, newState);
     return true;
   }
 
+  /**
+   * Check if the states at the target vertex of the edge dominate every state the edge can create
+   * from the parent state, without traversing the edge. If so, {@link #add(AStarState)} would
+   * reject the new states, and the traversal can be skipped.
+   *
+   * @param target the vertex reached by the traversal, this depends on the search direction
+   */
+  public boolean isTraversalDominated(State parent, Edge edge, Vertex target) {
+    int slot = stateSets.find(target);
+    if (slot == VertexStateTable.NOT_FOUND) {
+      return false;
+    }
+    for (int i = 0; i < stateSets.stateCount(slot); i++) {
+      if (dominanceFunction.dominatesTraversal(stateSets.state(slot, i), parent, edge)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Returns the 'best' state for the given Vertex, where 'best' depends on the implementation.
    *
@@ -164,13 +202,14 @@ public class ShortestPathTree<
    * @return a 'best' state at that vertex
    */
   public State getState(Vertex dest) {
-    Collection<State> states = stateSets.get(dest);
-    if (states == null) {
+    int slot = stateSets.find(dest);
+    if (slot == VertexStateTable.NOT_FOUND) {
       return null;
     }
     State ret = null;
     // TODO are we only checking path parser acceptance when we fetch states via this specific method?
-    for (State s : states) {
+    for (int i = 0; i < stateSets.stateCount(slot); i++) {
+      State s = stateSets.state(slot, i);
       if ((ret == null || s.getWeight() < ret.getWeight()) && s.isFinal()) {
         ret = s;
       }
@@ -188,12 +227,18 @@ public class ShortestPathTree<
    * @return a collection of 'interesting' states at that vertex
    */
   public List<State> getStates(Vertex dest) {
-    return stateSets.get(dest);
+    int slot = stateSets.find(dest);
+    if (slot == VertexStateTable.NOT_FOUND) {
+      return null;
+    }
+    List<State> states = new ArrayList<>(stateSets.stateCount(slot));
+    addStates(slot, states);
+    return states;
   }
 
   /** @return number of vertices referenced in this SPT */
   public int getVertexCount() {
-    return stateSets.keySet().size();
+    return stateSets.size();
   }
 
   /**
@@ -221,21 +266,20 @@ public class ShortestPathTree<
    * @return - whether this state is still considered worth visiting.
    */
   public boolean visit(State state) {
-    boolean ret = false;
-    for (State s : stateSets.get(state.getVertex())) {
-      if (s == state) {
-        ret = true;
-        break;
+    int slot = stateSets.find(state.getVertex());
+    for (int i = 0; i < stateSets.stateCount(slot); i++) {
+      if (stateSets.state(slot, i) == state) {
+        return true;
       }
     }
-    return ret;
+    return false;
   }
 
   /** @return every state in this tree */
   public Collection<State> getAllStates() {
-    ArrayList<State> allStates = new ArrayList<>();
-    for (List<State> stateSet : stateSets.values()) {
-      allStates.addAll(stateSet);
+    ArrayList<State> allStates = new ArrayList<>(stateSets.size());
+    for (int i = 0; i < stateSets.size(); i++) {
+      addStates(stateSets.slotAt(i), allStates);
     }
     return allStates;
   }
@@ -244,7 +288,25 @@ public class ShortestPathTree<
     aborted = true;
   }
 
+  /**
+   * Return the state storage to the pool it came from, see {@link VertexStateTable#release()}.
+   * This tree must not be used after it is released. Releasing a tree twice has no effect, the
+   * storage may already be used by another search.
+   */
+  public void release() {
+    if (stateSets != null) {
+      stateSets.release();
+      stateSets = null;
+    }
+  }
+
   public String toString() {
     return "ShortestPathTree(" + this.stateSets.size() + " vertices)";
   }
+
+  private void addStates(int slot, Collection<State> target) {
+    for (int i = 0; i < stateSets.stateCount(slot); i++) {
+      target.add(stateSets.state(slot, i));
+    }
+  }
 }
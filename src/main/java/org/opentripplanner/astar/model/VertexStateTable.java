@@ -0,0 +1,256 @@
+package org.opentripplanner.astar.model;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * The storage behind the {@link ShortestPathTree}: the states at each visited vertex. This is an
+ * open-addressed (linear probing) identity hash table with the keys, the states and the number of
+ * states in parallel arrays. A vertex with a single state - by far the most common case - does
+ * not allocate anything; a bucket array is only created when a vertex gets more than one
+ * co-dominant state.
+ * <p>
+ * The table can be {@link #reset()} and reused. Only the slots used by the last search are
+ * cleared, so a reset is cheap compared with the search itself. Use {@link #acquire()} and
+ * {@link #release()} to reuse the tables from a shared pool. The pool is not tied to a thread,
+ * so searches running on short-lived (virtual) threads also reuse the tables.
+ * <p>
+ * THIS CLASS IS NOT THREAD-SAFE.
+ */
+public class VertexStateTable<Vertex, State> {
+
+  public static final int NOT_FOUND = -1;
+
+  private static final int INITIAL_CAPACITY = 1 << 14;
+
+  /**
+   * Pooled tables larger than this are shrunk on reset, so a single huge search does not keep a
+   * lot of memory in the pool. A slot uses about 14 bytes, so this is about 3.5 MB.
+   */
+  private static final int MAX_RETAINED_CAPACITY = 1 << 18;
+
+  /**
+   * The maximum total capacity (number of slots) of the idle tables in the pool, about 56 MB.
+   * Tables released when the pool is full are dropped.
+   */
+  private static final int MAX_POOLED_CAPACITY = 1 << 22;
+
+  /** The idle tables, the last released table is reused first. Guarded by itself. */
+  private static final Deque<VertexStateTable<?, ?>> POOL = new ArrayDeque<>();
+
+  /** The total capacity of the tables in the pool. Guarded by {@link #POOL}. */
+  private static int pooledCapacity = 0;
+
+  private Object[] keys;
+
+  /** A single state, or an {@code Object[]} bucket if the vertex has more than one state. */
+  private Object[] values;
+  private int[] counts;
+  private int mask;
+
+  /** The slots in use, in insertion order. */
+  private int[] usedSlots;
+  private int size = 0;
+
+  public VertexStateTable() {
+    this(INITIAL_CAPACITY);
+  }
+
+  VertexStateTable(int capacity) {
+    allocate(Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1);
+  }
+
+  /**
+   * Get an empty table from the pool, or a new table if the pool is empty. Call
+   * {@link #release()} when the states are no longer needed, also if the search fails.
+   */
+  @SuppressWarnings("unchecked")
+  public static <V, S> VertexStateTable<V, S> acquire() {
+    synchronized (POOL) {
+      var table = (VertexStateTable<V, S>) POOL.pollFirst();
+      if (table != null) {
+        pooledCapacity -= table.capacity();
+        return table;
+      }
+    }
+    return new VertexStateTable<>();
+  }
+
+  /**
+   * Reset the table and return it to the pool. The table must be released only once, by the
+   * owner, and must not be used after it is released, see {@link ShortestPathTree#release()}.
+   */
+  public void release() {
+    reset();
+    synchronized (POOL) {
+      if (pooledCapacity + capacity() <= MAX_POOLED_CAPACITY) {
+        POOL.offerFirst(this);
+        pooledCapacity += capacity();
+      }
+    }
+  }
+
+  /** Remove all vertices and states. */
+  public void reset() {
+    if (keys.length > MAX_RETAINED_CAPACITY) {
+      allocate(INITIAL_CAPACITY);
+      return;
+    }
+    for (int i = 0; i < size; i++) {
+      int slot = usedSlots[i];
+      keys[slot] = null;
+      values[slot] = null;
+      counts[slot] = 0;
+    }
+    size = 0;
+  }
+
+  /** The number of slots, the table is grown when half of the slots are used. */
+  int capacity() {
+    return keys.length;
+  }
+
+  /** The number of vertices in the table. */
+  public int size() {
+    return size;
+  }
+
+  /** Return the slot of the given vertex, or {@link #NOT_FOUND}. */
+  public int find(Vertex vertex) {
+    int slot = hash(vertex) & mask;
+    Object key;
+    while ((key = keys[slot]) != null) {
+      if (key == vertex) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return NOT_FOUND;
+  }
+
+  /**
+   * Add a vertex with one state to the table, and return its slot. The vertex must not be in the
+   * table already.
+   */
+  public int insert(Vertex vertex, State state) {
+    if ((size + 1) * 2 > keys.length) {
+      rehash(keys.length * 2);
+    }
+    int slot = freeSlot(vertex, keys, mask);
+    keys[slot] = vertex;
+    values[slot] = state;
+    counts[slot] = 1;
+    usedSlots[size++] = slot;
+    return slot;
+  }
+
+  /** The vertex at the given position, in insertion order. */
+  @SuppressWarnings("unchecked")
+  public Vertex vertexAt(int index) {
+    return (Vertex) keys[usedSlots[index]];
+  }
+
+  /** The slot at the given position, in insertion order. */
+  public int slotAt(int index) {
+    return usedSlots[index];
+  }
+
+  public int stateCount(int slot) {
+    return counts[slot];
+  }
+
+  @SuppressWarnings("unchecked")
+  public State state(int slot, int index) {
+    Object value = values[slot];
+    return (State) (counts[slot] == 1 ? value : ((Object[]) value)[index]);
+  }
+
+  public void replaceState(int slot, int index, State state) {
+    if (counts[slot] == 1) {
+      values[slot] = state;
+    } else {
+      ((Object[]) values[slot])[index] = state;
+    }
+  }
+
+  public void addState(int slot, State state) {
+    int count = counts[slot];
+    if (count == 1) {
+      Object[] bucket = new Object[4];
+      bucket[0] = values[slot];
+      bucket[1] = state;
+      values[slot] = bucket;
+    } else {
+      Object[] bucket = (Object[]) values[slot];
+      if (count == bucket.length) {
+        bucket = Arrays.copyOf(bucket, count * 2);
+        values[slot] = bucket;
+      }
+      bucket[count] = state;
+    }
+    counts[slot] = count + 1;
+  }
+
+  /**
+   * Remove the state at the given index, keeping the order of the remaining states. A vertex can
+   * not be left without states, the last state can not be removed.
+   */
+  public void removeState(int slot, int index) {
+    int count = counts[slot];
+    if (count == 1) {
+      throw new IllegalStateException("The last state of a vertex can not be removed.");
+    }
+    Object[] bucket = (Object[]) values[slot];
+    System.arraycopy(bucket, index + 1, bucket, index, count - index - 1);
+    bucket[count - 1] = null;
+    if (count == 2) {
+      values[slot] = bucket[0];
+    }
+    counts[slot] = count - 1;
+  }
+
+  /* private methods */
+
+  private void allocate(int capacity) {
+    keys = new Object[capacity];
+    values = new Object[capacity];
+    counts = new int[capacity];
+    usedSlots = new int[capacity / 2 + 1];
+    mask = capacity - 1;
+    size = 0;
+  }
+
+  private void rehash(int capacity) {
+    Object[] oldKeys = keys;
+    Object[] oldValues = values;
+    int[] oldCounts = counts;
+    int[] oldUsedSlots = usedSlots;
+    int oldSize = size;
+
+    allocate(capacity);
+
+    for (int i = 0; i < oldSize; i++) {
+      int oldSlot = oldUsedSlots[i];
+      int slot = freeSlot(oldKeys[oldSlot], keys, mask);
+      keys[slot] = oldKeys[oldSlot];
+      values[slot] = oldValues[oldSlot];
+      counts[slot] = oldCounts[oldSlot];
+      usedSlots[size++] = slot;
+    }
+  }
+
+  private static int freeSlot(Object vertex, Object[] keys, int mask) {
+    int slot = hash(vertex) & mask;
+    while (keys[slot] != null) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private static int hash(Object vertex) {
+    int h = System.identityHashCode(vertex);
+    // Spread the high bits to the low bits, the same as java.util.HashMap
+    return h ^ (h >>> 16);
+  }
+}
@@ -2,4 +2,22 @@ package org.opentripplanner.astar.spi;
 
 public interface DominanceFunction<State extends AStarState<State, ?, ?>> {
   boolean betterOrEqualAndComparable(State a, State b);
+
+  /**
+   * Return true if the existing state is better or equal and comparable to every state the given
+   * edge can create from the parent state. The search then skips the traversal, so states which
+   * would only be rejected by {@link #betterOrEqualAndComparable(AStarState, AStarState)} are
+   * never created. Returning false is always correct, and is the default.
+   */
+  default boolean dominatesTraversal(State existing, State parent, AStarEdge<State, ?, ?> edge) {
+    return false;
+  }
+
+  /**
+   * Return true if the two states are on the same "plane" of the graph, e.g. both are renting or
+   * both are not. Only states on the same plane can be compared or joined. The default is true.
+   */
+  default boolean isOnSamePlane(State a, State b) {
+    return true;
+  }
 }
@@ -17,6 +17,11 @@ public enum OTPFeature {
   APIBikeRental(true, false, "Enable the bike rental endpoint."),
   APIServerInfo(true, false, "Enable the server info endpoint."),
   APIUpdaterStatus(true, false, "Enable endpoint for graph updaters status."),
+  BidirectionalStreetSearch(
+    false,
+    false,
+    "Search from both the origin and the destination in direct walk, bicycle and car routing. This is faster for long car and bicycle trips."
+  ),
   ConsiderPatternsForDirectTransfers(
     true,
     false,
@@ -0,0 +1,485 @@
+package org.opentripplanner.framework.collection;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+
+/**
+ * An immutable hash map with structural sharing (a hash array mapped trie). Adding or removing a
+ * key returns a new map and copies only the path from the root to the changed entry, the rest of
+ * the trie is shared with the original map. With 32-way branching the path is at most 7 nodes,
+ * so the cost of an update does not depend on the size of the map.
+ * <p>
+ * Use this when a map is copied often and only a small part of it changes between each copy, like
+ * the real-time timetable snapshots. Keeping a reference to an old version is safe, it never
+ * changes.
+ * <p>
+ * {@code null} keys and values are not allowed.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+public final class PersistentMap<K, V> {
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+
+  private final Node root;
+  private final int size;
+
+  private PersistentMap(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <K, V> PersistentMap<K, V> empty() {
+    return (PersistentMap<K, V>) EMPTY;
+  }
+
+  /**
+   * Return the value for the given key, or {@code null} if the key is not in the map.
+   */
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    return root == null ? null : (V) root.get(key, hash(key), 0);
+  }
+
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Return a new map with the given key mapped to the given value. This map is returned if it
+   * already contains the same value for the key.
+   */
+  public PersistentMap<K, V> put(K key, V value) {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(value);
+    int hash = hash(key);
+    if (root == null) {
+      return new PersistentMap<>(BitmapNode.EMPTY.put(key, value, hash, 0), 1);
+    }
+    Node newRoot = root.put(key, value, hash, 0);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentMap<>(newRoot, root.get(key, hash, 0) == null ? size + 1 : size);
+  }
+
+  /**
+   * Return a new map without the given key. This map is returned if it does not contain the key.
+   */
+  public PersistentMap<K, V> remove(Object key) {
+    if (root == null) {
+      return this;
+    }
+    Node newRoot = root.remove(key, hash(key), 0);
+    if (newRoot == root) {
+      return this;
+    }
+    return newRoot == null ? empty() : new PersistentMap<>(newRoot, size - 1);
+  }
+
+  /**
+   * Return a new map without the entries matching the given predicate.
+   */
+  public PersistentMap<K, V> removeIf(BiPredicate<? super K, ? super V> predicate) {
+    List<K> keysToRemove = new ArrayList<>();
+    forEach((k, v) -> {
+      if (predicate.test(k, v)) {
+        keysToRemove.add(k);
+      }
+    });
+    var result = this;
+    for (K key : keysToRemove) {
+      result = result.remove(key);
+    }
+    return result;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    if (root != null) {
+      root.forEach((BiConsumer<Object, Object>) action);
+    }
+  }
+
+  /**
+   * Return a read-only {@link Map} view of this map.
+   */
+  public Map<K, V> asMap() {
+    return new MapView();
+  }
+
+  /**
+   * Return a read-only view of the values in this map. Iterating over the values walks the trie,
+   * nothing is copied.
+   */
+  public Collection<V> values() {
+    return new AbstractCollection<>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public Iterator<V> iterator() {
+        return new TrieIterator<>(root, (k, v) -> (V) v);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    return asMap().toString();
+  }
+
+  private static int hash(Object key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private abstract static class Node {
+
+    abstract Object get(Object key, int hash, int shift);
+
+    abstract Node put(Object key, Object value, int hash, int shift);
+
+    /** Return {@code null} if the node is empty after the key is removed. */
+    abstract Node remove(Object key, int hash, int shift);
+
+    abstract void forEach(BiConsumer<Object, Object> action);
+
+    /** The entries of the node, key-value pairs and sub-nodes, see {@link BitmapNode}. */
+    abstract Object[] array();
+  }
+
+  /**
+   * A node with up to 32 children, indexed by 5 bits of the hash code. The {@code array} contains
+   * a key-value pair for each bit set in the {@code bitmap}. If the key is {@code null} the value
+   * is a sub-node, indexed by the next 5 bits of the hash code.
+   */
+  private static final class BitmapNode extends Node {
+
+    private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    private final int bitmap;
+    private final Object[] array;
+
+    private BitmapNode(int bitmap, Object[] array) {
+      this.bitmap = bitmap;
+      this.array = array;
+    }
+
+    @Override
+    Object get(Object key, int hash, int shift) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return null;
+      }
+      int i = 2 * index(bit);
+      Object k = array[i];
+      Object v = array[i + 1];
+      if (k == null) {
+        return ((Node) v).get(key, hash, shift + BITS);
+      }
+      return key.equals(k) ? v : null;
+    }
+
+    @Override
+    Node put(Object key, Object value, int hash, int shift) {
+      int bit = bit(hash, shift);
+      int i = 2 * index(bit);
+
+      if ((bitmap & bit) == 0) {
+        Object[] a = new Object[array.length + 2];
+        System.arraycopy(array, 0, a, 0, i);
+        a[i] = key;
+        a[i + 1] = value;
+        System.arraycopy(array, i, a, i + 2, array.length - i);
+        return new BitmapNode(bitmap | bit, a);
+      }
+
+      Object k = array[i];
+      Object v = array[i + 1];
+      if (k == null) {
+        Node child = ((Node) v).put(key, value, hash, shift + BITS);
+        return child == v ? this : with(i, null, child);
+      }
+      if (key.equals(k)) {
+        return v == value ? this : with(i, k, value);
+      }
+      return with(i, null, createNode(k, v, key, value, hash, shift + BITS));
+    }
+
+    @Override
+    Node remove(Object key, int hash, int shift) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int i = 2 * index(bit);
+      Object k = array[i];
+      Object v = array[i + 1];
+      if (k == null) {
+        Node child = ((Node) v).remove(key, hash, shift + BITS);
+        if (child == v) {
+          return this;
+        }
+        return child == null ? without(bit, i) : with(i, null, child);
+      }
+      return key.equals(k) ? without(bit, i) : this;
+    }
+
+    @Override
+    void forEach(BiConsumer<Object, Object> action) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (array[i] == null) {
+          ((Node) array[i + 1]).forEach(action);
+        } else {
+          action.accept(array[i], array[i + 1]);
+        }
+      }
+    }
+
+    @Override
+    Object[] array() {
+      return array;
+    }
+
+    private BitmapNode with(int i, Object key, Object value) {
+      Object[] a = array.clone();
+      a[i] = key;
+      a[i + 1] = value;
+      return new BitmapNode(bitmap, a);
+    }
+
+    private BitmapNode without(int bit, int i) {
+      if (bitmap == bit) {
+        return null;
+      }
+      Object[] a = new Object[array.length - 2];
+      System.arraycopy(array, 0, a, 0, i);
+      System.arraycopy(array, i + 2, a, i, a.length - i);
+      return new BitmapNode(bitmap ^ bit, a);
+    }
+
+    private int index(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    private static int bit(int hash, int shift) {
+      return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static Node createNode(
+      Object k1,
+      Object v1,
+      Object k2,
+      Object v2,
+      int hash2,
+      int shift
+    ) {
+      int hash1 = hash(k1);
+      if (hash1 == hash2) {
+        return new CollisionNode(hash1, new Object[] { k1, v1, k2, v2 });
+      }
+      return EMPTY.put(k1, v1, hash1, shift).put(k2, v2, hash2, shift);
+    }
+  }
+
+  /**
+   * A node with keys which have the same hash code.
+   */
+  private static final class CollisionNode extends Node {
+
+    private final int hash;
+    private final Object[] array;
+
+    private CollisionNode(int hash, Object[] array) {
+      this.hash = hash;
+      this.array = array;
+    }
+
+    @Override
+    Object get(Object key, int hash, int shift) {
+      int i = indexOf(key);
+      return i < 0 ? null : array[i + 1];
+    }
+
+    @Override
+    Node put(Object key, Object value, int hash, int shift) {
+      if (hash != this.hash) {
+        // Push this node one level down, the new key is placed next to it
+        return new BitmapNode(BitmapNode.bit(this.hash, shift), new Object[] { null, this })
+          .put(key, value, hash, shift);
+      }
+      int i = indexOf(key);
+      if (i >= 0) {
+        if (array[i + 1] == value) {
+          return this;
+        }
+        Object[] a = array.clone();
+        a[i + 1] = value;
+        return new CollisionNode(hash, a);
+      }
+      Object[] a = new Object[array.length + 2];
+      System.arraycopy(array, 0, a, 0, array.length);
+      a[array.length] = key;
+      a[array.length + 1] = value;
+      return new CollisionNode(hash, a);
+    }
+
+    @Override
+    Node remove(Object key, int hash, int shift) {
+      int i = indexOf(key);
+      if (i < 0) {
+        return this;
+      }
+      if (array.length == 2) {
+        return null;
+      }
+      Object[] a = new Object[array.length - 2];
+      System.arraycopy(array, 0, a, 0, i);
+      System.arraycopy(array, i + 2, a, i, a.length - i);
+      return new CollisionNode(hash, a);
+    }
+
+    @Override
+    void forEach(BiConsumer<Object, Object> action) {
+      for (int i = 0; i < array.length; i += 2) {
+        action.accept(array[i], array[i + 1]);
+      }
+    }
+
+    @Override
+    Object[] array() {
+      return array;
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (key.equals(array[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+
+  /**
+   * Walk the trie depth-first. The path from the root to the current node is kept in a stack of
+   * nodes and positions, which is at most 7 levels deep.
+   */
+  private static final class TrieIterator<T> implements Iterator<T> {
+
+    private final BiFunction<Object, Object, T> mapper;
+    private final Object[][] arrays = new Object[8][];
+    private final int[] positions = new int[8];
+    private int level = -1;
+
+    private TrieIterator(Node root, BiFunction<Object, Object, T> mapper) {
+      this.mapper = mapper;
+      if (root != null) {
+        push(root);
+        advance();
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return level >= 0;
+    }
+
+    @Override
+    public T next() {
+      if (level < 0) {
+        throw new NoSuchElementException();
+      }
+      Object[] a = arrays[level];
+      int i = positions[level];
+      T value = mapper.apply(a[i], a[i + 1]);
+      positions[level] += 2;
+      advance();
+      return value;
+    }
+
+    /** Move to the next key-value pair, or set the level to -1 if there are no more. */
+    private void advance() {
+      while (level >= 0) {
+        Object[] a = arrays[level];
+        int i = positions[level];
+        if (i >= a.length) {
+          --level;
+        } else if (a[i] == null) {
+          positions[level] += 2;
+          push((Node) a[i + 1]);
+        } else {
+          return;
+        }
+      }
+    }
+
+    private void push(Node node) {
+      ++level;
+      arrays[level] = node.array();
+      positions[level] = 0;
+    }
+  }
+
+  private final class MapView extends AbstractMap<K, V> {
+
+    @Override
+    public V get(Object key) {
+      return PersistentMap.this.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return PersistentMap.this.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public Iterator<Entry<K, V>> iterator() {
+          return new TrieIterator<>(root, (k, v) -> Map.entry((K) k, (V) v));
+        }
+
+        @Override
+        public int size() {
+          return size;
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package org.opentripplanner.framework.concurrent;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import org.opentripplanner.framework.application.LogMDCSupport;
+import org.opentripplanner.framework.application.OTPRequestTimeoutException;
+
+/**
+ * Run the parts of a "user" request in parallel, like the direct street, direct flex and transit
+ * routing, or the access and egress searches. See {@link OtpRequestThreadFactory} for what we mean
+ * by "user" requests.
+ * <p>
+ * The tasks are run on virtual threads, which are cheap to create, so there is no thread pool to
+ * configure or to run out of. The log MDC context is propagated from the request thread, and the
+ * timeout too: when the request thread is interrupted because the request timed out, the tasks
+ * are interrupted as well, see {@link OTPRequestTimeoutException#checkForTimeout()}.
+ * <p>
+ * To avoid oversubscribing the machine under load, the number of tasks running in parallel,
+ * across all requests, is limited to the number of processors. If the limit is reached, the
+ * tasks are run on the request thread, one after the other. The last task is always run on the
+ * request thread, it would otherwise just wait for the others.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE
+ */
+public final class OtpRequestExecutor {
+
+  private static final ThreadFactory THREAD_FACTORY = Thread
+    .ofVirtual()
+    .name("otp-request-", 0)
+    .factory();
+
+  private static final Semaphore PERMITS = new Semaphore(
+    Runtime.getRuntime().availableProcessors()
+  );
+
+  private OtpRequestExecutor() {}
+
+  /**
+   * Run the given tasks in parallel and wait for them to complete. If a task fails, the other
+   * tasks are interrupted and the exception is rethrown. If the calling thread is interrupted
+   * while waiting, an {@link OTPRequestTimeoutException} is thrown. In both cases the method waits
+   * for the interrupted tasks to complete before it returns, so the caller can safely release the
+   * resources used by the tasks, like the temporary vertices of the request.
+   */
+  public static void runInParallel(Runnable... tasks) {
+    var forked = new ArrayList<Task>();
+    try {
+      for (int i = 0; i < tasks.length; i++) {
+        boolean last = i == tasks.length - 1;
+        if (!last && PERMITS.tryAcquire()) {
+          forked.add(new Task(tasks[i]));
+        } else {
+          tasks[i].run();
+        }
+      }
+      for (Task task : forked) {
+        task.join();
+      }
+    } catch (InterruptedException e) {
+      cancel(forked);
+      Thread.currentThread().interrupt();
+      throw new OTPRequestTimeoutException();
+    } catch (RuntimeException | Error e) {
+      cancel(forked);
+      throw e;
+    }
+  }
+
+  /**
+   * Interrupt the tasks, and wait for them to complete. The wait is not interrupted, the tasks
+   * are expected to stop soon after they are interrupted.
+   */
+  private static void cancel(List<Task> tasks) {
+    for (Task task : tasks) {
+      task.thread.interrupt();
+    }
+    for (Task task : tasks) {
+      Uninterruptibles.joinUninterruptibly(task.thread);
+    }
+  }
+
+  /**
+   * A task running on its own virtual thread. The permit is released when the task completes.
+   */
+  private static class Task implements Runnable {
+
+    private final Runnable delegate;
+    private final Thread thread;
+    private volatile Throwable error;
+
+    private Task(Runnable delegate) {
+      this.delegate =
+        LogMDCSupport.isRequestTracingInLoggingEnabled()
+          ? new LogMDCRunnableDecorator(delegate)
+          : delegate;
+      this.thread = THREAD_FACTORY.newThread(this);
+      thread.start();
+    }
+
+    @Override
+    public void run() {
+      try {
+        delegate.run();
+      } catch (Throwable e) {
+        error = e;
+      } finally {
+        PERMITS.release();
+      }
+    }
+
+    /**
+     * Wait for the task to complete and rethrow the exception thrown by the task, if any.
+     */
+    private void join() throws InterruptedException {
+      thread.join();
+      if (error instanceof RuntimeException e) {
+        throw e;
+      }
+      if (error instanceof Error e) {
+        throw e;
+      }
+    }
+  }
+}
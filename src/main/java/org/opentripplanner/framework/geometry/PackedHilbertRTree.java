@@ -0,0 +1,289 @@
+package org.opentripplanner.framework.geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * An immutable, bulk-loaded R-tree. The items are sorted along a Hilbert curve by the center of
+ * their envelope, and packed into nodes of {@link #NODE_SIZE} children, level by level, until
+ * there is only one root node left. This is the same layout as the
+ * <a href="https://github.com/mourner/flatbush">flatbush</a> library.
+ * <p>
+ * All nodes are stored in primitive arrays, ordered by level, with the items first and the root
+ * last. Each item is stored once, so a query does not return duplicates, and only items with an
+ * envelope intersecting the query envelope are returned.
+ * <p>
+ * The tree is THREAD-SAFE, it can not be modified after it is built. Use the
+ * {@link PackedSpatialIndex} if the index needs to be updated.
+ *
+ * @param <T> Type of objects to be spatial indexed.
+ */
+public final class PackedHilbertRTree<T> {
+
+  private static final int NODE_SIZE = 16;
+  private static final int HILBERT_MAX = (1 << 16) - 1;
+
+  private final Object[] items;
+
+  /** The number of nodes, including the items. */
+  private final int nNodes;
+
+  /** The envelope of each node: minX, minY, maxX, maxY. */
+  private final double[] boxes;
+
+  /** The position of the first child of each node. Not used for the items. */
+  private final int[] firstChild;
+
+  /** The end position(exclusive) of each level, the first level contains the items. */
+  private final int[] levelEnds;
+
+  private PackedHilbertRTree(Object[] items, double[] itemBoxes) {
+    this.items = items;
+    int nItems = items.length;
+
+    var levels = new ArrayList<Integer>();
+    int n = nItems;
+    int nodes = n;
+    levels.add(nodes);
+    while (n > 1) {
+      n = (n + NODE_SIZE - 1) / NODE_SIZE;
+      nodes += n;
+      levels.add(nodes);
+    }
+    this.nNodes = nodes;
+    this.levelEnds = levels.stream().mapToInt(Integer::intValue).toArray();
+    this.boxes = Arrays.copyOf(itemBoxes, 4 * nNodes);
+    this.firstChild = new int[nNodes];
+
+    // Create the parent nodes, one level at a time
+    int pos = 0;
+    for (int level = 0; level < levelEnds.length - 1; ++level) {
+      int end = levelEnds[level];
+      int parent = end;
+      while (pos < end) {
+        int childEnd = Math.min(pos + NODE_SIZE, end);
+        firstChild[parent] = pos;
+        int b = 4 * parent;
+        boxes[b] = Double.POSITIVE_INFINITY;
+        boxes[b + 1] = Double.POSITIVE_INFINITY;
+        boxes[b + 2] = Double.NEGATIVE_INFINITY;
+        boxes[b + 3] = Double.NEGATIVE_INFINITY;
+        for (; pos < childEnd; ++pos) {
+          int c = 4 * pos;
+          boxes[b] = Math.min(boxes[b], boxes[c]);
+          boxes[b + 1] = Math.min(boxes[b + 1], boxes[c + 1]);
+          boxes[b + 2] = Math.max(boxes[b + 2], boxes[c + 2]);
+          boxes[b + 3] = Math.max(boxes[b + 3], boxes[c + 3]);
+        }
+        ++parent;
+      }
+    }
+  }
+
+  public static <T> Builder<T> of() {
+    return new Builder<>();
+  }
+
+  public int size() {
+    return items.length;
+  }
+
+  public boolean isEmpty() {
+    return items.length == 0;
+  }
+
+  /**
+   * Return all items with an envelope intersecting the given envelope.
+   */
+  public List<T> query(Envelope envelope) {
+    var result = new ArrayList<T>();
+    query(envelope, result::add);
+    return result;
+  }
+
+  /**
+   * Call the visitor with each item with an envelope intersecting the given envelope.
+   */
+  @SuppressWarnings("unchecked")
+  public void query(Envelope envelope, Consumer<T> visitor) {
+    if (items.length == 0) {
+      return;
+    }
+    double minX = envelope.getMinX();
+    double minY = envelope.getMinY();
+    double maxX = envelope.getMaxX();
+    double maxY = envelope.getMaxY();
+
+    int root = nNodes - 1;
+    if (!intersects(root, minX, minY, maxX, maxY)) {
+      return;
+    }
+    int[] stack = new int[NODE_SIZE * levelEnds.length];
+    int stackSize = 0;
+    stack[stackSize++] = root;
+
+    while (stackSize > 0) {
+      int node = stack[--stackSize];
+      if (node < items.length) {
+        visitor.accept((T) items[node]);
+        continue;
+      }
+      int first = firstChild[node];
+      int end = Math.min(first + NODE_SIZE, levelEnd(first));
+      for (int child = first; child < end; ++child) {
+        if (intersects(child, minX, minY, maxX, maxY)) {
+          if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, 2 * stack.length);
+          }
+          stack[stackSize++] = child;
+        }
+      }
+    }
+  }
+
+  /**
+   * Call the visitor with all items and their envelopes, in Hilbert order.
+   */
+  @SuppressWarnings("unchecked")
+  public void forEach(BiConsumer<T, Envelope> visitor) {
+    for (int i = 0; i < items.length; ++i) {
+      int b = 4 * i;
+      var envelope = new Envelope(boxes[b], boxes[b + 2], boxes[b + 1], boxes[b + 3]);
+      visitor.accept((T) items[i], envelope);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "PackedHilbertRTree{items: " + items.length + ", nodes: " + nNodes + "}";
+  }
+
+  private boolean intersects(int node, double minX, double minY, double maxX, double maxY) {
+    int b = 4 * node;
+    return !(boxes[b] > maxX || boxes[b + 1] > maxY || boxes[b + 2] < minX || boxes[b + 3] < minY);
+  }
+
+  private int levelEnd(int node) {
+    for (int end : levelEnds) {
+      if (node < end) {
+        return end;
+      }
+    }
+    return nNodes;
+  }
+
+  /**
+   * Hilbert curve index of the point (x, y), with 16 bits coordinates. This is the fast
+   * non-recursive algorithm from <a href="https://github.com/rawrunprotected/hilbert_curves">
+   * hilbert_curves</a>, which is public domain.
+   */
+  static int hilbert(int x, int y) {
+    int a = x ^ y;
+    int b = 0xFFFF ^ a;
+    int c = 0xFFFF ^ (x | y);
+    int d = x & (y ^ 0xFFFF);
+
+    int A = a | (b >> 1);
+    int B = (a >> 1) ^ a;
+    int C = ((c >> 1) ^ (b & (d >> 1))) ^ c;
+    int D = ((a & (c >> 1)) ^ (d >> 1)) ^ d;
+
+    a = A;
+    b = B;
+    c = C;
+    d = D;
+    A = ((a & (a >> 2)) ^ (b & (b >> 2)));
+    B = ((a & (b >> 2)) ^ (b & ((a ^ b) >> 2)));
+    C ^= ((a & (c >> 2)) ^ (b & (d >> 2)));
+    D ^= ((b & (c >> 2)) ^ ((a ^ b) & (d >> 2)));
+
+    a = A;
+    b = B;
+    c = C;
+    d = D;
+    A = ((a & (a >> 4)) ^ (b & (b >> 4)));
+    B = ((a & (b >> 4)) ^ (b & ((a ^ b) >> 4)));
+    C ^= ((a & (c >> 4)) ^ (b & (d >> 4)));
+    D ^= ((b & (c >> 4)) ^ ((a ^ b) & (d >> 4)));
+
+    a = A;
+    b = B;
+    c = C;
+    d = D;
+    C ^= ((a & (c >> 8)) ^ (b & (d >> 8)));
+    D ^= ((b & (c >> 8)) ^ ((a ^ b) & (d >> 8)));
+
+    a = C ^ (C >> 1);
+    b = D ^ (D >> 1);
+
+    int i0 = x ^ y;
+    int i1 = b | (0xFFFF ^ (i0 | a));
+
+    return (interleave(i1) << 1) | interleave(i0);
+  }
+
+  /** Spread the lower 16 bits of the value to the even bits. */
+  private static int interleave(int value) {
+    value = (value | (value << 8)) & 0x00FF00FF;
+    value = (value | (value << 4)) & 0x0F0F0F0F;
+    value = (value | (value << 2)) & 0x33333333;
+    value = (value | (value << 1)) & 0x55555555;
+    return value;
+  }
+
+  public static class Builder<T> {
+
+    private final List<T> items = new ArrayList<>();
+    private double[] boxes = new double[64];
+    private final Envelope extent = new Envelope();
+
+    private Builder() {}
+
+    public Builder<T> add(Envelope envelope, T item) {
+      int b = 4 * items.size();
+      if (b == boxes.length) {
+        boxes = Arrays.copyOf(boxes, 2 * boxes.length);
+      }
+      boxes[b] = envelope.getMinX();
+      boxes[b + 1] = envelope.getMinY();
+      boxes[b + 2] = envelope.getMaxX();
+      boxes[b + 3] = envelope.getMaxY();
+      items.add(item);
+      extent.expandToInclude(envelope);
+      return this;
+    }
+
+    public PackedHilbertRTree<T> build() {
+      int n = items.size();
+      double width = extent.getWidth();
+      double height = extent.getHeight();
+
+      // Sort by the Hilbert value in the upper bits, and keep the item index in the lower bits
+      long[] keys = new long[n];
+      for (int i = 0; i < n; ++i) {
+        int b = 4 * i;
+        int x = scale((boxes[b] + boxes[b + 2]) / 2 - extent.getMinX(), width);
+        int y = scale((boxes[b + 1] + boxes[b + 3]) / 2 - extent.getMinY(), height);
+        keys[i] = (Integer.toUnsignedLong(hilbert(x, y)) << 31) | i;
+      }
+      Arrays.sort(keys);
+
+      Object[] sortedItems = new Object[n];
+      double[] sortedBoxes = new double[4 * n];
+      for (int i = 0; i < n; ++i) {
+        int index = (int) (keys[i] & Integer.MAX_VALUE);
+        sortedItems[i] = items.get(index);
+        System.arraycopy(boxes, 4 * index, sortedBoxes, 4 * i, 4);
+      }
+      return new PackedHilbertRTree<>(sortedItems, sortedBoxes);
+    }
+
+    private static int scale(double value, double size) {
+      return size > 0 ? (int) Math.floor(HILBERT_MAX * value / size) : 0;
+    }
+  }
+}
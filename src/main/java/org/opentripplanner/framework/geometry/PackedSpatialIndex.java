@@ -0,0 +1,181 @@
+package org.opentripplanner.framework.geometry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.index.ItemVisitor;
+import org.locationtech.jts.index.SpatialIndex;
+
+/**
+ * A spatial index for data which is mostly static, like the street edges, the street vertices and
+ * the stops. The items are kept in a {@link PackedHilbertRTree}, and the changes made since the
+ * last call to {@link #compact()} in an overlay: the inserted items are kept in a
+ * {@link HashGridSpatialIndex} and the items removed from the tree in a set. Call
+ * {@link #compact()} to move all items into a new tree. The index is also compacted when the
+ * overlay grows too big, compared to the tree.
+ * <p>
+ * Compared to the {@link HashGridSpatialIndex}, a query on the tree does not return duplicates,
+ * and the performance does not degrade in dense areas or for big envelopes. Only items with an
+ * envelope intersecting the query envelope are returned, but the caller must still filter on the
+ * item geometry if needed.
+ * <p>
+ * Note: For performance reasons, write operation are not synchronized, it must be taken care by
+ * the client. Read-only operation are multi-thread-safe though.
+ *
+ * @param <T> Type of objects to be spatial indexed.
+ */
+public class PackedSpatialIndex<T> implements SpatialIndex {
+
+  private static final int MIN_OVERLAY_SIZE_TO_COMPACT = 1024;
+
+  private PackedHilbertRTree<T> tree;
+
+  /** Items removed from the tree since the last compact. */
+  private final Set<T> removed = new HashSet<>();
+
+  private HashGridSpatialIndex<T> overlay = new HashGridSpatialIndex<>();
+
+  /** The envelopes of the items in the overlay, used to insert them into the tree. */
+  private final Map<T, Envelope> overlayEnvelopes = new HashMap<>();
+
+  /**
+   * Create an index containing the items in the given tree. Use this to bulk load the index, the
+   * overlay is not made for inserting a large number of items.
+   */
+  public PackedSpatialIndex(PackedHilbertRTree<T> tree) {
+    this.tree = tree;
+  }
+
+  public PackedSpatialIndex() {
+    this(PackedHilbertRTree.<T>of().build());
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void insert(Envelope envelope, Object item) {
+    overlay.insert(envelope, item);
+    addOverlayEnvelope((T) item, envelope);
+    compactIfOverlayIsBig();
+  }
+
+  @SuppressWarnings("unchecked")
+  public void insert(LineString geometry, Object item) {
+    overlay.insert(geometry, item);
+    addOverlayEnvelope((T) item, geometry.getEnvelopeInternal());
+    compactIfOverlayIsBig();
+  }
+
+  @Override
+  public List<T> query(Envelope envelope) {
+    var result = new ArrayList<T>();
+    if (removed.isEmpty()) {
+      tree.query(envelope, result::add);
+    } else {
+      tree.query(
+        envelope,
+        it -> {
+          if (!removed.contains(it)) {
+            result.add(it);
+          }
+        }
+      );
+    }
+    if (!overlayEnvelopes.isEmpty()) {
+      var overlayItems = overlay.query(envelope);
+      if (!overlayItems.isEmpty()) {
+        // An item may be in both the tree and the overlay, if it is inserted more than once
+        var unique = new HashSet<>(result);
+        for (T it : overlayItems) {
+          if (unique.add(it)) {
+            result.add(it);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public void query(Envelope envelope, ItemVisitor visitor) {
+    for (T it : query(envelope)) {
+      visitor.visitItem(it);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean remove(Envelope envelope, Object item) {
+    var overlayEnvelope = overlayEnvelopes.remove(item);
+    if (overlayEnvelope != null) {
+      overlay.remove(overlayEnvelope, item);
+    }
+    boolean inTree = tree.query(envelope).contains(item) && removed.add((T) item);
+    compactIfOverlayIsBig();
+    return overlayEnvelope != null || inTree;
+  }
+
+  /**
+   * Build a new tree with all the items, and clear the overlay.
+   */
+  public void compact() {
+    if (removed.isEmpty() && overlayEnvelopes.isEmpty()) {
+      return;
+    }
+    var items = new LinkedHashMap<T, Envelope>();
+    tree.forEach((item, envelope) -> {
+      if (!removed.contains(item)) {
+        items.put(item, envelope);
+      }
+    });
+    overlayEnvelopes.forEach((item, envelope) ->
+      items.merge(item, envelope, PackedSpatialIndex::union)
+    );
+
+    var builder = PackedHilbertRTree.<T>of();
+    items.forEach((item, envelope) -> builder.add(envelope, item));
+    tree = builder.build();
+
+    removed.clear();
+    overlay = new HashGridSpatialIndex<>();
+    overlayEnvelopes.clear();
+  }
+
+  @Override
+  public String toString() {
+    return (
+      "PackedSpatialIndex{tree: " +
+      tree +
+      ", removed: " +
+      removed.size() +
+      ", overlay: " +
+      overlayEnvelopes.size() +
+      "}"
+    );
+  }
+
+  /**
+   * Rebuilding the tree is O(n log n), so the overlay is allowed to grow in proportion to the tree.
+   */
+  private void compactIfOverlayIsBig() {
+    int overlaySize = overlayEnvelopes.size() + removed.size();
+    if (overlaySize > Math.max(MIN_OVERLAY_SIZE_TO_COMPACT, tree.size() / 8)) {
+      compact();
+    }
+  }
+
+  private void addOverlayEnvelope(T item, Envelope envelope) {
+    overlayEnvelopes.merge(item, envelope, PackedSpatialIndex::union);
+  }
+
+  private static Envelope union(Envelope a, Envelope b) {
+    var result = new Envelope(a);
+    result.expandToInclude(b);
+    return result;
+  }
+}
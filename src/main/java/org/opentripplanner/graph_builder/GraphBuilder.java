@@ -160,6 +160,15 @@ public class GraphBuilder implements Runnable {
       graphBuilder.addModule(factory.graphCoherencyCheckerModule());
     }
 
+    // Run after all modules changing the street network, the landmarks are kept in the graph
+    if (config.streetLandmarks > 0 && (loadStreetGraph || hasOsm)) {
+      graphBuilder.addModule(factory.streetLandmarksModule());
+    }
+
+    if (config.carContractionHierarchy && (loadStreetGraph || hasOsm)) {
+      graphBuilder.addModule(factory.contractionHierarchyModule());
+    }
+
     if (OTPFeature.Co2Emissions.isOn()) {
       graphBuilder.addModule(factory.emissionsModule());
     }
@@ -211,6 +211,7 @@ public class NearbyStopFinder {
       .setFrom(reverseDirection ? null : originVertices)
       .setTo(reverseDirection ? originVertices : null)
       .setDataOverlayContext(dataOverlayContext)
+      .setPooledStorage(true)
       .getShortestPathTree();
 
     // Only used if OTPFeature.FlexRouting.isOn()
@@ -218,25 +219,29 @@ public class NearbyStopFinder {
 
     if (spt != null) {
       // TODO use GenericAStar and a traverseVisitor? Add an earliestArrival switch to genericAStar?
-      for (State state : spt.getAllStates()) {
-        Vertex targetVertex = state.getVertex();
-        if (originVertices.contains(targetVertex)) continue;
-        if (targetVertex instanceof TransitStopVertex tsv && state.isFinal()) {
-          stopsFound.add(NearbyStop.nearbyStopForState(state, tsv.getStop()));
-        }
-        if (
-          OTPFeature.FlexRouting.isOn() &&
-          targetVertex instanceof StreetVertex streetVertex && !streetVertex.areaStops().isEmpty()
-        ) {
-          for (AreaStop areaStop : ((StreetVertex) targetVertex).areaStops()) {
-            // This is for a simplification, so that we only return one vertex from each
-            // stop location. All vertices are added to the multimap, which is filtered
-            // below, so that only the closest vertex is added to stopsFound
-            if (canBoardFlex(state, reverseDirection)) {
-              locationsMap.put(areaStop, state);
+      try {
+        for (State state : spt.getAllStates()) {
+          Vertex targetVertex = state.getVertex();
+          if (originVertices.contains(targetVertex)) continue;
+          if (targetVertex instanceof TransitStopVertex tsv && state.isFinal()) {
+            stopsFound.add(NearbyStop.nearbyStopForState(state, tsv.getStop()));
+          }
+          if (
+            OTPFeature.FlexRouting.isOn() &&
+            targetVertex instanceof StreetVertex streetVertex && !streetVertex.areaStops().isEmpty()
+          ) {
+            for (AreaStop areaStop : ((StreetVertex) targetVertex).areaStops()) {
+              // This is for a simplification, so that we only return one vertex from each
+              // stop location. All vertices are added to the multimap, which is filtered
+              // below, so that only the closest vertex is added to stopsFound
+              if (canBoardFlex(state, reverseDirection)) {
+                locationsMap.put(areaStop, state);
+              }
             }
           }
         }
+      } finally {
+        spt.release();
       }
     }
 
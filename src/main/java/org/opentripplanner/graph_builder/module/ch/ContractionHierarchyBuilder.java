@@ -0,0 +1,360 @@
+package org.opentripplanner.graph_builder.module.ch;
+
+import gnu.trove.list.array.TFloatArrayList;
+import gnu.trove.list.array.TIntArrayList;
+import java.util.Arrays;
+import org.opentripplanner.astar.model.IntBinHeap;
+import org.opentripplanner.framework.logging.ProgressTracker;
+import org.opentripplanner.street.model.ch.ContractionHierarchy;
+import org.opentripplanner.street.model.compact.CompactStreetGraph;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.TraverseMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Create a {@link ContractionHierarchy} for the car street network.
+ * <p>
+ * The vertices are contracted in the order of a priority, which is updated lazily: the vertex
+ * with the lowest priority is taken from the queue, and its priority is computed again. If it is
+ * no longer the lowest, it is put back in the queue. The priority is the number of shortcuts
+ * added minus the number of arcs removed (the edge difference), plus the number of contracted
+ * neighbours and the level of the vertex in the hierarchy, to contract the graph uniformly.
+ * <p>
+ * A shortcut is only added if a limited "witness" search does not find another path which is at
+ * least as short. If the witness search is stopped by the limit, a shortcut is added, which is
+ * never wrong, only unnecessary.
+ * <p>
+ * THIS CLASS IS NOT THREAD-SAFE.
+ */
+class ContractionHierarchyBuilder {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ContractionHierarchyBuilder.class);
+
+  /** The max number of vertices settled by a witness search. */
+  private static final int MAX_WITNESS_SETTLED = 500;
+
+  /**
+   * The max number of vertices settled by a witness search when computing the priority. This only
+   * makes the priority less precise, and the priority is computed many times for each vertex.
+   */
+  private static final int MAX_SIMULATED_WITNESS_SETTLED = 50;
+
+  private final CompactStreetGraph streets;
+
+  /* The vertices of the hierarchy, and the index of each street vertex in the hierarchy. */
+  private final TIntArrayList vertices = new TIntArrayList();
+  private final int[] streetVertexToVertex;
+
+  /* The street edges of the original arcs, and all arcs */
+  private final TIntArrayList edges = new TIntArrayList();
+  private final TIntArrayList arcFrom = new TIntArrayList();
+  private final TIntArrayList arcTo = new TIntArrayList();
+  private final TFloatArrayList arcWeight = new TFloatArrayList();
+  private final TIntArrayList arcEdge = new TIntArrayList();
+  private final TIntArrayList arcFirst = new TIntArrayList();
+  private final TIntArrayList arcSecond = new TIntArrayList();
+
+  /* The arcs between vertices not yet contracted. */
+  private TIntArrayList[] outArcs;
+  private TIntArrayList[] inArcs;
+  private boolean[] contracted;
+  private int[] contractedNeighbours;
+  private int[] level;
+
+  /* The final up and down arcs of each vertex. */
+  private TIntArrayList[] upArcs;
+  private TIntArrayList[] downArcs;
+
+  /* The witness search state, reused between searches with a generation stamp. */
+  private double[] witnessDuration;
+  private int[] witnessStamp;
+  private int stamp = 0;
+  private final IntBinHeap witnessQueue = new IntBinHeap(1000);
+
+  private ContractionHierarchyBuilder(CompactStreetGraph streets) {
+    this.streets = streets;
+    this.streetVertexToVertex = new int[streets.numberOfVertices()];
+    Arrays.fill(streetVertexToVertex, ContractionHierarchy.NOT_FOUND);
+    this.outArcs = new TIntArrayList[streets.numberOfVertices()];
+    this.inArcs = new TIntArrayList[streets.numberOfVertices()];
+  }
+
+  /**
+   * Create the hierarchy for the car street edges of the given graph, or return {@code null} if
+   * there are no car streets.
+   */
+  static ContractionHierarchy build(CompactStreetGraph streets) {
+    var builder = new ContractionHierarchyBuilder(streets);
+    builder.addOriginalArcs();
+    if (builder.vertices.isEmpty()) {
+      return null;
+    }
+    builder.contractAll();
+    return builder.createHierarchy();
+  }
+
+  private void addOriginalArcs() {
+    for (int e = 0; e < streets.numberOfEdges(); e++) {
+      int from = streets.fromVertex(e);
+      int to = streets.toVertex(e);
+      double speed = streets.carSpeed(e);
+      if (from == to || !streets.allows(e, TraverseMode.CAR) || !(speed > 0.0)) {
+        continue;
+      }
+      int u = vertexFor(from);
+      int w = vertexFor(to);
+      edges.add(e);
+      addArc(u, w, (float) (streets.distanceMeters(e) / speed), edges.size() - 1, -1, -1);
+    }
+  }
+
+  private int vertexFor(int streetVertex) {
+    int v = streetVertexToVertex[streetVertex];
+    if (v == ContractionHierarchy.NOT_FOUND) {
+      v = vertices.size();
+      vertices.add(streetVertex);
+      streetVertexToVertex[streetVertex] = v;
+      outArcs[v] = new TIntArrayList(4);
+      inArcs[v] = new TIntArrayList(4);
+    }
+    return v;
+  }
+
+  private void contractAll() {
+    int n = vertices.size();
+    contracted = new boolean[n];
+    contractedNeighbours = new int[n];
+    level = new int[n];
+    upArcs = new TIntArrayList[n];
+    downArcs = new TIntArrayList[n];
+    witnessDuration = new double[n];
+    witnessStamp = new int[n];
+    outArcs = Arrays.copyOf(outArcs, n);
+    inArcs = Arrays.copyOf(inArcs, n);
+
+    var queue = new IntBinHeap(n);
+    for (int v = 0; v < n; v++) {
+      queue.insert(v, priority(v));
+    }
+
+    var progress = ProgressTracker.track("Contract car street vertices", 10_000, n);
+    LOG.info(progress.startMessage());
+
+    while (!queue.isEmpty()) {
+      int v = queue.extractMin();
+      double priority = priority(v);
+      if (!queue.isEmpty() && priority > queue.peekMinKey()) {
+        queue.insert(v, priority);
+        continue;
+      }
+      contract(v, false);
+      progress.step(LOG::info);
+    }
+    LOG.info(progress.completeMessage());
+  }
+
+  private double priority(int v) {
+    int removed = 0;
+    for (int i = 0; i < outArcs[v].size(); i++) {
+      removed += contracted[arcTo.get(outArcs[v].get(i))] ? 0 : 1;
+    }
+    for (int i = 0; i < inArcs[v].size(); i++) {
+      removed += contracted[arcFrom.get(inArcs[v].get(i))] ? 0 : 1;
+    }
+    int shortcuts = contract(v, true);
+    return shortcuts - removed + contractedNeighbours[v] + level[v];
+  }
+
+  /**
+   * Contract the vertex, or if {@code simulate} is set, only count the shortcuts needed.
+   *
+   * @return the number of shortcuts
+   */
+  private int contract(int v, boolean simulate) {
+    var in = liveArcs(inArcs[v], true);
+    var out = liveArcs(outArcs[v], false);
+    int nShortcuts = 0;
+
+    float maxOut = 0f;
+    for (int i = 0; i < out.size(); i++) {
+      maxOut = Math.max(maxOut, arcWeight.get(out.get(i)));
+    }
+
+    for (int i = 0; i < in.size(); i++) {
+      int inArc = in.get(i);
+      int u = arcFrom.get(inArc);
+      float inWeight = arcWeight.get(inArc);
+      witnessSearch(
+        u,
+        v,
+        inWeight + maxOut,
+        simulate ? MAX_SIMULATED_WITNESS_SETTLED : MAX_WITNESS_SETTLED
+      );
+
+      for (int j = 0; j < out.size(); j++) {
+        int outArc = out.get(j);
+        int w = arcTo.get(outArc);
+        if (w == u) {
+          continue;
+        }
+        float weight = inWeight + arcWeight.get(outArc);
+        if (witness(w) <= weight) {
+          continue;
+        }
+        ++nShortcuts;
+        if (!simulate) {
+          addArc(u, w, weight, -1, inArc, outArc);
+        }
+      }
+    }
+
+    if (!simulate) {
+      contracted[v] = true;
+      upArcs[v] = out;
+      downArcs[v] = in;
+      for (int i = 0; i < out.size(); i++) {
+        updateNeighbour(v, arcTo.get(out.get(i)));
+      }
+      for (int i = 0; i < in.size(); i++) {
+        updateNeighbour(v, arcFrom.get(in.get(i)));
+      }
+      // The arcs are kept in the up and down lists, the working lists are no longer needed
+      outArcs[v] = null;
+      inArcs[v] = null;
+    }
+    return nShortcuts;
+  }
+
+  private void updateNeighbour(int v, int neighbour) {
+    ++contractedNeighbours[neighbour];
+    level[neighbour] = Math.max(level[neighbour], level[v] + 1);
+  }
+
+  /** The arcs to or from vertices not yet contracted. */
+  private TIntArrayList liveArcs(TIntArrayList arcs, boolean incoming) {
+    var live = new TIntArrayList(arcs.size());
+    for (int i = 0; i < arcs.size(); i++) {
+      int arc = arcs.get(i);
+      if (!contracted[incoming ? arcFrom.get(arc) : arcTo.get(arc)]) {
+        live.add(arc);
+      }
+    }
+    return live;
+  }
+
+  /**
+   * Search from {@code u} without passing {@code v}, until the max weight or the max number of
+   * settled vertices is reached.
+   */
+  private void witnessSearch(int u, int v, double maxWeight, int maxSettled) {
+    ++stamp;
+    witnessQueue.reset();
+    witnessDuration[u] = 0.0;
+    witnessStamp[u] = stamp;
+    witnessQueue.insert(u, 0.0);
+    int nSettled = 0;
+
+    while (!witnessQueue.isEmpty() && nSettled < maxSettled) {
+      double duration = witnessQueue.peekMinKey();
+      int x = witnessQueue.extractMin();
+      if (duration > witnessDuration[x]) {
+        // Already settled with a shorter duration
+        continue;
+      }
+      if (duration > maxWeight) {
+        break;
+      }
+      ++nSettled;
+      var arcs = outArcs[x];
+      for (int i = 0; i < arcs.size(); i++) {
+        int arc = arcs.get(i);
+        int y = arcTo.get(arc);
+        if (y == v || contracted[y]) {
+          continue;
+        }
+        double d = duration + arcWeight.get(arc);
+        if (witnessStamp[y] != stamp || d < witnessDuration[y]) {
+          witnessDuration[y] = d;
+          witnessStamp[y] = stamp;
+          witnessQueue.insert(y, d);
+        }
+      }
+    }
+  }
+
+  private double witness(int w) {
+    return witnessStamp[w] == stamp ? witnessDuration[w] : Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Add an arc, unless there is already an arc between the vertices which is at least as short.
+   * A longer arc between the vertices is replaced.
+   */
+  private void addArc(int u, int w, float weight, int edge, int first, int second) {
+    var out = outArcs[u];
+    for (int i = 0; i < out.size(); i++) {
+      int arc = out.get(i);
+      if (arcTo.get(arc) == w) {
+        if (arcWeight.get(arc) <= weight) {
+          return;
+        }
+        out.removeAt(i);
+        inArcs[w].remove(arc);
+        break;
+      }
+    }
+    int arc = arcTo.size();
+    arcFrom.add(u);
+    arcTo.add(w);
+    arcWeight.add(weight);
+    arcEdge.add(edge);
+    arcFirst.add(first);
+    arcSecond.add(second);
+    out.add(arc);
+    inArcs[w].add(arc);
+  }
+
+  private ContractionHierarchy createHierarchy() {
+    int n = vertices.size();
+    var hierarchyVertices = new Vertex[n];
+    for (int v = 0; v < n; v++) {
+      hierarchyVertices[v] = streets.vertex(vertices.get(v));
+    }
+    var streetEdges = new StreetEdge[edges.size()];
+    for (int e = 0; e < streetEdges.length; e++) {
+      streetEdges[e] = streets.edge(edges.get(e));
+    }
+
+    int[] upIndex = new int[n + 1];
+    int[] downIndex = new int[n + 1];
+    for (int v = 0; v < n; v++) {
+      upIndex[v + 1] = upIndex[v] + upArcs[v].size();
+      downIndex[v + 1] = downIndex[v] + downArcs[v].size();
+    }
+    int[] up = new int[upIndex[n]];
+    int[] down = new int[downIndex[n]];
+    for (int v = 0; v < n; v++) {
+      upArcs[v].toArray(up, 0, upIndex[v], upArcs[v].size());
+      downArcs[v].toArray(down, 0, downIndex[v], downArcs[v].size());
+    }
+
+    var hierarchy = new ContractionHierarchy(
+      hierarchyVertices,
+      streetEdges,
+      arcFrom.toArray(),
+      arcTo.toArray(),
+      arcWeight.toArray(),
+      arcEdge.toArray(),
+      arcFirst.toArray(),
+      arcSecond.toArray(),
+      upIndex,
+      up,
+      downIndex,
+      down
+    );
+    LOG.info("Car contraction hierarchy created: {}", hierarchy);
+    return hierarchy;
+  }
+}
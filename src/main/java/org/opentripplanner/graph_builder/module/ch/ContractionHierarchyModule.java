@@ -0,0 +1,35 @@
+package org.opentripplanner.graph_builder.module.ch;
+
+import jakarta.inject.Inject;
+import org.opentripplanner.graph_builder.model.GraphBuilderModule;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.street.model.ch.ContractionHierarchy;
+import org.opentripplanner.street.model.compact.CompactStreetGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Create the {@link ContractionHierarchy} used for direct car routing, and store it in the graph.
+ * This must run after all modules changing the street network.
+ */
+public class ContractionHierarchyModule implements GraphBuilderModule {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ContractionHierarchyModule.class);
+
+  private final Graph graph;
+
+  @Inject
+  public ContractionHierarchyModule(Graph graph) {
+    this.graph = graph;
+  }
+
+  @Override
+  public void buildGraph() {
+    var streets = CompactStreetGraph.of(graph.getStreetEdges());
+    var hierarchy = ContractionHierarchyBuilder.build(streets);
+    if (hierarchy == null) {
+      LOG.info("No car streets in graph, the contraction hierarchy is not created.");
+    }
+    graph.setCarContractionHierarchy(hierarchy);
+  }
+}
@@ -26,6 +26,7 @@ import org.opentripplanner.graph_builder.issue.service.DefaultDataImportIssueSto
 import org.opentripplanner.graph_builder.module.DirectTransferGenerator;
 import org.opentripplanner.graph_builder.module.StreetLinkerModule;
 import org.opentripplanner.graph_builder.module.islandpruning.PruneIslands;
+import org.opentripplanner.graph_builder.module.landmark.StreetLandmarksModule;
 import org.opentripplanner.graph_builder.module.ned.DegreeGridNEDTileSource;
 import org.opentripplanner.graph_builder.module.ned.ElevationModule;
 import org.opentripplanner.graph_builder.module.ned.GeotiffGridCoverageFactoryImpl;
@@ -79,6 +80,7 @@ public class GraphBuilderModules {
       .withStaticParkAndRide(config.staticParkAndRide)
       .withStaticBikeParkAndRide(config.staticBikeParkAndRide)
       .withMaxAreaNodes(config.maxAreaNodes)
+      .withCompactNodeStore(config.osmCompactNodeStore)
       .withBoardingAreaRefTags(config.boardingLocationTags)
       .withIssueStore(issueStore)
       .build();
@@ -252,6 +254,12 @@ public class GraphBuilderModules {
     );
   }
 
+  @Provides
+  @Singleton
+  static StreetLandmarksModule provideStreetLandmarksModule(BuildConfig config, Graph graph) {
+    return new StreetLandmarksModule(graph, config.streetLandmarks);
+  }
+
   @Provides
   @Singleton
   static EdgeUpdaterModule provideDataOverlayFactory(BuildConfig config, Graph graph) {
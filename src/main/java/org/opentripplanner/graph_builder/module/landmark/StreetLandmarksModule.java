@@ -0,0 +1,166 @@
+package org.opentripplanner.graph_builder.module.landmark;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+import org.opentripplanner.framework.logging.ProgressTracker;
+import org.opentripplanner.graph_builder.model.GraphBuilderModule;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.street.model.compact.CompactStreetGraph;
+import org.opentripplanner.street.model.landmark.LandmarkDistances;
+import org.opentripplanner.street.model.landmark.StreetLandmarks;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.TraverseMode;
+import org.opentripplanner.street.search.compact.CompactStreetSearch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Select landmarks and compute the distances from and to all street vertices, for the A* landmark
+ * heuristic. See {@link StreetLandmarks}.
+ * <p>
+ * The landmarks are selected with the "farthest" strategy: the next landmark is the vertex with
+ * the longest distance to the closest of the landmarks already selected. This spreads the
+ * landmarks along the border of the street network, where they give the best lower bounds.
+ */
+public class StreetLandmarksModule implements GraphBuilderModule {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StreetLandmarksModule.class);
+
+  /** The number of candidates for the first search, the one reaching most vertices is used. */
+  private static final int N_START_CANDIDATES = 8;
+
+  private final Graph graph;
+  private final int numberOfLandmarks;
+
+  public StreetLandmarksModule(Graph graph, int numberOfLandmarks) {
+    this.graph = graph;
+    this.numberOfLandmarks = numberOfLandmarks;
+  }
+
+  @Override
+  public void buildGraph() {
+    if (numberOfLandmarks <= 0) {
+      return;
+    }
+    var streets = CompactStreetGraph.of(graph.getStreetEdges());
+    if (streets.numberOfVertices() == 0) {
+      LOG.info("No streets in graph, street landmarks are not computed.");
+      return;
+    }
+    var vertices = new Vertex[streets.numberOfVertices()];
+    for (int v = 0; v < vertices.length; v++) {
+      vertices[v] = streets.vertex(v);
+    }
+    graph.setStreetLandmarks(
+      new StreetLandmarks(
+        vertices,
+        computeDistances(streets, TraverseMode.CAR, numberOfLandmarks),
+        computeDistances(streets, TraverseMode.BICYCLE, numberOfLandmarks)
+      )
+    );
+  }
+
+  /**
+   * Select the landmarks and compute the distances for the given mode. The distances for
+   * {@link TraverseMode#CAR} are in seconds, for {@link TraverseMode#BICYCLE} in meters.
+   */
+  @Nullable
+  static LandmarkDistances computeDistances(
+    CompactStreetGraph streets,
+    TraverseMode mode,
+    int numberOfLandmarks
+  ) {
+    int nVertices = streets.numberOfVertices();
+    var forward = new CompactStreetSearch(streets, mode, 1.0, false);
+    var reverse = new CompactStreetSearch(streets, mode, 1.0, true);
+
+    int start = selectStart(streets, forward);
+    if (start == CompactStreetGraph.NOT_FOUND) {
+      LOG.info("No {} streets in graph, no landmarks are computed.", mode);
+      return null;
+    }
+
+    var progress = ProgressTracker.track(mode + " street landmarks", 1, numberOfLandmarks);
+    LOG.info(progress.startMessage());
+
+    // The distance from the closest landmark, used to select the next landmark. The first
+    // landmark is the vertex farthest from the start.
+    float[] minDistance = new float[nVertices];
+    Arrays.fill(minDistance, Float.POSITIVE_INFINITY);
+    forward.searchAll(start, Double.POSITIVE_INFINITY);
+    int next = farthest(forward, minDistance, nVertices);
+    Arrays.fill(minDistance, Float.POSITIVE_INFINITY);
+
+    int[] landmarks = new int[numberOfLandmarks];
+    float[][] fromLandmark = new float[numberOfLandmarks][];
+    float[][] toLandmark = new float[numberOfLandmarks][];
+    int n = 0;
+
+    while (n < numberOfLandmarks && next != CompactStreetGraph.NOT_FOUND) {
+      landmarks[n] = next;
+      forward.searchAll(next, Double.POSITIVE_INFINITY);
+      fromLandmark[n] = durations(forward, nVertices);
+      reverse.searchAll(next, Double.POSITIVE_INFINITY);
+      toLandmark[n] = durations(reverse, nVertices);
+      ++n;
+      next = farthest(forward, minDistance, nVertices);
+      progress.step(LOG::info);
+    }
+    LOG.info(progress.completeMessage());
+
+    return new LandmarkDistances(
+      Arrays.copyOf(landmarks, n),
+      Arrays.copyOf(fromLandmark, n),
+      Arrays.copyOf(toLandmark, n)
+    );
+  }
+
+  /**
+   * Select the start vertex among a few candidates spread over the vertex indexes, the one reaching
+   * the most vertices is used. This avoids starting in a small, disconnected island.
+   */
+  private static int selectStart(CompactStreetGraph streets, CompactStreetSearch search) {
+    int nVertices = streets.numberOfVertices();
+    int best = CompactStreetGraph.NOT_FOUND;
+    int bestCount = 1;
+    for (int i = 0; i < N_START_CANDIDATES; i++) {
+      int candidate = (int) ((long) i * nVertices / N_START_CANDIDATES);
+      search.searchAll(candidate, Double.POSITIVE_INFINITY);
+      int count = search.settledVertices().length;
+      if (count > bestCount) {
+        best = candidate;
+        bestCount = count;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Update the distance to the closest landmark with the result of the last search, and return
+   * the reached vertex farthest from all landmarks, or {@link CompactStreetGraph#NOT_FOUND} if
+   * there are no more vertices to choose from.
+   */
+  private static int farthest(CompactStreetSearch search, float[] minDistance, int nVertices) {
+    int farthest = CompactStreetGraph.NOT_FOUND;
+    float max = 0f;
+    for (int v = 0; v < nVertices; v++) {
+      if (search.isReached(v)) {
+        minDistance[v] = Math.min(minDistance[v], (float) search.duration(v));
+      }
+      float d = minDistance[v];
+      if (d > max && d != Float.POSITIVE_INFINITY) {
+        max = d;
+        farthest = v;
+      }
+    }
+    return farthest;
+  }
+
+  private static float[] durations(CompactStreetSearch search, int nVertices) {
+    float[] durations = new float[nVertices];
+    for (int v = 0; v < nVertices; v++) {
+      durations[v] = (float) search.duration(v);
+    }
+    return durations;
+  }
+}
@@ -0,0 +1,181 @@
+package org.opentripplanner.graph_builder.module.osm;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.opentripplanner.openstreetmap.OsmProvider;
+import org.opentripplanner.openstreetmap.model.OSMNode;
+
+/**
+ * A node store for large OSM files, using a fraction of the memory of the
+ * {@link HashMapOsmNodeStore}. The nodes are not kept as objects, the ids and coordinates are
+ * stored in primitive arrays sorted by id, and the tags and provider of each node are interned, so
+ * all nodes without tags share the same entry. A node is about 20 bytes.
+ * <p>
+ * The coordinates are stored with 7 decimals, which is the precision of OSM data. The nodes are
+ * created on each lookup, so two lookups of the same id do not return the same instance, but
+ * instances are equal if they have the same id. To keep this consistent, all nodes returned by
+ * this store are created by it, also for the nodes added as objects.
+ * <p>
+ * OSM files are usually sorted by id, so the nodes are appended to the arrays. Nodes added out of
+ * order are kept in a map, which is merged into the arrays when it grows too big.
+ */
+class CompactOsmNodeStore implements OsmNodeStore {
+
+  private static final double COORDINATE_SCALE = 1e7;
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private long[] ids = new long[INITIAL_CAPACITY];
+  private int[] lats = new int[INITIAL_CAPACITY];
+  private int[] lons = new int[INITIAL_CAPACITY];
+  private int[] attributeIndexes = new int[INITIAL_CAPACITY];
+  private int size = 0;
+
+  /** Nodes added out of id order, not merged into the arrays yet. */
+  private TLongObjectMap<CompactOsmNode> unsorted = new TLongObjectHashMap<>();
+
+  private final List<Attributes> attributes = new ArrayList<>();
+  private final Map<Attributes, Integer> attributeIndexByValue = new HashMap<>();
+
+  @Override
+  public void add(OSMNode node) {
+    long id = node.getId();
+    int lat = toFixedPoint(node.lat);
+    int lon = toFixedPoint(node.lon);
+    int attributeIndex = attributeIndex(node);
+
+    if (size == 0 || id > ids[size - 1]) {
+      append(id, lat, lon, attributeIndex);
+    } else if (!containsKey(id)) {
+      unsorted.put(id, new CompactOsmNode(id, lat, lon, attributeIndex));
+      if (unsorted.size() > Math.max(INITIAL_CAPACITY, size / 8)) {
+        mergeUnsorted();
+      }
+    }
+  }
+
+  @Override
+  public OSMNode get(long nodeId) {
+    int i = Arrays.binarySearch(ids, 0, size, nodeId);
+    return i < 0 ? unsorted.get(nodeId) : node(i);
+  }
+
+  @Override
+  public boolean containsKey(long nodeId) {
+    return Arrays.binarySearch(ids, 0, size, nodeId) >= 0 || unsorted.containsKey(nodeId);
+  }
+
+  @Override
+  public int size() {
+    return size + unsorted.size();
+  }
+
+  private void append(long id, int lat, int lon, int attributeIndex) {
+    if (size == ids.length) {
+      int capacity = size + (size >> 1);
+      ids = Arrays.copyOf(ids, capacity);
+      lats = Arrays.copyOf(lats, capacity);
+      lons = Arrays.copyOf(lons, capacity);
+      attributeIndexes = Arrays.copyOf(attributeIndexes, capacity);
+    }
+    ids[size] = id;
+    lats[size] = lat;
+    lons[size] = lon;
+    attributeIndexes[size] = attributeIndex;
+    ++size;
+  }
+
+  /**
+   * Merge the nodes added out of order into the sorted arrays.
+   */
+  private void mergeUnsorted() {
+    long[] unsortedIds = unsorted.keys();
+    Arrays.sort(unsortedIds);
+
+    long[] sortedIds = ids;
+    int[] sortedLats = lats;
+    int[] sortedLons = lons;
+    int[] sortedAttributeIndexes = attributeIndexes;
+    int sortedSize = size;
+
+    int capacity = sortedSize + unsortedIds.length;
+    ids = new long[capacity];
+    lats = new int[capacity];
+    lons = new int[capacity];
+    attributeIndexes = new int[capacity];
+    size = 0;
+
+    int i = 0;
+    int j = 0;
+    while (i < sortedSize || j < unsortedIds.length) {
+      if (j == unsortedIds.length || (i < sortedSize && sortedIds[i] < unsortedIds[j])) {
+        append(sortedIds[i], sortedLats[i], sortedLons[i], sortedAttributeIndexes[i]);
+        ++i;
+      } else {
+        var node = unsorted.get(unsortedIds[j]);
+        append(node.getId(), node.fixedPointLat, node.fixedPointLon, node.attributeIndex);
+        ++j;
+      }
+    }
+    unsorted = new TLongObjectHashMap<>();
+  }
+
+  private OSMNode node(int index) {
+    return new CompactOsmNode(ids[index], lats[index], lons[index], attributeIndexes[index]);
+  }
+
+  private int attributeIndex(OSMNode node) {
+    var value = new Attributes(node.getOsmProvider(), Map.copyOf(node.getTags()));
+    return attributeIndexByValue.computeIfAbsent(
+      value,
+      it -> {
+        attributes.add(it);
+        return attributes.size() - 1;
+      }
+    );
+  }
+
+  private static int toFixedPoint(double coordinate) {
+    return (int) Math.round(coordinate * COORDINATE_SCALE);
+  }
+
+  private record Attributes(OsmProvider provider, Map<String, String> tags) {}
+
+  /**
+   * A node created by the store. The same node is created on each lookup, so nodes are equal if
+   * they have the same id.
+   */
+  private final class CompactOsmNode extends OSMNode {
+
+    private final int fixedPointLat;
+    private final int fixedPointLon;
+    private final int attributeIndex;
+
+    private CompactOsmNode(long id, int lat, int lon, int attributeIndex) {
+      this.fixedPointLat = lat;
+      this.fixedPointLon = lon;
+      this.attributeIndex = attributeIndex;
+      setId(id);
+      this.lat = lat / COORDINATE_SCALE;
+      this.lon = lon / COORDINATE_SCALE;
+
+      var attributes = CompactOsmNodeStore.this.attributes.get(attributeIndex);
+      setOsmProvider(attributes.provider());
+      attributes.tags().forEach(this::addTag);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof CompactOsmNode other && other.getId() == getId();
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(getId());
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package org.opentripplanner.graph_builder.module.osm;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import org.opentripplanner.openstreetmap.model.OSMNode;
+
+/**
+ * Keep all nodes as objects in a hash map. This is the fastest store, but it uses a lot of memory
+ * for large OSM files.
+ */
+class HashMapOsmNodeStore implements OsmNodeStore {
+
+  private final TLongObjectMap<OSMNode> nodesById = new TLongObjectHashMap<>();
+
+  @Override
+  public void add(OSMNode node) {
+    nodesById.putIfAbsent(node.getId(), node);
+  }
+
+  @Override
+  public OSMNode get(long nodeId) {
+    return nodesById.get(nodeId);
+  }
+
+  @Override
+  public boolean containsKey(long nodeId) {
+    return nodesById.containsKey(nodeId);
+  }
+
+  @Override
+  public int size() {
+    return nodesById.size();
+  }
+}
@@ -60,7 +60,7 @@ public class OsmDatabase {
   private final DataImportIssueStore issueStore;
 
   /* Map of all nodes used in ways/areas keyed by their OSM ID */
-  private final TLongObjectMap<OSMNode> nodesById = new TLongObjectHashMap<>();
+  private final OsmNodeStore nodesById;
 
   /* Map of all bike parking nodes, keyed by their OSM ID */
   private final TLongObjectMap<OSMNode> bikeParkingNodes = new TLongObjectHashMap<>();
@@ -131,7 +131,16 @@ public class OsmDatabase {
   public boolean noZeroLevels = true;
 
   public OsmDatabase(DataImportIssueStore issueStore) {
+    this(issueStore, false);
+  }
+
+  /**
+   * @param compactNodeStore keep the nodes in a {@link CompactOsmNodeStore}, to reduce the memory
+   *                         used when loading large OSM files.
+   */
+  public OsmDatabase(DataImportIssueStore issueStore, boolean compactNodeStore) {
     this.issueStore = issueStore;
+    this.nodesById = OsmNodeStore.of(compactNodeStore);
   }
 
   public OSMNode getNode(Long nodeId) {
@@ -227,10 +236,7 @@ public class OsmDatabase {
       return;
     }
 
-    if (nodesById.containsKey(node.getId())) {
-      return;
-    }
-    nodesById.put(node.getId(), node);
+    nodesById.add(node);
   }
 
   public void addWay(OSMWay way) {
@@ -636,8 +642,9 @@ public class OsmDatabase {
     node.setId(virtualNodeId);
     virtualNodeId--;
     waysNodeIds.add(node.getId());
-    nodesById.put(node.getId(), node);
-    return node;
+    nodesById.add(node);
+    // Return the node in the store, it is not the same instance if the store is compact
+    return nodesById.get(node.getId());
   }
 
   private void applyLevelsForWay(OSMWithTags way) {
@@ -0,0 +1,25 @@
+package org.opentripplanner.graph_builder.module.osm;
+
+import org.opentripplanner.openstreetmap.model.OSMNode;
+
+/**
+ * Stores the OSM nodes kept by the {@link OsmDatabase}, keyed by the OSM id. If a node with the
+ * same id is added more than once, the first one is kept.
+ */
+interface OsmNodeStore {
+  /**
+   * @param compact use the {@link CompactOsmNodeStore}, which uses a fraction of the memory, but
+   *                is a bit slower to look up nodes in.
+   */
+  static OsmNodeStore of(boolean compact) {
+    return compact ? new CompactOsmNodeStore() : new HashMapOsmNodeStore();
+  }
+
+  void add(OSMNode node);
+
+  OSMNode get(long nodeId);
+
+  boolean containsKey(long nodeId);
+
+  int size();
+}
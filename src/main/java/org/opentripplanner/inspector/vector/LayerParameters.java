@@ -10,6 +10,7 @@ public interface LayerParameters<T extends Enum<T>> {
   int MAX_ZOOM = 20;
   int CACHE_MAX_SECONDS = -1;
   double EXPANSION_FACTOR = 0.25d;
+  int PRERENDER_MAX_ZOOM = -1;
 
   /**
    * User-visible name of the layer
@@ -41,12 +42,22 @@ public interface LayerParameters<T extends Enum<T>> {
   }
 
   /**
-   * How long should the clients cache the response. -1 disables caching altogether.
+   * How long should the clients cache the response, this is also how long the server keeps the
+   * layer in the {@link VectorTileCache}. -1 disables caching altogether.
    */
   default int cacheMaxSeconds() {
     return CACHE_MAX_SECONDS;
   }
 
+  /**
+   * The tiles of the layer from the {@link #minZoom()} up to this zoom level are rendered and put
+   * in the server cache at startup. This has no effect if the layer is not cached, see
+   * {@link #cacheMaxSeconds()}. -1 disables the pre-rendering.
+   */
+  default int prerenderMaxZoom() {
+    return PRERENDER_MAX_ZOOM;
+  }
+
   /**
    * How much larger area, than the map tile should be used for fetching objects on the layer.
    * See <a href="https://blog.cyclemap.link/2020-01-25-tilebuffer/">this</a> for more details.
@@ -0,0 +1,86 @@
+package org.opentripplanner.inspector.vector;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import edu.colorado.cires.cmg.mvt.VectorTile;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * A server side cache of the vector tile layers. Each layer of a tile is cached separately, so
+ * tiles requested with different combinations of layers share the cached layers.
+ * <p>
+ * A layer is kept for the {@link LayerParameters#cacheMaxSeconds()} of the layer, the same time
+ * the clients are allowed to cache it. This way the static layers, like stops and stations, can be
+ * kept for a long time, while the real-time layers, like vehicle rental and parking, are refreshed
+ * often or not cached at all. Layers with a cacheMaxSeconds of zero or less are never cached.
+ * <p>
+ * Each layer is stored as an encoded tile containing only that layer. Encoded tiles can be
+ * concatenated to a tile with all the layers, because the layers are a repeated field in the
+ * protobuf message. Hence, serving a cached tile is just copying bytes.
+ * <p>
+ * This class is THREAD-SAFE.
+ */
+public class VectorTileCache {
+
+  /** A rough estimate of the memory used by each entry, in addition to the encoded layer. */
+  private static final int ENTRY_OVERHEAD_BYTES = 100;
+
+  private final Cache<Key, Entry> cache;
+
+  /**
+   * @param maxMegabytes The maximum size of the encoded layers in the cache. Zero disables the
+   *                     cache.
+   */
+  public VectorTileCache(int maxMegabytes) {
+    this.cache =
+      CacheBuilder
+        .newBuilder()
+        .maximumWeight(maxMegabytes * 1024L * 1024L)
+        .weigher((Key key, Entry entry) -> entry.tile().length + ENTRY_OVERHEAD_BYTES)
+        .build();
+  }
+
+  /**
+   * Return the encoded tile containing only the given layer. The layer is built if it is not in
+   * the cache, or if the cached layer is older than the {@code cacheMaxSeconds} of the layer.
+   */
+  public byte[] layer(
+    LayerParameters<?> layer,
+    int x,
+    int y,
+    int z,
+    Locale locale,
+    Supplier<VectorTile.Tile.Layer> layerBuilder
+  ) {
+    if (layer.cacheMaxSeconds() <= 0) {
+      return encode(layerBuilder.get());
+    }
+    var key = new Key(layer.type(), layer.name(), x, y, z, locale);
+    long now = System.nanoTime();
+    var entry = cache.getIfPresent(key);
+
+    if (entry == null || entry.isExpired(now, Duration.ofSeconds(layer.cacheMaxSeconds()))) {
+      entry = new Entry(encode(layerBuilder.get()), now);
+      cache.put(key, entry);
+    }
+    return entry.tile();
+  }
+
+  private static byte[] encode(VectorTile.Tile.Layer layer) {
+    return VectorTile.Tile.newBuilder().addLayers(layer).build().toByteArray();
+  }
+
+  /**
+   * The layer type is part of the key, since layers with the same name from different APIs may
+   * share the cache.
+   */
+  private record Key(Enum<?> type, String name, int x, int y, int z, Locale locale) {}
+
+  private record Entry(byte[] tile, long createdNanos) {
+    boolean isExpired(long now, Duration maxAge) {
+      return now - createdNanos > maxAge.toNanos();
+    }
+  }
+}
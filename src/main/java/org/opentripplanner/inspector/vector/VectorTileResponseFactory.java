@@ -1,9 +1,9 @@
 package org.opentripplanner.inspector.vector;
 
-import edu.colorado.cires.cmg.mvt.VectorTile;
 import jakarta.ws.rs.core.CacheControl;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response;
+import java.io.ByteArrayOutputStream;
 import java.util.List;
 import java.util.Locale;
 import java.util.stream.Collectors;
@@ -28,7 +28,7 @@ public class VectorTileResponseFactory {
     LayerBuilderFactory<LayerType> layerBuilderFactory,
     OtpServerRequestContext context
   ) {
-    VectorTile.Tile.Builder mvtBuilder = VectorTile.Tile.newBuilder();
+    var tile = new ByteArrayOutputStream();
     Envelope envelope = WebMercatorTile.tile2Envelope(x, y, z);
 
     int cacheMaxSeconds = Integer.MAX_VALUE;
@@ -57,10 +57,21 @@ public class VectorTileResponseFactory {
         z <= layerParameters.maxZoom()
       ) {
         cacheMaxSeconds = Math.min(cacheMaxSeconds, layerParameters.cacheMaxSeconds());
-        VectorTile.Tile.Layer layer = layerBuilderFactory
-          .createLayerBuilder(layerParameters, locale, context)
-          .build(envelope);
-        mvtBuilder.addLayers(layer);
+        // The encoded single-layer tiles are concatenated into one tile with all the layers
+        byte[] layer = context
+          .vectorTileCache()
+          .layer(
+            layerParameters,
+            x,
+            y,
+            z,
+            locale,
+            () ->
+              layerBuilderFactory
+                .createLayerBuilder(layerParameters, locale, context)
+                .build(envelope)
+          );
+        tile.writeBytes(layer);
       }
     }
 
@@ -71,10 +82,62 @@ public class VectorTileResponseFactory {
     return Response
       .status(Response.Status.OK)
       .cacheControl(cacheControl)
-      .entity(mvtBuilder.build().toByteArray())
+      .entity(tile.toByteArray())
       .build();
   }
 
+  /**
+   * Render the tiles covering the given area for the layers with a
+   * {@link LayerParameters#prerenderMaxZoom()}, and put them in the {@link VectorTileCache}. Only
+   * layers cached on the server are rendered.
+   *
+   * @return the number of layer tiles rendered.
+   */
+  public static <LayerType extends Enum<LayerType>> int prerender(
+    Envelope area,
+    Locale locale,
+    List<LayerParameters<LayerType>> layers,
+    LayerBuilderFactory<LayerType> layerBuilderFactory,
+    OtpServerRequestContext context
+  ) {
+    int count = 0;
+    for (LayerParameters<LayerType> layerParameters : layers) {
+      if (layerParameters.cacheMaxSeconds() <= 0) {
+        continue;
+      }
+      int maxZoom = Math.min(layerParameters.prerenderMaxZoom(), layerParameters.maxZoom());
+
+      for (int z = layerParameters.minZoom(); z <= maxZoom; ++z) {
+        // The tile y index increases southwards
+        int minX = WebMercatorTile.lon2tileX(area.getMinX(), z);
+        int maxX = WebMercatorTile.lon2tileX(area.getMaxX(), z);
+        int minY = WebMercatorTile.lat2tileY(area.getMaxY(), z);
+        int maxY = WebMercatorTile.lat2tileY(area.getMinY(), z);
+
+        for (int x = minX; x <= maxX; ++x) {
+          for (int y = minY; y <= maxY; ++y) {
+            Envelope envelope = WebMercatorTile.tile2Envelope(x, y, z);
+            context
+              .vectorTileCache()
+              .layer(
+                layerParameters,
+                x,
+                y,
+                z,
+                locale,
+                () ->
+                  layerBuilderFactory
+                    .createLayerBuilder(layerParameters, locale, context)
+                    .build(envelope)
+              );
+            ++count;
+          }
+        }
+      }
+    }
+    return count;
+  }
+
   @FunctionalInterface
   public interface LayerBuilderFactory<LayerType extends Enum<LayerType>> {
     LayerBuilder<?> createLayerBuilder(
@@ -1,19 +1,15 @@
 package org.opentripplanner.model;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.SetMultimap;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.ConcurrentModificationException;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import org.opentripplanner.framework.collection.PersistentMap;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.TransitLayerUpdater;
 import org.opentripplanner.transit.model.framework.FeedScopedId;
 import org.opentripplanner.transit.model.framework.Result;
@@ -53,33 +49,31 @@ public class TimetableSnapshot {
    * Route) for which we have an updated Timetable. The keys include both TripPatterns from the
    * scheduled GTFS, and TripPatterns added by realtime messages and tracked by the
    * TripPatternCache. Note that the keys will not include all scheduled TripPatterns, only those
-   * for which we've got an update. We use a HashMap rather than a Map so we can clone it. If this
-   * turns out to be slow/spacious we can use an array with integer pattern indexes. The SortedSet
-   * members are copy-on-write.
-   * FIXME: this could be made into a flat hashtable with compound keys.
+   * for which we've got an update. The map is persistent, so a commit can share it with the
+   * snapshot instead of copying it. The SortedSet members are copy-on-write.
    */
-  private HashMap<TripPattern, SortedSet<Timetable>> timetables = new HashMap();
+  private PersistentMap<TripPattern, SortedSet<Timetable>> timetables = PersistentMap.empty();
 
   /**
    * <p>
    * Map containing the current trip pattern given a trip id and a service date, if it has been
    * changed from the scheduled pattern with an update, for which the stopPattern is different.
    * </p>
-   * <p>
-   * This is a HashMap and not a Map so the clone function is available.
    */
-  private HashMap<TripIdAndServiceDate, TripPattern> realtimeAddedTripPattern = new HashMap<>();
+  private PersistentMap<TripIdAndServiceDate, TripPattern> realtimeAddedTripPattern =
+    PersistentMap.empty();
 
   /**
    * This maps contains all of the new or updated TripPatterns added by realtime data indexed on
    * stop. This has to be kept in order for them to be included in the stop times api call on a
    * specific stop.
    * <p>
-   * This is a SetMultimap, so that each pattern can only be added once.
+   * The pattern sets are immutable, so that each pattern can only be added once and the sets can
+   * be shared between snapshots.
    * <p>
    * TODO Find a generic way to keep all realtime indexes.
    */
-  private SetMultimap<StopLocation, TripPattern> patternsForStop = HashMultimap.create();
+  private PersistentMap<StopLocation, Set<TripPattern>> patternsForStop = PersistentMap.empty();
 
   /**
    * Boolean value indicating that timetable snapshot is read only if true. Once it is true, it
@@ -203,7 +197,7 @@ public class TimetableSnapshot {
         sortedTimetables.remove(old);
       }
       sortedTimetables.add(tt);
-      timetables.put(pattern, sortedTimetables);
+      timetables = timetables.put(pattern, sortedTimetables);
       dirtyTimetables.add(tt);
       dirty = true;
     }
@@ -223,7 +217,7 @@ public class TimetableSnapshot {
       // Remember this pattern for the added trip id and service date
       FeedScopedId tripId = updatedTripTimes.getTrip().getId();
       TripIdAndServiceDate tripIdAndServiceDate = new TripIdAndServiceDate(tripId, serviceDate);
-      realtimeAddedTripPattern.put(tripIdAndServiceDate, pattern);
+      realtimeAddedTripPattern = realtimeAddedTripPattern.put(tripIdAndServiceDate, pattern);
     }
 
     // To make these trip patterns visible for departureRow searches.
@@ -235,12 +229,12 @@ public class TimetableSnapshot {
   }
 
   /**
-   * This produces a small delay of typically around 50ms, which is almost entirely due to the
-   * indexing step. Cloning the map is much faster (2ms). It is perhaps better to index timetables
-   * as they are changed to avoid experiencing all this lag at once, but we want to avoid
-   * re-indexing when receiving multiple updates for the same timetable in rapid succession. This
-   * compromise is expressed by the maxSnapshotFrequency property of StoptimeUpdater. The indexing
-   * could be made much more efficient as well.
+   * The maps are persistent, so the new snapshot shares them with this buffer and the cost of a
+   * commit does not depend on the size of the network. Each update made to the buffer after the
+   * commit copies only the changed path in the maps. The transit layer is still updated during the
+   * commit, see {@link TransitLayerUpdater}. We want to avoid re-indexing when receiving multiple
+   * updates for the same timetable in rapid succession, this compromise is expressed by the
+   * maxSnapshotFrequency property of StoptimeUpdater.
    *
    * @return an immutable copy of this TimetableSnapshot with all updates applied
    */
@@ -248,7 +242,6 @@ public class TimetableSnapshot {
     return commit(null, false);
   }
 
-  @SuppressWarnings("unchecked")
   public TimetableSnapshot commit(TransitLayerUpdater transitLayerUpdater, boolean force) {
     if (readOnly) {
       throw new ConcurrentModificationException("This TimetableSnapshot is read-only.");
@@ -258,19 +251,17 @@ public class TimetableSnapshot {
     if (!force && !this.isDirty()) {
       return null;
     }
-    ret.timetables = (HashMap<TripPattern, SortedSet<Timetable>>) this.timetables.clone();
-    ret.realtimeAddedTripPattern =
-      (HashMap<TripIdAndServiceDate, TripPattern>) this.realtimeAddedTripPattern.clone();
+    ret.timetables = this.timetables;
+    ret.realtimeAddedTripPattern = this.realtimeAddedTripPattern;
+    ret.patternsForStop = this.patternsForStop;
 
     if (transitLayerUpdater != null) {
-      transitLayerUpdater.update(dirtyTimetables, timetables);
+      transitLayerUpdater.update(dirtyTimetables, timetables.asMap());
     }
 
     this.dirtyTimetables.clear();
     this.dirty = false;
 
-    ret.setPatternsForStop(HashMultimap.create(this.patternsForStop));
-
     ret.readOnly = true; // mark the snapshot as henceforth immutable
     return ret;
   }
@@ -299,7 +290,8 @@ public class TimetableSnapshot {
    * trip times from the timetable the trip has been added to.
    */
   public void removeLastAddedTripPattern(FeedScopedId feedScopedTripId, LocalDate serviceDate) {
-    realtimeAddedTripPattern.remove(new TripIdAndServiceDate(feedScopedTripId, serviceDate));
+    realtimeAddedTripPattern =
+      realtimeAddedTripPattern.remove(new TripIdAndServiceDate(feedScopedTripId, serviceDate));
   }
 
   /**
@@ -310,41 +302,39 @@ public class TimetableSnapshot {
       throw new ConcurrentModificationException("This TimetableSnapshot is read-only.");
     }
 
-    boolean modified = false;
-    for (Iterator<TripPattern> it = timetables.keySet().iterator(); it.hasNext();) {
-      TripPattern pattern = it.next();
-      SortedSet<Timetable> sortedTimetables = timetables.get(pattern);
+    var oldTimetables = timetables;
+    timetables.forEach((pattern, sortedTimetables) -> {
+      // Only copy the timetables of patterns with expired data
+      boolean expired = sortedTimetables
+        .stream()
+        .anyMatch(it -> !isValidAfter(it.getServiceDate(), serviceDate));
+      if (!expired) {
+        return;
+      }
       SortedSet<Timetable> toKeepTimetables = new TreeSet<>(new SortedTimetableComparator());
       for (Timetable timetable : sortedTimetables) {
-        if (serviceDate.compareTo(timetable.getServiceDate()) < 0) {
+        if (isValidAfter(timetable.getServiceDate(), serviceDate)) {
           toKeepTimetables.add(timetable);
-        } else {
-          modified = true;
         }
       }
 
       if (toKeepTimetables.isEmpty()) {
-        it.remove();
+        timetables = timetables.remove(pattern);
       } else {
-        timetables.put(pattern, toKeepTimetables);
+        timetables = timetables.put(pattern, toKeepTimetables);
       }
-    }
+    });
 
     // Also remove last added trip pattern for days that are purged
-    for (
-      Iterator<Entry<TripIdAndServiceDate, TripPattern>> iterator = realtimeAddedTripPattern
-        .entrySet()
-        .iterator();
-      iterator.hasNext();
-    ) {
-      TripIdAndServiceDate tripIdAndServiceDate = iterator.next().getKey();
-      if (serviceDate.compareTo(tripIdAndServiceDate.serviceDate()) >= 0) {
-        iterator.remove();
-        modified = true;
-      }
-    }
+    var oldRealtimeAddedTripPattern = realtimeAddedTripPattern;
+    realtimeAddedTripPattern =
+      realtimeAddedTripPattern.removeIf((tripIdAndServiceDate, pattern) ->
+        !isValidAfter(tripIdAndServiceDate.serviceDate(), serviceDate)
+      );
 
-    return modified;
+    return (
+      timetables != oldTimetables || realtimeAddedTripPattern != oldRealtimeAddedTripPattern
+    );
   }
 
   public boolean isDirty() {
@@ -360,11 +350,8 @@ public class TimetableSnapshot {
   }
 
   public Collection<TripPattern> getPatternsForStop(StopLocation stop) {
-    return patternsForStop.get(stop);
-  }
-
-  public void setPatternsForStop(SetMultimap<StopLocation, TripPattern> patternsForStop) {
-    this.patternsForStop = patternsForStop;
+    var patterns = patternsForStop.get(stop);
+    return patterns == null ? Set.of() : patterns;
   }
 
   /**
@@ -374,7 +361,12 @@ public class TimetableSnapshot {
    * @return true if the timetable changed as a result of the call
    */
   protected boolean clearTimetable(String feedId) {
-    return timetables.keySet().removeIf(tripPattern -> feedId.equals(tripPattern.getFeedId()));
+    var oldTimetables = timetables;
+    timetables =
+      timetables.removeIf((tripPattern, sortedTimetables) ->
+        feedId.equals(tripPattern.getFeedId())
+      );
+    return timetables != oldTimetables;
   }
 
   /**
@@ -384,11 +376,12 @@ public class TimetableSnapshot {
    * @return true if the realtimeAddedTripPattern changed as a result of the call
    */
   protected boolean clearRealtimeAddedTripPattern(String feedId) {
-    return realtimeAddedTripPattern
-      .keySet()
-      .removeIf(realtimeAddedTripPattern ->
-        feedId.equals(realtimeAddedTripPattern.tripId().getFeedId())
+    var oldRealtimeAddedTripPattern = realtimeAddedTripPattern;
+    realtimeAddedTripPattern =
+      realtimeAddedTripPattern.removeIf((tripIdAndServiceDate, pattern) ->
+        feedId.equals(tripIdAndServiceDate.tripId().getFeedId())
       );
+    return realtimeAddedTripPattern != oldRealtimeAddedTripPattern;
   }
 
   /**
@@ -399,11 +392,25 @@ public class TimetableSnapshot {
       //TODO - SIRI: Add pattern to index?
 
       for (var stop : tripPattern.getStops()) {
-        patternsForStop.put(stop, tripPattern);
+        var patterns = patternsForStop.get(stop);
+        if (patterns == null) {
+          patternsForStop = patternsForStop.put(stop, Set.of(tripPattern));
+        } else if (!patterns.contains(tripPattern)) {
+          var newPatterns = new HashSet<>(patterns);
+          newPatterns.add(tripPattern);
+          patternsForStop = patternsForStop.put(stop, Set.copyOf(newPatterns));
+        }
       }
     }
   }
 
+  /**
+   * Data for a service date is kept if it is after the given purge date.
+   */
+  private static boolean isValidAfter(LocalDate serviceDate, LocalDate purgeDate) {
+    return purgeDate.compareTo(serviceDate) < 0;
+  }
+
   protected static class SortedTimetableComparator implements Comparator<Timetable> {
 
     @Override
@@ -0,0 +1,164 @@
+package org.opentripplanner.openstreetmap;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.openstreetmap.osmosis.osmbinary.Fileformat;
+
+/**
+ * Split an OSM PBF file into its blobs, without decompressing or decoding them. This is the only
+ * part of the parsing which needs to be sequential, decompressing and decoding the blobs is done
+ * in parallel by the {@link OsmPbfDecoder}.
+ * <p>
+ * A file on the local file system is memory-mapped, so the blobs are slices of the mapped file
+ * and the three parse phases do not copy the file into the heap.
+ */
+abstract class OsmPbfBlobReader implements Closeable {
+
+  /** The max sizes allowed by the PBF specification. */
+  private static final int MAX_HEADER_SIZE = 64 * 1024;
+  private static final int MAX_BLOB_SIZE = 32 * 1024 * 1024;
+
+  /**
+   * Read the blobs of a file on the local file system by mapping it into memory.
+   */
+  static OsmPbfBlobReader map(Path file) throws IOException {
+    return new BufferReader(FileChannel.open(file, StandardOpenOption.READ));
+  }
+
+  /**
+   * Read the blobs of a file which is already loaded into memory.
+   */
+  static OsmPbfBlobReader of(byte[] bytes) {
+    return new BufferReader(ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * Read the blobs from a stream, used when the file is not on the local file system.
+   */
+  static OsmPbfBlobReader of(InputStream input) {
+    return new StreamReader(input);
+  }
+
+  /**
+   * Return the next blob, or {@code null} at the end of the file.
+   */
+  abstract Blob next() throws IOException;
+
+  /**
+   * A blob as stored in the file. The {@code data} is a serialized {@link Fileformat.Blob}.
+   */
+  record Blob(String type, ByteBuffer data) {}
+
+  private static void checkSize(String name, int size, int maxSize) throws IOException {
+    if (size < 0 || size > maxSize) {
+      throw new IOException("Invalid OSM PBF file, the " + name + " size is " + size + " bytes.");
+    }
+  }
+
+  private static final class BufferReader extends OsmPbfBlobReader {
+
+    /**
+     * A mapped buffer can not be larger than 2 GiB, so large files are mapped one window at the
+     * time. A window is always larger than the largest blob allowed.
+     */
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    /** The file channel, {@code null} if the data is in memory. */
+    private final FileChannel channel;
+    private final long size;
+    private ByteBuffer window;
+    private long windowStart = 0;
+
+    private BufferReader(FileChannel channel) throws IOException {
+      this.channel = channel;
+      this.size = channel.size();
+      this.window = ByteBuffer.allocate(0);
+    }
+
+    private BufferReader(ByteBuffer buffer) {
+      this.channel = null;
+      this.size = buffer.remaining();
+      this.window = buffer;
+    }
+
+    @Override
+    Blob next() throws IOException {
+      if (windowStart + window.position() >= size) {
+        return null;
+      }
+      int headerSize = slice(Integer.BYTES).getInt();
+      checkSize("blob header", headerSize, MAX_HEADER_SIZE);
+      var header = Fileformat.BlobHeader.parseFrom(slice(headerSize));
+      checkSize("blob", header.getDatasize(), MAX_BLOB_SIZE);
+      return new Blob(header.getType(), slice(header.getDatasize()));
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (channel != null) {
+        channel.close();
+      }
+    }
+
+    /**
+     * Return the next {@code length} bytes, and move past them.
+     */
+    private ByteBuffer slice(int length) throws IOException {
+      if (window.remaining() < length) {
+        remap(length);
+      }
+      int position = window.position();
+      window.position(position + length);
+      return window.slice(position, length);
+    }
+
+    private void remap(int length) throws IOException {
+      long position = windowStart + window.position();
+      if (channel == null || position + length > size) {
+        throw new EOFException("Unexpected end of OSM PBF file.");
+      }
+      long windowSize = Math.min(WINDOW_SIZE, size - position);
+      window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+      windowStart = position;
+    }
+  }
+
+  private static final class StreamReader extends OsmPbfBlobReader {
+
+    private final DataInputStream input;
+
+    private StreamReader(InputStream input) {
+      this.input = new DataInputStream(input);
+    }
+
+    @Override
+    Blob next() throws IOException {
+      int headerSize;
+      try {
+        headerSize = input.readInt();
+      } catch (EOFException e) {
+        return null;
+      }
+      checkSize("blob header", headerSize, MAX_HEADER_SIZE);
+      var header = Fileformat.BlobHeader.parseFrom(input.readNBytes(headerSize));
+      checkSize("blob", header.getDatasize(), MAX_BLOB_SIZE);
+      byte[] data = input.readNBytes(header.getDatasize());
+      if (data.length != header.getDatasize()) {
+        throw new EOFException("Unexpected end of OSM PBF file.");
+      }
+      return new Blob(header.getType(), ByteBuffer.wrap(data));
+    }
+
+    @Override
+    public void close() throws IOException {
+      input.close();
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package org.opentripplanner.openstreetmap;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import org.openstreetmap.osmosis.osmbinary.Fileformat;
+import org.openstreetmap.osmosis.osmbinary.Osmformat;
+import org.opentripplanner.graph_builder.module.osm.OsmDatabase;
+
+/**
+ * Decompress and decode the blobs of an OSM PBF file on a worker pool, and hand the decoded
+ * blocks over to the parser in file order. The parser and the {@link OsmDatabase} it feeds are
+ * not thread-safe, so only the decompression and the protobuf decoding is done in parallel. This
+ * is where most of the parse time is spent.
+ * <p>
+ * The number of blocks decoded ahead of the parser is bounded, so the memory used does not
+ * depend on the size of the file.
+ */
+class OsmPbfDecoder implements AutoCloseable {
+
+  private static final String OSM_HEADER = "OSMHeader";
+  private static final String OSM_DATA = "OSMData";
+
+  private final ExecutorService executor;
+  private final int maxBlocksInFlight;
+
+  OsmPbfDecoder(int nThreads) {
+    this.executor =
+      Executors.newFixedThreadPool(
+        nThreads,
+        new ThreadFactoryBuilder().setNameFormat("osm-pbf-decoder-%d").setDaemon(true).build()
+      );
+    this.maxBlocksInFlight = 2 * nThreads;
+  }
+
+  /**
+   * Decode all blobs read by the {@code reader} and pass the blocks to the {@code parser} in the
+   * order they appear in the file. The {@code onBlockParsed} callback is called after each blob
+   * is handled, on the calling thread.
+   *
+   * @return the number of blobs in the file.
+   */
+  int process(OsmPbfBlobReader reader, OpenStreetMapParser parser, Runnable onBlockParsed)
+    throws IOException {
+    Deque<Future<Object>> inFlight = new ArrayDeque<>();
+    int numberOfBlobs = 0;
+    try {
+      OsmPbfBlobReader.Blob blob;
+      while ((blob = reader.next()) != null) {
+        ++numberOfBlobs;
+        var it = blob;
+        inFlight.add(executor.submit(() -> decode(it)));
+        if (inFlight.size() >= maxBlocksInFlight) {
+          parse(inFlight.poll(), parser, onBlockParsed);
+        }
+      }
+      while (!inFlight.isEmpty()) {
+        parse(inFlight.poll(), parser, onBlockParsed);
+      }
+      return numberOfBlobs;
+    } finally {
+      inFlight.forEach(it -> it.cancel(true));
+    }
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private static void parse(
+    Future<Object> decodedBlock,
+    OpenStreetMapParser parser,
+    Runnable onBlockParsed
+  ) throws IOException {
+    switch (await(decodedBlock)) {
+      case Osmformat.HeaderBlock header -> parser.parse(header);
+      case Osmformat.PrimitiveBlock block -> parser.parse(block);
+      case null, default -> {}
+    }
+    onBlockParsed.run();
+  }
+
+  private static Object await(Future<Object> decodedBlock) throws IOException {
+    try {
+      return decodedBlock.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while decoding OSM PBF file.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioe) {
+        throw ioe;
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  /**
+   * Decode a blob, unknown blob types are skipped as required by the PBF specification.
+   *
+   * @return the decoded {@link Osmformat.HeaderBlock} or {@link Osmformat.PrimitiveBlock}, or
+   * {@code null} if the blob type is unknown.
+   */
+  private static Object decode(OsmPbfBlobReader.Blob blob) throws IOException {
+    return switch (blob.type()) {
+      case OSM_HEADER -> Osmformat.HeaderBlock.parseFrom(uncompress(blob));
+      case OSM_DATA -> Osmformat.PrimitiveBlock.parseFrom(uncompress(blob));
+      default -> null;
+    };
+  }
+
+  private static ByteString uncompress(OsmPbfBlobReader.Blob blob) throws IOException {
+    var data = Fileformat.Blob.parseFrom(blob.data());
+    if (data.hasRaw()) {
+      return data.getRaw();
+    }
+    if (!data.hasZlibData()) {
+      throw new IOException("Unsupported compression of OSM PBF blob, only zlib is supported.");
+    }
+    var inflater = new Inflater();
+    try {
+      inflater.setInput(data.getZlibData().asReadOnlyByteBuffer());
+      byte[] result = new byte[data.getRawSize()];
+      int length = 0;
+      while (length < result.length) {
+        int n = inflater.inflate(result, length, result.length - length);
+        if (n == 0) {
+          break;
+        }
+        length += n;
+      }
+      if (length != result.length) {
+        throw new IOException("Invalid OSM PBF blob, the size does not match the raw size.");
+      }
+      return UnsafeByteOperations.unsafeWrap(result);
+    } catch (DataFormatException e) {
+      throw new IOException("Invalid zlib data in OSM PBF blob.", e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
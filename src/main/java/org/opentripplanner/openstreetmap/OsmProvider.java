@@ -1,11 +1,9 @@
 package org.opentripplanner.openstreetmap;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.file.Path;
 import java.time.ZoneId;
-import org.openstreetmap.osmosis.osmbinary.file.BlockInputStream;
 import org.opentripplanner.datastore.api.DataSource;
 import org.opentripplanner.datastore.api.FileType;
 import org.opentripplanner.datastore.file.FileDataSource;
@@ -22,6 +20,10 @@ import org.slf4j.LoggerFactory;
 /**
  * Parser for the OpenStreetMap PBF format. Parses files in three passes: First the relations, then
  * the ways, then the nodes are also loaded.
+ * <p>
+ * In each pass the blobs of the file are decompressed and decoded in parallel, and handed over to
+ * the {@link OsmDatabase} in file order. A file on the local file system is memory-mapped, so
+ * {@code cacheDataInMem} only applies to other data sources.
  */
 public class OsmProvider {
 
@@ -39,6 +41,9 @@ public class OsmProvider {
   private final WayPropertySet wayPropertySet;
   private byte[] cachedBytes = null;
 
+  /** The number of blobs in the file, used for progress tracking after the first pass. */
+  private long numberOfBlobs = -1;
+
   /** For tests */
   public OsmProvider(File file, boolean cacheDataInMem) {
     this(new FileDataSource(file, FileType.OSM), OsmTagMapperSource.DEFAULT, null, cacheDataInMem);
@@ -59,16 +64,17 @@ public class OsmProvider {
   }
 
   public void readOSM(OsmDatabase osmdb) {
-    try {
+    int nThreads = Runtime.getRuntime().availableProcessors();
+    try (var decoder = new OsmPbfDecoder(nThreads)) {
       OpenStreetMapParser parser = new OpenStreetMapParser(osmdb, this);
 
-      parsePhase(parser, OsmParserPhase.Relations);
+      parsePhase(decoder, parser, OsmParserPhase.Relations);
       osmdb.doneFirstPhaseRelations();
 
-      parsePhase(parser, OsmParserPhase.Ways);
+      parsePhase(decoder, parser, OsmParserPhase.Ways);
       osmdb.doneSecondPhaseWays();
 
-      parsePhase(parser, OsmParserPhase.Nodes);
+      parsePhase(decoder, parser, OsmParserPhase.Nodes);
       osmdb.doneThirdPhaseNodes();
     } catch (Exception ex) {
       throw new IllegalStateException("error loading OSM from path " + source.path(), ex);
@@ -91,38 +97,31 @@ public class OsmProvider {
   }
 
   @SuppressWarnings("Convert2MethodRef")
-  private static InputStream track(OsmParserPhase phase, long size, InputStream inputStream) {
+  private void parsePhase(OsmPbfDecoder decoder, OpenStreetMapParser parser, OsmParserPhase phase)
+    throws IOException {
+    parser.setPhase(phase);
+    var progress = ProgressTracker.track("Parse OSM " + phase, 100, numberOfBlobs);
+    LOG.info(progress.startMessage());
     // Keep logging lambda, replacing it with a method-ref will cause the
     // logging to report incorrect class and line number
-    return ProgressTracker.track("Parse OSM " + phase, 1000, size, inputStream, m -> LOG.info(m));
-  }
-
-  private void parsePhase(OpenStreetMapParser parser, OsmParserPhase phase) throws IOException {
-    parser.setPhase(phase);
-    BlockInputStream in = null;
-    try {
-      in = new BlockInputStream(createInputStream(phase), parser);
-      in.process();
-    } finally {
-      // Close
-      try {
-        if (in != null) {
-          in.close();
-        }
-      } catch (Exception e) {
-        LOG.error(e.getMessage(), e);
-      }
+    try (var reader = createBlobReader()) {
+      numberOfBlobs = decoder.process(reader, parser, () -> progress.step(m -> LOG.info(m)));
     }
+    LOG.info(progress.completeMessage());
   }
 
-  private InputStream createInputStream(OsmParserPhase phase) {
+  private OsmPbfBlobReader createBlobReader() throws IOException {
+    // Compressed files can not be mapped into memory
+    if (source instanceof FileDataSource && !source.name().endsWith(".gz")) {
+      return OsmPbfBlobReader.map(Path.of(source.uri()));
+    }
     if (cacheDataInMem) {
       if (cachedBytes == null) {
         cachedBytes = source.asBytes();
       }
-      return track(phase, cachedBytes.length, new ByteArrayInputStream(cachedBytes));
+      return OsmPbfBlobReader.of(cachedBytes);
     }
-    return track(phase, source.size(), source.asInputStream());
+    return OsmPbfBlobReader.of(source.asInputStream());
   }
 
   public ZoneId getZoneId() {
@@ -35,7 +35,9 @@ public class RaptorService<T extends RaptorTripSchedule> {
     RaptorResponse<T> response;
 
     if (request.isDynamicSearch()) {
-      response = new RangeRaptorDynamicSearch<>(config, transitData, request).route();
+      var search = new RangeRaptorDynamicSearch<>(config, transitData, request);
+      response = search.route();
+      search.releaseHeuristics();
     } else {
       response = routeUsingStdWorker(transitData, request);
     }
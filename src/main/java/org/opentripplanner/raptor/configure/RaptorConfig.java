@@ -1,5 +1,8 @@
 package org.opentripplanner.raptor.configure;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.IntPredicate;
@@ -9,6 +12,7 @@ import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
 import org.opentripplanner.raptor.api.request.RaptorRequest;
 import org.opentripplanner.raptor.api.request.RaptorTuningParameters;
 import org.opentripplanner.raptor.rangeraptor.DefaultRangeRaptorWorker;
+import org.opentripplanner.raptor.rangeraptor.SearchWindowSlicesWorker;
 import org.opentripplanner.raptor.rangeraptor.context.SearchContext;
 import org.opentripplanner.raptor.rangeraptor.internalapi.Heuristics;
 import org.opentripplanner.raptor.rangeraptor.internalapi.PassThroughPointsService;
@@ -20,6 +24,7 @@ import org.opentripplanner.raptor.rangeraptor.multicriteria.configure.McRangeRap
 import org.opentripplanner.raptor.rangeraptor.standard.configure.StdRangeRaptorConfig;
 import org.opentripplanner.raptor.rangeraptor.transit.RaptorSearchWindowCalculator;
 import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
+import org.opentripplanner.raptor.util.StopArrayPool;
 
 /**
  * This class is responsible for creating a new search and holding application scoped Raptor state.
@@ -31,8 +36,15 @@ import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
  */
 public class RaptorConfig<T extends RaptorTripSchedule> {
 
+  /**
+   * The maximum number of int arrays and bit sets kept in the pool. A heuristic search uses three
+   * of each, so this is enough for the two heuristic searches of four concurrent requests.
+   */
+  private static final int STOP_ARRAY_POOL_SIZE = 24;
+
   private final ExecutorService threadPool;
   private final RaptorTuningParameters tuningParameters;
+  private final StopArrayPool stopArrayPool = new StopArrayPool(STOP_ARRAY_POOL_SIZE);
 
   /** The service is not final, because it depends on the request. */
   private PassThroughPointsService passThroughPointsService = null;
@@ -47,9 +59,7 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
   }
 
   public SearchContext<T> context(RaptorTransitDataProvider<T> transit, RaptorRequest<T> request) {
-    // The passThroughPointsService is needed to create the context, so we initialize it here.
-    this.passThroughPointsService = createPassThroughPointsService(request);
-    return new SearchContext<>(request, tuningParameters, transit, acceptC2AtDestination());
+    return context(transit, request, StopArrayPool.unpooled());
   }
 
   public RaptorWorker<T> createStdWorker(
@@ -61,10 +71,36 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
     return createWorker(context, stdConfig.state(), stdConfig.strategy());
   }
 
+  /**
+   * Create a multi-criteria worker. If the search-window is wide and the request allows it, the
+   * search-window is split into slices which are searched in parallel, see
+   * {@link SearchWindowSlicesWorker}.
+   */
   public RaptorWorker<T> createMcWorker(
     RaptorTransitDataProvider<T> transitData,
     RaptorRequest<T> request,
     Heuristics heuristics
+  ) {
+    var slices = searchWindowSlices(request);
+    if (slices.size() < 2) {
+      return createMcWorkerForOneSlice(transitData, request, heuristics);
+    }
+    var workers = slices
+      .stream()
+      .map(slice -> createMcWorkerForOneSlice(transitData, slice, heuristics))
+      .toList();
+    var pathComparator = new McRangeRaptorConfig<>(
+      context(transitData, request),
+      passThroughPointsService
+    )
+      .createPathParetoComparator();
+    return new SearchWindowSlicesWorker<>(workers, threadPool, pathComparator);
+  }
+
+  private RaptorWorker<T> createMcWorkerForOneSlice(
+    RaptorTransitDataProvider<T> transitData,
+    RaptorRequest<T> request,
+    Heuristics heuristics
   ) {
     final SearchContext<T> context = context(transitData, request);
     return new McRangeRaptorConfig<>(context, passThroughPointsService)
@@ -74,11 +110,16 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
       );
   }
 
+  /**
+   * Create a heuristic search. The stop arrays of the search are borrowed using the given lease,
+   * see {@link #leaseStopArrays()}.
+   */
   public RaptorWorker<T> createHeuristicSearch(
     RaptorTransitDataProvider<T> transitData,
-    RaptorRequest<T> request
+    RaptorRequest<T> request,
+    StopArrayPool.Lease stopArrays
   ) {
-    var context = context(transitData, request);
+    var context = context(transitData, request, stopArrays);
     var stdConfig = new StdRangeRaptorConfig<>(context);
     return createWorker(context, stdConfig.state(), stdConfig.strategy());
   }
@@ -92,6 +133,14 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
     return new StdRangeRaptorConfig<>(context).createHeuristics(results);
   }
 
+  /**
+   * Borrow stop arrays from the application scoped pool. The lease must be released when the
+   * search and its result are not used anymore.
+   */
+  public StopArrayPool.Lease leaseStopArrays() {
+    return stopArrayPool.lease();
+  }
+
   public boolean isMultiThreaded() {
     return threadPool != null;
   }
@@ -112,6 +161,68 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
 
   /* private factory methods */
 
+  private SearchContext<T> context(
+    RaptorTransitDataProvider<T> transit,
+    RaptorRequest<T> request,
+    StopArrayPool.Lease stopArrays
+  ) {
+    // The passThroughPointsService is needed to create the context, so we initialize it here.
+    this.passThroughPointsService = createPassThroughPointsService(request);
+    return new SearchContext<>(
+      request,
+      tuningParameters,
+      transit,
+      acceptC2AtDestination(),
+      stopArrays
+    );
+  }
+
+  /**
+   * Split the search-window of a forward search into slices with the same number of Range Raptor
+   * iterations. There is at most one slice for each thread in the thread pool, and the slices
+   * are at least {@link RaptorTuningParameters#minSearchWindowSlice()} long. The
+   * search-window-access-slack is only added to the first slice.
+   *
+   * @return the requests for each slice ordered by the earliest-departure-time, or a list with
+   *         the original request if the search-window is not split.
+   */
+  private List<RaptorRequest<T>> searchWindowSlices(RaptorRequest<T> request) {
+    var params = request.searchParams();
+    int minSliceSeconds = (int) tuningParameters.minSearchWindowSlice().toSeconds();
+    if (
+      !isMultiThreaded() ||
+      !request.runInParallel() ||
+      request.searchDirection().isInReverse() ||
+      minSliceSeconds <= 0 ||
+      !params.isEarliestDepartureTimeSet() ||
+      !params.isSearchWindowSet()
+    ) {
+      return List.of(request);
+    }
+    int searchWindow = params.searchWindowInSeconds();
+    int nSlices = Math.min(tuningParameters.searchThreadPoolSize(), searchWindow / minSliceSeconds);
+    if (nSlices < 2) {
+      return List.of(request);
+    }
+    // Round the slice up to a whole number of iterations
+    int step = tuningParameters.iterationDepartureStepInSeconds();
+    int sliceSeconds = step * (int) Math.ceil((double) searchWindow / (nSlices * step));
+
+    var slices = new ArrayList<RaptorRequest<T>>();
+    for (int start = 0; start < searchWindow; start += sliceSeconds) {
+      var builder = request.mutate();
+      builder
+        .searchParams()
+        .earliestDepartureTime(params.earliestDepartureTime() + start)
+        .searchWindowInSeconds(Math.min(sliceSeconds, searchWindow - start));
+      if (start > 0) {
+        builder.searchParams().searchWindowAccessSlack(Duration.ZERO);
+      }
+      slices.add(builder.build());
+    }
+    return slices;
+  }
+
   private static PassThroughPointsService createPassThroughPointsService(RaptorRequest<?> request) {
     return McRangeRaptorConfig.passThroughPointsService(request.multiCriteria());
   }
@@ -0,0 +1,128 @@
+package org.opentripplanner.raptor.rangeraptor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.opentripplanner.framework.application.OTPRequestTimeoutException;
+import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
+import org.opentripplanner.raptor.api.path.RaptorPath;
+import org.opentripplanner.raptor.rangeraptor.internalapi.RaptorWorker;
+import org.opentripplanner.raptor.rangeraptor.internalapi.RaptorWorkerResult;
+import org.opentripplanner.raptor.rangeraptor.internalapi.SingleCriteriaStopArrivals;
+import org.opentripplanner.raptor.util.paretoset.ParetoComparator;
+import org.opentripplanner.raptor.util.paretoset.ParetoSet;
+
+/**
+ * Run a Range Raptor search with a wide search-window as a set of searches, one for each slice of
+ * the search-window, in parallel. The paths found in each slice are merged into one pareto set,
+ * using the same comparator as the destination arrivals of each search.
+ * <p>
+ * Range Raptor iterates backwards in time and reuse the stop arrivals from later iterations, so
+ * each slice does more work than the same iterations do in a single search. The slices should
+ * not be too small, the total work increase with the number of slices. A slice does not see the
+ * stop arrivals of later slices, so it may find paths which a single search would prune. These
+ * are removed when the paths are merged, if they are dominated by paths found in other slices.
+ * <p>
+ * The stop arrivals of the result are the arrivals of the first slice - the slice with the
+ * earliest departure times.
+ *
+ * @param <T> The TripSchedule type defined by the user of the raptor API.
+ */
+public final class SearchWindowSlicesWorker<T extends RaptorTripSchedule>
+  implements RaptorWorker<T> {
+
+  private final List<RaptorWorker<T>> slices;
+  private final ExecutorService threadPool;
+  private final ParetoComparator<RaptorPath<T>> pathComparator;
+
+  /**
+   * @param slices the workers for each slice, ordered by the earliest-departure-time.
+   */
+  public SearchWindowSlicesWorker(
+    List<RaptorWorker<T>> slices,
+    ExecutorService threadPool,
+    ParetoComparator<RaptorPath<T>> pathComparator
+  ) {
+    this.slices = List.copyOf(slices);
+    this.threadPool = threadPool;
+    this.pathComparator = pathComparator;
+  }
+
+  @Override
+  public RaptorWorkerResult<T> route() {
+    var futures = new ArrayList<Future<RaptorWorkerResult<T>>>();
+    try {
+      // The first slice is routed in the current thread
+      for (int i = 1; i < slices.size(); ++i) {
+        futures.add(threadPool.submit(slices.get(i)::route));
+      }
+      var results = new ArrayList<RaptorWorkerResult<T>>();
+      results.add(slices.get(0).route());
+      for (var future : futures) {
+        results.add(future.get());
+      }
+      return new Result<>(results, mergePaths(results));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new OTPRequestTimeoutException();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw new IllegalStateException(
+        "Failed to run the search-window slices in parallel. Details: " + e.getMessage(),
+        e
+      );
+    } finally {
+      // Propagate interruption and errors to the running tasks, this does nothing if all tasks
+      // are done.
+      futures.forEach(it -> it.cancel(true));
+    }
+  }
+
+  /**
+   * Add the paths with the latest departure first, the same order as Range Raptor finds them. The
+   * pareto set keeps the first of two equivalent paths.
+   */
+  private Collection<RaptorPath<T>> mergePaths(List<RaptorWorkerResult<T>> results) {
+    var paths = new ParetoSet<>(pathComparator);
+    for (int i = results.size() - 1; i >= 0; --i) {
+      paths.addAll(results.get(i).extractPaths());
+    }
+    return List.copyOf(paths);
+  }
+
+  private record Result<T extends RaptorTripSchedule>(
+    List<RaptorWorkerResult<T>> slices,
+    Collection<RaptorPath<T>> paths
+  )
+    implements RaptorWorkerResult<T> {
+    @Override
+    public Collection<RaptorPath<T>> extractPaths() {
+      return paths;
+    }
+
+    @Override
+    public SingleCriteriaStopArrivals extractBestOverallArrivals() {
+      return slices.get(0).extractBestOverallArrivals();
+    }
+
+    @Override
+    public SingleCriteriaStopArrivals extractBestTransitArrivals() {
+      return slices.get(0).extractBestTransitArrivals();
+    }
+
+    @Override
+    public SingleCriteriaStopArrivals extractBestNumberOfTransfers() {
+      return slices.get(0).extractBestNumberOfTransfers();
+    }
+
+    @Override
+    public boolean isDestinationReached() {
+      return slices.stream().anyMatch(RaptorWorkerResult::isDestinationReached);
+    }
+  }
+}
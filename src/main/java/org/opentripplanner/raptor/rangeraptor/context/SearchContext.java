@@ -41,6 +41,7 @@ import org.opentripplanner.raptor.rangeraptor.transit.SlackProviderAdapter;
 import org.opentripplanner.raptor.spi.RaptorCostCalculator;
 import org.opentripplanner.raptor.spi.RaptorSlackProvider;
 import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
+import org.opentripplanner.raptor.util.StopArrayPool;
 
 /**
  * The search context is used to hold search scoped instances and to pass these to who ever need
@@ -67,6 +68,7 @@ public class SearchContext<T extends RaptorTripSchedule> {
   private final EgressPaths egressPaths;
   private final AccessPaths accessPaths;
   private final LifeCycleSubscriptions lifeCycleSubscriptions = new LifeCycleSubscriptions();
+  private final StopArrayPool.Lease stopArrays;
 
   /** Lazy initialized */
   private RaptorCostCalculator<T> costCalculator = null;
@@ -74,16 +76,19 @@ public class SearchContext<T extends RaptorTripSchedule> {
   /**
    * @param acceptC2AtDestination Currently only the pass-through has a constraint on the c2 value
    *                             for accepting it at the destination, if not this is {@code null}.
+   * @param stopArrays The lease used to allocate arrays indexed by stop.
    */
   public SearchContext(
     RaptorRequest<T> request,
     RaptorTuningParameters tuningParameters,
     RaptorTransitDataProvider<T> transit,
-    IntPredicate acceptC2AtDestination
+    IntPredicate acceptC2AtDestination,
+    StopArrayPool.Lease stopArrays
   ) {
     this.request = request;
     this.tuningParameters = tuningParameters;
     this.transit = transit;
+    this.stopArrays = stopArrays;
     this.accessPaths = accessPaths(request);
     this.egressPaths = egressPaths(request);
     this.calculator = createCalculator(request, tuningParameters, acceptC2AtDestination);
@@ -176,6 +181,14 @@ public class SearchContext<T extends RaptorTripSchedule> {
     return transit.numberOfStops();
   }
 
+  /**
+   * Arrays indexed by stop should be allocated using this lease, so they can be reused by other
+   * searches if the search is pooled.
+   */
+  public StopArrayPool.Lease stopArrays() {
+    return stopArrays;
+  }
+
   /** Calculate the maximum number of rounds to perform. */
   public int nRounds() {
     if (request.searchParams().isMaxNumberOfTransfersSet()) {
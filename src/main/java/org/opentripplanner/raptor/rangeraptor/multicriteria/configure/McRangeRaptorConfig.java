@@ -5,6 +5,7 @@ import java.util.function.BiFunction;
 import javax.annotation.Nullable;
 import org.opentripplanner.raptor.api.model.DominanceFunction;
 import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
+import org.opentripplanner.raptor.api.path.RaptorPath;
 import org.opentripplanner.raptor.api.request.MultiCriteriaRequest;
 import org.opentripplanner.raptor.api.request.RaptorTransitGroupCalculator;
 import org.opentripplanner.raptor.rangeraptor.context.SearchContext;
@@ -78,6 +79,14 @@ public class McRangeRaptorConfig<T extends RaptorTripSchedule> {
     return createWorker.apply(state, createTransitWorkerStrategy(state));
   }
 
+  /**
+   * Create the comparator used to collect the destination arrival paths. This can be used to merge
+   * the paths of several workers.
+   */
+  public ParetoComparator<RaptorPath<T>> createPathParetoComparator() {
+    return pathConfig.createPathParetoComparator(resolveCostConfig(), includeC2Comparator());
+  }
+
   /* private factory methods */
 
   private RoutingStrategy<T> createTransitWorkerStrategy(McRangeRaptorWorkerState<T> state) {
@@ -158,8 +167,7 @@ public class McRangeRaptorConfig<T extends RaptorTripSchedule> {
 
   private DestinationArrivalPaths<T> createDestinationArrivalPaths() {
     if (paths == null) {
-      var c2Comp = includeC2() ? dominanceFunctionC2() : null;
-      paths = pathConfig.createDestArrivalPaths(resolveCostConfig(), c2Comp);
+      paths = pathConfig.createDestArrivalPaths(resolveCostConfig(), includeC2Comparator());
     }
     return paths;
   }
@@ -190,6 +198,11 @@ public class McRangeRaptorConfig<T extends RaptorTripSchedule> {
     throw new IllegalStateException("Only pass-through and transit-priority uses c2.");
   }
 
+  @Nullable
+  private DominanceFunction includeC2Comparator() {
+    return includeC2() ? dominanceFunctionC2() : null;
+  }
+
   @Nullable
   private DominanceFunction dominanceFunctionC2() {
     if (isPassThrough()) {
@@ -65,9 +65,11 @@ public class PathConfig<T extends RaptorTripSchedule> {
     );
   }
 
-  /* private members */
-
-  private ParetoComparator<RaptorPath<T>> createPathParetoComparator(
+  /**
+   * Create the comparator used by the pareto set of destination arrival paths. The parameters are
+   * the same as for {@link #createDestArrivalPaths(ParetoSetCost, DominanceFunction)}.
+   */
+  public ParetoComparator<RaptorPath<T>> createPathParetoComparator(
     ParetoSetCost costConfig,
     DominanceFunction c2Comp
   ) {
@@ -84,6 +86,8 @@ public class PathConfig<T extends RaptorTripSchedule> {
     return paretoComparator(paretoSetTimeConfig(), costConfig, relaxC1, c2Comp);
   }
 
+  /* private members */
+
   private ParetoSetTime paretoSetTimeConfig() {
     boolean preferLatestDeparture =
       ctx.searchParams().preferLateArrival() != ctx.searchDirection().isInReverse();
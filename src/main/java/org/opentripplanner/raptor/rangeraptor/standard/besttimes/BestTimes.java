@@ -1,7 +1,5 @@
 package org.opentripplanner.raptor.rangeraptor.standard.besttimes;
 
-import static org.opentripplanner.framework.lang.IntUtils.intArray;
-
 import java.util.BitSet;
 import org.opentripplanner.framework.tostring.ToStringBuilder;
 import org.opentripplanner.raptor.rangeraptor.internalapi.SingleCriteriaStopArrivals;
@@ -9,6 +7,7 @@ import org.opentripplanner.raptor.rangeraptor.internalapi.WorkerLifeCycle;
 import org.opentripplanner.raptor.rangeraptor.support.IntArraySingleCriteriaArrivals;
 import org.opentripplanner.raptor.rangeraptor.transit.TransitCalculator;
 import org.opentripplanner.raptor.util.BitSetIterator;
+import org.opentripplanner.raptor.util.StopArrayPool;
 
 /**
  * This class is responsible for keeping track of the overall best times and the best "on-board"
@@ -42,14 +41,19 @@ public final class BestTimes {
   /** Stops touched by in LAST round. */
   private BitSet reachedLastRound;
 
-  public BestTimes(int nStops, TransitCalculator<?> calculator, WorkerLifeCycle lifeCycle) {
+  public BestTimes(
+    int nStops,
+    StopArrayPool.Lease stopArrays,
+    TransitCalculator<?> calculator,
+    WorkerLifeCycle lifeCycle
+  ) {
     this.calculator = calculator;
-    this.times = intArray(nStops, calculator.unreachedTime());
-    this.reachedCurrentRound = new BitSet(nStops);
-    this.reachedLastRound = new BitSet(nStops);
+    this.times = stopArrays.intArray(nStops, calculator.unreachedTime());
+    this.reachedCurrentRound = stopArrays.bitSet(nStops);
+    this.reachedLastRound = stopArrays.bitSet(nStops);
 
-    this.transitArrivalTimes = intArray(nStops, calculator.unreachedTime());
-    this.reachedByTransitCurrentRound = new BitSet(nStops);
+    this.transitArrivalTimes = stopArrays.intArray(nStops, calculator.unreachedTime());
+    this.reachedByTransitCurrentRound = stopArrays.bitSet(nStops);
 
     // Attach to Worker life cycle
     lifeCycle.onSetupIteration(ignore -> setupIteration());
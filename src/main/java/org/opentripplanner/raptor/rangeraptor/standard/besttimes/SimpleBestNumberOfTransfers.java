@@ -1,10 +1,10 @@
 package org.opentripplanner.raptor.rangeraptor.standard.besttimes;
 
-import org.opentripplanner.framework.lang.IntUtils;
 import org.opentripplanner.raptor.rangeraptor.internalapi.RoundProvider;
 import org.opentripplanner.raptor.rangeraptor.internalapi.SingleCriteriaStopArrivals;
 import org.opentripplanner.raptor.rangeraptor.standard.internalapi.BestNumberOfTransfers;
 import org.opentripplanner.raptor.rangeraptor.support.IntArraySingleCriteriaArrivals;
+import org.opentripplanner.raptor.util.StopArrayPool;
 
 /**
  * The responsibility for this class is to keep track of the best (minimun) number of transfers for
@@ -15,8 +15,12 @@ public class SimpleBestNumberOfTransfers implements BestNumberOfTransfers {
   private final int[] bestNumOfTransfers;
   private final RoundProvider roundProvider;
 
-  public SimpleBestNumberOfTransfers(int nStops, RoundProvider roundProvider) {
-    this.bestNumOfTransfers = IntUtils.intArray(nStops, unreachedMinNumberOfTransfers());
+  public SimpleBestNumberOfTransfers(
+    int nStops,
+    StopArrayPool.Lease stopArrays,
+    RoundProvider roundProvider
+  ) {
+    this.bestNumOfTransfers = stopArrays.intArray(nStops, unreachedMinNumberOfTransfers());
     this.roundProvider = roundProvider;
   }
 
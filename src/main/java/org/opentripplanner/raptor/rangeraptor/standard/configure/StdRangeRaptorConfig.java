@@ -124,7 +124,8 @@ public class StdRangeRaptorConfig<T extends RaptorTripSchedule> {
    */
   private BestTimes resolveBestTimes() {
     if (bestTimes == null) {
-      bestTimes = new BestTimes(ctx.nStops(), ctx.calculator(), ctx.lifeCycle());
+      bestTimes =
+        new BestTimes(ctx.nStops(), ctx.stopArrays(), ctx.calculator(), ctx.lifeCycle());
     }
     return bestTimes;
   }
@@ -232,7 +233,7 @@ public class StdRangeRaptorConfig<T extends RaptorTripSchedule> {
    */
   private SimpleBestNumberOfTransfers createSimpleBestNumberOfTransfers() {
     return withBestNumberOfTransfers(
-      new SimpleBestNumberOfTransfers(ctx.nStops(), ctx.roundProvider())
+      new SimpleBestNumberOfTransfers(ctx.nStops(), ctx.stopArrays(), ctx.roundProvider())
     );
   }
 
@@ -12,6 +12,7 @@ import org.opentripplanner.raptor.rangeraptor.internalapi.Heuristics;
 import org.opentripplanner.raptor.rangeraptor.internalapi.RaptorWorker;
 import org.opentripplanner.raptor.rangeraptor.internalapi.RaptorWorkerResult;
 import org.opentripplanner.raptor.spi.RaptorTransitDataProvider;
+import org.opentripplanner.raptor.util.StopArrayPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,9 +32,12 @@ public class HeuristicSearchTask<T extends RaptorTripSchedule> {
   private final String name;
   private final RaptorConfig<T> config;
   private final RaptorTransitDataProvider<T> transitData;
+  private final StopArrayPool.Lease stopArrays;
 
   private boolean run = false;
   private RaptorWorker<T> search = null;
+  /** Set when the search is done, the search may run in another thread. */
+  private volatile boolean searchComplete = false;
   private RaptorRequest<T> originalRequest;
   private RaptorRequest<T> heuristicRequest;
   private RaptorWorkerResult<T> result = null;
@@ -57,6 +61,7 @@ public class HeuristicSearchTask<T extends RaptorTripSchedule> {
     this.name = name;
     this.config = config;
     this.transitData = transitData;
+    this.stopArrays = config.leaseStopArrays();
   }
 
   public String name() {
@@ -100,6 +105,17 @@ public class HeuristicSearchTask<T extends RaptorTripSchedule> {
     DebugHeuristics.debug(name(), result(), other.name(), other.result(), originalRequest);
   }
 
+  /**
+   * Return the stop arrays used by the search to the pool. The result of the search must not be
+   * used after this. If the search is not complete, the arrays are not released - the search may
+   * still run in another thread if the request was interrupted.
+   */
+  public void releaseStopArrays() {
+    if (searchComplete) {
+      stopArrays.release();
+    }
+  }
+
   /**
    * @throws DestinationNotReachedException if destination is not reached
    */
@@ -113,7 +129,11 @@ public class HeuristicSearchTask<T extends RaptorTripSchedule> {
     createHeuristicSearchIfNotExist(originalRequest);
 
     LOG.debug("Heuristic search: {}", heuristicRequest);
-    this.result = search.route();
+    try {
+      this.result = search.route();
+    } finally {
+      this.searchComplete = true;
+    }
     LOG.debug("Heuristic result: {}", result);
 
     if (!result.isDestinationReached()) {
@@ -144,7 +164,7 @@ public class HeuristicSearchTask<T extends RaptorTripSchedule> {
       );
 
       heuristicRequest = builder.build();
-      search = config.createHeuristicSearch(transitData, heuristicRequest);
+      search = config.createHeuristicSearch(transitData, heuristicRequest, stopArrays);
     }
   }
 }
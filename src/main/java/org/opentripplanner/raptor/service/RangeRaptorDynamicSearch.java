@@ -88,6 +88,15 @@ public class RangeRaptorDynamicSearch<T extends RaptorTripSchedule> {
     }
   }
 
+  /**
+   * Return the stop arrays used by the heuristic searches to the pool. The heuristics must not be
+   * used after this, call it when the response is created.
+   */
+  public void releaseHeuristics() {
+    fwdHeuristics.releaseStopArrays();
+    revHeuristics.releaseStopArrays();
+  }
+
   /**
    * Only exposed for testing purposes
    */
@@ -0,0 +1,152 @@
+package org.opentripplanner.raptor.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.opentripplanner.framework.lang.IntUtils;
+
+/**
+ * A pool of arrays and bit sets indexed by stop. These are sized by the total number of stops, and
+ * allocating them for every search adds up to several MB per request on a large network.
+ * <p>
+ * A search borrows arrays using a {@link Lease} and returns all of them when the search result
+ * is not used anymore. The arrays are reset when they are borrowed, not when they are returned.
+ * A returned bit set only clears the words in use, so the cost of reusing it is proportional to
+ * the number of stops reached, not to the total number of stops.
+ * <p>
+ * The pool is shared by all threads, the arrays are often borrowed in one of the search threads
+ * and returned by the request thread. The pool keeps at most {@code maxSize} arrays and bit sets,
+ * the rest are left to the garbage collector.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE.
+ */
+public final class StopArrayPool {
+
+  private final int maxSize;
+  private final Queue<int[]> intArrays = new ConcurrentLinkedQueue<>();
+  private final Queue<BitSet> bitSets = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger intArraysSize = new AtomicInteger();
+  private final AtomicInteger bitSetsSize = new AtomicInteger();
+
+  public StopArrayPool(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Create a new lease to borrow arrays from this pool. The lease is used by one search at a
+   * time, and should be released when the search result is not used anymore.
+   */
+  public Lease lease() {
+    return new Lease(this);
+  }
+
+  /**
+   * Create a lease which allocates new arrays and never returns them to a pool. This can be used
+   * for searches where the result is returned to the caller.
+   */
+  public static Lease unpooled() {
+    return new Lease(null);
+  }
+
+  int[] borrowIntArray(int size, int initialValue) {
+    int[] array = intArrays.poll();
+    if (array == null) {
+      return IntUtils.intArray(size, initialValue);
+    }
+    intArraysSize.decrementAndGet();
+    // The number of stops changes if a new graph is loaded, drop arrays with the old size
+    if (array.length != size) {
+      return IntUtils.intArray(size, initialValue);
+    }
+    Arrays.fill(array, initialValue);
+    return array;
+  }
+
+  BitSet borrowBitSet() {
+    BitSet set = bitSets.poll();
+    if (set == null) {
+      return null;
+    }
+    bitSetsSize.decrementAndGet();
+    set.clear();
+    return set;
+  }
+
+  void returnIntArray(int[] array) {
+    if (intArraysSize.incrementAndGet() <= maxSize) {
+      intArrays.offer(array);
+    } else {
+      intArraysSize.decrementAndGet();
+    }
+  }
+
+  void returnBitSet(BitSet set) {
+    if (bitSetsSize.incrementAndGet() <= maxSize) {
+      bitSets.offer(set);
+    } else {
+      bitSetsSize.decrementAndGet();
+    }
+  }
+
+  /**
+   * Keep track of the arrays borrowed by a search, so they can be returned to the pool together.
+   * <p>
+   * THIS CLASS IS NOT THREAD-SAFE. The arrays are borrowed while the search is created and
+   * released after the search is complete.
+   */
+  public static final class Lease {
+
+    private final StopArrayPool pool;
+    private final List<int[]> intArrays = new ArrayList<>();
+    private final List<BitSet> bitSets = new ArrayList<>();
+
+    private Lease(StopArrayPool pool) {
+      this.pool = pool;
+    }
+
+    /**
+     * Borrow an int array with all elements set to the given {@code initialValue}.
+     */
+    public int[] intArray(int size, int initialValue) {
+      if (pool == null) {
+        return IntUtils.intArray(size, initialValue);
+      }
+      int[] array = pool.borrowIntArray(size, initialValue);
+      intArrays.add(array);
+      return array;
+    }
+
+    /**
+     * Borrow an empty bit set.
+     */
+    public BitSet bitSet(int size) {
+      if (pool == null) {
+        return new BitSet(size);
+      }
+      BitSet set = pool.borrowBitSet();
+      if (set == null) {
+        set = new BitSet(size);
+      }
+      bitSets.add(set);
+      return set;
+    }
+
+    /**
+     * Return all borrowed arrays to the pool. The search and the result of the search using the
+     * arrays must not be used after this.
+     */
+    public void release() {
+      if (pool == null) {
+        return;
+      }
+      intArrays.forEach(pool::returnIntArray);
+      bitSets.forEach(pool::returnBitSet);
+      intArrays.clear();
+      bitSets.clear();
+    }
+  }
+}
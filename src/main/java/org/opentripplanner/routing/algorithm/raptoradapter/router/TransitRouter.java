@@ -9,10 +9,12 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
+import javax.annotation.Nullable;
 import org.opentripplanner.ext.ridehailing.RideHailingAccessShifter;
 import org.opentripplanner.framework.application.OTPFeature;
+import org.opentripplanner.framework.concurrent.OtpRequestExecutor;
+import org.opentripplanner.framework.geometry.WgsCoordinate;
+import org.opentripplanner.model.GenericLocation;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.raptor.RaptorService;
 import org.opentripplanner.raptor.api.path.RaptorPath;
@@ -30,6 +32,7 @@ import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.Acces
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.RaptorRequestMapper;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRoutingRequestTransitData;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RouteRequestTransitDataProviderFilter;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.TransitCorridor;
 import org.opentripplanner.routing.algorithm.transferoptimization.configure.TransferOptimizationServiceConfigurator;
 import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.routing.api.request.StreetMode;
@@ -176,18 +179,10 @@ public class TransitRouter {
     final var asyncEgressList = new ArrayList<DefaultAccessEgress>();
 
     if (OTPFeature.ParallelRouting.isOn()) {
-      try {
-        // TODO: This is not using {@link OtpRequestThreadFactory} which mean we do not get
-        //       log-trace-parameters-propagation and graceful timeout handling here.
-        CompletableFuture
-          .allOf(
-            CompletableFuture.runAsync(() -> asyncAccessList.addAll(fetchAccess())),
-            CompletableFuture.runAsync(() -> asyncEgressList.addAll(fetchEgress()))
-          )
-          .join();
-      } catch (CompletionException e) {
-        RoutingValidationException.unwrapAndRethrowCompletionException(e);
-      }
+      OtpRequestExecutor.runInParallel(
+        () -> asyncAccessList.addAll(fetchAccess()),
+        () -> asyncEgressList.addAll(fetchEgress())
+      );
     } else {
       asyncAccessList.addAll(fetchAccess());
       asyncEgressList.addAll(fetchEgress());
@@ -315,10 +310,56 @@ public class TransitRouter {
       additionalSearchDays.additionalSearchDaysInPast(),
       additionalSearchDays.additionalSearchDaysInFuture(),
       new RouteRequestTransitDataProviderFilter(request),
+      createTransitCorridor(transitLayer),
       request
     );
   }
 
+  /**
+   * The corridor is not used for pass-through searches and flex access/egress, since these may
+   * use stops far away from the direct line between the origin and the destination.
+   */
+  @Nullable
+  private TransitCorridor createTransitCorridor(TransitLayer transitLayer) {
+    if (
+      !request.getPassThroughPoints().isEmpty() ||
+      request.journey().access().mode() == StreetMode.FLEXIBLE ||
+      request.journey().egress().mode() == StreetMode.FLEXIBLE
+    ) {
+      return null;
+    }
+    var tuningParameters = serverContext.transitTuningParameters();
+    return TransitCorridor.of(
+      transitLayer,
+      coordinate(request.from()),
+      coordinate(request.to()),
+      tuningParameters.corridorDetourFactor(),
+      tuningParameters.corridorMargin()
+    );
+  }
+
+  @Nullable
+  private WgsCoordinate coordinate(GenericLocation location) {
+    if (location == null) {
+      return null;
+    }
+    if (location.lat != null && location.lng != null) {
+      return new WgsCoordinate(location.lat, location.lng);
+    }
+    if (location.stopId != null) {
+      var transitService = serverContext.transitService();
+      var stop = transitService.getStopLocation(location.stopId);
+      if (stop != null) {
+        return stop.getCoordinate();
+      }
+      var group = transitService.getStopLocationsGroup(location.stopId);
+      if (group != null) {
+        return group.getCoordinate();
+      }
+    }
+    return null;
+  }
+
   private void verifyAccessEgress(Collection<?> access, Collection<?> egress) {
     boolean accessExist = !access.isEmpty();
     boolean egressExist = !egress.isEmpty();
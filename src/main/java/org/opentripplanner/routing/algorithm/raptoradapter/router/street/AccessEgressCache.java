@@ -0,0 +1,132 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.router.street;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+import org.opentripplanner.ext.dataoverlay.routing.DataOverlayContext;
+import org.opentripplanner.model.GenericLocation;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.StreetRelevantOptions;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.request.StreetRequest;
+import org.opentripplanner.routing.graphfinder.NearbyStop;
+import org.opentripplanner.street.search.request.StreetSearchRequestMapper;
+import org.opentripplanner.transit.model.framework.FeedScopedId;
+
+/**
+ * Cache the stops found by the access/egress street search across requests. Many requests are
+ * sent from or to the same places with the same street preferences, and the street search is a
+ * large part of the response time for these.
+ * <p>
+ * Only walk and bike searches without data overlay are cached, since the result of these does not
+ * depend on the time of the search or on realtime vehicle rental and parking information. Entries
+ * are removed after the configured time-to-live, and all entries are removed when the realtime
+ * updaters change the street graph, see {@link #invalidate()}.
+ * <p>
+ * The cached stops contain the states of the street search. The time of these is not used, the
+ * access/egress legs are time-shifted to the departure of the trip when itineraries are created.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE.
+ */
+public class AccessEgressCache {
+
+  private final Cache<CacheKey, List<NearbyStop>> cache;
+  private final boolean enabled;
+
+  public AccessEgressCache(int maximumSize, Duration timeToLive) {
+    this.enabled = maximumSize > 0;
+    this.cache =
+      CacheBuilder
+        .newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(timeToLive)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Return the cached stops for the request, or perform the search and cache the result if the
+   * search can be cached.
+   */
+  public List<NearbyStop> get(
+    RouteRequest request,
+    StreetRequest streetRequest,
+    DataOverlayContext dataOverlayContext,
+    boolean fromTarget,
+    Duration durationLimit,
+    int maxStopCount,
+    Supplier<List<NearbyStop>> search
+  ) {
+    if (!isCacheable(streetRequest.mode(), dataOverlayContext)) {
+      return search.get();
+    }
+    var key = CacheKey.of(request, streetRequest, fromTarget, durationLimit, maxStopCount);
+    var stops = cache.getIfPresent(key);
+    if (stops == null) {
+      // The search is not done by the cache, a timeout should not be wrapped in an exception
+      stops = List.copyOf(search.get());
+      cache.put(key, stops);
+    }
+    return stops;
+  }
+
+  /**
+   * Remove all entries, this must be called when the street graph is modified.
+   */
+  public void invalidate() {
+    cache.invalidateAll();
+  }
+
+  public Cache<?, ?> getCache() {
+    return cache;
+  }
+
+  boolean isCacheable(StreetMode mode, DataOverlayContext dataOverlayContext) {
+    return (
+      enabled &&
+      dataOverlayContext == null &&
+      (mode == StreetMode.WALK || mode == StreetMode.BIKE)
+    );
+  }
+
+  /**
+   * The label of the location is part of the key, since it is used as the name of the temporary
+   * vertex the street search starts from.
+   */
+  private record CacheKey(
+    String label,
+    FeedScopedId stopId,
+    Double lat,
+    Double lng,
+    boolean fromTarget,
+    Duration durationLimit,
+    int maxStopCount,
+    StreetRelevantOptions options
+  ) {
+    static CacheKey of(
+      RouteRequest request,
+      StreetRequest streetRequest,
+      boolean fromTarget,
+      Duration durationLimit,
+      int maxStopCount
+    ) {
+      GenericLocation location = fromTarget ? request.to() : request.from();
+      var streetSearchRequest = StreetSearchRequestMapper
+        .map(request)
+        .withMode(streetRequest.mode())
+        .build();
+      return new CacheKey(
+        location.label,
+        location.stopId,
+        location.lat,
+        location.lng,
+        fromTarget,
+        durationLimit,
+        maxStopCount,
+        new StreetRelevantOptions(streetSearchRequest)
+      );
+    }
+  }
+}
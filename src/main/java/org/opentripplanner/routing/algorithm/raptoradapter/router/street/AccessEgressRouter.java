@@ -3,6 +3,7 @@ package org.opentripplanner.routing.algorithm.raptoradapter.router.street;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Supplier;
 import org.opentripplanner.ext.dataoverlay.routing.DataOverlayContext;
 import org.opentripplanner.framework.application.OTPRequestTimeoutException;
 import org.opentripplanner.graph_builder.module.NearbyStopFinder;
@@ -46,12 +47,28 @@ public class AccessEgressRouter {
       dataOverlayContext,
       true
     );
-    List<NearbyStop> nearbyStopList = nearbyStopFinder.findNearbyStopsViaStreets(
-      fromTarget ? verticesContainer.getToVertices() : verticesContainer.getFromVertices(),
-      fromTarget,
-      request,
-      streetRequest
-    );
+    Supplier<List<NearbyStop>> search = () ->
+      nearbyStopFinder.findNearbyStopsViaStreets(
+        fromTarget ? verticesContainer.getToVertices() : verticesContainer.getFromVertices(),
+        fromTarget,
+        request,
+        streetRequest
+      );
+
+    var transitLayer = transitService.getTransitLayer();
+    List<NearbyStop> nearbyStopList = transitLayer == null
+      ? search.get()
+      : transitLayer
+        .getAccessEgressCache()
+        .get(
+          request,
+          streetRequest,
+          dataOverlayContext,
+          fromTarget,
+          durationLimit,
+          maxStopCount,
+          search
+        );
 
     LOG.debug("Found {} {} stops", nearbyStopList.size(), fromTarget ? "egress" : "access");
 
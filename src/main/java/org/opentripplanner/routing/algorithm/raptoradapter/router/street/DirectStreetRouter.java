@@ -11,6 +11,7 @@ import org.opentripplanner.routing.algorithm.mapping.ItinerariesHelper;
 import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.routing.api.request.StreetMode;
 import org.opentripplanner.routing.error.PathNotFoundException;
+import org.opentripplanner.routing.impl.ContractionHierarchyPathFinder;
 import org.opentripplanner.routing.impl.GraphPathFinder;
 import org.opentripplanner.standalone.api.OtpServerRequestContext;
 import org.opentripplanner.street.model.edge.Edge;
@@ -39,12 +40,9 @@ public class DirectStreetRouter {
         return Collections.emptyList();
       }
 
-      // we could also get a persistent router-scoped GraphPathFinder but there's no setup cost here
-      GraphPathFinder gpFinder = new GraphPathFinder(
-        serverContext.traverseVisitor(),
-        serverContext.dataOverlayContext(request)
-      );
-      List<GraphPath<State, Edge, Vertex>> paths = gpFinder.graphPathFinderEntryPoint(
+      List<GraphPath<State, Edge, Vertex>> paths = findPaths(
+        serverContext,
+        request,
         directRequest,
         temporaryVertices
       );
@@ -67,6 +65,43 @@ public class DirectStreetRouter {
     }
   }
 
+  private static List<GraphPath<State, Edge, Vertex>> findPaths(
+    OtpServerRequestContext serverContext,
+    RouteRequest request,
+    RouteRequest directRequest,
+    TemporaryVerticesContainer temporaryVertices
+  ) {
+    var dataOverlayContext = serverContext.dataOverlayContext(request);
+    var hierarchy = serverContext.graph().getCarContractionHierarchy();
+
+    // The contraction hierarchy does not know about changed street costs, and the debug visitor
+    // needs the A* search
+    if (
+      hierarchy != null &&
+      dataOverlayContext == null &&
+      serverContext.traverseVisitor() == null &&
+      ContractionHierarchyPathFinder.isSupported(directRequest)
+    ) {
+      var paths = new ContractionHierarchyPathFinder(hierarchy)
+        .getPaths(
+          directRequest,
+          temporaryVertices.getFromVertices(),
+          temporaryVertices.getToVertices()
+        );
+      if (paths != null) {
+        return paths;
+      }
+    }
+
+    // we could also get a persistent router-scoped GraphPathFinder but there's no setup cost here
+    GraphPathFinder gpFinder = new GraphPathFinder(
+      serverContext.traverseVisitor(),
+      dataOverlayContext,
+      serverContext.graph().getStreetLandmarks()
+    );
+    return gpFinder.graphPathFinderEntryPoint(directRequest, temporaryVertices);
+  }
+
   private static boolean straightLineDistanceIsWithinLimit(
     RouteRequest request,
     TemporaryVerticesContainer vertexContainer
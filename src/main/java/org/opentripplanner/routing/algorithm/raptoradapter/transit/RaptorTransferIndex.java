@@ -1,69 +1,133 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit;
 
-import static java.util.stream.Collectors.toMap;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.function.Function;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import org.opentripplanner.raptor.api.model.RaptorTransfer;
 import org.opentripplanner.street.search.request.StreetSearchRequest;
 
+/**
+ * The transfers with the duration and cost calculated for a given street request. The transfers
+ * between the stops are shared with all other indexes, see {@link TransfersByStopIndex}; this
+ * class only stores the duration and cost of each transfer. The {@link RaptorTransfer}s are
+ * created when the transfers of a stop are iterated.
+ */
 public class RaptorTransferIndex {
 
-  private final List<RaptorTransfer>[] forwardTransfers;
+  /** The duration of a transfer which is not available for the request. */
+  private static final int NOT_AVAILABLE = -1;
 
-  private final List<RaptorTransfer>[] reversedTransfers;
+  private final TransfersByStopIndex transfers;
 
-  public RaptorTransferIndex(
-    List<List<RaptorTransfer>> forwardTransfers,
-    List<List<RaptorTransfer>> reversedTransfers
-  ) {
-    // Create immutable copies of the lists for each stop to make them immutable and faster to iterate
-    this.forwardTransfers = forwardTransfers.stream().map(List::copyOf).toArray(List[]::new);
-    this.reversedTransfers = reversedTransfers.stream().map(List::copyOf).toArray(List[]::new);
+  /** The duration in seconds by transfer index, or {@link #NOT_AVAILABLE}. */
+  private final int[] durations;
+
+  /** The Raptor generalized cost by transfer index. */
+  private final int[] c1s;
+
+  private RaptorTransferIndex(TransfersByStopIndex transfers, int[] durations, int[] c1s) {
+    this.transfers = transfers;
+    this.durations = durations;
+    this.c1s = c1s;
   }
 
   public static RaptorTransferIndex create(
-    List<List<Transfer>> transfersByStopIndex,
+    TransfersByStopIndex transfers,
     StreetSearchRequest request
   ) {
-    var forwardTransfers = new ArrayList<List<RaptorTransfer>>(transfersByStopIndex.size());
-    var reversedTransfers = new ArrayList<List<RaptorTransfer>>(transfersByStopIndex.size());
-
-    for (int i = 0; i < transfersByStopIndex.size(); i++) {
-      forwardTransfers.add(new ArrayList<>());
-      reversedTransfers.add(new ArrayList<>());
-    }
+    int[] durations = new int[transfers.numberOfTransfers()];
+    int[] c1s = new int[transfers.numberOfTransfers()];
 
-    for (int fromStop = 0; fromStop < transfersByStopIndex.size(); fromStop++) {
+    for (int fromStop = 0; fromStop < transfers.numberOfStops(); fromStop++) {
       // The transfers are filtered so that there is only one possible directional transfer
-      // for a stop pair.
-      var transfers = transfersByStopIndex
-        .get(fromStop)
-        .stream()
-        .flatMap(s -> s.asRaptorTransfer(request).stream())
-        .collect(
-          toMap(RaptorTransfer::stop, Function.identity(), (a, b) -> a.c1() < b.c1() ? a : b)
-        )
-        .values();
-
-      forwardTransfers.get(fromStop).addAll(transfers);
-
-      for (RaptorTransfer forwardTransfer : transfers) {
-        reversedTransfers
-          .get(forwardTransfer.stop())
-          .add(DefaultRaptorTransfer.reverseOf(fromStop, forwardTransfer));
+      // for a stop pair. The transfers from a stop are sorted by the to-stop, so only the
+      // previous available transfer needs to be checked.
+      int previous = NOT_AVAILABLE;
+      int end = transfers.fromStopEnd(fromStop);
+
+      for (int i = transfers.fromStopStart(fromStop); i < end; i++) {
+        var raptorTransfer = transfers.transfer(i).asRaptorTransfer(request);
+        if (raptorTransfer.isEmpty()) {
+          durations[i] = NOT_AVAILABLE;
+          continue;
+        }
+        durations[i] = raptorTransfer.get().durationInSeconds();
+        c1s[i] = raptorTransfer.get().c1();
+
+        if (previous != NOT_AVAILABLE && transfers.toStop(previous) == transfers.toStop(i)) {
+          if (c1s[previous] < c1s[i]) {
+            durations[i] = NOT_AVAILABLE;
+            continue;
+          }
+          durations[previous] = NOT_AVAILABLE;
+        }
+        previous = i;
       }
     }
+    return new RaptorTransferIndex(transfers, durations, c1s);
+  }
 
-    return new RaptorTransferIndex(forwardTransfers, reversedTransfers);
+  public Iterator<RaptorTransfer> getForwardTransfers(int stopIndex) {
+    return new TransferIterator(
+      transfers.fromStopStart(stopIndex),
+      transfers.fromStopEnd(stopIndex),
+      false
+    );
   }
 
-  public List<RaptorTransfer> getForwardTransfers(int stopIndex) {
-    return forwardTransfers[stopIndex];
+  public Iterator<RaptorTransfer> getReversedTransfers(int stopIndex) {
+    return new TransferIterator(
+      transfers.toStopStart(stopIndex),
+      transfers.toStopEnd(stopIndex),
+      true
+    );
   }
 
-  public List<RaptorTransfer> getReversedTransfers(int stopIndex) {
-    return reversedTransfers[stopIndex];
+  /**
+   * Iterate over the available transfers in a range of the transfer indexes, or of the indexes
+   * of the transfers to a stop if reversed.
+   */
+  private class TransferIterator implements Iterator<RaptorTransfer> {
+
+    private final int end;
+    private final boolean reversed;
+    private int next;
+
+    private TransferIterator(int start, int end, boolean reversed) {
+      this.end = end;
+      this.reversed = reversed;
+      this.next = findNext(start);
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next < end;
+    }
+
+    @Override
+    public RaptorTransfer next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      int i = transferIndex(next);
+      next = findNext(next + 1);
+
+      return new DefaultRaptorTransfer(
+        reversed ? transfers.fromStop(i) : transfers.toStop(i),
+        durations[i],
+        c1s[i],
+        transfers.transfer(i)
+      );
+    }
+
+    private int findNext(int index) {
+      while (index < end && durations[transferIndex(index)] == NOT_AVAILABLE) {
+        ++index;
+      }
+      return index;
+    }
+
+    private int transferIndex(int index) {
+      return reversed ? transfers.transferToStop(index) : index;
+    }
   }
 }
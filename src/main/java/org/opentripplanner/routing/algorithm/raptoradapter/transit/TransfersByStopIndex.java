@@ -0,0 +1,170 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.opentripplanner.framework.tostring.ToStringBuilder;
+
+/**
+ * The transfers between stops, stored in compressed sparse row (CSR) arrays. Each transfer has an
+ * index, and the transfers from a stop have the consecutive indexes in the range
+ * {@code [fromStopStart(stop), fromStopEnd(stop))}, sorted by the to-stop. The transfers to a stop
+ * are stored the same way, as a list of transfer indexes, see {@link #transferToStop(int)}.
+ * <p>
+ * This is the street request independent part of the transfers, and it is shared by all
+ * {@link RaptorTransferIndex}s. A transfer index only stores the duration and cost of each
+ * transfer for a given request. The {@link Transfer} is only used to calculate these, and to map
+ * the transfer legs of an itinerary.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+public class TransfersByStopIndex {
+
+  /** The first transfer index for each from-stop, the last element is the number of transfers. */
+  private final int[] fromStopStart;
+
+  private final int[] fromStops;
+  private final int[] toStops;
+  private final Transfer[] transfers;
+
+  /** The first index in {@link #transfersToStop} for each to-stop. */
+  private final int[] toStopStart;
+
+  /** The transfer indexes grouped by the to-stop, and sorted by the from-stop. */
+  private final int[] transfersToStop;
+
+  private TransfersByStopIndex(
+    int[] fromStopStart,
+    int[] fromStops,
+    int[] toStops,
+    Transfer[] transfers,
+    int[] toStopStart,
+    int[] transfersToStop
+  ) {
+    this.fromStopStart = fromStopStart;
+    this.fromStops = fromStops;
+    this.toStops = toStops;
+    this.transfers = transfers;
+    this.toStopStart = toStopStart;
+    this.transfersToStop = transfersToStop;
+  }
+
+  /**
+   * @param transfersByStopIndex The index of the outer list is the from-stop index, the inner
+   *                             list is the transfers from that stop.
+   */
+  public static TransfersByStopIndex of(List<List<Transfer>> transfersByStopIndex) {
+    final int nStops = transfersByStopIndex.size();
+    final int nTransfers = transfersByStopIndex.stream().mapToInt(List::size).sum();
+
+    int[] fromStopStart = new int[nStops + 1];
+    int[] fromStops = new int[nTransfers];
+    int[] toStops = new int[nTransfers];
+    Transfer[] transfers = new Transfer[nTransfers];
+
+    int i = 0;
+    for (int fromStop = 0; fromStop < nStops; ++fromStop) {
+      fromStopStart[fromStop] = i;
+      var sorted = new ArrayList<>(transfersByStopIndex.get(fromStop));
+      sorted.sort(Comparator.comparingInt(Transfer::getToStop));
+      for (Transfer transfer : sorted) {
+        fromStops[i] = fromStop;
+        toStops[i] = transfer.getToStop();
+        transfers[i] = transfer;
+        ++i;
+      }
+    }
+    fromStopStart[nStops] = i;
+
+    // Group the transfer indexes by to-stop, the transfer indexes are visited in order, so the
+    // transfers to each stop are sorted by the from-stop
+    int[] toStopStart = new int[nStops + 1];
+    for (int toStop : toStops) {
+      ++toStopStart[toStop + 1];
+    }
+    for (int s = 0; s < nStops; ++s) {
+      toStopStart[s + 1] += toStopStart[s];
+    }
+    int[] transfersToStop = new int[nTransfers];
+    int[] next = Arrays.copyOf(toStopStart, nStops);
+    for (int t = 0; t < nTransfers; ++t) {
+      transfersToStop[next[toStops[t]]++] = t;
+    }
+
+    return new TransfersByStopIndex(
+      fromStopStart,
+      fromStops,
+      toStops,
+      transfers,
+      toStopStart,
+      transfersToStop
+    );
+  }
+
+  public int numberOfStops() {
+    return fromStopStart.length - 1;
+  }
+
+  public int numberOfTransfers() {
+    return transfers.length;
+  }
+
+  /** The first transfer index from the given stop (inclusive). */
+  public int fromStopStart(int fromStop) {
+    return fromStopStart[fromStop];
+  }
+
+  /** The last transfer index from the given stop (exclusive). */
+  public int fromStopEnd(int fromStop) {
+    return fromStopStart[fromStop + 1];
+  }
+
+  /** The first index passed into {@link #transferToStop(int)} for the given stop (inclusive). */
+  public int toStopStart(int toStop) {
+    return toStopStart[toStop];
+  }
+
+  /** The last index passed into {@link #transferToStop(int)} for the given stop (exclusive). */
+  public int toStopEnd(int toStop) {
+    return toStopStart[toStop + 1];
+  }
+
+  /**
+   * Return the transfer index of a transfer to a stop.
+   *
+   * @param index An index in the range {@code [toStopStart(stop), toStopEnd(stop))}.
+   */
+  public int transferToStop(int index) {
+    return transfersToStop[index];
+  }
+
+  public int fromStop(int transferIndex) {
+    return fromStops[transferIndex];
+  }
+
+  public int toStop(int transferIndex) {
+    return toStops[transferIndex];
+  }
+
+  public Transfer transfer(int transferIndex) {
+    return transfers[transferIndex];
+  }
+
+  /**
+   * Return the transfers from the given stop. This is used by tests and debugging, use the
+   * transfer indexes in the routing code.
+   */
+  public List<Transfer> transfersFromStop(int fromStop) {
+    return List.of(Arrays.copyOfRange(transfers, fromStopStart(fromStop), fromStopEnd(fromStop)));
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder
+      .of(TransfersByStopIndex.class)
+      .addNum("nStops", numberOfStops())
+      .addNum("nTransfers", numberOfTransfers())
+      .toString();
+  }
+}
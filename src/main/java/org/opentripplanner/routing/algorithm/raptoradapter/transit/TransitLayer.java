@@ -5,15 +5,19 @@ import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.opentripplanner.model.transfer.TransferService;
+import org.opentripplanner.routing.algorithm.raptoradapter.router.street.AccessEgressCache;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.ConstrainedTransfersForPatterns;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.TransferIndexGenerator;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRequestTransferCache;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.TripPatternForDatesCache;
 import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.transit.model.network.RoutingTripPattern;
 import org.opentripplanner.transit.model.site.StopLocation;
 import org.opentripplanner.transit.service.StopModel;
 
@@ -23,13 +27,12 @@ public class TransitLayer {
    * Transit data required for routing, indexed by each local date(Graph TimeZone) it runs through.
    * A Trip "runs through" a date if any of its arrivals or departures is happening on that date.
    */
-  private final HashMap<LocalDate, List<TripPatternForDate>> tripPatternsRunningOnDate;
+  private final HashMap<LocalDate, TripPatternsRunningOnDate> tripPatternsRunningOnDate;
 
   /**
-   * Index of outer list is from stop index, inner list index has no specific meaning. To stop index
-   * is a field of the Transfer object.
+   * The transfers between stops, shared by the transfer indexes created for each street request.
    */
-  private final List<List<Transfer>> transfersByStopIndex;
+  private final TransfersByStopIndex transfersByStopIndex;
 
   /**
    * Trip to trip transfers like with properties like guaranteedTransfer, staySeated and priority.
@@ -42,6 +45,10 @@ public class TransitLayer {
 
   private final RaptorRequestTransferCache transferCache;
 
+  private final AccessEgressCache accessEgressCache;
+
+  private final TripPatternForDatesCache tripPatternForDatesCache;
+
   private ConstrainedTransfersForPatterns constrainedTransfers;
 
   private final TransferIndexGenerator transferIndexGenerator;
@@ -51,39 +58,47 @@ public class TransitLayer {
   /**
    * Makes a shallow copy of the TransitLayer, except for the tripPatternsForDate, where a shallow
    * copy of the HashMap is made. This is sufficient, as the TransitLayerUpdater will replace entire
-   * keys and their values in the map.
+   * keys and their values in the map, and the values are immutable. The trip pattern cache is
+   * copied, since the patterns changed in the copy are invalidated.
    */
   public TransitLayer(TransitLayer transitLayer) {
-    this(
-      transitLayer.tripPatternsRunningOnDate,
-      transitLayer.transfersByStopIndex,
-      transitLayer.transferService,
-      transitLayer.stopModel,
-      transitLayer.transitDataZoneId,
-      transitLayer.transferCache,
-      transitLayer.constrainedTransfers,
-      transitLayer.transferIndexGenerator,
-      transitLayer.stopBoardAlightCosts
-    );
+    this.tripPatternsRunningOnDate = new HashMap<>(transitLayer.tripPatternsRunningOnDate);
+    this.transfersByStopIndex = transitLayer.transfersByStopIndex;
+    this.transferService = transitLayer.transferService;
+    this.stopModel = transitLayer.stopModel;
+    this.transitDataZoneId = transitLayer.transitDataZoneId;
+    this.transferCache = transitLayer.transferCache;
+    this.accessEgressCache = transitLayer.accessEgressCache;
+    this.tripPatternForDatesCache = transitLayer.tripPatternForDatesCache.copy();
+    this.constrainedTransfers = transitLayer.constrainedTransfers;
+    this.transferIndexGenerator = transitLayer.transferIndexGenerator;
+    this.stopBoardAlightCosts = transitLayer.stopBoardAlightCosts;
   }
 
   public TransitLayer(
     Map<LocalDate, List<TripPatternForDate>> tripPatternsRunningOnDate,
-    List<List<Transfer>> transfersByStopIndex,
+    TransfersByStopIndex transfersByStopIndex,
     TransferService transferService,
     StopModel stopModel,
     ZoneId transitDataZoneId,
     RaptorRequestTransferCache transferCache,
+    AccessEgressCache accessEgressCache,
+    TripPatternForDatesCache tripPatternForDatesCache,
     ConstrainedTransfersForPatterns constrainedTransfers,
     TransferIndexGenerator transferIndexGenerator,
     int[] stopBoardAlightCosts
   ) {
-    this.tripPatternsRunningOnDate = new HashMap<>(tripPatternsRunningOnDate);
+    this.tripPatternsRunningOnDate = new HashMap<>();
+    tripPatternsRunningOnDate.forEach((date, patterns) ->
+      this.tripPatternsRunningOnDate.put(date, TripPatternsRunningOnDate.of(patterns))
+    );
     this.transfersByStopIndex = transfersByStopIndex;
     this.transferService = transferService;
     this.stopModel = stopModel;
     this.transitDataZoneId = transitDataZoneId;
     this.transferCache = transferCache;
+    this.accessEgressCache = accessEgressCache;
+    this.tripPatternForDatesCache = tripPatternForDatesCache;
     this.constrainedTransfers = constrainedTransfers;
     this.transferIndexGenerator = transferIndexGenerator;
     this.stopBoardAlightCosts = stopBoardAlightCosts;
@@ -95,7 +110,8 @@ public class TransitLayer {
   }
 
   public Collection<TripPatternForDate> getTripPatternsForDate(LocalDate date) {
-    return tripPatternsRunningOnDate.getOrDefault(date, List.of());
+    var tripPatternsForDate = tripPatternsRunningOnDate.get(date);
+    return tripPatternsForDate == null ? List.of() : tripPatternsForDate.values();
   }
 
   /**
@@ -113,8 +129,7 @@ public class TransitLayer {
   }
 
   public List<TripPatternForDate> getTripPatternsRunningOnDateCopy(LocalDate runningPeriodDate) {
-    List<TripPatternForDate> tripPatternForDate = tripPatternsRunningOnDate.get(runningPeriodDate);
-    return tripPatternForDate != null ? new ArrayList<>(tripPatternForDate) : new ArrayList<>();
+    return new ArrayList<>(getTripPatternsForDate(runningPeriodDate));
   }
 
   public List<TripPatternForDate> getTripPatternsStartingOnDateCopy(LocalDate date) {
@@ -137,6 +152,18 @@ public class TransitLayer {
     return transferCache;
   }
 
+  /**
+   * The cache is shared by all copies of the transit layer, since it does not depend on the
+   * transit data.
+   */
+  public AccessEgressCache getAccessEgressCache() {
+    return accessEgressCache;
+  }
+
+  public TripPatternForDatesCache getTripPatternForDatesCache() {
+    return tripPatternForDatesCache;
+  }
+
   @Nullable
   public ConstrainedTransfersForPatterns getConstrainedTransfers() {
     return constrainedTransfers;
@@ -151,14 +178,21 @@ public class TransitLayer {
   }
 
   /**
-   * Replaces all the TripPatternForDates for a single date. This is an atomic operation according
-   * to the HashMap implementation.
+   * Patches the TripPatternForDates for a single date, the {@code removed} patterns are removed and
+   * then the {@code added} patterns are added. Only the changed patterns are copied. This is an
+   * atomic operation according to the HashMap implementation. Dates without any patterns are not
+   * changed. The changed patterns are invalidated in the trip pattern cache.
    */
-  public void replaceTripPatternsForDate(
+  public void updateTripPatternsForDate(
     LocalDate date,
-    List<TripPatternForDate> tripPatternForDates
+    Collection<TripPatternForDate> removed,
+    Collection<TripPatternForDate> added
   ) {
-    this.tripPatternsRunningOnDate.replace(date, tripPatternForDates);
+    this.tripPatternsRunningOnDate.computeIfPresent(date, (d, it) -> it.patch(removed, added));
+    var changed = new HashSet<RoutingTripPattern>();
+    removed.forEach(it -> changed.add(it.getTripPattern()));
+    added.forEach(it -> changed.add(it.getTripPattern()));
+    tripPatternForDatesCache.invalidate(changed);
   }
 
   public void setConstrainedTransfers(ConstrainedTransfersForPatterns constrainedTransfers) {
@@ -47,6 +47,36 @@ public interface TransitTuningParameters {
       return 5;
     }
 
+    @Override
+    public boolean transferCacheBuildAsync() {
+      return false;
+    }
+
+    @Override
+    public int accessEgressCacheMaxSize() {
+      return 0;
+    }
+
+    @Override
+    public Duration accessEgressCacheTimeToLive() {
+      return Duration.ofMinutes(10);
+    }
+
+    @Override
+    public int tripPatternCacheMaxSize() {
+      return 0;
+    }
+
+    @Override
+    public double corridorDetourFactor() {
+      return 0.0;
+    }
+
+    @Override
+    public int corridorMargin() {
+      return 10_000;
+    }
+
     @Override
     public Duration maxSearchWindow() {
       return Duration.ofHours(24);
@@ -82,6 +112,45 @@ public interface TransitTuningParameters {
    */
   int transferCacheMaxSize();
 
+  /**
+   * Return {@code true} to create the transfers for a new transfer RouteRequest in the
+   * background. The request is routed with the transfers of the closest cached RouteRequest with
+   * the same transfer mode and accessibility, while the transfers are created.
+   */
+  boolean transferCacheBuildAsync();
+
+  /**
+   * The maximum number of access/egress street searches to cache across requests. Zero disables
+   * the cache.
+   */
+  int accessEgressCacheMaxSize();
+
+  /**
+   * The time an access/egress street search is kept in the cache.
+   */
+  Duration accessEgressCacheTimeToLive();
+
+  /**
+   * The maximum number of distinct search days and transit filters to cache the trip patterns of
+   * the transit data for. Zero disables the cache.
+   * {@link org.opentripplanner.routing.algorithm.raptoradapter.transit.request.TripPatternForDatesCache}
+   */
+  int tripPatternCacheMaxSize();
+
+  /**
+   * Prune the transit data of a request to the stops inside a corridor between the origin and
+   * the destination. The factor is the longest detour allowed compared to the direct distance. A
+   * value of 1.0 or less disables the pruning.
+   * {@link org.opentripplanner.routing.algorithm.raptoradapter.transit.request.TransitCorridor}
+   */
+  double corridorDetourFactor();
+
+  /**
+   * The distance in meters added to the corridor around the origin and the destination. This
+   * should cover the access and egress.
+   */
+  int corridorMargin();
+
   /**
    * The maximum search window that can be set through the searchWindow API parameter. Due to the
    * way timetable data are collected before a Raptor trip search, using a search window larger than
@@ -0,0 +1,78 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import org.opentripplanner.framework.collection.PersistentMap;
+import org.opentripplanner.transit.model.network.RoutingTripPattern;
+
+/**
+ * The {@link TripPatternForDate}s running on one date. This is immutable, real-time updates
+ * create a patched copy.
+ * <p>
+ * The scheduled data is kept as a plain list. The first time a date is patched, the patterns are
+ * indexed by pattern and service date in a {@link PersistentMap}. After this each patch only
+ * copies the paths to the changed patterns, so the cost of a real-time update is proportional to
+ * the number of updated patterns, not to the number of patterns running on the date.
+ */
+final class TripPatternsRunningOnDate {
+
+  private final List<TripPatternForDate> scheduled;
+  private final PersistentMap<Key, TripPatternForDate> index;
+
+  private TripPatternsRunningOnDate(
+    List<TripPatternForDate> scheduled,
+    PersistentMap<Key, TripPatternForDate> index
+  ) {
+    this.scheduled = scheduled;
+    this.index = index;
+  }
+
+  static TripPatternsRunningOnDate of(List<TripPatternForDate> tripPatternsForDate) {
+    return new TripPatternsRunningOnDate(tripPatternsForDate, null);
+  }
+
+  Collection<TripPatternForDate> values() {
+    return index == null ? scheduled : index.values();
+  }
+
+  /**
+   * Return a copy with the {@code removed} patterns removed and then the {@code added} patterns
+   * added. A pattern is only removed if it is the pattern in use for its pattern and service date.
+   */
+  TripPatternsRunningOnDate patch(
+    Collection<TripPatternForDate> removed,
+    Collection<TripPatternForDate> added
+  ) {
+    var result = index == null ? index(scheduled) : index;
+
+    for (TripPatternForDate it : removed) {
+      var key = Key.of(it);
+      if (Objects.equals(result.get(key), it)) {
+        result = result.remove(key);
+      }
+    }
+    for (TripPatternForDate it : added) {
+      result = result.put(Key.of(it), it);
+    }
+    return new TripPatternsRunningOnDate(null, result);
+  }
+
+  private static PersistentMap<Key, TripPatternForDate> index(List<TripPatternForDate> patterns) {
+    PersistentMap<Key, TripPatternForDate> index = PersistentMap.empty();
+    for (TripPatternForDate it : patterns) {
+      index = index.put(Key.of(it), it);
+    }
+    return index;
+  }
+
+  /**
+   * There is only one {@link TripPatternForDate} for each pattern and service date.
+   */
+  private record Key(RoutingTripPattern pattern, LocalDate serviceDate) {
+    static Key of(TripPatternForDate tripPatternForDate) {
+      return new Key(tripPatternForDate.getTripPattern(), tripPatternForDate.getLocalDate());
+    }
+  }
+}
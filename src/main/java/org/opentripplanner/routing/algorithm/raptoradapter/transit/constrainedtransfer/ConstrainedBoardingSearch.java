@@ -1,5 +1,6 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer;
 
+import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
 import javax.annotation.Nullable;
@@ -8,6 +9,7 @@ import org.opentripplanner.raptor.spi.RaptorBoardOrAlightEvent;
 import org.opentripplanner.raptor.spi.RaptorConstrainedBoardingSearch;
 import org.opentripplanner.raptor.spi.RaptorTimeTable;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.TripSearchTimetable;
 import org.opentripplanner.transit.model.timetable.Trip;
 
 /**
@@ -162,9 +164,15 @@ public final class ConstrainedBoardingSearch
     int nAllowedBoardings = 0;
     boolean useNextNormalTrip = false;
 
+    // Trips excluded by the request are not copied out of the timetable, skip them here
+    BitSet excludedTrips = timetable instanceof TripSearchTimetable<?> t ? t.excludedTrips() : null;
+
     var index = searchStrategy.scheduleIndexIterator(timetable);
     outer:while (index.hasNext()) {
       onTripIndex = index.next();
+      if (excludedTrips != null && excludedTrips.get(onTripIndex)) {
+        continue;
+      }
       var it = timetable.getTripSchedule(onTripIndex);
 
       // Forward: boardTime, Reverse: alightTime
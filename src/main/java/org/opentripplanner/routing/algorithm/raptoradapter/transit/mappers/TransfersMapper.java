@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 import org.opentripplanner.model.PathTransfer;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransfersByStopIndex;
 import org.opentripplanner.transit.model.site.RegularStop;
 import org.opentripplanner.transit.service.StopModel;
 import org.opentripplanner.transit.service.TransitModel;
@@ -12,9 +13,9 @@ class TransfersMapper {
 
   /**
    * Copy pre-calculated transfers from the original graph
-   * @return a list where each element is a list of transfers for the corresponding stop index
+   * @return the transfers indexed by from and to stop index
    */
-  static List<List<Transfer>> mapTransfers(StopModel stopModel, TransitModel transitModel) {
+  static TransfersByStopIndex mapTransfers(StopModel stopModel, TransitModel transitModel) {
     List<List<Transfer>> transferByStopIndex = new ArrayList<>();
 
     for (int i = 0; i < stopModel.stopIndexSize(); ++i) {
@@ -36,11 +37,9 @@ class TransfersMapper {
         }
       }
 
-      // Create a copy to compact and make the inner lists immutable
-      transferByStopIndex.add(List.copyOf(list));
+      transferByStopIndex.add(list);
     }
 
-    // Return an immutable copy
-    return List.copyOf(transferByStopIndex);
+    return TransfersByStopIndex.of(transferByStopIndex);
   }
 }
@@ -15,7 +15,8 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.model.Timetable;
-import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
+import org.opentripplanner.routing.algorithm.raptoradapter.router.street.AccessEgressCache;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransfersByStopIndex;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitTuningParameters;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
@@ -23,6 +24,7 @@ import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtr
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.TransferIndexGenerator;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.cost.RaptorCostConverter;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRequestTransferCache;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.TripPatternForDatesCache;
 import org.opentripplanner.transit.model.network.TripPattern;
 import org.opentripplanner.transit.model.site.StopTransferPriority;
 import org.opentripplanner.transit.model.timetable.TripTimes;
@@ -71,7 +73,7 @@ public class TransitLayerMapper {
 
   private TransitLayer map(TransitTuningParameters tuningParameters) {
     HashMap<LocalDate, List<TripPatternForDate>> tripPatternsByStopByDate;
-    List<List<Transfer>> transferByStopIndex;
+    TransfersByStopIndex transferByStopIndex;
     ConstrainedTransfersForPatterns constrainedTransfers = null;
     StopModel stopModel = transitModel.getStopModel();
 
@@ -90,7 +92,17 @@ public class TransitLayerMapper {
       constrainedTransfers = transferIndexGenerator.generateTransfers();
     }
 
-    var transferCache = new RaptorRequestTransferCache(tuningParameters.transferCacheMaxSize());
+    var transferCache = new RaptorRequestTransferCache(
+      tuningParameters.transferCacheMaxSize(),
+      tuningParameters.transferCacheBuildAsync()
+    );
+    var accessEgressCache = new AccessEgressCache(
+      tuningParameters.accessEgressCacheMaxSize(),
+      tuningParameters.accessEgressCacheTimeToLive()
+    );
+    var tripPatternForDatesCache = new TripPatternForDatesCache(
+      tuningParameters.tripPatternCacheMaxSize()
+    );
 
     LOG.info("Mapping complete.");
 
@@ -101,6 +113,8 @@ public class TransitLayerMapper {
       stopModel,
       transitModel.getTimeZone(),
       transferCache,
+      accessEgressCache,
+      tripPatternForDatesCache,
       constrainedTransfers,
       transferIndexGenerator,
       createStopTransferCosts(stopModel, tuningParameters)
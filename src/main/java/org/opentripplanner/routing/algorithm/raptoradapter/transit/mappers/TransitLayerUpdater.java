@@ -1,11 +1,9 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.SetMultimap;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import gnu.trove.set.TIntSet;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -26,10 +24,13 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Update the TransitLayer from a set of TimeTables. A shallow copy is made of the TransitLayer
- * (this also includes a shallow copy of the TripPatternsForDate map). TripPatterns are matched on
- * id and replaced by their updated versions. The realtime TransitLayer is then switched out with
- * the updated copy in an atomic operation. This ensures that any TransitLayer that is referenced
- * from the Graph is never changed.
+ * (this also includes a shallow copy of the TripPatternsForDate map). Each updated Timetable is
+ * mapped to the TripPatternForDates it replaces and the running dates they affect, and only these
+ * are patched in the copy, see {@link TransitLayer#updateTripPatternsForDate}. The cost of an
+ * update is therefore proportional to the number of updated timetables, not to the number of
+ * patterns running on a date. The realtime TransitLayer is then switched out with the updated copy
+ * in an atomic operation. This ensures that any TransitLayer that is referenced from the Graph is
+ * never changed.
  */
 public class TransitLayerUpdater {
 
@@ -51,8 +52,6 @@ public class TransitLayerUpdater {
    */
   private final Map<TripIdAndServiceDate, TripPatternForDate> tripPatternsForTripIdAndServiceDateCache = new HashMap<>();
 
-  private final Map<LocalDate, Set<TripPatternForDate>> tripPatternsRunningOnDateMapCache = new HashMap<>();
-
   public TransitLayerUpdater(
     TransitModel transitModel,
     Map<LocalDate, TIntSet> serviceCodesRunningForDate
@@ -80,9 +79,9 @@ public class TransitLayerUpdater {
       serviceCodesRunningForDate
     );
 
-    Set<LocalDate> datesToBeUpdated = new HashSet<>();
-    SetMultimap<TripPattern, TripPatternForDate> newTripPatternsForDate = HashMultimap.create();
-    SetMultimap<TripPattern, TripPatternForDate> oldTripPatternsForDate = HashMultimap.create();
+    // The removed and added TripPatternsForDate indexed on each of the dates they are running on
+    ListMultimap<LocalDate, TripPatternForDate> removedByRunningDate = ArrayListMultimap.create();
+    ListMultimap<LocalDate, TripPatternForDate> addedByRunningDate = ArrayListMultimap.create();
 
     TransferIndexGenerator transferIndexGenerator = null;
     if (OTPFeature.TransferConstraints.isOn()) {
@@ -108,8 +107,9 @@ public class TransitLayerUpdater {
 
       if (oldTripPatternForDate != null) {
         tripPatternsStartingOnDateMapCache.get(date).remove(tripPattern, oldTripPatternForDate);
-        oldTripPatternsForDate.put(tripPattern, oldTripPatternForDate);
-        datesToBeUpdated.addAll(oldTripPatternForDate.getRunningPeriodDates());
+        for (LocalDate runningDate : oldTripPatternForDate.getRunningPeriodDates()) {
+          removedByRunningDate.put(runningDate, oldTripPatternForDate);
+        }
       }
 
       TripPatternForDate newTripPatternForDate;
@@ -123,8 +123,9 @@ public class TransitLayerUpdater {
 
       if (newTripPatternForDate != null) {
         tripPatternsStartingOnDateMapCache.get(date).put(tripPattern, newTripPatternForDate);
-        newTripPatternsForDate.put(tripPattern, newTripPatternForDate);
-        datesToBeUpdated.addAll(newTripPatternForDate.getRunningPeriodDates());
+        for (LocalDate runningDate : newTripPatternForDate.getRunningPeriodDates()) {
+          addedByRunningDate.put(runningDate, newTripPatternForDate);
+        }
         if (transferIndexGenerator != null && tripPattern.isCreatedByRealtimeUpdater()) {
           transferIndexGenerator.addRealtimeTrip(
             tripPattern,
@@ -154,68 +155,45 @@ public class TransitLayerUpdater {
       }
     }
 
-    // Now loop through all running period dates of old and new TripPatternsForDate and update
-    // the tripPatternsByRunningPeriodDate accordingly
-    for (LocalDate date : datesToBeUpdated) {
-      tripPatternsRunningOnDateMapCache.computeIfAbsent(
-        date,
-        p -> new HashSet<>(realtimeTransitLayer.getTripPatternsRunningOnDateCopy(date))
-      );
+    Set<LocalDate> datesToBeUpdated = new HashSet<>(removedByRunningDate.keySet());
+    datesToBeUpdated.addAll(addedByRunningDate.keySet());
 
-      // Remove old cached tripPatterns where tripTimes are no longer running
-      Set<TripPatternForDate> patternsForDate = tripPatternsRunningOnDateMapCache.get(date);
-
-      for (Map.Entry<TripPattern, Collection<TripPatternForDate>> entry : oldTripPatternsForDate
-        .asMap()
-        .entrySet()) {
-        for (TripPatternForDate oldTripPatternForDate : entry.getValue()) {
-          // Remove old TripPatternForDate for this date if it was valid on this date
-          if (oldTripPatternForDate != null) {
-            if (oldTripPatternForDate.getRunningPeriodDates().contains(date)) {
-              patternsForDate.remove(oldTripPatternForDate);
-            }
-          }
-        }
+    // Remove the previously used TripPatternsForDate of realtime added patterns, if the trip has
+    // been removed from the timetable
+    for (TripPatternForDate tripPatternForDate : previouslyUsedPatterns) {
+      LocalDate date = tripPatternForDate.getLocalDate();
+      if (!datesToBeUpdated.contains(date)) {
+        continue;
       }
-
-      for (TripPatternForDate tripPatternForDate : previouslyUsedPatterns) {
-        if (tripPatternForDate.getLocalDate().equals(date)) {
-          TripPattern pattern = tripPatternForDate.getTripPattern().getPattern();
-          if (!pattern.isCreatedByRealtimeUpdater()) {
-            continue;
-          }
-          var oldTimeTable = timetables.get(pattern);
-          if (oldTimeTable != null) {
-            var toRemove = oldTimeTable
-              .stream()
-              .filter(tt -> tt.getServiceDate().equals(date))
-              .findFirst()
-              .map(tt -> tt.getTripTimes().isEmpty())
-              .orElse(false);
-
-            if (toRemove) {
-              patternsForDate.remove(tripPatternForDate);
-            }
-          } else {
-            LOG.warn("Could not fetch timetable for {}", pattern);
-          }
-        }
+      TripPattern pattern = tripPatternForDate.getTripPattern().getPattern();
+      if (!pattern.isCreatedByRealtimeUpdater()) {
+        continue;
       }
+      var oldTimeTable = timetables.get(pattern);
+      if (oldTimeTable != null) {
+        var toRemove = oldTimeTable
+          .stream()
+          .filter(tt -> tt.getServiceDate().equals(date))
+          .findFirst()
+          .map(tt -> tt.getTripTimes().isEmpty())
+          .orElse(false);
 
-      for (Map.Entry<TripPattern, Collection<TripPatternForDate>> entry : newTripPatternsForDate
-        .asMap()
-        .entrySet()) {
-        for (TripPatternForDate newTripPatternForDate : entry.getValue()) {
-          // Add new TripPatternForDate for this date if it mapped correctly and is valid on this date
-          if (newTripPatternForDate != null) {
-            if (newTripPatternForDate.getRunningPeriodDates().contains(date)) {
-              patternsForDate.add(newTripPatternForDate);
-            }
-          }
+        if (toRemove) {
+          removedByRunningDate.put(date, tripPatternForDate);
         }
+      } else {
+        LOG.warn("Could not fetch timetable for {}", pattern);
       }
+    }
 
-      realtimeTransitLayer.replaceTripPatternsForDate(date, new ArrayList<>(patternsForDate));
+    // Now patch the TripPatternsForDate of all running period dates of old and new
+    // TripPatternsForDate, the old are removed before the new are added
+    for (LocalDate date : datesToBeUpdated) {
+      realtimeTransitLayer.updateTripPatternsForDate(
+        date,
+        removedByRunningDate.get(date),
+        addedByRunningDate.get(date)
+      );
     }
 
     if (transferIndexGenerator != null) {
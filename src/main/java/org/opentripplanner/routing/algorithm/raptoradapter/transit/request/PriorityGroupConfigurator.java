@@ -89,6 +89,13 @@ public class PriorityGroupConfigurator {
     return new PriorityGroupConfigurator(byAgency, global);
   }
 
+  /**
+   * If not enabled, all patterns are in the base group.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
   /**
    * Fetch/lookup the transit-group-id for the given pattern.
    * <p>
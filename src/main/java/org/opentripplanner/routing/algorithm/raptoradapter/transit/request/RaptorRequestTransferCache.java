@@ -3,69 +3,171 @@ package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-import java.util.List;
-import java.util.Objects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.annotation.Nonnull;
-import org.opentripplanner.framework.tostring.ToStringBuilder;
+import javax.annotation.Nullable;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.RaptorTransferIndex;
-import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransfersByStopIndex;
 import org.opentripplanner.routing.api.request.RouteRequest;
-import org.opentripplanner.routing.api.request.StreetMode;
-import org.opentripplanner.routing.api.request.preference.BikePreferences;
-import org.opentripplanner.routing.api.request.preference.StreetPreferences;
-import org.opentripplanner.routing.api.request.preference.WalkPreferences;
-import org.opentripplanner.routing.api.request.preference.WheelchairPreferences;
 import org.opentripplanner.street.search.request.StreetSearchRequest;
 import org.opentripplanner.street.search.request.StreetSearchRequestMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Cache the {@link RaptorTransferIndex} for each distinct set of {@link StreetRelevantOptions}.
+ * <p>
+ * If the cache is created with {@code buildAsync}, a request with new options does not wait for
+ * the transfer index to be created. The index is created in the background, and the request uses
+ * the cached index with the closest compatible options, see
+ * {@link StreetRelevantOptions#isCompatibleWith(StreetRelevantOptions)}. If no compatible index
+ * exists, the request waits for the new index.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE.
+ */
 public class RaptorRequestTransferCache {
 
   private static final Logger LOG = LoggerFactory.getLogger(RaptorRequestTransferCache.class);
+  private static final String METRICS_PREFIX = "raptorTransfersCache";
 
   private final LoadingCache<CacheKey, RaptorTransferIndex> transferCache;
 
-  public RaptorRequestTransferCache(int maximumSize) {
+  /** The executor used to build the indexes in the background, {@code null} if not async. */
+  @Nullable
+  private final ExecutorService asyncExecutor;
+
+  private final Map<CacheKey, CompletableFuture<RaptorTransferIndex>> asyncBuilds =
+    new ConcurrentHashMap<>();
+
+  private final Timer buildTimer;
+  private final Counter fallbackCounter;
+
+  public RaptorRequestTransferCache(int maximumSize, boolean buildAsync) {
     transferCache = CacheBuilder.newBuilder().maximumSize(maximumSize).build(cacheLoader());
+    this.asyncExecutor =
+      buildAsync
+        ? Executors.newSingleThreadExecutor(
+          new ThreadFactoryBuilder().setNameFormat("transfer-cache-%d").setDaemon(true).build()
+        )
+        : null;
+    this.buildTimer =
+      Timer
+        .builder(METRICS_PREFIX + ".build")
+        .description("Time used to create the transfers for a new set of transfer parameters")
+        .register(Metrics.globalRegistry);
+    this.fallbackCounter =
+      Counter
+        .builder(METRICS_PREFIX + ".fallback")
+        .description("Number of requests routed with the transfers of other transfer parameters")
+        .register(Metrics.globalRegistry);
   }
 
   public LoadingCache<CacheKey, RaptorTransferIndex> getTransferCache() {
     return transferCache;
   }
 
-  public RaptorTransferIndex get(List<List<Transfer>> transfersByStopIndex, RouteRequest request) {
+  public RaptorTransferIndex get(TransfersByStopIndex transfersByStopIndex, RouteRequest request) {
+    var key = new CacheKey(
+      transfersByStopIndex,
+      StreetSearchRequestMapper.mapToTransferRequest(request).build()
+    );
+    if (asyncExecutor != null) {
+      return getAsync(key);
+    }
     try {
-      return transferCache.get(
-        new CacheKey(
-          transfersByStopIndex,
-          StreetSearchRequestMapper.mapToTransferRequest(request).build()
-        )
-      );
+      return transferCache.get(key);
     } catch (ExecutionException e) {
       throw new RuntimeException("Failed to get item from transfer cache", e);
     }
   }
 
+  private RaptorTransferIndex getAsync(CacheKey key) {
+    var index = transferCache.getIfPresent(key);
+    if (index != null) {
+      return index;
+    }
+    var build = asyncBuilds.computeIfAbsent(key, this::buildAsync);
+
+    var closest = findClosestCompatible(key);
+    if (closest != null) {
+      fallbackCounter.increment();
+      return closest;
+    }
+    try {
+      return build.join();
+    } catch (CompletionException e) {
+      throw new RuntimeException("Failed to get item from transfer cache", e.getCause());
+    }
+  }
+
+  private CompletableFuture<RaptorTransferIndex> buildAsync(CacheKey key) {
+    return CompletableFuture.supplyAsync(
+      () -> {
+        try {
+          return transferCache.getUnchecked(key);
+        } finally {
+          asyncBuilds.remove(key);
+        }
+      },
+      asyncExecutor
+    );
+  }
+
+  /**
+   * Find the cached index with the least number of different options, which is compatible with
+   * the options of the given key.
+   */
+  @Nullable
+  private RaptorTransferIndex findClosestCompatible(CacheKey key) {
+    RaptorTransferIndex closest = null;
+    int minDifferences = Integer.MAX_VALUE;
+
+    for (var it : transferCache.asMap().entrySet()) {
+      var options = it.getKey().options;
+      if (
+        it.getKey().transfersByStopIndex == key.transfersByStopIndex &&
+        options.isCompatibleWith(key.options)
+      ) {
+        int n = options.numberOfDifferences(key.options);
+        if (n < minDifferences) {
+          closest = it.getValue();
+          minDifferences = n;
+        }
+      }
+    }
+    return closest;
+  }
+
   private CacheLoader<CacheKey, RaptorTransferIndex> cacheLoader() {
     return new CacheLoader<>() {
       @Override
       @Nonnull
       public RaptorTransferIndex load(@Nonnull CacheKey cacheKey) {
         LOG.info("Adding request to cache: {}", cacheKey.options);
-        return RaptorTransferIndex.create(cacheKey.transfersByStopIndex, cacheKey.request);
+        return buildTimer.record(() ->
+          RaptorTransferIndex.create(cacheKey.transfersByStopIndex, cacheKey.request)
+        );
       }
     };
   }
 
   private static class CacheKey {
 
-    private final List<List<Transfer>> transfersByStopIndex;
+    private final TransfersByStopIndex transfersByStopIndex;
     private final StreetSearchRequest request;
     private final StreetRelevantOptions options;
 
-    private CacheKey(List<List<Transfer>> transfersByStopIndex, StreetSearchRequest request) {
+    private CacheKey(TransfersByStopIndex transfersByStopIndex, StreetSearchRequest request) {
       this.transfersByStopIndex = transfersByStopIndex;
       this.request = request;
       this.options = new StreetRelevantOptions(request);
@@ -94,66 +196,4 @@ public class RaptorRequestTransferCache {
       );
     }
   }
-
-  /**
-   * This contains an extract of the parameters which may influence transfers.
-   * <p>
-   */
-  private static class StreetRelevantOptions {
-
-    private final StreetMode transferMode;
-    private final boolean wheelchair;
-    private final WalkPreferences walk;
-    private final BikePreferences bike;
-    private final StreetPreferences street;
-    private final WheelchairPreferences wheelchairPreferences;
-
-    public StreetRelevantOptions(StreetSearchRequest request) {
-      this.transferMode = request.mode();
-      this.wheelchair = request.wheelchair();
-
-      var preferences = request.preferences();
-      this.walk = preferences.walk();
-      this.bike = transferMode.includesBiking() ? preferences.bike() : BikePreferences.DEFAULT;
-      this.street = preferences.street();
-      this.wheelchairPreferences =
-        this.wheelchair ? preferences.wheelchair() : WheelchairPreferences.DEFAULT;
-    }
-
-    @Override
-    public String toString() {
-      return ToStringBuilder
-        .of(StreetRelevantOptions.class)
-        .addEnum("transferMode", transferMode)
-        .addBoolIfTrue("wheelchair", wheelchair)
-        .addObj("walk", walk, WalkPreferences.DEFAULT)
-        .addObj("bike", bike, BikePreferences.DEFAULT)
-        .addObj("street", street, StreetPreferences.DEFAULT)
-        .addObj("wheelchairPreferences", wheelchairPreferences, WheelchairPreferences.DEFAULT)
-        .toString();
-    }
-
-    @Override
-    public int hashCode() {
-      return Objects.hash(transferMode, wheelchair, walk, bike, street, wheelchairPreferences);
-    }
-
-    @Override
-    public boolean equals(Object o) {
-      if (this == o) {
-        return true;
-      }
-      if (!(o instanceof StreetRelevantOptions that)) {
-        return false;
-      }
-      return (
-        transferMode == that.transferMode &&
-        wheelchair == that.wheelchair &&
-        Objects.equals(that.walk, walk) &&
-        Objects.equals(that.bike, bike) &&
-        Objects.equals(that.street, street) &&
-        Objects.equals(that.wheelchairPreferences, wheelchairPreferences)
-      );
-    }
-  }
 }
@@ -75,6 +75,7 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
     int additionalPastSearchDays,
     int additionalFutureSearchDays,
     TransitDataProviderFilter filter,
+    @Nullable TransitCorridor corridor,
     RouteRequest request
   ) {
     this.transferService = transitLayer.getTransferService();
@@ -86,7 +87,8 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
     // the time of construction
     var transitDataCreator = new RaptorRoutingRequestTransitDataCreator(
       transitLayer,
-      transitSearchTimeZero
+      transitSearchTimeZero,
+      corridor
     );
     List<TripPatternForDates> tripPatterns = transitDataCreator.createTripPatterns(
       additionalPastSearchDays,
@@ -129,12 +131,12 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
 
   @Override
   public Iterator<RaptorTransfer> getTransfersFromStop(int stopIndex) {
-    return transferIndex.getForwardTransfers(stopIndex).iterator();
+    return transferIndex.getForwardTransfers(stopIndex);
   }
 
   @Override
   public Iterator<? extends RaptorTransfer> getTransfersToStop(int stopIndex) {
-    return transferIndex.getReversedTransfers(stopIndex).iterator();
+    return transferIndex.getReversedTransfers(stopIndex);
   }
 
   @Override
@@ -9,11 +9,14 @@ import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
+import javax.annotation.Nullable;
 import org.opentripplanner.framework.time.DurationUtils;
 import org.opentripplanner.framework.time.ServiceDateUtils;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
@@ -39,13 +42,18 @@ class RaptorRoutingRequestTransitDataCreator {
   private final ZonedDateTime transitSearchTimeZero;
   private final LocalDate departureDate;
 
+  @Nullable
+  private final TransitCorridor corridor;
+
   RaptorRoutingRequestTransitDataCreator(
     TransitLayer transitLayer,
-    ZonedDateTime transitSearchTimeZero
+    ZonedDateTime transitSearchTimeZero,
+    @Nullable TransitCorridor corridor
   ) {
     this.transitLayer = transitLayer;
     this.departureDate = ServiceDateUtils.asServiceDay(transitSearchTimeZero);
     this.transitSearchTimeZero = transitSearchTimeZero;
+    this.corridor = corridor;
   }
 
   public List<int[]> createTripPatternsPerStop(List<TripPatternForDates> tripPatternsForDate) {
@@ -88,10 +96,14 @@ class RaptorRoutingRequestTransitDataCreator {
    * list of TripPatternsForDates. The purpose of doing this is so that TripSchedules for several
    * dates are combined by TripPattern instead of having their own TripPattern. This is to improve
    * performance for searching, as each TripPattern is searched only once per round.
+   * <p>
+   * The {@code excludedTrips} are the trips removed by the request filter for each trip pattern
+   * for date, these are merged into one bit set for each TripPatternForDates.
    */
   static List<TripPatternForDates> merge(
     ZonedDateTime transitSearchTimeZero,
     List<TripPatternForDate> patternForDateList,
+    Map<TripPatternForDate, BitSet> excludedTrips,
     TransitDataProviderFilter filter,
     PriorityGroupConfigurator priorityGroupConfigurator
   ) {
@@ -117,8 +129,11 @@ class RaptorRoutingRequestTransitDataCreator {
         .toArray(new TripPatternForDate[0]);
       Arrays.sort(patternsSorted);
 
-      // Calculate offsets per date
+      // Calculate offsets per date, and merge the excluded trips using the same trip index as
+      // the TripPatternForDates
       int[] offsets = new int[patternsSorted.length];
+      BitSet excludedTripsForDates = null;
+      int tripIndexOffset = 0;
       for (int i = 0; i < patternsSorted.length; i++) {
         LocalDate serviceDate = patternsSorted[i].getLocalDate();
         if (offsetCache.containsKey(serviceDate)) {
@@ -127,6 +142,17 @@ class RaptorRoutingRequestTransitDataCreator {
           offsets[i] = secondsSinceStartOfTime(transitSearchTimeZero, serviceDate);
           offsetCache.put(serviceDate, offsets[i]);
         }
+
+        BitSet excluded = excludedTrips.get(patternsSorted[i]);
+        if (excluded != null) {
+          if (excludedTripsForDates == null) {
+            excludedTripsForDates = new BitSet();
+          }
+          for (int t = excluded.nextSetBit(0); t >= 0; t = excluded.nextSetBit(t + 1)) {
+            excludedTripsForDates.set(tripIndexOffset + t);
+          }
+        }
+        tripIndexOffset += patternsSorted[i].numberOfTripSchedules();
       }
 
       // Combine TripPatternForDate objects
@@ -147,7 +173,8 @@ class RaptorRoutingRequestTransitDataCreator {
             tripPattern.getAlightingPossible(),
             BoardAlight.ALIGHT
           ),
-          priorityGroupConfigurator.lookupTransitGroupPriorityId(tripPattern.getPattern())
+          priorityGroupConfigurator.lookupTransitGroupPriorityId(tripPattern.getPattern()),
+          excludedTripsForDates
         )
       );
     }
@@ -155,31 +182,128 @@ class RaptorRoutingRequestTransitDataCreator {
     return combinedList;
   }
 
+  /**
+   * Create the trip patterns for the request. If the filter and the priority groups allow it, the
+   * trip patterns are cached across requests, see {@link TripPatternForDatesCache}. The patterns
+   * outside the corridor are then removed from the cached list, and boarding is only possible at
+   * stops inside the corridor.
+   */
   List<TripPatternForDates> createTripPatterns(
     int additionalPastSearchDays,
     int additionalFutureSearchDays,
     TransitDataProviderFilter filter,
     PriorityGroupConfigurator priorityGroupConfigurator
   ) {
+    var cache = transitLayer.getTripPatternForDatesCache();
+    Object filterKey = filter.cacheKey();
+
+    // The transit group priority ids are assigned in the order the patterns are visited
+    if (!cache.isEnabled() || filterKey == null || priorityGroupConfigurator.isEnabled()) {
+      var tripPatterns = createTripPatterns(
+        additionalPastSearchDays,
+        additionalFutureSearchDays,
+        filter,
+        priorityGroupConfigurator,
+        corridor == null ? pattern -> true : corridor::intersects
+      );
+      return corridor == null ? tripPatterns : restrictToCorridor(tripPatterns);
+    }
+
+    var key = new TripPatternForDatesCache.Key(
+      transitSearchTimeZero,
+      additionalPastSearchDays,
+      additionalFutureSearchDays,
+      filterKey
+    );
+    List<TripPatternForDates> tripPatterns = cache.get(
+      key,
+      includePattern ->
+        createTripPatterns(
+          additionalPastSearchDays,
+          additionalFutureSearchDays,
+          filter,
+          priorityGroupConfigurator,
+          includePattern
+        )
+    );
+
+    return corridor == null ? tripPatterns : restrictToCorridor(tripPatterns);
+  }
+
+  /**
+   * Remove the patterns not visiting any stop inside the corridor, and make boarding impossible at
+   * the stops outside the corridor. Alighting outside the corridor is still possible.
+   */
+  private List<TripPatternForDates> restrictToCorridor(List<TripPatternForDates> tripPatterns) {
+    List<TripPatternForDates> result = new ArrayList<>();
+    for (TripPatternForDates it : tripPatterns) {
+      if (corridor.intersects(it.getTripPattern())) {
+        result.add(it.withBoardingOnlyAt(corridor::contains));
+      }
+    }
+    return result;
+  }
+
+  private List<TripPatternForDates> createTripPatterns(
+    int additionalPastSearchDays,
+    int additionalFutureSearchDays,
+    TransitDataProviderFilter filter,
+    PriorityGroupConfigurator priorityGroupConfigurator,
+    Predicate<RoutingTripPattern> includePattern
+  ) {
+    Map<TripPatternForDate, BitSet> excludedTrips = new IdentityHashMap<>();
     List<TripPatternForDate> tripPatternForDates = getTripPatternsForDateRange(
       additionalPastSearchDays,
       additionalFutureSearchDays,
-      filter
+      filter,
+      includePattern,
+      excludedTrips
+    );
+
+    return merge(
+      transitSearchTimeZero,
+      tripPatternForDates,
+      excludedTrips,
+      filter,
+      priorityGroupConfigurator
     );
+  }
 
-    return merge(transitSearchTimeZero, tripPatternForDates, filter, priorityGroupConfigurator);
+  /**
+   * Find the trips of a trip pattern for date NOT accepted by the filter.
+   *
+   * @return the excluded trip indexes, or {@code null} if all trips are accepted.
+   */
+  @Nullable
+  private static BitSet findExcludedTrips(TripPatternForDate pattern, Predicate<TripTimes> filter) {
+    BitSet excluded = null;
+    for (int i = 0; i < pattern.numberOfTripSchedules(); i++) {
+      if (!filter.test(pattern.getTripTimes(i))) {
+        if (excluded == null) {
+          excluded = new BitSet(pattern.numberOfTripSchedules());
+        }
+        excluded.set(i);
+      }
+    }
+    return excluded;
   }
 
   private static List<TripPatternForDate> filterActiveTripPatterns(
     TransitLayer transitLayer,
     LocalDate date,
     boolean firstDay,
-    TransitDataProviderFilter filter
+    TransitDataProviderFilter filter,
+    Predicate<RoutingTripPattern> includePattern,
+    Map<TripPatternForDate, BitSet> excludedTrips
   ) {
     // On the first search day we want to add both TripPatternsForDate objects that start that day
     // and any previous day, while on subsequent search days we only want to add the
     // TripPatternForDate objects that start on that particular day. This is to prevent duplicates.
     // This was previously a stream, but was unrolled for improved performance.
+    //
+    // The trip times are not copied to remove the trips rejected by the filter, instead the
+    // excluded trips are added to the given map and skipped by the trip search. Frequency based
+    // patterns are still copied, the frequency trip search does not support excluded trips.
 
     Predicate<TripTimes> tripTimesWithSubmodesPredicate = tripTimes ->
       filter.tripTimesPredicate(tripTimes, filter.hasSubModeFilters());
@@ -189,13 +313,26 @@ class RaptorRoutingRequestTransitDataCreator {
     List<TripPatternForDate> result = new ArrayList<>(tripPatternsForDate.size());
     for (TripPatternForDate p : tripPatternsForDate) {
       if (firstDay || p.getStartOfRunningPeriod().equals(date)) {
+        if (!includePattern.test(p.getTripPattern())) {
+          continue;
+        }
         if (filter.tripPatternPredicate(p)) {
           var tripTimesPredicate = p.getTripPattern().getPattern().getContainsMultipleModes()
             ? tripTimesWithSubmodesPredicate
             : tripTimesWithoutSubmodesPredicate;
-          TripPatternForDate tripPatternForDate = p.newWithFilteredTripTimes(tripTimesPredicate);
-          if (tripPatternForDate != null) {
-            result.add(tripPatternForDate);
+          if (p.hasFrequencies()) {
+            TripPatternForDate tripPatternForDate = p.newWithFilteredTripTimes(tripTimesPredicate);
+            if (tripPatternForDate != null) {
+              result.add(tripPatternForDate);
+            }
+            continue;
+          }
+          BitSet excluded = findExcludedTrips(p, tripTimesPredicate);
+          if (excluded == null) {
+            result.add(p);
+          } else if (excluded.cardinality() < p.numberOfTripSchedules()) {
+            result.add(p);
+            excludedTrips.put(p, excluded);
           }
         }
       }
@@ -206,7 +343,9 @@ class RaptorRoutingRequestTransitDataCreator {
   private List<TripPatternForDate> getTripPatternsForDateRange(
     int additionalPastSearchDays,
     int additionalFutureSearchDays,
-    TransitDataProviderFilter filter
+    TransitDataProviderFilter filter,
+    Predicate<RoutingTripPattern> includePattern,
+    Map<TripPatternForDate, BitSet> excludedTrips
   ) {
     List<TripPatternForDate> tripPatternForDates = new ArrayList<>();
     long start = System.currentTimeMillis();
@@ -214,7 +353,14 @@ class RaptorRoutingRequestTransitDataCreator {
     // This filters trips by the search date as well as additional dates before and after
     for (int d = -additionalPastSearchDays; d <= additionalFutureSearchDays; ++d) {
       tripPatternForDates.addAll(
-        filterActiveTripPatterns(transitLayer, departureDate.plusDays(d), d == 0, filter)
+        filterActiveTripPatterns(
+          transitLayer,
+          departureDate.plusDays(d),
+          d == 0,
+          filter,
+          includePattern,
+          excludedTrips
+        )
       );
     }
 
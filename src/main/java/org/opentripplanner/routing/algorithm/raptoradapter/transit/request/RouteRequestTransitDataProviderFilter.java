@@ -70,6 +70,23 @@ public class RouteRequestTransitDataProviderFilter implements TransitDataProvide
     this.hasSubModeFilters = filters.stream().anyMatch(TransitFilter::isSubModePredicate);
   }
 
+  /**
+   * The wheelchair preferences are only part of the key if wheelchair routing is enabled, they are
+   * not used otherwise.
+   */
+  @Override
+  public Object cacheKey() {
+    return new CacheKey(
+      requireBikesAllowed,
+      wheelchairEnabled,
+      wheelchairEnabled ? wheelchairPreferences : null,
+      includePlannedCancellations,
+      includeRealtimeCancellations,
+      bannedTrips,
+      List.of(filters)
+    );
+  }
+
   @Override
   public boolean hasSubModeFilters() {
     return hasSubModeFilters;
@@ -179,4 +196,14 @@ public class RouteRequestTransitDataProviderFilter implements TransitDataProvide
     }
     return result;
   }
+
+  private record CacheKey(
+    boolean requireBikesAllowed,
+    boolean wheelchairEnabled,
+    WheelchairPreferences wheelchairPreferences,
+    boolean includePlannedCancellations,
+    boolean includeRealtimeCancellations,
+    Set<FeedScopedId> bannedTrips,
+    List<TransitFilter> filters
+  ) {}
 }
@@ -0,0 +1,103 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
+
+import java.util.Objects;
+import org.opentripplanner.framework.tostring.ToStringBuilder;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.preference.BikePreferences;
+import org.opentripplanner.routing.api.request.preference.StreetPreferences;
+import org.opentripplanner.routing.api.request.preference.WalkPreferences;
+import org.opentripplanner.routing.api.request.preference.WheelchairPreferences;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+
+/**
+ * This contains an extract of the parameters which may influence a street search, used as a cache
+ * key. The street mode is the transfer mode when used for transfers.
+ */
+public class StreetRelevantOptions {
+
+  private final StreetMode mode;
+  private final boolean wheelchair;
+  private final WalkPreferences walk;
+  private final BikePreferences bike;
+  private final StreetPreferences street;
+  private final WheelchairPreferences wheelchairPreferences;
+
+  public StreetRelevantOptions(StreetSearchRequest request) {
+    this.mode = request.mode();
+    this.wheelchair = request.wheelchair();
+
+    var preferences = request.preferences();
+    this.walk = preferences.walk();
+    this.bike = mode.includesBiking() ? preferences.bike() : BikePreferences.DEFAULT;
+    this.street = preferences.street();
+    this.wheelchairPreferences =
+      this.wheelchair ? preferences.wheelchair() : WheelchairPreferences.DEFAULT;
+  }
+
+  /**
+   * Return {@code true} if the transfers calculated for the other options may be used instead of
+   * the transfers for these options. The mode and the wheelchair accessibility must be the same,
+   * since these decide which transfers are possible, not only the duration and cost of them.
+   */
+  boolean isCompatibleWith(StreetRelevantOptions other) {
+    return (
+      mode == other.mode &&
+      wheelchair == other.wheelchair &&
+      Objects.equals(wheelchairPreferences, other.wheelchairPreferences)
+    );
+  }
+
+  /**
+   * The number of preferences which are different in the other options. This is used to find the
+   * closest compatible options, see {@link #isCompatibleWith(StreetRelevantOptions)}.
+   */
+  int numberOfDifferences(StreetRelevantOptions other) {
+    int n = 0;
+    if (!Objects.equals(walk, other.walk)) {
+      ++n;
+    }
+    if (!Objects.equals(bike, other.bike)) {
+      ++n;
+    }
+    if (!Objects.equals(street, other.street)) {
+      ++n;
+    }
+    return n;
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder
+      .of(StreetRelevantOptions.class)
+      .addEnum("mode", mode)
+      .addBoolIfTrue("wheelchair", wheelchair)
+      .addObj("walk", walk, WalkPreferences.DEFAULT)
+      .addObj("bike", bike, BikePreferences.DEFAULT)
+      .addObj("street", street, StreetPreferences.DEFAULT)
+      .addObj("wheelchairPreferences", wheelchairPreferences, WheelchairPreferences.DEFAULT)
+      .toString();
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(mode, wheelchair, walk, bike, street, wheelchairPreferences);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof StreetRelevantOptions that)) {
+      return false;
+    }
+    return (
+      mode == that.mode &&
+      wheelchair == that.wheelchair &&
+      Objects.equals(that.walk, walk) &&
+      Objects.equals(that.bike, bike) &&
+      Objects.equals(that.street, street) &&
+      Objects.equals(that.wheelchairPreferences, wheelchairPreferences)
+    );
+  }
+}
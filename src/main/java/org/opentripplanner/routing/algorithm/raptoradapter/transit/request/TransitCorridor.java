@@ -0,0 +1,96 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
+
+import java.util.BitSet;
+import javax.annotation.Nullable;
+import org.opentripplanner.framework.geometry.SphericalDistanceLibrary;
+import org.opentripplanner.framework.geometry.WgsCoordinate;
+import org.opentripplanner.framework.tostring.ToStringBuilder;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
+import org.opentripplanner.transit.model.network.RoutingTripPattern;
+
+/**
+ * A geographic corridor between the origin and the destination of a request, used to prune the
+ * transit data passed into Raptor. The corridor is an ellipse with the origin and destination as
+ * focal points: a stop is inside if the distance from the origin to the stop and on to the
+ * destination is at most {@code detourFactor} times the direct distance, plus the
+ * {@code margin} on each side.
+ * <p>
+ * Trip patterns not visiting any stop inside the corridor are removed, and boarding is only
+ * possible at stops inside the corridor. Patterns crossing the corridor are kept as they are, so
+ * it is still possible to alight at a stop outside the corridor and transfer back into it.
+ */
+public class TransitCorridor {
+
+  private final BitSet stops;
+  private final int nStopsInside;
+
+  private TransitCorridor(BitSet stops) {
+    this.stops = stops;
+    this.nStopsInside = stops.cardinality();
+  }
+
+  /**
+   * Create a corridor for the given origin and destination. Return {@code null} if pruning is
+   * disabled, which is the case if the detour factor is not larger than 1.0 or if the origin or
+   * destination is not known.
+   */
+  @Nullable
+  public static TransitCorridor of(
+    TransitLayer transitLayer,
+    @Nullable WgsCoordinate from,
+    @Nullable WgsCoordinate to,
+    double detourFactor,
+    int margin
+  ) {
+    if (detourFactor <= 1.0 || from == null || to == null) {
+      return null;
+    }
+    double maxDistance = detourFactor * distance(from, to) + 2.0 * margin;
+    int nStops = transitLayer.getStopCount();
+    var stops = new BitSet(nStops);
+
+    for (int i = 0; i < nStops; ++i) {
+      var stop = transitLayer.getStopByIndex(i);
+      // Keep unknown stops, to be on the safe side
+      if (stop == null) {
+        stops.set(i);
+        continue;
+      }
+      var c = stop.getCoordinate();
+      if (distance(from, c) + distance(c, to) <= maxDistance) {
+        stops.set(i);
+      }
+    }
+    return new TransitCorridor(stops);
+  }
+
+  public boolean contains(int stopIndex) {
+    return stops.get(stopIndex);
+  }
+
+  /**
+   * Return {@code true} if at least one of the stops in the pattern is inside the corridor.
+   */
+  public boolean intersects(RoutingTripPattern pattern) {
+    for (int i = 0; i < pattern.numberOfStopsInPattern(); ++i) {
+      if (stops.get(pattern.stopIndex(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder.of(TransitCorridor.class).addNum("stops", nStopsInside).toString();
+  }
+
+  private static double distance(WgsCoordinate a, WgsCoordinate b) {
+    return SphericalDistanceLibrary.fastDistance(
+      a.latitude(),
+      a.longitude(),
+      b.latitude(),
+      b.longitude()
+    );
+  }
+}
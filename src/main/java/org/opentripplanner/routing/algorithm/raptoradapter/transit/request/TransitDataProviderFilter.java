@@ -1,6 +1,7 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 
 import java.util.BitSet;
+import javax.annotation.Nullable;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
 import org.opentripplanner.transit.model.network.RoutingTripPattern;
 import org.opentripplanner.transit.model.timetable.TripTimes;
@@ -37,4 +38,15 @@ public interface TransitDataProviderFilter {
     BitSet boardingPossible,
     BoardAlight boardAlight
   );
+
+  /**
+   * A key identifying how the transit data is filtered. Two filters with equal keys must filter
+   * the same transit data in the same way, the key is used to cache the filtered transit data
+   * across requests, see {@link TripPatternForDatesCache}. Return {@code null} if the filtered
+   * transit data should not be cached.
+   */
+  @Nullable
+  default Object cacheKey() {
+    return null;
+  }
 }
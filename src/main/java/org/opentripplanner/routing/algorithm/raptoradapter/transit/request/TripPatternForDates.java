@@ -1,7 +1,9 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 
 import java.util.BitSet;
+import java.util.function.IntPredicate;
 import java.util.function.IntUnaryOperator;
+import javax.annotation.Nullable;
 import org.opentripplanner.framework.tostring.ToStringBuilder;
 import org.opentripplanner.raptor.api.model.RaptorTripPattern;
 import org.opentripplanner.raptor.api.model.SearchDirection;
@@ -62,13 +64,21 @@ public class TripPatternForDates
 
   private final int priorityGroupId;
 
+  /**
+   * The trips excluded by the request filter, indexed by the trip index in this timetable. The
+   * trips are not removed from the trip pattern for date, so the trip times can be shared.
+   */
+  @Nullable
+  private final BitSet excludedTrips;
+
   TripPatternForDates(
     RoutingTripPattern tripPattern,
     TripPatternForDate[] tripPatternForDates,
     int[] offsets,
     BitSet boardingPossible,
     BitSet alightningPossible,
-    int priorityGroupId
+    int priorityGroupId,
+    @Nullable BitSet excludedTrips
   ) {
     this.tripPattern = tripPattern;
     this.tripPatternForDates = tripPatternForDates;
@@ -76,6 +86,7 @@ public class TripPatternForDates
     this.boardingPossible = boardingPossible;
     this.alightingPossible = alightningPossible;
     this.priorityGroupId = priorityGroupId;
+    this.excludedTrips = excludedTrips;
 
     int numberOfTripSchedules = 0;
     boolean hasFrequencies = false;
@@ -107,6 +118,43 @@ public class TripPatternForDates
     }
   }
 
+  /**
+   * Copy the given pattern with new boarding possibilities. The timetable is shared with the
+   * original.
+   */
+  private TripPatternForDates(TripPatternForDates original, BitSet boardingPossible) {
+    this.tripPattern = original.tripPattern;
+    this.tripPatternForDates = original.tripPatternForDates;
+    this.offsets = original.offsets;
+    this.boardingPossible = boardingPossible;
+    this.alightingPossible = original.alightingPossible;
+    this.priorityGroupId = original.priorityGroupId;
+    this.excludedTrips = original.excludedTrips;
+    this.numberOfTripSchedules = original.numberOfTripSchedules;
+    this.isFrequencyBased = original.isFrequencyBased;
+    this.wheelchairBoardings = original.wheelchairBoardings;
+    this.arrivalTimes = original.arrivalTimes;
+    this.departureTimes = original.departureTimes;
+  }
+
+  /**
+   * Return a copy of this pattern where boarding is not possible at the stops NOT accepted by the
+   * given stop index filter. Return this pattern if boarding is already not possible at these
+   * stops. This pattern may be shared between requests, so it is not changed.
+   */
+  TripPatternForDates withBoardingOnlyAt(IntPredicate stopIndexFilter) {
+    BitSet restricted = null;
+    for (int i = boardingPossible.nextSetBit(0); i >= 0; i = boardingPossible.nextSetBit(i + 1)) {
+      if (!stopIndexFilter.test(tripPattern.stopIndex(i))) {
+        if (restricted == null) {
+          restricted = (BitSet) boardingPossible.clone();
+        }
+        restricted.clear(i);
+      }
+    }
+    return restricted == null ? this : new TripPatternForDates(this, restricted);
+  }
+
   public RoutingTripPattern getTripPattern() {
     return tripPattern;
   }
@@ -231,6 +279,12 @@ public class TripPatternForDates
     return numberOfTripSchedules;
   }
 
+  @Override
+  @Nullable
+  public BitSet excludedTrips() {
+    return excludedTrips;
+  }
+
   @Override
   public Route route() {
     return tripPattern.route();
@@ -268,6 +322,7 @@ public class TripPatternForDates
       .addObj("pattern", debugInfo())
       .addServiceTimeSchedule("offsets", offsets)
       .addNum("nTrips", numberOfTripSchedules)
+      .addNum("nExcludedTrips", excludedTrips == null ? null : excludedTrips.cardinality())
       .toString();
   }
 
@@ -0,0 +1,121 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.opentripplanner.transit.model.network.RoutingTripPattern;
+
+/**
+ * Cache the filtered, merged and time-shifted {@link TripPatternForDates} across requests. Most
+ * requests search the same days with the same transit filters, and creating the trip patterns is
+ * a large part of the time used to prepare the transit data for a search, since all trip times
+ * are copied.
+ * <p>
+ * The entries are keyed by the transit search time zero, the number of additional search days and
+ * the {@link TransitDataProviderFilter#cacheKey()}. The corridor of a request is not part of the
+ * key, the patterns outside the corridor are removed from the cached list.
+ * <p>
+ * Each {@link org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer} has its
+ * own cache. When the realtime updaters create a new transit layer, the cache is copied and the
+ * patterns changed by the update are invalidated, see {@link #invalidate(Collection)}. The next
+ * time an entry is used, only the invalidated patterns are created again, the other patterns are
+ * shared with the previous copy.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE.
+ */
+public class TripPatternForDatesCache {
+
+  private final int maximumSize;
+  private final Cache<Key, Entry> cache;
+
+  public TripPatternForDatesCache(int maximumSize) {
+    this.maximumSize = maximumSize;
+    this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+  }
+
+  /**
+   * Create a copy of the cache for a new copy of the transit layer. The entries are shared, the
+   * copy may be invalidated without changing this cache.
+   */
+  public TripPatternForDatesCache copy() {
+    var copy = new TripPatternForDatesCache(maximumSize);
+    copy.cache.putAll(cache.asMap());
+    return copy;
+  }
+
+  /**
+   * Invalidate the given patterns in all entries. This must be called when the trip patterns for
+   * date of a pattern are changed, before the transit layer is used for routing.
+   */
+  public void invalidate(Collection<RoutingTripPattern> patterns) {
+    if (patterns.isEmpty()) {
+      return;
+    }
+    cache.asMap().replaceAll((key, entry) -> entry.invalidate(patterns));
+  }
+
+  boolean isEnabled() {
+    return maximumSize > 0;
+  }
+
+  /**
+   * Return the cached trip patterns for the key. The {@code create} function creates the trip
+   * patterns accepted by the given predicate. It is called for all patterns if the key is not in
+   * the cache, and for the invalidated patterns only if it is.
+   */
+  List<TripPatternForDates> get(
+    Key key,
+    Function<Predicate<RoutingTripPattern>, List<TripPatternForDates>> create
+  ) {
+    var entry = cache.getIfPresent(key);
+    if (entry == null) {
+      entry = Entry.of(create.apply(pattern -> true));
+      cache.put(key, entry);
+    } else if (!entry.invalidated().isEmpty()) {
+      entry = entry.update(create.apply(entry.invalidated()::contains));
+      cache.put(key, entry);
+    }
+    return entry.patterns();
+  }
+
+  record Key(
+    ZonedDateTime transitSearchTimeZero,
+    int additionalPastSearchDays,
+    int additionalFutureSearchDays,
+    Object filter
+  ) {}
+
+  private record Entry(List<TripPatternForDates> patterns, Set<RoutingTripPattern> invalidated) {
+    static Entry of(List<TripPatternForDates> patterns) {
+      return new Entry(List.copyOf(patterns), Set.of());
+    }
+
+    Entry invalidate(Collection<RoutingTripPattern> changed) {
+      var set = new HashSet<>(invalidated);
+      set.addAll(changed);
+      return new Entry(patterns, Set.copyOf(set));
+    }
+
+    /**
+     * Replace the invalidated patterns with the given patterns, created again from the current
+     * transit data. A pattern which is no longer running is not in the list.
+     */
+    Entry update(List<TripPatternForDates> created) {
+      var result = new ArrayList<TripPatternForDates>(patterns.size() + created.size());
+      for (var it : patterns) {
+        if (!invalidated.contains(it.getTripPattern())) {
+          result.add(it);
+        }
+      }
+      result.addAll(created);
+      return of(result);
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 
+import java.util.BitSet;
 import java.util.function.IntUnaryOperator;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -21,6 +22,10 @@ import org.opentripplanner.raptor.spi.RaptorTripScheduleSearch;
  * The search use a binary search if the number of trip schedules is above a given threshold. A
  * linear search is slow when the number of schedules is very large, let say more than 300 trip
  * schedules.
+ * <p>
+ * Trips excluded by the request, see {@link TripSearchTimetable#excludedTrips()}, are skipped
+ * while scanning. They are still used to exit the search, since they are ordered like the other
+ * trips.
  *
  * @param <T> The TripSchedule type defined by the user of the raptor API.
  */
@@ -31,6 +36,9 @@ public final class TripScheduleAlightSearch<T extends RaptorTripSchedule>
   private final int nTrips;
   private final int binarySearchThreshold;
 
+  @Nullable
+  private final BitSet excludedTrips;
+
   private int latestAlightTime;
   private int stopPositionInPattern;
   private IntUnaryOperator arrivalTimes;
@@ -46,6 +54,7 @@ public final class TripScheduleAlightSearch<T extends RaptorTripSchedule>
     this.timetable = timetable;
     this.nTrips = timetable.numberOfTripSchedules();
     this.binarySearchThreshold = binarySearchThreshold;
+    this.excludedTrips = timetable.excludedTrips();
   }
 
   /* TripScheduleBoardOrAlightEvent implementation using fly-weight pattern */
@@ -166,7 +175,9 @@ public final class TripScheduleAlightSearch<T extends RaptorTripSchedule>
   private RaptorBoardOrAlightEvent<T> findBoardingSearchForwardInTime(int tripIndexLowerBound) {
     for (int i = tripIndexLowerBound; i < nTrips; ++i) {
       if (arrivalTimes.applyAsInt(i) <= latestAlightTime) {
-        candidateTripIndex = i;
+        if (isIncluded(i)) {
+          candidateTripIndex = i;
+        }
       } else {
         // this trip arrives too late. We can break out of the loop since
         // trips are sorted by departure time (trips in given schedule)
@@ -190,7 +201,7 @@ public final class TripScheduleAlightSearch<T extends RaptorTripSchedule>
     final int tripIndexUpperBound
   ) {
     for (int i = tripIndexUpperBound - 1; i >= 0; --i) {
-      if (arrivalTimes.applyAsInt(i) <= latestAlightTime) {
+      if (arrivalTimes.applyAsInt(i) <= latestAlightTime && isIncluded(i)) {
         candidateTrip = timetable.getTripSchedule(i);
         candidateTripIndex = i;
         return this;
@@ -224,4 +235,8 @@ public final class TripScheduleAlightSearch<T extends RaptorTripSchedule>
     }
     return lower;
   }
+
+  private boolean isIncluded(int tripIndex) {
+    return excludedTrips == null || !excludedTrips.get(tripIndex);
+  }
 }
@@ -1,7 +1,9 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 
+import java.util.BitSet;
 import java.util.function.IntUnaryOperator;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.opentripplanner.framework.tostring.ToStringBuilder;
 import org.opentripplanner.raptor.api.model.RaptorConstants;
 import org.opentripplanner.raptor.api.model.RaptorTransferConstraint;
@@ -19,6 +21,10 @@ import org.opentripplanner.raptor.spi.RaptorTripScheduleSearch;
  * The search use a binary search if the number of trip schedules is above a given threshold. A
  * linear search is slow when the number of schedules is very large, let say more than 300 trip
  * schedules.
+ * <p/>
+ * Trips excluded by the request, see {@link TripSearchTimetable#excludedTrips()}, are skipped
+ * while scanning. They are still used to exit the search, since they are ordered like the other
+ * trips.
  *
  * @param <T> The TripSchedule type defined by the user of the raptor API.
  */
@@ -29,6 +35,9 @@ public final class TripScheduleBoardSearch<T extends RaptorTripSchedule>
   private final int nTrips;
   private final int binarySearchThreshold;
 
+  @Nullable
+  private final BitSet excludedTrips;
+
   private int earliestBoardTime;
   private int stopPositionInPattern;
   private IntUnaryOperator departureTimes;
@@ -44,6 +53,7 @@ public final class TripScheduleBoardSearch<T extends RaptorTripSchedule>
     this.timetable = timetable;
     this.nTrips = timetable.numberOfTripSchedules();
     this.binarySearchThreshold = binarySearchThreshold;
+    this.excludedTrips = timetable.excludedTrips();
   }
 
   /* TripScheduleBoardOrAlightEvent implementation using fly-weight pattern */
@@ -169,7 +179,9 @@ public final class TripScheduleBoardSearch<T extends RaptorTripSchedule>
   ) {
     for (int i = tripIndexUpperBound - 1; i >= 0; --i) {
       if (departureTimes.applyAsInt(i) >= earliestBoardTime) {
-        candidateTripIndex = i;
+        if (isIncluded(i)) {
+          candidateTripIndex = i;
+        }
       } else {
         // this trip arrives too early. We can break out of the loop since
         // trips are sorted by departure time (trips in given schedule)
@@ -193,7 +205,7 @@ public final class TripScheduleBoardSearch<T extends RaptorTripSchedule>
     final int tripIndexLowerBound
   ) {
     for (int i = tripIndexLowerBound; i < nTrips; ++i) {
-      if (departureTimes.applyAsInt(i) >= earliestBoardTime) {
+      if (departureTimes.applyAsInt(i) >= earliestBoardTime && isIncluded(i)) {
         candidateTrip = timetable.getTripSchedule(i);
         candidateTripIndex = i;
         return this;
@@ -225,4 +237,8 @@ public final class TripScheduleBoardSearch<T extends RaptorTripSchedule>
     }
     return upper == nTrips ? nTrips : upper + 1;
   }
+
+  private boolean isIncluded(int tripIndex) {
+    return excludedTrips == null || !excludedTrips.get(tripIndex);
+  }
 }
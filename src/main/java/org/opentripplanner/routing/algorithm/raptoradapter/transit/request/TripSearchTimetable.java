@@ -1,6 +1,8 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 
+import java.util.BitSet;
 import java.util.function.IntUnaryOperator;
+import javax.annotation.Nullable;
 import org.opentripplanner.raptor.api.model.RaptorTripSchedule;
 import org.opentripplanner.raptor.spi.RaptorTimeTable;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
@@ -26,4 +28,16 @@ public interface TripSearchTimetable<T extends RaptorTripSchedule> extends Rapto
    * seconds from midnight on the search date.
    */
   IntUnaryOperator getDepartureTimes(int stopPositionInPattern);
+
+  /**
+   * The trips in this timetable which are excluded by the request, indexed by the trip index. The
+   * trip times are shared by all requests and are not copied to remove the excluded trips, so the
+   * trip search must skip them. Return {@code null} if all trips are included.
+   * <p>
+   * The returned bit set must not be modified.
+   */
+  @Nullable
+  default BitSet excludedTrips() {
+    return null;
+  }
 }
@@ -25,8 +25,10 @@ import org.opentripplanner.routing.graph.index.StreetIndex;
 import org.opentripplanner.routing.linking.VertexLinker;
 import org.opentripplanner.routing.services.notes.StreetNotesService;
 import org.opentripplanner.routing.vehicle_parking.VehicleParkingService;
+import org.opentripplanner.street.model.ch.ContractionHierarchy;
 import org.opentripplanner.street.model.edge.Edge;
 import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.landmark.StreetLandmarks;
 import org.opentripplanner.street.model.vertex.TransitStopVertex;
 import org.opentripplanner.street.model.vertex.Vertex;
 import org.opentripplanner.street.model.vertex.VertexLabel;
@@ -58,6 +60,14 @@ public class Graph implements Serializable {
 
   private transient StreetIndex streetIndex;
 
+  /** Landmarks for the A* street search heuristic, computed at graph build time if enabled. */
+  @Nullable
+  private StreetLandmarks streetLandmarks;
+
+  /** Used for direct car routing, created at graph build time if enabled. */
+  @Nullable
+  private ContractionHierarchy carContractionHierarchy;
+
   //ConvexHull of all the graph vertices. Generated at Graph build time.
   private Geometry convexHull = null;
 
@@ -316,6 +326,24 @@ public class Graph implements Serializable {
     return streetIndex.getVertexLinker();
   }
 
+  @Nullable
+  public StreetLandmarks getStreetLandmarks() {
+    return streetLandmarks;
+  }
+
+  public void setStreetLandmarks(@Nullable StreetLandmarks streetLandmarks) {
+    this.streetLandmarks = streetLandmarks;
+  }
+
+  @Nullable
+  public ContractionHierarchy getCarContractionHierarchy() {
+    return carContractionHierarchy;
+  }
+
+  public void setCarContractionHierarchy(@Nullable ContractionHierarchy carContractionHierarchy) {
+    this.carContractionHierarchy = carContractionHierarchy;
+  }
+
   /**
    * Calculates convexHull of all the vertices during build time
    */
@@ -4,6 +4,8 @@ import java.util.stream.Stream;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.LineString;
 import org.opentripplanner.framework.geometry.HashGridSpatialIndex;
+import org.opentripplanner.framework.geometry.PackedHilbertRTree;
+import org.opentripplanner.framework.geometry.PackedSpatialIndex;
 import org.opentripplanner.routing.linking.Scope;
 import org.opentripplanner.street.model.edge.Edge;
 
@@ -29,13 +31,21 @@ import org.opentripplanner.street.model.edge.Edge;
  * edge then back again to where the realtime element was connected.
  * <p>
  * See #3351
+ * <p>
+ * The permanent edges are bulk loaded into a packed R-tree. The edges split when linking during
+ * the graph build are kept in the overlay of the {@link PackedSpatialIndex}, until it is
+ * compacted. The realtime index is small and changes all the time, so it is a hash grid.
  */
 public class EdgeSpatialIndex {
 
-  private final HashGridSpatialIndex<Edge> permanentEdgeIndex = new HashGridSpatialIndex<>();
+  private final PackedSpatialIndex<Edge> permanentEdgeIndex;
 
   private final HashGridSpatialIndex<Edge> realTimeEdgeIndex = new HashGridSpatialIndex<>();
 
+  public EdgeSpatialIndex(PackedHilbertRTree<Edge> permanentEdges) {
+    this.permanentEdgeIndex = new PackedSpatialIndex<>(permanentEdges);
+  }
+
   public void insert(LineString lineString, Object obj, Scope scope) {
     switch (scope) {
       case PERMANENT -> permanentEdgeIndex.insert(lineString, obj);
@@ -61,8 +71,4 @@ public class EdgeSpatialIndex {
       );
     };
   }
-
-  public void compact() {
-    permanentEdgeIndex.compact();
-  }
 }
@@ -12,7 +12,8 @@ import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.LineString;
 import org.opentripplanner.framework.geometry.GeometryUtils;
-import org.opentripplanner.framework.geometry.HashGridSpatialIndex;
+import org.opentripplanner.framework.geometry.PackedHilbertRTree;
+import org.opentripplanner.framework.geometry.PackedSpatialIndex;
 import org.opentripplanner.framework.geometry.SphericalDistanceLibrary;
 import org.opentripplanner.framework.geometry.SplitLineString;
 import org.opentripplanner.framework.i18n.I18NString;
@@ -62,18 +63,20 @@ public class StreetIndex {
   private final Map<FeedScopedId, TransitStopVertex> transitStopVertices;
 
   private final EdgeSpatialIndex edgeSpatialIndex;
-  private final HashGridSpatialIndex<Vertex> verticesTree;
+  private final PackedSpatialIndex<Vertex> verticesTree;
 
   /**
    * Should only be called by the graph.
    */
   public StreetIndex(Graph graph, StopModel stopModel) {
     this.stopModel = stopModel;
-    this.edgeSpatialIndex = new EdgeSpatialIndex();
-    this.verticesTree = new HashGridSpatialIndex<>();
+    var edges = PackedHilbertRTree.<Edge>of();
+    var vertices = PackedHilbertRTree.<Vertex>of();
+    postSetup(graph.getVertices(), edges, vertices);
+    this.edgeSpatialIndex = new EdgeSpatialIndex(edges.build());
+    this.verticesTree = new PackedSpatialIndex<>(vertices.build());
     this.vertexLinker = new VertexLinker(graph, stopModel, edgeSpatialIndex);
     this.transitStopVertices = toImmutableMap(graph.getVerticesOfType(TransitStopVertex.class));
-    postSetup(graph.getVertices());
   }
 
   /**
@@ -404,25 +407,25 @@ public class StreetIndex {
     return nonTransitMode;
   }
 
-  private void postSetup(Collection<Vertex> vertices) {
+  private static void postSetup(
+    Collection<Vertex> vertices,
+    PackedHilbertRTree.Builder<Edge> edges,
+    PackedHilbertRTree.Builder<Vertex> verticesTree
+  ) {
     var progress = ProgressTracker.track("Index street vertex", 1000, vertices.size());
     LOG.info(progress.startMessage());
 
     for (Vertex gv : vertices) {
       for (Edge e : gv.getOutgoing()) {
         LineString geometry = edgeGeometryOrStraightLine(e);
-        edgeSpatialIndex.insert(geometry, e, Scope.PERMANENT);
+        edges.add(geometry.getEnvelopeInternal(), e);
       }
       Envelope env = new Envelope(gv.getCoordinate());
-      verticesTree.insert(env, gv);
+      verticesTree.add(env, gv);
 
       //noinspection Convert2MethodRef
       progress.step(m -> LOG.info(m));
     }
-
-    // Trim the sizes of the indices
-    edgeSpatialIndex.compact();
-    verticesTree.compact();
     LOG.info(progress.completeMessage());
   }
 
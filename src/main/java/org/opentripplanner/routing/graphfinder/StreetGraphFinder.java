@@ -98,6 +98,8 @@ public class StreetGraphFinder implements GraphFinder {
         StreetMode.WALK
       )
     ) {
+      // The result is collected by the visitor, the tree itself is not needed. If the search
+      // fails, the tree is released by the search.
       StreetSearchBuilder
         .of()
         .setSkipEdgeStrategy(skipEdgeStrategy)
@@ -105,7 +107,9 @@ public class StreetGraphFinder implements GraphFinder {
         .setDominanceFunction(new DominanceFunctions.LeastWalk())
         .setRequest(rr)
         .setVerticesContainer(temporaryVertices)
-        .getShortestPathTree();
+        .setPooledStorage(true)
+        .getShortestPathTree()
+        .release();
     }
   }
 }
@@ -0,0 +1,220 @@
+package org.opentripplanner.routing.impl;
+
+import gnu.trove.map.hash.TIntObjectHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.opentripplanner.astar.model.GraphPath;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.preference.StreetPreferences;
+import org.opentripplanner.street.model.ch.ContractionHierarchy;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.TraverseMode;
+import org.opentripplanner.street.search.ch.ContractionHierarchySearch;
+import org.opentripplanner.street.search.intersection_model.IntersectionTraversalCalculator;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.street.search.request.StreetSearchRequestMapper;
+import org.opentripplanner.street.search.state.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Find a direct car path using the {@link ContractionHierarchy}, instead of the A* search of the
+ * {@link GraphPathFinder}.
+ * <p>
+ * The origin and destination vertices created for the request are not part of the hierarchy, so
+ * the temporary edges are followed a few steps to connect them to the hierarchy. The street edges
+ * of the shortest path are then traversed from the origin (or from the destination for an
+ * arrive-by search), to get the same times, weights and states as the A* search. Turn
+ * restrictions and turn costs are not part of the hierarchy, if the path can not be traversed
+ * {@code null} is returned, and the caller should fall back to the A* search.
+ * <p>
+ * One instance of this class should be constructed per search.
+ */
+public class ContractionHierarchyPathFinder {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ContractionHierarchyPathFinder.class);
+
+  /** How many temporary edges to follow to connect the origin and destination. */
+  private static final int MAX_TEMPORARY_EDGES = 3;
+
+  private final ContractionHierarchy hierarchy;
+
+  public ContractionHierarchyPathFinder(ContractionHierarchy hierarchy) {
+    this.hierarchy = hierarchy;
+  }
+
+  /**
+   * The hierarchy can only be used for plain car searches. The caller must also make sure the
+   * street costs are not changed for the request, like with the data overlay.
+   */
+  public static boolean isSupported(RouteRequest request) {
+    return request.journey().direct().mode() == StreetMode.CAR;
+  }
+
+  /**
+   * Find the fastest car path, or return {@code null} if the hierarchy could not be used.
+   */
+  @Nullable
+  public List<GraphPath<State, Edge, Vertex>> getPaths(
+    RouteRequest request,
+    Set<Vertex> from,
+    Set<Vertex> to
+  ) {
+    var origins = connect(from, true);
+    var destinations = connect(to, false);
+    if (origins.isEmpty() || destinations.isEmpty()) {
+      return null;
+    }
+
+    int[] originKeys = origins.keys();
+    int[] destinationKeys = destinations.keys();
+    var search = new ContractionHierarchySearch(hierarchy);
+    double duration = search.search(
+      originKeys,
+      durations(origins, originKeys),
+      destinationKeys,
+      durations(destinations, destinationKeys)
+    );
+    if (Double.isInfinite(duration)) {
+      return null;
+    }
+
+    var edges = new ArrayList<Edge>(origins.get(search.origin()).edges);
+    edges.addAll(search.path());
+    edges.addAll(destinations.get(search.destination()).edges.reversed());
+    if (edges.isEmpty()) {
+      return null;
+    }
+
+    State state = traverse(request, edges);
+    if (state == null) {
+      LOG.debug("The contraction hierarchy path could not be traversed: {}", edges);
+      return null;
+    }
+
+    var maxDuration = request.preferences().street().maxDirectDuration().valueOf(StreetMode.CAR);
+    if (state.getElapsedTimeSeconds() > maxDuration.toSeconds()) {
+      return List.of();
+    }
+    return List.of(new GraphPath<>(state));
+  }
+
+  /**
+   * Follow the edges from (or to) the given vertices until the hierarchy is reached.
+   */
+  private TIntObjectHashMap<Connection> connect(Set<Vertex> vertices, boolean outgoing) {
+    var connections = new TIntObjectHashMap<Connection>();
+    for (Vertex vertex : vertices) {
+      connect(vertex, outgoing, 0.0, List.of(), MAX_TEMPORARY_EDGES, connections);
+    }
+    return connections;
+  }
+
+  private void connect(
+    Vertex vertex,
+    boolean outgoing,
+    double duration,
+    List<Edge> edges,
+    int depth,
+    TIntObjectHashMap<Connection> connections
+  ) {
+    int index = hierarchy.vertexIndex(vertex);
+    if (index != ContractionHierarchy.NOT_FOUND) {
+      var existing = connections.get(index);
+      if (existing == null || duration < existing.duration) {
+        connections.put(index, new Connection(duration, edges));
+      }
+      return;
+    }
+    if (depth == 0) {
+      return;
+    }
+    for (Edge edge : outgoing ? vertex.getOutgoing() : vertex.getIncoming()) {
+      double edgeDuration = 0.0;
+      if (edge instanceof StreetEdge streetEdge) {
+        if (!streetEdge.canTraverse(TraverseMode.CAR) || !(streetEdge.getCarSpeed() > 0)) {
+          continue;
+        }
+        edgeDuration = streetEdge.getDistanceMeters() / streetEdge.getCarSpeed();
+      }
+      var next = new ArrayList<>(edges);
+      next.add(edge);
+      connect(
+        outgoing ? edge.getToVertex() : edge.getFromVertex(),
+        outgoing,
+        duration + edgeDuration,
+        next,
+        depth - 1,
+        connections
+      );
+    }
+  }
+
+  /**
+   * Traverse the edges, given in travel order, in the search direction of the request.
+   *
+   * @return the last state, or {@code null} if an edge can not be traversed.
+   */
+  @Nullable
+  private static State traverse(RouteRequest request, List<Edge> edges) {
+    boolean arriveBy = request.arriveBy();
+    StreetSearchRequest streetSearchRequest = StreetSearchRequestMapper
+      .map(request)
+      .withMode(StreetMode.CAR)
+      .withArriveBy(arriveBy)
+      .build();
+    StreetPreferences streetPreferences = request.preferences().street();
+    streetSearchRequest.setIntersectionTraversalCalculator(
+      IntersectionTraversalCalculator.create(
+        streetPreferences.intersectionTraversalModel(),
+        streetPreferences.drivingDirection()
+      )
+    );
+
+    Vertex start = arriveBy ? edges.getLast().getToVertex() : edges.getFirst().getFromVertex();
+    State best = null;
+    for (State initialState : State.getInitialStates(Set.of(start), streetSearchRequest)) {
+      State state = initialState;
+      for (int i = 0; i < edges.size() && state != null; i++) {
+        state = minWeight(edges.get(arriveBy ? edges.size() - 1 - i : i).traverse(state));
+      }
+      if (state == null || !state.isFinal()) {
+        continue;
+      }
+      if (best == null || state.getWeight() < best.getWeight()) {
+        best = state;
+      }
+    }
+    return best;
+  }
+
+  @Nullable
+  private static State minWeight(State[] states) {
+    State min = null;
+    for (State s : states) {
+      if (min == null || s.getWeight() < min.getWeight()) {
+        min = s;
+      }
+    }
+    return min;
+  }
+
+  private static double[] durations(TIntObjectHashMap<Connection> connections, int[] keys) {
+    double[] durations = new double[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      durations[i] = connections.get(keys[i]).duration;
+    }
+    return durations;
+  }
+
+  /**
+   * The edges followed from an origin or destination to a vertex in the hierarchy, in the order
+   * they are followed.
+   */
+  private record Connection(double duration, List<Edge> edges) {}
+}
@@ -7,21 +7,25 @@ import java.util.List;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.opentripplanner.astar.model.GraphPath;
+import org.opentripplanner.astar.spi.RemainingWeightHeuristic;
 import org.opentripplanner.astar.spi.TraverseVisitor;
 import org.opentripplanner.astar.strategy.DurationSkipEdgeStrategy;
 import org.opentripplanner.astar.strategy.PathComparator;
 import org.opentripplanner.ext.dataoverlay.routing.DataOverlayContext;
+import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.framework.application.OTPRequestTimeoutException;
 import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.routing.api.request.preference.StreetPreferences;
 import org.opentripplanner.routing.error.PathNotFoundException;
 import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.landmark.StreetLandmarks;
 import org.opentripplanner.street.model.vertex.Vertex;
 import org.opentripplanner.street.search.StreetSearchBuilder;
 import org.opentripplanner.street.search.TemporaryVerticesContainer;
 import org.opentripplanner.street.search.state.State;
 import org.opentripplanner.street.search.strategy.DominanceFunctions;
 import org.opentripplanner.street.search.strategy.EuclideanRemainingWeightHeuristic;
+import org.opentripplanner.street.search.strategy.LandmarkRemainingWeightHeuristic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,6 +60,9 @@ public class GraphPathFinder {
 
   private final DataOverlayContext dataOverlayContext;
 
+  @Nullable
+  private final StreetLandmarks streetLandmarks;
+
   public GraphPathFinder(@Nullable TraverseVisitor<State, Edge> traverseVisitor) {
     this(traverseVisitor, null);
   }
@@ -63,9 +70,22 @@ public class GraphPathFinder {
   public GraphPathFinder(
     @Nullable TraverseVisitor<State, Edge> traverseVisitor,
     @Nullable DataOverlayContext dataOverlayContext
+  ) {
+    this(traverseVisitor, dataOverlayContext, null);
+  }
+
+  /**
+   * @param streetLandmarks if present, the landmark heuristic is used instead of the Euclidean
+   *                        heuristic, see {@link LandmarkRemainingWeightHeuristic}.
+   */
+  public GraphPathFinder(
+    @Nullable TraverseVisitor<State, Edge> traverseVisitor,
+    @Nullable DataOverlayContext dataOverlayContext,
+    @Nullable StreetLandmarks streetLandmarks
   ) {
     this.traverseVisitor = traverseVisitor;
     this.dataOverlayContext = dataOverlayContext;
+    this.streetLandmarks = streetLandmarks;
   }
 
   /**
@@ -81,7 +101,7 @@ public class GraphPathFinder {
 
     StreetSearchBuilder aStar = StreetSearchBuilder
       .of()
-      .setHeuristic(new EuclideanRemainingWeightHeuristic())
+      .setHeuristic(createHeuristic())
       .setSkipEdgeStrategy(
         new DurationSkipEdgeStrategy(
           preferences.maxDirectDuration().valueOf(request.journey().direct().mode())
@@ -93,7 +113,8 @@ public class GraphPathFinder {
       .setStreetRequest(request.journey().direct())
       .setFrom(from)
       .setTo(to)
-      .setDataOverlayContext(dataOverlayContext);
+      .setDataOverlayContext(dataOverlayContext)
+      .setBidirectional(OTPFeature.BidirectionalStreetSearch.isOn());
 
     // If the search has a traverseVisitor(GraphVisualizer) attached to it, set it as a callback
     // for the AStar search
@@ -114,6 +135,12 @@ public class GraphPathFinder {
     return paths;
   }
 
+  private RemainingWeightHeuristic<State> createHeuristic() {
+    return streetLandmarks == null
+      ? new EuclideanRemainingWeightHeuristic()
+      : new LandmarkRemainingWeightHeuristic(streetLandmarks);
+  }
+
   /**
    * Try to find N paths through the Graph
    */
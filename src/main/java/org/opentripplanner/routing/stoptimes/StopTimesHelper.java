@@ -4,6 +4,7 @@ import static org.opentripplanner.routing.stoptimes.ArrivalDeparture.ARRIVALS;
 import static org.opentripplanner.routing.stoptimes.ArrivalDeparture.DEPARTURES;
 
 import com.google.common.collect.MinMaxPriorityQueue;
+import gnu.trove.set.TIntSet;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -12,8 +13,14 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
+import java.util.function.Function;
 import org.opentripplanner.framework.time.ServiceDateUtils;
 import org.opentripplanner.model.PickDrop;
 import org.opentripplanner.model.StopTimesInPattern;
@@ -52,31 +59,83 @@ public class StopTimesHelper {
     ArrivalDeparture arrivalDeparture,
     boolean includeCancelledTrips
   ) {
+    return stopTimesForStops(
+      transitService,
+      List.of(stop),
+      startTime,
+      timeRange,
+      numberOfDepartures,
+      arrivalDeparture,
+      includeCancelledTrips
+    )
+      .get(stop);
+  }
+
+  /**
+   * Fetch upcoming vehicle departures from many stops, like {@link #stopTimesForStop(
+   * TransitService, StopLocation, Instant, Duration, int, ArrivalDeparture, boolean)} does for one
+   * stop. The stops are grouped by pattern, so the timetables and the trips of each pattern are
+   * only looked up once, not once for each stop. Use this for "departure boards" with many stops.
+   *
+   * @return the stop times for each of the given stops, the result is the same as calling
+   * {@code stopTimesForStop(...)} for each stop.
+   */
+  public static Map<StopLocation, List<StopTimesInPattern>> stopTimesForStops(
+    TransitService transitService,
+    Collection<StopLocation> stops,
+    Instant startTime,
+    Duration timeRange,
+    int numberOfDepartures,
+    ArrivalDeparture arrivalDeparture,
+    boolean includeCancelledTrips
+  ) {
+    Map<StopLocation, List<StopTimesInPattern>> result = new HashMap<>();
     if (numberOfDepartures <= 0) {
-      return List.of();
+      stops.forEach(stop -> result.put(stop, List.of()));
+      return result;
     }
 
-    List<StopTimesInPattern> result = new ArrayList<>();
-
-    // Fetch all patterns, including those from realtime sources
-    Collection<TripPattern> patterns = transitService.getPatternsForStop(stop, true);
+    // Fetch all patterns, including those from realtime sources, and group the stops by pattern
+    Map<StopLocation, Collection<TripPattern>> patternsByStop = new HashMap<>();
+    Map<TripPattern, Set<StopLocation>> stopsByPattern = new LinkedHashMap<>();
+    for (StopLocation stop : stops) {
+      var patterns = transitService.getPatternsForStop(stop, true);
+      patternsByStop.put(stop, patterns);
+      for (TripPattern pattern : patterns) {
+        stopsByPattern.computeIfAbsent(pattern, p -> new HashSet<>()).add(stop);
+      }
+    }
 
-    for (TripPattern pattern : patterns) {
-      Queue<TripTimeOnDate> pq = listTripTimeShortsForPatternAtStop(
-        transitService,
-        stop,
+    var servicesRunning = new ServicesRunningCache(transitService);
+    Map<TripPattern, Map<StopLocation, Queue<TripTimeOnDate>>> stopTimesByPattern = new HashMap<>();
+    stopsByPattern.forEach((pattern, patternStops) ->
+      stopTimesByPattern.put(
         pattern,
-        startTime,
-        timeRange,
-        numberOfDepartures,
-        arrivalDeparture,
-        includeCancelledTrips,
-        false
-      );
+        listTripTimeShortsForPatternAtStops(
+          transitService,
+          patternStops,
+          pattern,
+          startTime,
+          timeRange,
+          numberOfDepartures,
+          arrivalDeparture,
+          includeCancelledTrips,
+          false,
+          servicesRunning
+        )
+      )
+    );
 
-      result.addAll(getStopTimesInPattern(pattern, pq));
+    for (StopLocation stop : stops) {
+      List<StopTimesInPattern> stopTimes = new ArrayList<>();
+      for (TripPattern pattern : patternsByStop.get(stop)) {
+        var pq = stopTimesByPattern.get(pattern).get(stop);
+        if (pq != null) {
+          stopTimes.addAll(getStopTimesInPattern(pattern, pq));
+        }
+      }
+      result.put(stop, stopTimes);
     }
-
     return result;
   }
 
@@ -154,19 +213,21 @@ public class StopTimesHelper {
     ArrivalDeparture arrivalDeparture,
     boolean includeCancellations
   ) {
-    Queue<TripTimeOnDate> pq = listTripTimeShortsForPatternAtStop(
+    Queue<TripTimeOnDate> pq = listTripTimeShortsForPatternAtStops(
       transitService,
-      stop,
+      Set.of(stop),
       pattern,
       startTime,
       timeRange,
       numberOfDepartures,
       arrivalDeparture,
       includeCancellations,
-      true
-    );
+      true,
+      new ServicesRunningCache(transitService)
+    )
+      .get(stop);
 
-    return new ArrayList<>(pq);
+    return pq == null ? new ArrayList<>() : new ArrayList<>(pq);
   }
 
   private static List<StopTimesInPattern> getStopTimesInPattern(
@@ -184,16 +245,24 @@ public class StopTimesHelper {
     return result;
   }
 
-  private static Queue<TripTimeOnDate> listTripTimeShortsForPatternAtStop(
+  /**
+   * Find the trip times for each of the given stops in the pattern. The trips which are not
+   * running, cancelled or replaced are found once for each service date, and not for each stop.
+   *
+   * @return a queue of trip times for each stop visited by the pattern, stops without any trip
+   * times in the time range are not included.
+   */
+  private static Map<StopLocation, Queue<TripTimeOnDate>> listTripTimeShortsForPatternAtStops(
     TransitService transitService,
-    StopLocation stop,
+    Set<StopLocation> stops,
     TripPattern pattern,
     Instant startTime,
     Duration timeRange,
     int numberOfDepartures,
     ArrivalDeparture arrivalDeparture,
     boolean includeCancellations,
-    boolean includeReplaced
+    boolean includeReplaced,
+    ServicesRunningCache servicesRunningCache
   ) {
     ZoneId zoneId = transitService.getTimeZone();
     LocalDate startDate = startTime.atZone(zoneId).toLocalDate().minusDays(1);
@@ -212,14 +281,16 @@ public class StopTimesHelper {
     // ways to do it.
     //
     // The {@link MinMaxPriorityQueue} is marked beta, but we do not have a god alternative.
-    MinMaxPriorityQueue<TripTimeOnDate> pq = MinMaxPriorityQueue
-      .orderedBy(
-        Comparator.comparing((TripTimeOnDate tts) ->
-          tts.getServiceDayMidnight() + tts.getRealtimeDeparture()
+    Map<StopLocation, Queue<TripTimeOnDate>> result = new HashMap<>();
+    Function<StopLocation, Queue<TripTimeOnDate>> createQueue = stop ->
+      MinMaxPriorityQueue
+        .orderedBy(
+          Comparator.comparing((TripTimeOnDate tts) ->
+            tts.getServiceDayMidnight() + tts.getRealtimeDeparture()
+          )
         )
-      )
-      .maximumSize(numberOfDepartures)
-      .create();
+        .maximumSize(numberOfDepartures)
+        .create();
 
     int timeRangeSeconds = (int) timeRange.toSeconds();
 
@@ -231,33 +302,46 @@ public class StopTimesHelper {
         midnight,
         ZonedDateTime.ofInstant(startTime, zoneId)
       );
-      var servicesRunning = transitService.getServiceCodesRunningForDate(serviceDate);
+      var servicesRunning = servicesRunningCache.get(serviceDate);
 
-      List<StopLocation> stops = pattern.getStops();
-      for (int stopIndex = 0; stopIndex < stops.size(); stopIndex++) {
-        StopLocation currStop = stops.get(stopIndex);
-        if (currStop == stop) {
+      // The trips to include for this service date, found when the first stop is visited
+      List<TripTimes> tripTimesToInclude = null;
+
+      List<StopLocation> patternStops = pattern.getStops();
+      for (int stopIndex = 0; stopIndex < patternStops.size(); stopIndex++) {
+        StopLocation currStop = patternStops.get(stopIndex);
+        if (stops.contains(currStop)) {
           if (skipByPickUpDropOff(pattern, arrivalDeparture, stopIndex)) {
             continue;
           }
           if (skipByStopCancellation(pattern, includeCancellations, stopIndex)) {
             continue;
           }
-
-          for (TripTimes tripTimes : timetable.getTripTimes()) {
-            if (!servicesRunning.contains(tripTimes.getServiceCode())) {
-              continue;
-            }
-            if (skipByTripCancellation(tripTimes, includeCancellations)) {
-              continue;
-            }
-            if (
-              !includeReplaced &&
-              isReplacedByAnotherPattern(tripTimes.getTrip(), serviceDate, pattern, transitService)
-            ) {
-              continue;
+          if (tripTimesToInclude == null) {
+            tripTimesToInclude = new ArrayList<>();
+            for (TripTimes tripTimes : timetable.getTripTimes()) {
+              if (!servicesRunning.contains(tripTimes.getServiceCode())) {
+                continue;
+              }
+              if (skipByTripCancellation(tripTimes, includeCancellations)) {
+                continue;
+              }
+              if (
+                !includeReplaced &&
+                isReplacedByAnotherPattern(
+                  tripTimes.getTrip(),
+                  serviceDate,
+                  pattern,
+                  transitService
+                )
+              ) {
+                continue;
+              }
+              tripTimesToInclude.add(tripTimes);
             }
+          }
 
+          for (TripTimes tripTimes : tripTimesToInclude) {
             boolean departureTimeInRange =
               tripTimes.getDepartureTime(stopIndex) >= secondsSinceMidnight &&
               tripTimes.getDepartureTime(stopIndex) <= secondsSinceMidnight + timeRangeSeconds;
@@ -273,16 +357,24 @@ public class StopTimesHelper {
               (arrivalDeparture != ARRIVALS && departureTimeInRange) ||
               (arrivalDeparture != DEPARTURES && arrivalTimeInRange)
             ) {
-              pq.add(
-                new TripTimeOnDate(tripTimes, stopIndex, pattern, serviceDate, midnight.toInstant())
-              );
+              result
+                .computeIfAbsent(currStop, createQueue)
+                .add(
+                  new TripTimeOnDate(
+                    tripTimes,
+                    stopIndex,
+                    pattern,
+                    serviceDate,
+                    midnight.toInstant()
+                  )
+                );
             }
           }
           // TODO Add back support for frequency entries
         }
       }
     }
-    return pq;
+    return result;
   }
 
   private static boolean isReplacedByAnotherPattern(
@@ -339,4 +431,25 @@ public class StopTimesHelper {
 
     return (pickupCancelled || dropOffCancelled) && !includeCancelledTrips;
   }
+
+  /**
+   * The service codes running on each date are the same for all patterns, so only look them up
+   * once.
+   */
+  private static class ServicesRunningCache {
+
+    private final TransitService transitService;
+    private final Map<LocalDate, TIntSet> servicesRunning = new HashMap<>();
+
+    private ServicesRunningCache(TransitService transitService) {
+      this.transitService = transitService;
+    }
+
+    private TIntSet get(LocalDate serviceDate) {
+      return servicesRunning.computeIfAbsent(
+        serviceDate,
+        transitService::getServiceCodesRunningForDate
+      );
+    }
+  }
 }
@@ -11,6 +11,7 @@ import org.opentripplanner.ext.ridehailing.RideHailingService;
 import org.opentripplanner.ext.stopconsolidation.StopConsolidationService;
 import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.inspector.raster.TileRendererManager;
+import org.opentripplanner.inspector.vector.VectorTileCache;
 import org.opentripplanner.raptor.api.request.RaptorTuningParameters;
 import org.opentripplanner.raptor.configure.RaptorConfig;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitTuningParameters;
@@ -121,6 +122,11 @@ public interface OtpServerRequestContext {
 
   VectorTileConfig vectorTileConfig();
 
+  /**
+   * The server side cache of vector tile layers, shared by all requests.
+   */
+  VectorTileCache vectorTileCache();
+
   default DataOverlayContext dataOverlayContext(RouteRequest request) {
     return OTPFeature.DataOverlay.isOnElseNull(() ->
       new DataOverlayContext(
@@ -145,6 +145,8 @@ public class BuildConfig implements OtpDataStoreConfig {
 
   public final boolean osmCacheDataInMem;
 
+  public final boolean osmCompactNodeStore;
+
   /** See {@link IslandPruningConfig}. */
   public final IslandPruningConfig islandPruning;
 
@@ -159,6 +161,10 @@ public class BuildConfig implements OtpDataStoreConfig {
 
   public final int maxAreaNodes;
 
+  public final int streetLandmarks;
+
+  public final boolean carContractionHierarchy;
+
   public final DataOverlayConfig dataOverlay;
   public final double maxStopToShapeSnapDistance;
   public final Set<String> boardingLocationTags;
@@ -331,6 +337,21 @@ all of the elevation values in the street edges.
       """
         )
         .asBoolean(false);
+    osmCompactNodeStore =
+      root
+        .of("osmCompactNodeStore")
+        .since(V2_5)
+        .summary("Store the OSM nodes in a compact form while building the graph.")
+        .description(
+          """
+      The OSM nodes used by ways are kept in memory until the street graph is built, and for a
+      large country or region they use most of the memory needed to build the graph. Set this to
+      `true` to store the coordinates and tags of the nodes in compact, sorted arrays instead of
+      as one object per node. This uses a fraction of the memory, at the cost of a slightly slower
+      street graph build. The coordinates are rounded to 7 decimals, the precision of OSM data.
+      """
+        )
+        .asBoolean(false);
     platformEntriesLinking =
       root
         .of("platformEntriesLinking")
@@ -476,6 +497,35 @@ recommended.
           "Visibility calculations for an area will not be done if there are more nodes than this limit."
         )
         .asInt(150);
+    streetLandmarks =
+      root
+        .of("streetLandmarks")
+        .since(V2_5)
+        .summary("The number of landmarks used to speed up long car and bicycle street searches.")
+        .description(
+          """
+The distances from and to a few landmark vertices are computed for all street vertices when the
+graph is built. These give a lower bound on the remaining travel time, which is much better than
+the straight line distance for long direct car and bicycle searches. Each landmark uses 16 bytes
+per street vertex in the graph. A value between 8 and 16 is a good choice, `0` turns this off.
+"""
+        )
+        .asInt(0);
+    carContractionHierarchy =
+      root
+        .of("carContractionHierarchy")
+        .since(V2_5)
+        .summary("Create a contraction hierarchy to speed up direct car routing.")
+        .description(
+          """
+The contraction hierarchy is created for the car street network when the graph is built, and is
+used for direct car searches. A search in the hierarchy only visits a few hundred vertices, also
+for long trips. The path found is checked against the turn restrictions; if it is not valid, or
+if the street costs are changed by the request, the normal street search is used. The hierarchy
+increases the graph build time and the size of the graph.
+"""
+        )
+        .asBoolean(false);
     maxElevationPropagationMeters =
       root
         .of("maxElevationPropagationMeters")
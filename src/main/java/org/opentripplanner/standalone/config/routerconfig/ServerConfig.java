@@ -1,17 +1,21 @@
 package org.opentripplanner.standalone.config.routerconfig;
 
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_4;
+import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_5;
 
 import java.time.Duration;
 import java.util.List;
 import org.opentripplanner.framework.application.OtpAppException;
 import org.opentripplanner.standalone.config.framework.json.NodeAdapter;
+import org.opentripplanner.standalone.server.GrizzlyServerParameters;
 import org.opentripplanner.standalone.server.OTPWebApplicationParameters;
 import org.opentripplanner.standalone.server.RequestTraceParameter;
 
-public class ServerConfig implements OTPWebApplicationParameters {
+public class ServerConfig implements OTPWebApplicationParameters, GrizzlyServerParameters {
 
   private final Duration apiProcessingTimeout;
+  private final int routingQueueSize;
+  private final Duration routingQueueMaxWaitTime;
   private final List<RequestTraceParameter> traceParameters;
 
   public ServerConfig(String parameterName, NodeAdapter root) {
@@ -37,11 +41,40 @@ domain, these are set in the routing request.
 This timeout limits the server-side processing time for a given API request. This does not include
 network latency nor waiting time in the HTTP server thread pool. The default value is
 `-1s`(no timeout). The timeout is applied to all APIs (REST, Transmodel & GTFS GraphQL).
-The timeout is not enforced when the parallel routing OTP feature is in use.
 """
         )
         .asDuration(Duration.ofSeconds(-1));
 
+    this.routingQueueSize =
+      c
+        .of("routingQueueSize")
+        .since(V2_5)
+        .summary("Maximum number of routing requests waiting for a routing thread.")
+        .description(
+          """
+The routing requests(REST plan, travel time and the GraphQL APIs) are processed on a separate
+pool of routing threads, so the HTTP threads are free to serve cheap requests like stop lookups
+when the server is busy. When all routing threads are busy the routing requests are queued, and
+requests arriving when the queue is full are rejected with `503 Service Unavailable`.
+"""
+        )
+        .asInt(100);
+
+    this.routingQueueMaxWaitTime =
+      c
+        .of("routingQueueMaxWaitTime")
+        .since(V2_5)
+        .summary("Maximum time a routing request should wait for a routing thread.")
+        .description(
+          """
+OTP estimates the waiting time for a new routing request from the number of queued requests and
+the average processing time. If the estimated waiting time is longer than this, the request is
+rejected with `503 Service Unavailable` right away, instead of timing out later. A request which
+waited longer than this in the queue is also rejected. Use `-1s` to only limit the queue size.
+"""
+        )
+        .asDuration(Duration.ofSeconds(10));
+
     this.traceParameters =
       c
         .of("traceParameters")
@@ -101,10 +134,21 @@ Only log4j and logback support this.
         );
   }
 
+  @Override
   public Duration apiProcessingTimeout() {
     return apiProcessingTimeout;
   }
 
+  @Override
+  public int routingQueueSize() {
+    return routingQueueSize;
+  }
+
+  @Override
+  public Duration routingQueueMaxWaitTime() {
+    return routingQueueMaxWaitTime;
+  }
+
   public void validate(Duration streetRoutingTimeout) {
     if (
       !apiProcessingTimeout.isNegative() &&
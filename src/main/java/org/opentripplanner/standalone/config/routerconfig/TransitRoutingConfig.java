@@ -6,6 +6,7 @@ import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_2;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_3;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_4;
+import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_5;
 
 import java.time.Duration;
 import java.util.List;
@@ -27,7 +28,14 @@ public final class TransitRoutingConfig implements RaptorTuningParameters, Trans
   private final int scheduledTripBinarySearchThreshold;
   private final int iterationDepartureStepInSeconds;
   private final int searchThreadPoolSize;
+  private final Duration minSearchWindowSlice;
   private final int transferCacheMaxSize;
+  private final boolean transferCacheBuildAsync;
+  private final int accessEgressCacheMaxSize;
+  private final Duration accessEgressCacheTimeToLive;
+  private final int tripPatternCacheMaxSize;
+  private final double corridorDetourFactor;
+  private final int corridorMargin;
   private final List<RouteRequest> transferCacheRequests;
   private final List<Duration> pagingSearchWindowAdjustments;
 
@@ -113,6 +121,20 @@ no extra threads are started and the search is done in one thread.
 """
         )
         .asInt(dft.searchThreadPoolSize());
+    this.minSearchWindowSlice =
+      c
+        .of("minSearchWindowSlice")
+        .since(V2_5)
+        .summary("The minimum length of a search-window slice searched in its own thread.")
+        .description(
+          """
+If the `searchThreadPoolSize` is set, a search with a wide search-window is split into slices which
+are searched in parallel, and the results are merged. The search-window is split into at most one
+slice for each thread, and each slice is at least this long. Each slice repeats some of the work
+done for the later slices, so the slices should not be too short. Set to zero to disable.
+"""
+        )
+        .asDuration(dft.minSearchWindowSlice());
     // Dynamic Search Window
     this.stopTransferCost =
       c
@@ -153,6 +175,95 @@ Use values in a range from `0` to `100 000`. **All key/value pairs are required
         )
         .asInt(25);
 
+    this.transferCacheBuildAsync =
+      c
+        .of("transferCacheBuildAsync")
+        .since(V2_5)
+        .summary("Create the transfers for a new set of transfer parameters in the background.")
+        .description(
+          """
+The transfers are created for each distinct set of street parameters of the transfers, like the
+transfer mode, walk speed and reluctance. This can take several seconds on a large graph. If
+enabled, a request with new transfer parameters does not wait for the transfers to be created.
+Instead, the request is routed using the cached transfers with the closest parameters while the
+transfers are created in the background. The cached transfers must have the same transfer mode and
+wheelchair accessibility, if no such transfers exist the request waits for the new transfers.
+
+The durations and costs of the transfers are not exact for the requests routed with the transfers
+of other parameters, so this is a trade-off between latency and precision.
+"""
+        )
+        .asBoolean(false);
+
+    this.accessEgressCacheMaxSize =
+      c
+        .of("accessEgressCacheMaxSize")
+        .since(V2_5)
+        .summary("The maximum number of access/egress street searches to cache across requests.")
+        .description(
+          """
+Walk and bike access/egress searches from the same place with the same street preferences give the
+same stops, so the result can be reused by later requests. The cache is cleared when the real-time
+updaters change the street graph. Set to 0 to disable the cache.
+"""
+        )
+        .asInt(0);
+
+    this.accessEgressCacheTimeToLive =
+      c
+        .of("accessEgressCacheTimeToLive")
+        .since(V2_5)
+        .summary("How long an access/egress street search is kept in the cache.")
+        .asDuration(Duration.ofMinutes(10));
+
+    this.tripPatternCacheMaxSize =
+      c
+        .of("tripPatternCacheMaxSize")
+        .since(V2_5)
+        .summary(
+          "The maximum number of distinct search days and transit filters to cache the trip patterns for."
+        )
+        .description(
+          """
+Before each search the trip patterns running on the search days are filtered by the transit filters
+of the request, and the trip times of each pattern are copied into one timetable for all days. Most
+requests search the same days with the same filters, so the result can be reused by later requests.
+Only the patterns changed by the real-time updaters are created again. Each entry holds the trip
+times of all patterns running on the search days, so the memory used can be large for big networks.
+Set to 0 to disable the cache.
+"""
+        )
+        .asInt(0);
+
+    this.corridorDetourFactor =
+      c
+        .of("corridorDetourFactor")
+        .since(V2_5)
+        .summary("Prune the transit data to a corridor between the origin and the destination.")
+        .description(
+          """
+The corridor is an ellipse with the origin and destination as focal points. A stop is inside the
+corridor if the distance from the origin to the stop and on to the destination is less than the
+direct distance times this factor, plus the `corridorMargin` at each end. Trip patterns not visiting
+any stop inside the corridor are not searched, and boarding is only possible inside the corridor.
+This reduces the time used to prepare the transit data and the number of patterns Raptor has to
+visit, but trips with a larger detour are not found. A value like `1.5` can be used for long
+city-to-city searches in a national network. Set to 0 to disable the pruning. The pruning is not
+used for pass-through searches and flexible access/egress.
+"""
+        )
+        .asDouble(0.0);
+
+    this.corridorMargin =
+      c
+        .of("corridorMargin")
+        .since(V2_5)
+        .summary("The distance in meters added to the corridor at the origin and destination.")
+        .description(
+          "This should be large enough to include all stops reached by the access and egress."
+        )
+        .asInt(10_000);
+
     this.transferCacheRequests =
       c
         .of("transferCacheRequests")
@@ -243,6 +354,11 @@ for more info."
     return searchThreadPoolSize;
   }
 
+  @Override
+  public Duration minSearchWindowSlice() {
+    return minSearchWindowSlice;
+  }
+
   @Override
   public DynamicSearchWindowCoefficients dynamicSearchWindowCoefficients() {
     return dynamicSearchWindowCoefficients;
@@ -263,6 +379,36 @@ for more info."
     return transferCacheMaxSize;
   }
 
+  @Override
+  public boolean transferCacheBuildAsync() {
+    return transferCacheBuildAsync;
+  }
+
+  @Override
+  public int accessEgressCacheMaxSize() {
+    return accessEgressCacheMaxSize;
+  }
+
+  @Override
+  public Duration accessEgressCacheTimeToLive() {
+    return accessEgressCacheTimeToLive;
+  }
+
+  @Override
+  public int tripPatternCacheMaxSize() {
+    return tripPatternCacheMaxSize;
+  }
+
+  @Override
+  public double corridorDetourFactor() {
+    return corridorDetourFactor;
+  }
+
+  @Override
+  public int corridorMargin() {
+    return corridorMargin;
+  }
+
   @Override
   public List<RouteRequest> transferCacheRequests() {
     return transferCacheRequests;
@@ -4,6 +4,7 @@ import static org.opentripplanner.inspector.vector.LayerParameters.CACHE_MAX_SEC
 import static org.opentripplanner.inspector.vector.LayerParameters.EXPANSION_FACTOR;
 import static org.opentripplanner.inspector.vector.LayerParameters.MAX_ZOOM;
 import static org.opentripplanner.inspector.vector.LayerParameters.MIN_ZOOM;
+import static org.opentripplanner.inspector.vector.LayerParameters.PRERENDER_MAX_ZOOM;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_0;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_5;
 
@@ -18,7 +19,7 @@ import org.opentripplanner.standalone.config.framework.json.NodeAdapter;
 public class VectorTileConfig
   implements VectorTilesResource.LayersParameters<VectorTilesResource.LayerType> {
 
-  public static final VectorTileConfig DEFAULT = new VectorTileConfig(List.of(), null, null);
+  public static final VectorTileConfig DEFAULT = new VectorTileConfig(List.of(), null, null, 64);
   private final List<LayerParameters<VectorTilesResource.LayerType>> layers;
 
   @Nullable
@@ -27,14 +28,18 @@ public class VectorTileConfig
   @Nullable
   private final String attribution;
 
+  private final int cacheMaxMegabytes;
+
   VectorTileConfig(
     Collection<? extends LayerParameters<VectorTilesResource.LayerType>> layers,
     @Nullable String basePath,
-    @Nullable String attribution
+    @Nullable String attribution,
+    int cacheMaxMegabytes
   ) {
     this.layers = List.copyOf(layers);
     this.basePath = basePath;
     this.attribution = attribution;
+    this.cacheMaxMegabytes = cacheMaxMegabytes;
   }
 
   @Override
@@ -50,6 +55,10 @@ public class VectorTileConfig
     return Optional.ofNullable(attribution);
   }
 
+  public int cacheMaxMegabytes() {
+    return cacheMaxMegabytes;
+  }
+
   public static VectorTileConfig mapVectorTilesParameters(NodeAdapter node, String paramName) {
     var root = node.of(paramName).summary("Vector tile configuration").asObject();
     return new VectorTileConfig(
@@ -96,7 +105,20 @@ public class VectorTileConfig
           for example `<a href='https://trimet.org/mod'>Regional Partners</a>`.
           """
         )
-        .asString(DEFAULT.attribution)
+        .asString(DEFAULT.attribution),
+      root
+        .of("cacheMaxMegabytes")
+        .since(V2_5)
+        .summary("The maximum size of the server side cache of the vector tile layers.")
+        .description(
+          """
+          Each layer of a tile is cached on the server for the `cacheMaxSeconds` of the layer, so a
+          layer with static data, like stops and stations, can be cached for a long time while
+          real-time layers, like vehicle rental and parking, are refreshed more often. Layers with a
+          `cacheMaxSeconds` of 0 or less are never cached. Set this to 0 to disable the cache.
+          """
+        )
+        .asInt(DEFAULT.cacheMaxMegabytes)
     );
   }
 
@@ -134,7 +156,10 @@ public class VectorTileConfig
         .of("cacheMaxSeconds")
         .since(V2_0)
         .summary("Sets the cache header in the response.")
-        .description("The lowest value of the layers included is selected.")
+        .description(
+          "The lowest value of the layers included is selected. The layer is also kept for this " +
+          "long in the server side cache."
+        )
         .asInt(CACHE_MAX_SECONDS),
       node
         .of("expansionFactor")
@@ -144,7 +169,18 @@ public class VectorTileConfig
           "The value is a fraction of the tile size. If you are having problem with icons and " +
           "shapes being clipped at tile edges, then increase this number."
         )
-        .asDouble(EXPANSION_FACTOR)
+        .asDouble(EXPANSION_FACTOR),
+      node
+        .of("prerenderMaxZoom")
+        .since(V2_5)
+        .summary("Render the tiles up to this zoom level at startup.")
+        .description(
+          "The tiles from the `minZoom` up to this zoom level, covering the area of the graph, are " +
+          "put in the server side cache at startup. This is only done if the layer is cached, see " +
+          "`cacheMaxSeconds`. Every zoom level has four times as many tiles as the previous one, " +
+          "so keep this low. -1 disables the pre-rendering."
+        )
+        .asInt(PRERENDER_MAX_ZOOM)
     );
   }
 
@@ -155,7 +191,8 @@ public class VectorTileConfig
     int maxZoom,
     int minZoom,
     int cacheMaxSeconds,
-    double expansionFactor
+    double expansionFactor,
+    int prerenderMaxZoom
   )
     implements LayerParameters<VectorTilesResource.LayerType> {}
 }
@@ -7,6 +7,7 @@ import org.opentripplanner.datastore.api.DataSource;
 import org.opentripplanner.ext.emissions.EmissionsDataModel;
 import org.opentripplanner.ext.geocoder.LuceneIndex;
 import org.opentripplanner.ext.stopconsolidation.StopConsolidationRepository;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource;
 import org.opentripplanner.framework.application.LogMDCSupport;
 import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.framework.logging.ProgressTracker;
@@ -106,11 +107,7 @@ public class ConstructApplication {
    * this method is called.
    */
   public GrizzlyServer createGrizzlyServer() {
-    return new GrizzlyServer(
-      cli,
-      createApplication(),
-      routerConfig().server().apiProcessingTimeout()
-    );
+    return new GrizzlyServer(cli, createApplication(), routerConfig().server());
   }
 
   /**
@@ -175,6 +172,13 @@ public class ConstructApplication {
       );
     }
 
+    if (OTPFeature.SandboxAPIMapboxVectorTilesApi.isOn()) {
+      int nTiles = VectorTilesResource.prerenderTiles(createServerContext());
+      if (nTiles > 0) {
+        LOG.info("Pre-rendered {} vector tile layers", nTiles);
+      }
+    }
+
     if (OTPFeature.SandboxAPIGeocoder.isOn()) {
       LOG.info("Creating debug client geocoder lucene index");
       LuceneIndex.forServer(createServerContext());
@@ -228,12 +232,15 @@ public class ConstructApplication {
 
       LOG.info(progress.startMessage());
 
-      transferCacheRequests.forEach(request -> {
-        transitModel.getTransitLayer().getRaptorTransfersForRequest(request);
+      // The transfers for each request are independent, so they are created in parallel
+      transferCacheRequests
+        .parallelStream()
+        .forEach(request -> {
+          transitModel.getTransitLayer().getRaptorTransfersForRequest(request);
 
-        //noinspection Convert2MethodRef
-        progress.step(s -> LOG.info(s));
-      });
+          //noinspection Convert2MethodRef
+          progress.step(s -> LOG.info(s));
+        });
 
       LOG.info(progress.completeMessage());
     }
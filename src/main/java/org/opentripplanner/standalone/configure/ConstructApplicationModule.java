@@ -3,6 +3,7 @@ package org.opentripplanner.standalone.configure;
 import dagger.Module;
 import dagger.Provides;
 import io.micrometer.core.instrument.Metrics;
+import jakarta.inject.Singleton;
 import java.util.List;
 import javax.annotation.Nullable;
 import org.opentripplanner.astar.spi.TraverseVisitor;
@@ -10,6 +11,7 @@ import org.opentripplanner.ext.emissions.EmissionsService;
 import org.opentripplanner.ext.interactivelauncher.api.LauncherRequestDecorator;
 import org.opentripplanner.ext.ridehailing.RideHailingService;
 import org.opentripplanner.ext.stopconsolidation.StopConsolidationService;
+import org.opentripplanner.inspector.vector.VectorTileCache;
 import org.opentripplanner.raptor.configure.RaptorConfig;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
 import org.opentripplanner.routing.graph.Graph;
@@ -31,6 +33,7 @@ public class ConstructApplicationModule {
     RaptorConfig<TripSchedule> raptorConfig,
     Graph graph,
     TransitService transitService,
+    VectorTileCache vectorTileCache,
     WorldEnvelopeService worldEnvelopeService,
     RealtimeVehicleService realtimeVehicleService,
     VehicleRentalService vehicleRentalService,
@@ -50,6 +53,7 @@ public class ConstructApplicationModule {
       transitService,
       Metrics.globalRegistry,
       routerConfig.vectorTileConfig(),
+      vectorTileCache,
       worldEnvelopeService,
       realtimeVehicleService,
       vehicleRentalService,
@@ -61,6 +65,15 @@ public class ConstructApplicationModule {
     );
   }
 
+  /**
+   * The cache is shared by all requests, so it must be a singleton.
+   */
+  @Provides
+  @Singleton
+  VectorTileCache vectorTileCache(RouterConfig routerConfig) {
+    return new VectorTileCache(routerConfig.vectorTileConfig().cacheMaxMegabytes());
+  }
+
   @Provides
   @Nullable
   TraverseVisitor<?, ?> traverseVisitor(@Nullable GraphVisualizer graphVisualizer) {
@@ -9,6 +9,7 @@ import org.opentripplanner.ext.emissions.EmissionsService;
 import org.opentripplanner.ext.ridehailing.RideHailingService;
 import org.opentripplanner.ext.stopconsolidation.StopConsolidationService;
 import org.opentripplanner.inspector.raster.TileRendererManager;
+import org.opentripplanner.inspector.vector.VectorTileCache;
 import org.opentripplanner.raptor.api.request.RaptorTuningParameters;
 import org.opentripplanner.raptor.configure.RaptorConfig;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitTuningParameters;
@@ -40,6 +41,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
   private final RaptorConfig<TripSchedule> raptorConfig;
   private final TileRendererManager tileRendererManager;
   private final VectorTileConfig vectorTileConfig;
+  private final VectorTileCache vectorTileCache;
   private final FlexConfig flexConfig;
   private final TraverseVisitor traverseVisitor;
   private final WorldEnvelopeService worldEnvelopeService;
@@ -60,6 +62,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
     RaptorConfig<TripSchedule> raptorConfig,
     TileRendererManager tileRendererManager,
     VectorTileConfig vectorTileConfig,
+    VectorTileCache vectorTileCache,
     WorldEnvelopeService worldEnvelopeService,
     RealtimeVehicleService realtimeVehicleService,
     VehicleRentalService vehicleRentalService,
@@ -76,6 +79,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
     this.raptorConfig = raptorConfig;
     this.tileRendererManager = tileRendererManager;
     this.vectorTileConfig = vectorTileConfig;
+    this.vectorTileCache = vectorTileCache;
     this.vehicleRentalService = vehicleRentalService;
     this.flexConfig = flexConfig;
     this.traverseVisitor = traverseVisitor;
@@ -98,6 +102,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
     TransitService transitService,
     MeterRegistry meterRegistry,
     VectorTileConfig vectorTileConfig,
+    VectorTileCache vectorTileCache,
     WorldEnvelopeService worldEnvelopeService,
     RealtimeVehicleService realtimeVehicleService,
     VehicleRentalService vehicleRentalService,
@@ -116,6 +121,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
       raptorConfig,
       new TileRendererManager(graph, routeRequestDefaults.preferences()),
       vectorTileConfig,
+      vectorTileCache,
       worldEnvelopeService,
       realtimeVehicleService,
       vehicleRentalService,
@@ -224,6 +230,11 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
     return vectorTileConfig;
   }
 
+  @Override
+  public VectorTileCache vectorTileCache() {
+    return vectorTileCache;
+  }
+
   @Override
   public EmissionsService emissionsService() {
     return emissionsService;
@@ -7,7 +7,6 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import jakarta.ws.rs.core.Application;
 import java.io.IOException;
 import java.net.BindException;
-import java.time.Duration;
 import java.util.Optional;
 import org.glassfish.grizzly.http.CompressionConfig;
 import org.glassfish.grizzly.http.server.CLStaticHttpHandler;
@@ -31,7 +30,7 @@ public class GrizzlyServer {
   /** The command line parameters, including things like port number and content directories. */
   private final CommandLineParameters params;
   private final Application app;
-  private final Duration httpTransactionTimeout;
+  private final GrizzlyServerParameters serverParameters;
 
   static {
     // Remove existing handlers attached to the j.u.l root logger
@@ -44,11 +43,11 @@ public class GrizzlyServer {
   public GrizzlyServer(
     CommandLineParameters params,
     Application app,
-    Duration httpTransactionTimeout
+    GrizzlyServerParameters serverParameters
   ) {
     this.params = params;
     this.app = app;
-    this.httpTransactionTimeout = httpTransactionTimeout;
+    this.serverParameters = serverParameters;
   }
 
   /**
@@ -68,7 +67,8 @@ public class GrizzlyServer {
     // Set up a pool of threads to handle incoming HTTP requests.
     // According to the Grizzly docs, setting the core and max pool size equal with no queue limit
     // will use a more efficient fixed-size thread pool implementation.
-    // TODO we should probably use Grizzly async processing rather than tying up the HTTP handler threads.
+    // The routing requests are processed on a separate pool of routing threads, see
+    // RoutingHttpHandler, so the handler threads only process the cheap requests.
     int nHandlerThreads = getMaxThreads();
     ThreadPoolConfig threadPoolConfig = ThreadPoolConfig
       .defaultConfig()
@@ -92,13 +92,23 @@ public class GrizzlyServer {
     cc.setCompressionMinSize(50000); // the min number of bytes to compress
     cc.setCompressableMimeTypes("application/json", "text/json"); // the mime types to compress
     httpListener.getTransport().setWorkerThreadPoolConfig(threadPoolConfig);
-    httpListener.setTransactionTimeout((int) httpTransactionTimeout.toSeconds());
+    httpListener.setTransactionTimeout(
+      (int) serverParameters.apiProcessingTimeout().toSeconds()
+    );
     httpServer.addListener(httpListener);
 
     /* Add a few handlers (~= servlets) to the Grizzly server. */
 
-    /* 1. A Grizzly wrapper around the Jersey Application. */
-    HttpHandler dynamicHandler = ContainerFactory.createContainer(HttpHandler.class, app);
+    /* 1. A Grizzly wrapper around the Jersey Application, routing requests run asynchronously. */
+    HttpHandler dynamicHandler = new RoutingHttpHandler(
+      ContainerFactory.createContainer(HttpHandler.class, app),
+      new RoutingExecutor(
+        nHandlerThreads,
+        serverParameters.apiProcessingTimeout(),
+        serverParameters.routingQueueSize(),
+        serverParameters.routingQueueMaxWaitTime()
+      )
+    );
     httpServer.getServerConfiguration().addHttpHandler(dynamicHandler, "/otp/");
 
     /* 2. A static content handler to serve the client JS apps etc. from the classpath. */
@@ -0,0 +1,25 @@
+package org.opentripplanner.standalone.server;
+
+import java.time.Duration;
+
+/**
+ * Parameters used to configure the {@link GrizzlyServer}.
+ */
+public interface GrizzlyServerParameters {
+  /**
+   * The maximum processing time for an API request, a negative value means no timeout.
+   */
+  Duration apiProcessingTimeout();
+
+  /**
+   * The maximum number of routing requests waiting for a routing thread. Requests arriving when
+   * the queue is full are rejected.
+   */
+  int routingQueueSize();
+
+  /**
+   * The maximum time a routing request should wait for a routing thread. Requests which are
+   * expected to wait longer are rejected.
+   */
+  Duration routingQueueMaxWaitTime();
+}
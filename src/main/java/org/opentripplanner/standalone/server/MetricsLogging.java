@@ -55,6 +55,12 @@ public class MetricsLogging {
         List.of(Tag.of("cache", "raptorTransfers"))
       )
         .bindTo(Metrics.globalRegistry);
+      new GuavaCacheMetrics(
+        transitModel.getTransitLayer().getAccessEgressCache().getCache(),
+        "accessEgressCache",
+        List.of(Tag.of("cache", "accessEgress"))
+      )
+        .bindTo(Metrics.globalRegistry);
     }
     new ExecutorServiceMetrics(
       ForkJoinPool.commonPool(),
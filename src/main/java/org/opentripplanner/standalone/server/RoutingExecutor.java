@@ -0,0 +1,233 @@
+package org.opentripplanner.standalone.server;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.opentripplanner.framework.logging.Throttle;
+import org.opentripplanner.framework.time.DurationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded pool of threads running the routing requests, with admission control. The routing
+ * requests are CPU-bound and may take seconds, so they are kept off the HTTP handler threads - this
+ * way cheap requests are served even when the server is busy routing.
+ * <p>
+ * A request is rejected, instead of queued, if the queue is full or if the expected waiting time
+ * is longer than the max queue wait time. If all threads are busy, the expected waiting time is
+ * the number of requests ahead in the queue, plus one, times the average processing time divided
+ * by the number of threads. A request which waited longer than the max queue wait time is also
+ * rejected when it is taken from the queue. Rejecting a request early is better than letting it
+ * time out, the client can retry or use another server.
+ * <p>
+ * The routing threads are interrupted when the processing time exceeds the api processing
+ * timeout, see {@link org.opentripplanner.framework.application.OTPRequestTimeoutException}. This
+ * is done by Grizzly for the HTTP handler threads.
+ * <p>
+ * THIS CLASS IS THREAD-SAFE
+ */
+public class RoutingExecutor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RoutingExecutor.class);
+  private static final Throttle REJECT_LOG_THROTTLE = Throttle.ofOneMinute();
+  private static final String METRICS_PREFIX = "routing.executor";
+
+  /** The weight of the last request in the moving average of the processing time. */
+  private static final double AVERAGE_WEIGHT = 0.05;
+
+  private final int nThreads;
+  private final long processingTimeoutNanos;
+  private final long maxQueueWaitNanos;
+  private final ThreadPoolExecutor executor;
+  private final ScheduledExecutorService timeoutScheduler;
+  private final Counter rejectedCounter;
+  private final AtomicInteger nRunning = new AtomicInteger();
+
+  /**
+   * The moving average of the processing time, initialized with the first request. Concurrent
+   * updates may be lost, this is fine for an estimate.
+   */
+  private volatile double averageProcessingNanos = 0.0;
+
+  /**
+   * @param processingTimeout Interrupt requests running longer than this, use a negative value to
+   *                          disable.
+   * @param maxQueueWaitTime  Reject requests expected to wait longer than this, use a negative
+   *                          value to disable.
+   */
+  public RoutingExecutor(
+    int nThreads,
+    Duration processingTimeout,
+    int maxQueueSize,
+    Duration maxQueueWaitTime
+  ) {
+    if (maxQueueSize < 1) {
+      throw new IllegalArgumentException("The routing queue size must be at least 1.");
+    }
+    this.nThreads = nThreads;
+    this.processingTimeoutNanos = processingTimeout.toNanos();
+    this.maxQueueWaitNanos = maxQueueWaitTime.toNanos();
+    this.executor =
+      new ThreadPoolExecutor(
+        nThreads,
+        nThreads,
+        0L,
+        TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(maxQueueSize),
+        new ThreadFactoryBuilder().setNameFormat("routing-%d").build()
+      );
+    this.timeoutScheduler =
+      processingTimeoutNanos > 0
+        ? Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setNameFormat("routing-timeout").setDaemon(true).build()
+        )
+        : null;
+    this.rejectedCounter =
+      Counter
+        .builder(METRICS_PREFIX + ".rejected")
+        .description("Number of routing requests rejected by the admission control")
+        .register(Metrics.globalRegistry);
+    Gauge
+      .builder(METRICS_PREFIX + ".queue", this, RoutingExecutor::queueSize)
+      .description("Number of routing requests waiting for a routing thread")
+      .register(Metrics.globalRegistry);
+    LOG.info(
+      "Routing thread pool size is {} threads, max queue size {} and max queue wait time {}.",
+      nThreads,
+      maxQueueSize,
+      maxQueueWaitNanos < 0 ? "off" : DurationUtils.durationToStr(maxQueueWaitTime)
+    );
+  }
+
+  /**
+   * Run the task on a routing thread, or run {@code reject} if the request is not admitted. The
+   * {@code reject} is run on the calling thread if the request is rejected up front, and on the
+   * routing thread if the request waited too long in the queue.
+   */
+  public void execute(Runnable task, Runnable reject) {
+    if (!admit()) {
+      reject(reject);
+      return;
+    }
+    long enqueueTime = System.nanoTime();
+    try {
+      executor.execute(() -> run(task, reject, enqueueTime));
+    } catch (RejectedExecutionException e) {
+      // The queue is full, or the executor is shut down
+      reject(reject);
+    }
+  }
+
+  /**
+   * The expected time a new request will wait for a routing thread.
+   */
+  public Duration expectedWaitTime() {
+    return Duration.ofNanos(expectedWaitNanos());
+  }
+
+  public void shutdown() {
+    executor.shutdownNow();
+    if (timeoutScheduler != null) {
+      timeoutScheduler.shutdownNow();
+    }
+  }
+
+  private boolean admit() {
+    return maxQueueWaitNanos < 0 || expectedWaitNanos() <= maxQueueWaitNanos;
+  }
+
+  private long expectedWaitNanos() {
+    int nQueued = queueSize();
+    if (nRunning.get() + nQueued < nThreads) {
+      return 0;
+    }
+    return (long) ((nQueued + 1) * averageProcessingNanos / nThreads);
+  }
+
+  private int queueSize() {
+    return executor.getQueue().size();
+  }
+
+  private void run(Runnable task, Runnable reject, long enqueueTime) {
+    long startTime = System.nanoTime();
+    if (maxQueueWaitNanos >= 0 && startTime - enqueueTime > maxQueueWaitNanos) {
+      reject(reject);
+      return;
+    }
+    var timeout = scheduleTimeout();
+    nRunning.incrementAndGet();
+    try {
+      task.run();
+    } finally {
+      nRunning.decrementAndGet();
+      if (timeout != null) {
+        timeout.cancel();
+      }
+      updateAverageProcessingTime(System.nanoTime() - startTime);
+    }
+  }
+
+  private void updateAverageProcessingTime(double processingNanos) {
+    double average = averageProcessingNanos;
+    averageProcessingNanos =
+      average == 0.0 ? processingNanos : average + AVERAGE_WEIGHT * (processingNanos - average);
+  }
+
+  private void reject(Runnable reject) {
+    rejectedCounter.increment();
+    REJECT_LOG_THROTTLE.throttle(() ->
+      LOG.warn(
+        "Routing request rejected, the server is overloaded. Queue size: {}, expected wait " +
+        "time: {} {}",
+        queueSize(),
+        DurationUtils.durationToStr(expectedWaitTime()),
+        REJECT_LOG_THROTTLE.setupInfo()
+      )
+    );
+    reject.run();
+  }
+
+  private Timeout scheduleTimeout() {
+    return timeoutScheduler == null
+      ? null
+      : new Timeout(Thread.currentThread(), timeoutScheduler, processingTimeoutNanos);
+  }
+
+  /**
+   * Interrupt the thread when the timeout expires, unless the timeout is cancelled first. The
+   * interrupt flag is cleared when the timeout is cancelled, before the thread is reused.
+   */
+  private static class Timeout {
+
+    private final Thread thread;
+    private final ScheduledFuture<?> future;
+    private boolean done = false;
+
+    private Timeout(Thread thread, ScheduledExecutorService scheduler, long timeoutNanos) {
+      this.thread = thread;
+      this.future = scheduler.schedule(this::expire, timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private synchronized void expire() {
+      if (!done) {
+        thread.interrupt();
+      }
+    }
+
+    private synchronized void cancel() {
+      done = true;
+      future.cancel(false);
+      Thread.interrupted();
+    }
+  }
+}
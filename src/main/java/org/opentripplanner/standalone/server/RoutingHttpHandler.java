@@ -0,0 +1,96 @@
+package org.opentripplanner.standalone.server;
+
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
+import org.glassfish.grizzly.http.Method;
+import org.glassfish.grizzly.http.server.HttpHandler;
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.RequestExecutorProvider;
+import org.glassfish.grizzly.http.server.Response;
+import org.glassfish.grizzly.http.util.HttpStatus;
+
+/**
+ * Wrap an HTTP handler(the Jersey application) and run the routing requests on the
+ * {@link RoutingExecutor}, using Grizzly async processing. The HTTP handler thread is released
+ * while the routing request is queued and processed. All other requests are processed on the HTTP
+ * handler thread, like before.
+ * <p>
+ * If the routing executor does not admit the request, the request is rejected with
+ * {@code 503 Service Unavailable} without calling the wrapped handler.
+ * <p>
+ * The routing requests are identified by the path. The GraphQL APIs are used for both routing and
+ * cheap lookups, but we can not tell them apart without parsing the query, so all GraphQL
+ * requests are routing requests.
+ */
+class RoutingHttpHandler extends HttpHandler {
+
+  private static final Pattern ROUTING_PATH = Pattern.compile(
+    "/otp/(gtfs/v1|transmodel/v3|traveltime|" +
+    "routers/[^/]+/(plan|index/graphql|transmodel/index/graphql))(/.*)?"
+  );
+  private static final String REJECTED_ATTRIBUTE =
+    RoutingHttpHandler.class.getName() + ".rejected";
+  private static final String RETRY_AFTER_SECONDS = "1";
+
+  private final HttpHandler delegate;
+  private final RoutingExecutor routingExecutor;
+
+  RoutingHttpHandler(HttpHandler delegate, RoutingExecutor routingExecutor) {
+    super(delegate.getName());
+    this.delegate = delegate;
+    this.routingExecutor = routingExecutor;
+  }
+
+  static boolean isRoutingRequest(String path) {
+    return ROUTING_PATH.matcher(path).matches();
+  }
+
+  @Override
+  public void service(Request request, Response response) throws Exception {
+    if (request.getAttribute(REJECTED_ATTRIBUTE) != null) {
+      response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+      response.sendError(
+        HttpStatus.SERVICE_UNAVAILABLE_503.getStatusCode(),
+        "The server is too busy to process the routing request, try again later."
+      );
+      return;
+    }
+    delegate.service(request, response);
+  }
+
+  /**
+   * Grizzly calls {@link #service(Request, Response)} on the executor returned by this provider,
+   * or on the HTTP handler thread if the executor is {@code null}.
+   */
+  @Override
+  public RequestExecutorProvider getRequestExecutorProvider() {
+    return this::executor;
+  }
+
+  @Override
+  public void start() {
+    delegate.start();
+  }
+
+  @Override
+  public void destroy() {
+    delegate.destroy();
+    routingExecutor.shutdown();
+  }
+
+  private Executor executor(Request request) {
+    // CORS preflight requests are cheap
+    if (Method.OPTIONS.equals(request.getMethod()) || !isRoutingRequest(request.getRequestURI())) {
+      return null;
+    }
+    return task ->
+      routingExecutor.execute(
+        task,
+        () -> {
+          // Run the task on the current thread, service() sends the rejected response
+          request.setAttribute(REJECTED_ATTRIBUTE, Boolean.TRUE);
+          task.run();
+        }
+      );
+  }
+}
@@ -0,0 +1,185 @@
+package org.opentripplanner.street.model.ch;
+
+import gnu.trove.map.hash.TObjectIntHashMap;
+import java.io.Serializable;
+import java.util.List;
+import org.opentripplanner.framework.tostring.ToStringBuilder;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.vertex.Vertex;
+
+/**
+ * A contraction hierarchy of the street network for car routing. The vertices are contracted one
+ * by one in the order of their rank; when a vertex is contracted, a shortcut arc is added between
+ * its neighbours if the path through the vertex is the only shortest path. A shortest path query
+ * then only needs to follow arcs going up in the hierarchy, from both the origin and the
+ * destination, and settles a few hundred vertices instead of a large part of the graph.
+ * <p>
+ * The weight of an arc is the car travel time in seconds, using the car speed of each street edge.
+ * Turn costs, turn restrictions and the no-through-traffic rules are not part of the hierarchy,
+ * the path must be traversed again with the {@link StreetEdge#traverse} to get the real time and
+ * weight. Only the permanent street edges are included.
+ * <p>
+ * Each arc is either an original street edge, or a shortcut replacing two other arcs. The arcs
+ * are stored in primitive arrays indexed by the arc index. The arcs going up from a vertex, and
+ * the arcs coming down into a vertex, are stored in compressed sparse row format.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+public class ContractionHierarchy implements Serializable {
+
+  public static final int NOT_FOUND = -1;
+
+  private final Vertex[] vertices;
+  private final StreetEdge[] edges;
+
+  private final int[] arcFrom;
+  private final int[] arcTo;
+  private final float[] arcWeight;
+
+  /** The street edge index of an original arc, {@link #NOT_FOUND} for a shortcut. */
+  private final int[] arcEdge;
+
+  /** The first and second arc replaced by a shortcut, {@link #NOT_FOUND} for an original arc. */
+  private final int[] arcFirst;
+  private final int[] arcSecond;
+
+  private final int[] upIndex;
+  private final int[] upArcs;
+  private final int[] downIndex;
+  private final int[] downArcs;
+
+  /** Created on first use, the identity hash codes are not valid after the graph is loaded. */
+  private transient volatile TObjectIntHashMap<Vertex> vertexIndex;
+
+  public ContractionHierarchy(
+    Vertex[] vertices,
+    StreetEdge[] edges,
+    int[] arcFrom,
+    int[] arcTo,
+    float[] arcWeight,
+    int[] arcEdge,
+    int[] arcFirst,
+    int[] arcSecond,
+    int[] upIndex,
+    int[] upArcs,
+    int[] downIndex,
+    int[] downArcs
+  ) {
+    this.vertices = vertices;
+    this.edges = edges;
+    this.arcFrom = arcFrom;
+    this.arcTo = arcTo;
+    this.arcWeight = arcWeight;
+    this.arcEdge = arcEdge;
+    this.arcFirst = arcFirst;
+    this.arcSecond = arcSecond;
+    this.upIndex = upIndex;
+    this.upArcs = upArcs;
+    this.downIndex = downIndex;
+    this.downArcs = downArcs;
+  }
+
+  public int numberOfVertices() {
+    return vertices.length;
+  }
+
+  public int numberOfArcs() {
+    return arcTo.length;
+  }
+
+  public Vertex vertex(int index) {
+    return vertices[index];
+  }
+
+  /**
+   * The index of the given vertex, or {@link #NOT_FOUND} if the vertex is not part of the
+   * hierarchy, like the temporary vertices of a request.
+   */
+  public int vertexIndex(Vertex vertex) {
+    return index().get(vertex);
+  }
+
+  public int arcFrom(int arc) {
+    return arcFrom[arc];
+  }
+
+  public int arcTo(int arc) {
+    return arcTo[arc];
+  }
+
+  public float arcWeight(int arc) {
+    return arcWeight[arc];
+  }
+
+  public boolean isShortcut(int arc) {
+    return arcEdge[arc] == NOT_FOUND;
+  }
+
+  /* The arcs from the given vertex to vertices with a higher rank. */
+
+  public int upStart(int vertex) {
+    return upIndex[vertex];
+  }
+
+  public int upEnd(int vertex) {
+    return upIndex[vertex + 1];
+  }
+
+  public int upArc(int i) {
+    return upArcs[i];
+  }
+
+  /* The arcs from vertices with a higher rank to the given vertex. */
+
+  public int downStart(int vertex) {
+    return downIndex[vertex];
+  }
+
+  public int downEnd(int vertex) {
+    return downIndex[vertex + 1];
+  }
+
+  public int downArc(int i) {
+    return downArcs[i];
+  }
+
+  /**
+   * Add the street edges of the given arc to the path, in travel order. Shortcuts are unpacked
+   * recursively.
+   */
+  public void unpack(int arc, List<StreetEdge> path) {
+    if (arcEdge[arc] != NOT_FOUND) {
+      path.add(edges[arcEdge[arc]]);
+    } else {
+      unpack(arcFirst[arc], path);
+      unpack(arcSecond[arc], path);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder
+      .of(ContractionHierarchy.class)
+      .addNum("vertices", vertices.length)
+      .addNum("edges", edges.length)
+      .addNum("arcs", arcTo.length)
+      .toString();
+  }
+
+  private TObjectIntHashMap<Vertex> index() {
+    var index = vertexIndex;
+    if (index == null) {
+      synchronized (this) {
+        index = vertexIndex;
+        if (index == null) {
+          index = new TObjectIntHashMap<>(vertices.length, 0.5f, NOT_FOUND);
+          for (int i = 0; i < vertices.length; i++) {
+            index.put(vertices[i], i);
+          }
+          vertexIndex = index;
+        }
+      }
+    }
+    return index;
+  }
+}
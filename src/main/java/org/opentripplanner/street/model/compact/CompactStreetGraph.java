@@ -0,0 +1,310 @@
+package org.opentripplanner.street.model.compact;
+
+import gnu.trove.map.hash.TObjectIntHashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import org.opentripplanner.framework.lang.BitSetUtils;
+import org.opentripplanner.framework.tostring.ToStringBuilder;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.vertex.BarrierVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.TraverseMode;
+
+/**
+ * A compiled, index based copy of the street graph. Vertices and edges are identified by an int
+ * index, and all attributes needed to search the graph are kept in primitive arrays (structure of
+ * arrays). The adjacency is stored in compressed sparse row (CSR) format: the outgoing edges of
+ * vertex {@code v} are {@code outEdges[outIndex[v]] .. outEdges[outIndex[v+1]-1]}, and the same
+ * for incoming edges. This avoids chasing pointers across the heap while searching and keeps the
+ * memory footprint small.
+ * <p>
+ * The compact graph only contains the permanent street edges. Temporary (split) edges and
+ * vertices created for a request are not part of it. The traversal permission of an edge is the
+ * intersection of the street permission and the barrier permissions of its end vertices, the same
+ * as {@link StreetEdge#canTraverse(TraverseMode)}. Turn restrictions, elevation and rental
+ * restrictions are not included, searches on this graph are therefore optimistic compared with
+ * the full {@link StreetEdge#traverse} - they never overestimate the travel time.
+ * <p>
+ * The compact graph is only compiled by graph build modules searching the whole street network,
+ * e.g. for the landmarks and the contraction hierarchy. The street searches of a routing request
+ * run on the street edges, not on this graph.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+public class CompactStreetGraph {
+
+  public static final int NOT_FOUND = -1;
+
+  private static final int FLAG_STAIRS = 0;
+
+  private final double[] vertexLon;
+  private final double[] vertexLat;
+
+  private final int[] edgeFromVertex;
+  private final int[] edgeToVertex;
+  private final int[] edgeLengthMm;
+  private final byte[] edgePermission;
+  private final short[] edgeFlags;
+  private final float[] edgeCarSpeed;
+  private final float maxCarSpeed;
+
+  private final int[] outIndex;
+  private final int[] outEdges;
+  private final int[] inIndex;
+  private final int[] inEdges;
+
+  private final Vertex[] vertices;
+  private final StreetEdge[] edges;
+  private final TObjectIntHashMap<Vertex> vertexIndex;
+
+  private CompactStreetGraph(
+    double[] vertexLon,
+    double[] vertexLat,
+    int[] edgeFromVertex,
+    int[] edgeToVertex,
+    int[] edgeLengthMm,
+    byte[] edgePermission,
+    short[] edgeFlags,
+    float[] edgeCarSpeed,
+    Vertex[] vertices,
+    StreetEdge[] edges,
+    TObjectIntHashMap<Vertex> vertexIndex
+  ) {
+    this.vertexLon = vertexLon;
+    this.vertexLat = vertexLat;
+    this.edgeFromVertex = edgeFromVertex;
+    this.edgeToVertex = edgeToVertex;
+    this.edgeLengthMm = edgeLengthMm;
+    this.edgePermission = edgePermission;
+    this.edgeFlags = edgeFlags;
+    this.edgeCarSpeed = edgeCarSpeed;
+    this.vertices = vertices;
+    this.edges = edges;
+    this.vertexIndex = vertexIndex;
+
+    float maxSpeed = 0f;
+    for (float speed : edgeCarSpeed) {
+      maxSpeed = Math.max(maxSpeed, speed);
+    }
+    this.maxCarSpeed = maxSpeed;
+
+    int nVertices = vertexLon.length;
+    this.outIndex = new int[nVertices + 1];
+    this.outEdges = new int[edgeFromVertex.length];
+    this.inIndex = new int[nVertices + 1];
+    this.inEdges = new int[edgeFromVertex.length];
+    buildAdjacency(edgeFromVertex, outIndex, outEdges);
+    buildAdjacency(edgeToVertex, inIndex, inEdges);
+  }
+
+  /**
+   * Compile the given street edges and the vertices they reference. Vertices are indexed in the
+   * order they are first referenced by an edge.
+   */
+  public static CompactStreetGraph of(Collection<StreetEdge> streetEdges) {
+    int nEdges = streetEdges.size();
+    var vertexIndex = new TObjectIntHashMap<Vertex>(nEdges, 0.5f, NOT_FOUND);
+    var vertices = new Vertex[nEdges * 2];
+    var edges = new StreetEdge[nEdges];
+    int[] fromVertex = new int[nEdges];
+    int[] toVertex = new int[nEdges];
+    int[] lengthMm = new int[nEdges];
+    byte[] permission = new byte[nEdges];
+    short[] flags = new short[nEdges];
+    float[] carSpeed = new float[nEdges];
+
+    int nVertices = 0;
+    int i = 0;
+    for (StreetEdge e : streetEdges) {
+      for (Vertex v : new Vertex[] { e.getFromVertex(), e.getToVertex() }) {
+        if (!vertexIndex.containsKey(v)) {
+          vertexIndex.put(v, nVertices);
+          vertices[nVertices++] = v;
+        }
+      }
+      edges[i] = e;
+      fromVertex[i] = vertexIndex.get(e.getFromVertex());
+      toVertex[i] = vertexIndex.get(e.getToVertex());
+      lengthMm[i] = (int) Math.round(e.getDistanceMeters() * 1000.0);
+      permission[i] = (byte) effectivePermission(e).code;
+      flags[i] = flags(e);
+      carSpeed[i] = e.getCarSpeed();
+      ++i;
+    }
+
+    double[] lon = new double[nVertices];
+    double[] lat = new double[nVertices];
+    for (int v = 0; v < nVertices; v++) {
+      lon[v] = vertices[v].getLon();
+      lat[v] = vertices[v].getLat();
+    }
+
+    return new CompactStreetGraph(
+      lon,
+      lat,
+      fromVertex,
+      toVertex,
+      lengthMm,
+      permission,
+      flags,
+      carSpeed,
+      Arrays.copyOf(vertices, nVertices),
+      edges,
+      vertexIndex
+    );
+  }
+
+  public int numberOfVertices() {
+    return vertexLon.length;
+  }
+
+  public int numberOfEdges() {
+    return edgeFromVertex.length;
+  }
+
+  /**
+   * Return the index of the given vertex, or {@link #NOT_FOUND} if the vertex is not part of this
+   * graph (e.g. a temporary vertex).
+   */
+  public int vertexIndex(Vertex vertex) {
+    return vertexIndex.get(vertex);
+  }
+
+  public Vertex vertex(int vertex) {
+    return vertices[vertex];
+  }
+
+  public StreetEdge edge(int edge) {
+    return edges[edge];
+  }
+
+  public double lon(int vertex) {
+    return vertexLon[vertex];
+  }
+
+  public double lat(int vertex) {
+    return vertexLat[vertex];
+  }
+
+  public int fromVertex(int edge) {
+    return edgeFromVertex[edge];
+  }
+
+  public int toVertex(int edge) {
+    return edgeToVertex[edge];
+  }
+
+  public int lengthMm(int edge) {
+    return edgeLengthMm[edge];
+  }
+
+  public double distanceMeters(int edge) {
+    return edgeLengthMm[edge] / 1000.0;
+  }
+
+  public StreetTraversalPermission permission(int edge) {
+    return StreetTraversalPermission.get(edgePermission[edge]);
+  }
+
+  /**
+   * Same as {@link StreetTraversalPermission#allows(TraverseMode)}, but without looking up the
+   * enum.
+   */
+  public boolean allows(int edge, TraverseMode mode) {
+    int code = edgePermission[edge];
+    return switch (mode) {
+      case WALK -> (code & StreetTraversalPermission.PEDESTRIAN.code) != 0;
+      case BICYCLE, SCOOTER -> (code & StreetTraversalPermission.BICYCLE.code) != 0;
+      case CAR -> (code & StreetTraversalPermission.CAR.code) != 0;
+      case FLEX -> false;
+    };
+  }
+
+  public boolean isStairs(int edge) {
+    return BitSetUtils.get(edgeFlags[edge], FLAG_STAIRS);
+  }
+
+  /** Car speed in meters per second. */
+  public float carSpeed(int edge) {
+    return edgeCarSpeed[edge];
+  }
+
+  /** The maximum car speed of all edges in the graph, in meters per second. */
+  public float maxCarSpeed() {
+    return maxCarSpeed;
+  }
+
+  /** The first position of the outgoing edges of the given vertex, see {@link #outEdge(int)}. */
+  public int outStart(int vertex) {
+    return outIndex[vertex];
+  }
+
+  /** The end position(exclusive) of the outgoing edges of the given vertex. */
+  public int outEnd(int vertex) {
+    return outIndex[vertex + 1];
+  }
+
+  /** The edge index at the given position in the outgoing adjacency list. */
+  public int outEdge(int position) {
+    return outEdges[position];
+  }
+
+  /** The first position of the incoming edges of the given vertex, see {@link #inEdge(int)}. */
+  public int inStart(int vertex) {
+    return inIndex[vertex];
+  }
+
+  /** The end position(exclusive) of the incoming edges of the given vertex. */
+  public int inEnd(int vertex) {
+    return inIndex[vertex + 1];
+  }
+
+  /** The edge index at the given position in the incoming adjacency list. */
+  public int inEdge(int position) {
+    return inEdges[position];
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder
+      .of(CompactStreetGraph.class)
+      .addNum("vertices", numberOfVertices())
+      .addNum("edges", numberOfEdges())
+      .toString();
+  }
+
+  /* private methods */
+
+  /**
+   * Counting sort of the edges by the given end-vertex. The edge order within each vertex is the
+   * same as the edge index order.
+   */
+  private static void buildAdjacency(int[] edgeVertex, int[] index, int[] adjacency) {
+    for (int v : edgeVertex) {
+      ++index[v + 1];
+    }
+    for (int v = 0; v < index.length - 1; v++) {
+      index[v + 1] += index[v];
+    }
+    int[] next = Arrays.copyOf(index, index.length - 1);
+    for (int e = 0; e < edgeVertex.length; e++) {
+      adjacency[next[edgeVertex[e]]++] = e;
+    }
+  }
+
+  private static StreetTraversalPermission effectivePermission(StreetEdge e) {
+    var permission = e.getPermission();
+    if (e.getFromVertex() instanceof BarrierVertex barrier) {
+      permission = permission.intersection(barrier.getBarrierPermissions());
+    }
+    if (e.getToVertex() instanceof BarrierVertex barrier) {
+      permission = permission.intersection(barrier.getBarrierPermissions());
+    }
+    return permission;
+  }
+
+  private static short flags(StreetEdge e) {
+    return BitSetUtils.set((short) 0, FLAG_STAIRS, e.isStairs());
+  }
+}
@@ -1078,12 +1078,23 @@ public class StreetEdge
       }
     }
 
-    var s1 = createEditor(s0, this, traverseMode, walkingBike);
+    // Check the restrictions before the editor, and with it the new state, is created
+    if (isTraversalBlockedByNoThruTraffic(traverseMode, s0)) {
+      return null;
+    }
+    if (backEdge instanceof StreetEdge backPSE && isTurnRestricted(backPSE, s0, traverseMode)) {
+      return null;
+    }
 
-    if (isTraversalBlockedByNoThruTraffic(traverseMode, backEdge, s0, s1)) {
+    var s1 = createEditor(s0, this, traverseMode, walkingBike);
+    if (s1 == null) {
       return null;
     }
 
+    if (entersNoThruTrafficArea(traverseMode, backEdge)) {
+      s1.setEnteredNoThroughTrafficArea();
+    }
+
     if (s0.getRequest().mode().includesRenting()) {
       if (tov.rentalDropOffBanned(s0)) {
         s1.enterNoRentalDropOffArea();
@@ -1118,15 +1129,6 @@ public class StreetEdge
       TraverseMode backMode = s0.getBackMode();
       final boolean arriveBy = s0.getRequest().arriveBy();
 
-      // Apply turn restrictions
-      if (
-        arriveBy
-          ? !canTurnOnto(backPSE, s0, backMode)
-          : !backPSE.canTurnOnto(this, s0, traverseMode)
-      ) {
-        return null;
-      }
-
       double backSpeed = backPSE.calculateSpeed(preferences, backMode, s0.isBackWalkingBike());
       final double turnDuration; // Units are seconds.
 
@@ -1316,23 +1318,27 @@ public class StreetEdge
    * Since a Vertex may be arrived at with and without a no-thru restriction, the logic in
    * DominanceFunction#betterOrEqualAndComparable treats the two cases as separate.
    */
-  private boolean isTraversalBlockedByNoThruTraffic(
-    TraverseMode traverseMode,
-    Edge backEdge,
-    State s0,
-    StateEditor s1
-  ) {
-    if (isNoThruTraffic(traverseMode)) {
-      // Record transition into no-through-traffic area.
-      if (backEdge instanceof StreetEdge sbe && !sbe.isNoThruTraffic(traverseMode)) {
-        s1.setEnteredNoThroughTrafficArea();
-      }
-    } else if (s0.hasEnteredNoThruTrafficArea()) {
-      // If we transitioned into a no-through-traffic area at some point, check if we are exiting it.
-      return true;
-    }
+  /**
+   * If we transitioned into a no-through-traffic area at some point, check if we are exiting it.
+   */
+  private boolean isTraversalBlockedByNoThruTraffic(TraverseMode traverseMode, State s0) {
+    return !isNoThruTraffic(traverseMode) && s0.hasEnteredNoThruTrafficArea();
+  }
+
+  /** Check for a transition into a no-through-traffic area. */
+  private boolean entersNoThruTrafficArea(TraverseMode traverseMode, Edge backEdge) {
+    return (
+      isNoThruTraffic(traverseMode) &&
+      backEdge instanceof StreetEdge sbe &&
+      !sbe.isNoThruTraffic(traverseMode)
+    );
+  }
 
-    return false;
+  /** Apply turn restrictions, in the direction of the search. */
+  private boolean isTurnRestricted(StreetEdge backPSE, State s0, TraverseMode traverseMode) {
+    return s0.getRequest().arriveBy()
+      ? !canTurnOnto(backPSE, s0, s0.getBackMode())
+      : !backPSE.canTurnOnto(this, s0, traverseMode);
   }
 
   private void writeObject(ObjectOutputStream out) throws IOException {
@@ -0,0 +1,58 @@
+package org.opentripplanner.street.model.landmark;
+
+import java.io.Serializable;
+import org.opentripplanner.framework.tostring.ToStringBuilder;
+
+/**
+ * The shortest path distances from and to a small set of landmark vertices, for one traverse
+ * mode. The distances are indexed by the vertex index of {@link StreetLandmarks}. The unit depends
+ * on the mode, see {@link StreetLandmarks}. An unreachable vertex has the distance
+ * {@link Float#POSITIVE_INFINITY}.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+public class LandmarkDistances implements Serializable {
+
+  private final int[] landmarks;
+
+  /** {@code fromLandmark[i][v]} is the distance from landmark {@code i} to vertex {@code v}. */
+  private final float[][] fromLandmark;
+
+  /** {@code toLandmark[i][v]} is the distance from vertex {@code v} to landmark {@code i}. */
+  private final float[][] toLandmark;
+
+  public LandmarkDistances(int[] landmarks, float[][] fromLandmark, float[][] toLandmark) {
+    if (landmarks.length != fromLandmark.length || landmarks.length != toLandmark.length) {
+      throw new IllegalArgumentException("One distance array per landmark is expected.");
+    }
+    this.landmarks = landmarks;
+    this.fromLandmark = fromLandmark;
+    this.toLandmark = toLandmark;
+  }
+
+  public int numberOfLandmarks() {
+    return landmarks.length;
+  }
+
+  /** The vertex index of the given landmark. */
+  public int landmarkVertex(int landmark) {
+    return landmarks[landmark];
+  }
+
+  public float fromLandmark(int landmark, int vertex) {
+    return fromLandmark[landmark][vertex];
+  }
+
+  public float toLandmark(int landmark, int vertex) {
+    return toLandmark[landmark][vertex];
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder
+      .of(LandmarkDistances.class)
+      .addNum("landmarks", landmarks.length)
+      .addNum("vertices", landmarks.length == 0 ? 0 : fromLandmark[0].length)
+      .toString();
+  }
+}
@@ -0,0 +1,105 @@
+package org.opentripplanner.street.model.landmark;
+
+import gnu.trove.map.hash.TObjectIntHashMap;
+import java.io.Serializable;
+import javax.annotation.Nullable;
+import org.opentripplanner.framework.tostring.ToStringBuilder;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.TraverseMode;
+
+/**
+ * Precomputed shortest path distances between all street vertices and a small set of landmarks,
+ * used by the A* landmark (ALT) heuristic. By the triangle inequality the distance from {@code v}
+ * to {@code t} is at least {@code d(L,t) - d(L,v)} and {@code d(v,L) - d(t,L)} for any landmark
+ * {@code L}, which is a much better lower bound than the straight line distance for long trips.
+ * <p>
+ * The distances are computed on the permanent street edges when the graph is built, without turn
+ * costs and without elevation:
+ * <ul>
+ *   <li>{@link TraverseMode#CAR}: the travel time in seconds, using the car speed of each
+ *   edge.</li>
+ *   <li>{@link TraverseMode#BICYCLE}: the length in meters of the edges where a bike can be
+ *   ridden or walked.</li>
+ * </ul>
+ * <p>
+ * Each landmark uses 8 bytes per vertex and mode, so only a few landmarks are kept.
+ * <p>
+ * THIS CLASS IS IMMUTABLE AND THREAD-SAFE.
+ */
+public class StreetLandmarks implements Serializable {
+
+  public static final int NOT_FOUND = -1;
+
+  private final Vertex[] vertices;
+
+  @Nullable
+  private final LandmarkDistances car;
+
+  @Nullable
+  private final LandmarkDistances bicycle;
+
+  /** Created on first use, the identity hash codes are not valid after the graph is loaded. */
+  private transient volatile TObjectIntHashMap<Vertex> vertexIndex;
+
+  public StreetLandmarks(
+    Vertex[] vertices,
+    @Nullable LandmarkDistances car,
+    @Nullable LandmarkDistances bicycle
+  ) {
+    this.vertices = vertices;
+    this.car = car;
+    this.bicycle = bicycle;
+  }
+
+  public int numberOfVertices() {
+    return vertices.length;
+  }
+
+  /**
+   * The index of the given vertex, or {@link #NOT_FOUND} if the vertex is not a permanent street
+   * vertex, like the temporary vertices of a request.
+   */
+  public int vertexIndex(Vertex vertex) {
+    return index().get(vertex);
+  }
+
+  /**
+   * The distances for the given mode, or {@code null} if not computed. Only
+   * {@link TraverseMode#CAR} and {@link TraverseMode#BICYCLE} are supported.
+   */
+  @Nullable
+  public LandmarkDistances distances(TraverseMode mode) {
+    return switch (mode) {
+      case CAR -> car;
+      case BICYCLE -> bicycle;
+      default -> null;
+    };
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder
+      .of(StreetLandmarks.class)
+      .addNum("vertices", vertices.length)
+      .addObj("car", car)
+      .addObj("bicycle", bicycle)
+      .toString();
+  }
+
+  private TObjectIntHashMap<Vertex> index() {
+    var index = vertexIndex;
+    if (index == null) {
+      synchronized (this) {
+        index = vertexIndex;
+        if (index == null) {
+          index = new TObjectIntHashMap<>(vertices.length, 0.5f, NOT_FOUND);
+          for (int i = 0; i < vertices.length; i++) {
+            index.put(vertices[i], i);
+          }
+          vertexIndex = index;
+        }
+      }
+    }
+    return index;
+  }
+}
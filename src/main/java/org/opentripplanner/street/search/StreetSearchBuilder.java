@@ -19,6 +19,7 @@ import org.opentripplanner.street.search.request.StreetSearchRequestMapper;
 import org.opentripplanner.street.search.state.State;
 import org.opentripplanner.street.search.strategy.DominanceFunctions;
 import org.opentripplanner.street.search.strategy.EuclideanRemainingWeightHeuristic;
+import org.opentripplanner.street.search.strategy.LandmarkRemainingWeightHeuristic;
 
 public class StreetSearchBuilder extends AStarBuilder<State, Edge, Vertex, StreetSearchBuilder> {
 
@@ -72,11 +73,11 @@ public class StreetSearchBuilder extends AStarBuilder<State, Edge, Vertex, Stree
   }
 
   @Override
-  protected Collection<State> createInitialStates(Set<Vertex> originVertices) {
+  protected Collection<State> createInitialStates(Set<Vertex> originVertices, boolean arriveBy) {
     StreetSearchRequest streetSearchRequest = StreetSearchRequestMapper
       .map(routeRequest)
       .withMode(streetRequest.mode())
-      .withArriveBy(arriveBy())
+      .withArriveBy(arriveBy)
       .build();
 
     return State.getInitialStates(originVertices, streetSearchRequest);
@@ -115,13 +116,44 @@ public class StreetSearchBuilder extends AStarBuilder<State, Edge, Vertex, Stree
         arriveBy,
         routeRequest.preferences()
       );
+    } else if (heuristic instanceof LandmarkRemainingWeightHeuristic landmarkHeuristic) {
+      landmarkHeuristic.initialize(
+        streetRequest.mode(),
+        destination,
+        arriveBy,
+        routeRequest.preferences()
+      );
     } else {
       throw new IllegalArgumentException("Unknown heuristic type: " + heuristic);
     }
   }
 
+  @Override
+  protected RemainingWeightHeuristic<State> createReverseHeuristic(
+    RemainingWeightHeuristic<State> heuristic
+  ) {
+    if (heuristic instanceof EuclideanRemainingWeightHeuristic) {
+      return new EuclideanRemainingWeightHeuristic();
+    } else if (heuristic instanceof LandmarkRemainingWeightHeuristic landmarkHeuristic) {
+      return landmarkHeuristic.createNew();
+    }
+    return super.createReverseHeuristic(heuristic);
+  }
+
   @Override
   protected DominanceFunction<State> createDefaultDominanceFunction() {
     return new DominanceFunctions.Pareto();
   }
+
+  /**
+   * Only plain walk, bike and car searches are supported. Rental, parking and pickup put the states
+   * on separate planes, and the forward and reverse states can not be joined by weight alone.
+   */
+  @Override
+  protected boolean supportsBidirectionalSearch() {
+    return switch (streetRequest.mode()) {
+      case WALK, BIKE, CAR -> true;
+      default -> false;
+    };
+  }
 }
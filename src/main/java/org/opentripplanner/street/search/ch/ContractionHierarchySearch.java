@@ -0,0 +1,186 @@
+package org.opentripplanner.street.search.ch;
+
+import gnu.trove.map.hash.TIntDoubleHashMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import org.opentripplanner.astar.model.IntBinHeap;
+import org.opentripplanner.street.model.ch.ContractionHierarchy;
+import org.opentripplanner.street.model.edge.StreetEdge;
+
+/**
+ * A shortest path query on a {@link ContractionHierarchy}. Two Dijkstra searches are run, one
+ * going up in the hierarchy from the origin vertices, and one going up from the destination
+ * vertices following the arcs backwards. The shortest path is the best path through a vertex
+ * reached by both searches. Each search stops when its queue only contains vertices with a
+ * duration larger than the best path found.
+ * <p>
+ * A vertex is not expanded if it can be reached faster from a vertex higher in the hierarchy
+ * (stall-on-demand), such a vertex is not on a shortest path.
+ * <p>
+ * The searches only settle a small number of vertices, so the state is kept in hash maps, not in
+ * arrays with one element for each vertex of the graph.
+ * <p>
+ * THIS CLASS IS NOT THREAD-SAFE, create one instance per search.
+ */
+public class ContractionHierarchySearch {
+
+  private static final int NOT_FOUND = ContractionHierarchy.NOT_FOUND;
+
+  private final ContractionHierarchy hierarchy;
+  private final Direction forward = new Direction(true);
+  private final Direction backward = new Direction(false);
+
+  private double bestDuration = Double.POSITIVE_INFINITY;
+  private int meetingVertex = NOT_FOUND;
+
+  public ContractionHierarchySearch(ContractionHierarchy hierarchy) {
+    this.hierarchy = hierarchy;
+  }
+
+  /**
+   * Search for the shortest path from one of the origins to one of the destinations. The
+   * durations are added to the duration of a path starting or ending at the vertex with the same
+   * index.
+   *
+   * @return the duration in seconds, or {@link Double#POSITIVE_INFINITY} if no path is found.
+   */
+  public double search(
+    int[] origins,
+    double[] originDurations,
+    int[] destinations,
+    double[] destinationDurations
+  ) {
+    for (int i = 0; i < origins.length; i++) {
+      forward.reach(origins[i], originDurations[i], NOT_FOUND);
+    }
+    for (int i = 0; i < destinations.length; i++) {
+      backward.reach(destinations[i], destinationDurations[i], NOT_FOUND);
+    }
+
+    while (forward.hasNext() || backward.hasNext()) {
+      if (!backward.hasNext() || (forward.hasNext() && forward.minKey() <= backward.minKey())) {
+        forward.step(backward);
+      } else {
+        backward.step(forward);
+      }
+    }
+    return bestDuration;
+  }
+
+  /** The origin vertex of the shortest path, or {@link ContractionHierarchy#NOT_FOUND}. */
+  public int origin() {
+    return meetingVertex == NOT_FOUND ? NOT_FOUND : forward.start(meetingVertex);
+  }
+
+  /** The destination vertex of the shortest path, or {@link ContractionHierarchy#NOT_FOUND}. */
+  public int destination() {
+    return meetingVertex == NOT_FOUND ? NOT_FOUND : backward.start(meetingVertex);
+  }
+
+  /**
+   * The street edges of the shortest path in travel order. The list is empty if no path is found,
+   * or if the origin and the destination is the same vertex.
+   */
+  public List<StreetEdge> path() {
+    var path = new ArrayList<StreetEdge>();
+    if (meetingVertex == NOT_FOUND) {
+      return path;
+    }
+    var forwardArcs = forward.arcs(meetingVertex);
+    for (int i = forwardArcs.size() - 1; i >= 0; i--) {
+      hierarchy.unpack(forwardArcs.get(i), path);
+    }
+    for (int arc : backward.arcs(meetingVertex)) {
+      hierarchy.unpack(arc, path);
+    }
+    return path;
+  }
+
+  private class Direction {
+
+    private final boolean isForward;
+    private final TIntDoubleHashMap durations = new TIntDoubleHashMap(256, 0.5f, NOT_FOUND, -1);
+    private final TIntIntHashMap backArc = new TIntIntHashMap(256, 0.5f, NOT_FOUND, NOT_FOUND);
+    private final IntBinHeap queue = new IntBinHeap(256);
+
+    private Direction(boolean isForward) {
+      this.isForward = isForward;
+    }
+
+    boolean hasNext() {
+      return !queue.isEmpty() && queue.peekMinKey() < bestDuration;
+    }
+
+    double minKey() {
+      return queue.peekMinKey();
+    }
+
+    void step(Direction other) {
+      double duration = queue.peekMinKey();
+      int v = queue.extractMin();
+      if (duration > duration(v) || isStalled(v, duration)) {
+        return;
+      }
+
+      double otherDuration = other.duration(v);
+      if (duration + otherDuration < bestDuration) {
+        bestDuration = duration + otherDuration;
+        meetingVertex = v;
+      }
+
+      int end = isForward ? hierarchy.upEnd(v) : hierarchy.downEnd(v);
+      for (int i = isForward ? hierarchy.upStart(v) : hierarchy.downStart(v); i < end; i++) {
+        int arc = isForward ? hierarchy.upArc(i) : hierarchy.downArc(i);
+        int w = isForward ? hierarchy.arcTo(arc) : hierarchy.arcFrom(arc);
+        reach(w, duration + hierarchy.arcWeight(arc), arc);
+      }
+    }
+
+    void reach(int v, double duration, int arc) {
+      if (duration < duration(v)) {
+        durations.put(v, duration);
+        backArc.put(v, arc);
+        queue.insert(v, duration);
+      }
+    }
+
+    double duration(int v) {
+      return durations.containsKey(v) ? durations.get(v) : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * A vertex is stalled if a vertex higher in the hierarchy, which is already reached, has an
+     * arc down to it giving a shorter duration.
+     */
+    private boolean isStalled(int v, double duration) {
+      int end = isForward ? hierarchy.downEnd(v) : hierarchy.upEnd(v);
+      for (int i = isForward ? hierarchy.downStart(v) : hierarchy.upStart(v); i < end; i++) {
+        int arc = isForward ? hierarchy.downArc(i) : hierarchy.upArc(i);
+        int w = isForward ? hierarchy.arcFrom(arc) : hierarchy.arcTo(arc);
+        if (duration(w) + hierarchy.arcWeight(arc) < duration) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /** The arcs from the vertex back to the start of this search. */
+    List<Integer> arcs(int v) {
+      var arcs = new ArrayList<Integer>();
+      for (int arc = backArc.get(v); arc != NOT_FOUND; arc = backArc.get(v)) {
+        arcs.add(arc);
+        v = isForward ? hierarchy.arcFrom(arc) : hierarchy.arcTo(arc);
+      }
+      return arcs;
+    }
+
+    /** The vertex where the path to the given vertex starts. */
+    int start(int v) {
+      for (int arc = backArc.get(v); arc != NOT_FOUND; arc = backArc.get(v)) {
+        v = isForward ? hierarchy.arcFrom(arc) : hierarchy.arcTo(arc);
+      }
+      return v;
+    }
+  }
+}
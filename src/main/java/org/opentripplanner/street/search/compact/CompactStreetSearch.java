@@ -0,0 +1,225 @@
+package org.opentripplanner.street.search.compact;
+
+import gnu.trove.list.array.TIntArrayList;
+import java.util.Arrays;
+import org.opentripplanner.astar.model.IntBinHeap;
+import org.opentripplanner.framework.geometry.SphericalDistanceLibrary;
+import org.opentripplanner.street.model.compact.CompactStreetGraph;
+import org.opentripplanner.street.search.TraverseMode;
+
+/**
+ * A single-mode, duration based A* search on a {@link CompactStreetGraph}. The search state is
+ * kept in primitive arrays indexed by vertex, and the arrays are reused between searches: a
+ * generation stamp is used to tell if the value for a vertex belongs to the current search, so
+ * starting a new search does not clear the arrays.
+ * <p>
+ * The travel time on an edge is the length divided by the speed. For {@link TraverseMode#CAR} the
+ * speed of the edge is used, for other modes the speed given in the constructor. A
+ * {@link TraverseMode#BICYCLE} search also uses the edges where the bike must be walked, at the
+ * same speed. This is the same simplification as the {@link CompactStreetGraph} uses: no turn
+ * costs, no turn restrictions and no elevation. Use it for bounds, heuristics and preprocessing,
+ * not for itineraries returned to the user.
+ * <p>
+ * THIS CLASS IS NOT THREAD-SAFE, create one instance per thread and reuse it.
+ */
+public class CompactStreetSearch {
+
+  private final CompactStreetGraph graph;
+  private final TraverseMode mode;
+  private final double speed;
+  private final boolean arriveBy;
+
+  /** Upper bound of the speed, used by the A* heuristic. */
+  private final double maxSpeed;
+
+  private final double[] durations;
+  private final int[] backEdge;
+  private final int[] reachedStamp;
+  private final int[] settledStamp;
+  private final IntBinHeap queue;
+  private final TIntArrayList settledVertices = new TIntArrayList();
+  private int stamp = 0;
+
+  /**
+   * @param speed    The speed in meters per second, not used for {@link TraverseMode#CAR}.
+   * @param arriveBy If {@code true} the search is done backwards, following the incoming edges.
+   */
+  public CompactStreetSearch(
+    CompactStreetGraph graph,
+    TraverseMode mode,
+    double speed,
+    boolean arriveBy
+  ) {
+    if (mode != TraverseMode.CAR && !(speed > 0.0)) {
+      throw new IllegalArgumentException("Speed must be positive: " + speed);
+    }
+    this.graph = graph;
+    this.mode = mode;
+    this.speed = speed;
+    this.arriveBy = arriveBy;
+    this.maxSpeed = mode == TraverseMode.CAR ? graph.maxCarSpeed() : speed;
+
+    int n = graph.numberOfVertices();
+    this.durations = new double[n];
+    this.backEdge = new int[n];
+    this.reachedStamp = new int[n];
+    this.settledStamp = new int[n];
+    this.queue = new IntBinHeap(1000);
+  }
+
+  /**
+   * Search from the given vertex to all vertices reachable within the given max duration.
+   */
+  public void searchAll(int origin, double maxDurationSeconds) {
+    search(new int[] { origin }, CompactStreetGraph.NOT_FOUND, maxDurationSeconds);
+  }
+
+  /**
+   * Search from the given origin vertices to all vertices reachable within the given max duration.
+   */
+  public void searchAll(int[] origins, double maxDurationSeconds) {
+    search(origins, CompactStreetGraph.NOT_FOUND, maxDurationSeconds);
+  }
+
+  /**
+   * Search from the origin until the target is reached, using the straight line distance divided
+   * by the maximum speed as an (admissible) heuristic.
+   *
+   * @return the duration in seconds, or {@link Double#POSITIVE_INFINITY} if the target is not
+   * reached.
+   */
+  public double searchTo(int origin, int target) {
+    search(new int[] { origin }, target, Double.POSITIVE_INFINITY);
+    return duration(target);
+  }
+
+  /**
+   * The duration in seconds to the given vertex found by the last search, or
+   * {@link Double#POSITIVE_INFINITY} if the vertex was not reached.
+   */
+  public double duration(int vertex) {
+    return reachedStamp[vertex] == stamp ? durations[vertex] : Double.POSITIVE_INFINITY;
+  }
+
+  public boolean isReached(int vertex) {
+    return reachedStamp[vertex] == stamp;
+  }
+
+  /**
+   * The vertices settled (optimal duration found) in the last search, in the order they were
+   * settled.
+   */
+  public int[] settledVertices() {
+    return settledVertices.toArray();
+  }
+
+  /**
+   * The edges of the path to the given vertex, in travel order. For an arriveBy search the path
+   * goes from the given vertex to the origin. An empty array is returned if the vertex is an
+   * origin or is not reached.
+   */
+  public int[] path(int vertex) {
+    var path = new TIntArrayList();
+    if (!isReached(vertex)) {
+      return path.toArray();
+    }
+    int v = vertex;
+    while (backEdge[v] != CompactStreetGraph.NOT_FOUND) {
+      int e = backEdge[v];
+      path.add(e);
+      v = arriveBy ? graph.toVertex(e) : graph.fromVertex(e);
+    }
+    if (!arriveBy) {
+      path.reverse();
+    }
+    return path.toArray();
+  }
+
+  /* private methods */
+
+  private void search(int[] origins, int target, double maxDuration) {
+    nextStamp();
+    queue.reset();
+    settledVertices.resetQuick();
+
+    for (int origin : origins) {
+      reach(origin, 0.0, CompactStreetGraph.NOT_FOUND);
+      queue.insert(origin, heuristic(origin, target));
+    }
+
+    while (!queue.isEmpty()) {
+      int u = queue.extractMin();
+      if (settledStamp[u] == stamp) {
+        continue;
+      }
+      settledStamp[u] = stamp;
+      settledVertices.add(u);
+
+      if (u == target) {
+        return;
+      }
+      double du = durations[u];
+
+      int end = arriveBy ? graph.inEnd(u) : graph.outEnd(u);
+      for (int i = arriveBy ? graph.inStart(u) : graph.outStart(u); i < end; i++) {
+        int e = arriveBy ? graph.inEdge(i) : graph.outEdge(i);
+        if (!isTraversable(e)) {
+          continue;
+        }
+        double edgeDuration = edgeDuration(e);
+        if (Double.isInfinite(edgeDuration)) {
+          continue;
+        }
+        int v = arriveBy ? graph.fromVertex(e) : graph.toVertex(e);
+        double dv = du + edgeDuration;
+        if (dv > maxDuration || settledStamp[v] == stamp) {
+          continue;
+        }
+        if (reachedStamp[v] != stamp || dv < durations[v]) {
+          reach(v, dv, e);
+          queue.insert(v, dv + heuristic(v, target));
+        }
+      }
+    }
+  }
+
+  private void reach(int v, double duration, int edge) {
+    reachedStamp[v] = stamp;
+    durations[v] = duration;
+    backEdge[v] = edge;
+  }
+
+  private boolean isTraversable(int e) {
+    return switch (mode) {
+      case BICYCLE, SCOOTER -> graph.allows(e, mode) || graph.allows(e, TraverseMode.WALK);
+      default -> graph.allows(e, mode);
+    };
+  }
+
+  private double edgeDuration(int e) {
+    double s = mode == TraverseMode.CAR ? graph.carSpeed(e) : speed;
+    return s > 0.0 ? graph.distanceMeters(e) / s : Double.POSITIVE_INFINITY;
+  }
+
+  private double heuristic(int v, int target) {
+    if (target == CompactStreetGraph.NOT_FOUND || maxSpeed <= 0.0) {
+      return 0.0;
+    }
+    double meters = SphericalDistanceLibrary.fastDistance(
+      graph.lat(v),
+      graph.lon(v),
+      graph.lat(target),
+      graph.lon(target)
+    );
+    return meters / maxSpeed;
+  }
+
+  private void nextStamp() {
+    if (stamp == Integer.MAX_VALUE) {
+      Arrays.fill(reachedStamp, 0);
+      Arrays.fill(settledStamp, 0);
+      stamp = 0;
+    }
+    ++stamp;
+  }
+}
@@ -337,6 +337,13 @@ public class StateEditor {
    * vehicle parked is important for allowing co-dominance of walking and driving states.
    */
   public void setVehicleParked(boolean vehicleParked, TraverseMode nonTransitMode) {
+    if (
+      vehicleParked == child.stateData.vehicleParked &&
+      nonTransitMode == child.stateData.currentMode
+    ) {
+      return;
+    }
+
     cloneStateDataAsNeeded();
     child.stateData.vehicleParked = vehicleParked;
     child.stateData.currentMode = nonTransitMode;
@@ -347,6 +354,15 @@ public class StateEditor {
    * set.
    */
   public void setFromState(State state) {
+    if (
+      child.stateData.currentMode == state.stateData.currentMode &&
+      child.stateData.carPickupState == state.stateData.carPickupState &&
+      child.stateData.vehicleParked == state.stateData.vehicleParked &&
+      child.stateData.backWalkingBike == state.stateData.backWalkingBike
+    ) {
+      return;
+    }
+
     cloneStateDataAsNeeded();
     child.stateData.currentMode = state.stateData.currentMode;
     child.stateData.carPickupState = state.stateData.carPickupState;
@@ -355,12 +371,21 @@ public class StateEditor {
   }
 
   public void setCarPickupState(CarPickupState carPickupState) {
+    var currentMode =
+      switch (carPickupState) {
+        case WALK_TO_PICKUP, WALK_FROM_DROP_OFF -> TraverseMode.WALK;
+        case IN_CAR -> TraverseMode.CAR;
+      };
+    if (
+      carPickupState == child.stateData.carPickupState &&
+      currentMode == child.stateData.currentMode
+    ) {
+      return;
+    }
+
     cloneStateDataAsNeeded();
     child.stateData.carPickupState = carPickupState;
-    switch (carPickupState) {
-      case WALK_TO_PICKUP, WALK_FROM_DROP_OFF -> child.stateData.currentMode = TraverseMode.WALK;
-      case IN_CAR -> child.stateData.currentMode = TraverseMode.CAR;
-    }
+    child.stateData.currentMode = currentMode;
   }
 
   public void setTimeSeconds(long seconds) {
@@ -374,6 +399,10 @@ public class StateEditor {
   }
 
   public void resetStartedInNoDropOffZone() {
+    if (child.stateData.noRentalDropOffZonesAtStartOfReverseSearch.isEmpty()) {
+      return;
+    }
+
     cloneStateDataAsNeeded();
     child.stateData.noRentalDropOffZonesAtStartOfReverseSearch = Set.of();
   }
@@ -2,6 +2,7 @@ package org.opentripplanner.street.search.strategy;
 
 import java.io.Serializable;
 import java.util.Objects;
+import org.opentripplanner.astar.spi.AStarEdge;
 import org.opentripplanner.astar.spi.DominanceFunction;
 import org.opentripplanner.street.model.edge.StreetEdge;
 import org.opentripplanner.street.search.state.State;
@@ -31,36 +32,7 @@ public abstract class DominanceFunctions implements Serializable, DominanceFunct
    */
   @Override
   public boolean betterOrEqualAndComparable(State a, State b) {
-    // Does one state represent riding a rented bike and the other represent walking before/after rental?
-    if (!a.isCompatibleVehicleRentalState(b)) {
-      return false;
-    }
-
-    // In case of bike renting, different networks (ie incompatible bikes) are not comparable
-    // TODO: Check for vehicle type
-    if (a.isRentingVehicle()) {
-      if (!Objects.equals(a.getVehicleRentalNetwork(), b.getVehicleRentalNetwork())) {
-        return false;
-      }
-    }
-
-    // Does one state represent driving a vehicle and the other represent walking after the vehicle was parked?
-    if (a.isVehicleParked() != b.isVehicleParked()) {
-      return false;
-    }
-
-    if (a.getCarPickupState() != b.getCarPickupState()) {
-      return false;
-    }
-
-    // Since a Vertex may be arrived at using a no-thru restricted path and one without such
-    // restrictions, treat the two as separate so one doesn't dominate the other.
-    if (a.hasEnteredNoThruTrafficArea() != b.hasEnteredNoThruTrafficArea()) {
-      return false;
-    }
-
-    // we cannot compare the states where one is inside a "no-drop off" zone and one isn't
-    if (a.isInsideNoRentalDropOffArea() != b.isInsideNoRentalDropOffArea()) {
+    if (!isOnSamePlane(a, b)) {
       return false;
     }
 
@@ -103,6 +75,38 @@ public abstract class DominanceFunctions implements Serializable, DominanceFunct
     return betterOrEqual(a, b);
   }
 
+  /**
+   * The weight, time and walk distance never decrease when an edge is traversed, so a state which
+   * is better or equal to the parent is also better or equal to the new states. This only applies
+   * if the new states are on the same plane as the parent: street edges never change the rental,
+   * parking or pickup status if the request does not include these, and the no-through-traffic
+   * status can only change when entering a no-through-traffic street.
+   */
+  @Override
+  public boolean dominatesTraversal(State existing, State parent, AStarEdge<State, ?, ?> edge) {
+    if (!(edge instanceof StreetEdge streetEdge)) {
+      return false;
+    }
+    var mode = parent.getRequest().mode();
+    if (mode.includesRenting() || mode.includesParking() || mode.includesPickup()) {
+      return false;
+    }
+    if (!parent.hasEnteredNoThruTrafficArea() && isNoThruTrafficForAnyMode(streetEdge)) {
+      return false;
+    }
+    // See the loops close to the start or end in betterOrEqualAndComparable
+    if (
+      existing.backEdge != edge &&
+      (existing.backEdge instanceof StreetEdge) &&
+      existing.getBackMode() != null &&
+      existing.getBackMode().isInCar() &&
+      existing.getRequest().isCloseToStartOrEnd(existing.getVertex())
+    ) {
+      return false;
+    }
+    return isOnSamePlane(existing, parent) && betterOrEqual(existing, parent);
+  }
+
   /**
    * Return true if the first state "defeats" the second state or at least ties with it in terms of
    * suitability. In the case that they are tied, we still want to return true so that an existing
@@ -112,6 +116,56 @@ public abstract class DominanceFunctions implements Serializable, DominanceFunct
    */
   protected abstract boolean betterOrEqual(State a, State b);
 
+  /**
+   * Check the variables which put the states on separate planes, see
+   * {@link #betterOrEqualAndComparable(State, State)}.
+   */
+  @Override
+  public boolean isOnSamePlane(State a, State b) {
+    // Does one state represent riding a rented bike and the other represent walking before/after rental?
+    if (!a.isCompatibleVehicleRentalState(b)) {
+      return false;
+    }
+
+    // In case of bike renting, different networks (ie incompatible bikes) are not comparable
+    // TODO: Check for vehicle type
+    if (a.isRentingVehicle()) {
+      if (!Objects.equals(a.getVehicleRentalNetwork(), b.getVehicleRentalNetwork())) {
+        return false;
+      }
+    }
+
+    // Does one state represent driving a vehicle and the other represent walking after the vehicle was parked?
+    if (a.isVehicleParked() != b.isVehicleParked()) {
+      return false;
+    }
+
+    if (a.getCarPickupState() != b.getCarPickupState()) {
+      return false;
+    }
+
+    // Since a Vertex may be arrived at using a no-thru restricted path and one without such
+    // restrictions, treat the two as separate so one doesn't dominate the other.
+    if (a.hasEnteredNoThruTrafficArea() != b.hasEnteredNoThruTrafficArea()) {
+      return false;
+    }
+
+    // we cannot compare the states where one is inside a "no-drop off" zone and one isn't
+    if (a.isInsideNoRentalDropOffArea() != b.isInsideNoRentalDropOffArea()) {
+      return false;
+    }
+
+    return true;
+  }
+
+  private static boolean isNoThruTrafficForAnyMode(StreetEdge edge) {
+    return (
+      edge.isWalkNoThruTraffic() ||
+      edge.isBicycleNoThruTraffic() ||
+      edge.isMotorVehicleNoThruTraffic()
+    );
+  }
+
   public static class MinimumWeight extends DominanceFunctions {
 
     /** Return true if the first state has lower weight than the second state. */
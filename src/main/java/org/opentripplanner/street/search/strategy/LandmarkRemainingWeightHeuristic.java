@@ -0,0 +1,190 @@
+package org.opentripplanner.street.search.strategy;
+
+import java.util.Set;
+import org.opentripplanner.astar.spi.RemainingWeightHeuristic;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.preference.RoutingPreferences;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.landmark.LandmarkDistances;
+import org.opentripplanner.street.model.landmark.StreetLandmarks;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.TraverseMode;
+import org.opentripplanner.street.search.state.State;
+
+/**
+ * A remaining weight strategy using the precomputed {@link StreetLandmarks} (the ALT heuristic).
+ * For each landmark {@code L} the triangle inequality gives the lower bounds
+ * {@code d(L,t) - d(L,v)} and {@code d(v,L) - d(t,L)} on the distance from {@code v} to the target
+ * {@code t}. The best of these and the {@link EuclideanRemainingWeightHeuristic} estimate is used.
+ * <p>
+ * Like the Euclidean heuristic this is a lower bound on the travel time, not on the weight. The
+ * landmark distances are only available for {@link StreetMode#CAR} and {@link StreetMode#BIKE},
+ * other modes, and vertices created for the request, fall back to the Euclidean estimate. Target
+ * vertices created for the request are connected to the permanent vertices by following the
+ * temporary edges a few steps.
+ */
+public class LandmarkRemainingWeightHeuristic implements RemainingWeightHeuristic<State> {
+
+  /** How many temporary edges to follow to connect a target to the permanent street vertices. */
+  private static final int MAX_TEMPORARY_EDGES = 3;
+
+  private final StreetLandmarks landmarks;
+  private final EuclideanRemainingWeightHeuristic euclidean =
+    new EuclideanRemainingWeightHeuristic();
+
+  private LandmarkDistances distances;
+  private TraverseMode mode;
+  private double secondsPerUnit;
+  private boolean arriveBy;
+
+  /**
+   * For each target and landmark, the bound of the distance between the landmark and the target
+   * used in the first and the second triangle inequality.
+   */
+  private double[][] fromLandmarkBound;
+  private double[][] toLandmarkBound;
+
+  public LandmarkRemainingWeightHeuristic(StreetLandmarks landmarks) {
+    this.landmarks = landmarks;
+  }
+
+  /** Create a new heuristic using the same landmarks, for another search. */
+  public LandmarkRemainingWeightHeuristic createNew() {
+    return new LandmarkRemainingWeightHeuristic(landmarks);
+  }
+
+  public void initialize(
+    StreetMode streetMode,
+    Set<Vertex> toVertices,
+    boolean arriveBy,
+    RoutingPreferences preferences
+  ) {
+    euclidean.initialize(streetMode, toVertices, arriveBy, preferences);
+    this.arriveBy = arriveBy;
+
+    if (streetMode == StreetMode.CAR) {
+      mode = TraverseMode.CAR;
+      secondsPerUnit = 1.0;
+    } else if (streetMode == StreetMode.BIKE) {
+      mode = TraverseMode.BICYCLE;
+      secondsPerUnit =
+        1.0 / Math.max(preferences.bike().speed(), preferences.bike().walking().speed());
+    } else {
+      mode = null;
+    }
+    distances = mode == null ? null : landmarks.distances(mode);
+    if (distances == null) {
+      return;
+    }
+
+    int nLandmarks = distances.numberOfLandmarks();
+    fromLandmarkBound = new double[toVertices.size()][nLandmarks];
+    toLandmarkBound = new double[toVertices.size()][nLandmarks];
+    int i = 0;
+    for (Vertex target : toVertices) {
+      for (int l = 0; l < nLandmarks; l++) {
+        // In a depart-after search the remaining distance is d(v,t): the bound of d(L,t) must be a
+        // lower bound and the bound of d(t,L) an upper bound. In an arrive-by search it is d(t,v),
+        // and the other way around.
+        fromLandmarkBound[i][l] = distance(target, l, true, !arriveBy, MAX_TEMPORARY_EDGES);
+        toLandmarkBound[i][l] = distance(target, l, false, arriveBy, MAX_TEMPORARY_EDGES);
+      }
+      ++i;
+    }
+  }
+
+  @Override
+  public double estimateRemainingWeight(State s) {
+    double estimate = euclidean.estimateRemainingWeight(s);
+    if (distances == null) {
+      return estimate;
+    }
+    int v = landmarks.vertexIndex(s.getVertex());
+    if (v == StreetLandmarks.NOT_FOUND) {
+      return estimate;
+    }
+    double best = Double.POSITIVE_INFINITY;
+    for (int t = 0; t < fromLandmarkBound.length; t++) {
+      best = Math.min(best, landmarkEstimate(v, t));
+    }
+    return Math.max(estimate, best * secondsPerUnit);
+  }
+
+  private double landmarkEstimate(int v, int target) {
+    double max = 0.0;
+    for (int l = 0; l < distances.numberOfLandmarks(); l++) {
+      double fromL = fromLandmarkBound[target][l];
+      double toL = toLandmarkBound[target][l];
+      double fromLtoV = distances.fromLandmark(l, v);
+      double fromVtoL = distances.toLandmark(l, v);
+      if (arriveBy) {
+        max = Math.max(max, difference(fromLtoV, fromL));
+        max = Math.max(max, difference(toL, fromVtoL));
+      } else {
+        max = Math.max(max, difference(fromL, fromLtoV));
+        max = Math.max(max, difference(fromVtoL, toL));
+      }
+    }
+    return max;
+  }
+
+  /** The difference {@code a - b}, or zero if one of them is not known. */
+  private static double difference(double a, double b) {
+    return Double.isInfinite(a) || Double.isInfinite(b) ? 0.0 : a - b;
+  }
+
+  /**
+   * The distance from ({@code fromLandmark}) or to the given landmark for a target vertex. Vertices
+   * created for the request are not indexed, for these the edges are followed until a permanent
+   * vertex is found. If this does not succeed within {@code depth} edges, the distance is unknown
+   * and an infinite value which does not restrict the estimate is returned.
+   */
+  private double distance(
+    Vertex vertex,
+    int landmark,
+    boolean fromLandmark,
+    boolean lower,
+    int depth
+  ) {
+    int index = landmarks.vertexIndex(vertex);
+    if (index != StreetLandmarks.NOT_FOUND) {
+      return fromLandmark
+        ? distances.fromLandmark(landmark, index)
+        : distances.toLandmark(landmark, index);
+    }
+    if (depth == 0) {
+      return lower ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+    }
+    double min = Double.POSITIVE_INFINITY;
+    for (Edge edge : fromLandmark ? vertex.getIncoming() : vertex.getOutgoing()) {
+      if (edge instanceof StreetEdge streetEdge && !isTraversable(streetEdge)) {
+        continue;
+      }
+      Vertex next = fromLandmark ? edge.getFromVertex() : edge.getToVertex();
+      min = Math.min(min, distance(next, landmark, fromLandmark, lower, depth - 1) + length(edge));
+    }
+    return min;
+  }
+
+  private boolean isTraversable(StreetEdge edge) {
+    var permission = edge.getPermission();
+    return (
+      permission.allows(mode) ||
+      (mode == TraverseMode.BICYCLE && permission.allows(TraverseMode.WALK))
+    );
+  }
+
+  /** The length of an edge in the unit of the landmark distances. */
+  private double length(Edge edge) {
+    if (!(edge instanceof StreetEdge streetEdge)) {
+      return 0.0;
+    }
+    if (mode == TraverseMode.CAR) {
+      return streetEdge.getCarSpeed() > 0
+        ? streetEdge.getDistanceMeters() / streetEdge.getCarSpeed()
+        : Double.POSITIVE_INFINITY;
+    }
+    return streetEdge.getDistanceMeters();
+  }
+}
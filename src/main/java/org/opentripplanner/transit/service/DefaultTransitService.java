@@ -333,6 +333,32 @@ public class DefaultTransitService implements TransitEditorService {
     );
   }
 
+  /**
+   * Fetch upcoming vehicle departures from many stops. This is faster than calling
+   * {@link #stopTimesForStop(StopLocation, Instant, Duration, int, ArrivalDeparture, boolean)} for
+   * each stop, the patterns visiting more than one of the stops are only searched once.
+   */
+  @Override
+  public Map<StopLocation, List<StopTimesInPattern>> stopTimesForStops(
+    Collection<StopLocation> stops,
+    Instant startTime,
+    Duration timeRange,
+    int numberOfDepartures,
+    ArrivalDeparture arrivalDeparture,
+    boolean includeCancelledTrips
+  ) {
+    OTPRequestTimeoutException.checkForTimeout();
+    return StopTimesHelper.stopTimesForStops(
+      this,
+      stops,
+      startTime,
+      timeRange,
+      numberOfDepartures,
+      arrivalDeparture,
+      includeCancelledTrips
+    );
+  }
+
   /**
    * Get a list of all trips that pass through a stop during a single ServiceDate. Useful when
    * creating complete stop timetables for a single day.
@@ -5,7 +5,7 @@ import java.util.HashMap;
 import java.util.Map;
 import org.locationtech.jts.geom.Envelope;
 import org.opentripplanner.framework.collection.CollectionsView;
-import org.opentripplanner.framework.geometry.HashGridSpatialIndex;
+import org.opentripplanner.framework.geometry.PackedHilbertRTree;
 import org.opentripplanner.transit.model.site.AreaStop;
 import org.opentripplanner.transit.model.site.GroupStop;
 import org.opentripplanner.transit.model.site.MultiModalStation;
@@ -20,9 +20,9 @@ import org.opentripplanner.transit.model.site.StopLocation;
  */
 class StopModelIndex {
 
-  private final HashGridSpatialIndex<RegularStop> regularStopSpatialIndex = new HashGridSpatialIndex<>();
+  private final PackedHilbertRTree<RegularStop> regularStopSpatialIndex;
   private final Map<Station, MultiModalStation> multiModalStationForStations = new HashMap<>();
-  private final HashGridSpatialIndex<AreaStop> locationIndex = new HashGridSpatialIndex<>();
+  private final PackedHilbertRTree<AreaStop> locationIndex;
   private final StopLocation[] stopsByIndex;
 
   /**
@@ -36,12 +36,14 @@ class StopModelIndex {
     int indexSize
   ) {
     stopsByIndex = new StopLocation[indexSize];
+    var regularStopSpatialIndexBuilder = PackedHilbertRTree.<RegularStop>of();
+    var locationIndexBuilder = PackedHilbertRTree.<AreaStop>of();
 
     var allStops = new CollectionsView<StopLocation>(stops, flexStops, groupStops);
     for (StopLocation it : allStops) {
       if (it instanceof RegularStop regularStop) {
         var envelope = new Envelope(it.getCoordinate().asJtsCoordinate());
-        regularStopSpatialIndex.insert(envelope, regularStop);
+        regularStopSpatialIndexBuilder.add(envelope, regularStop);
       }
       stopsByIndex[it.getIndex()] = it;
     }
@@ -52,12 +54,12 @@ class StopModelIndex {
       }
     }
     for (AreaStop it : flexStops) {
-      locationIndex.insert(it.getGeometry().getEnvelopeInternal(), it);
+      locationIndexBuilder.add(it.getGeometry().getEnvelopeInternal(), it);
     }
 
-    // Trim the sizes of the indices
-    regularStopSpatialIndex.compact();
-    locationIndex.compact();
+    // The stops are not changed after the index is created, so the spatial indexes are static
+    regularStopSpatialIndex = regularStopSpatialIndexBuilder.build();
+    locationIndex = locationIndexBuilder.build();
   }
 
   /**
@@ -171,6 +171,16 @@ public class TransitModel implements Serializable {
     return realtimeTransitLayer != null;
   }
 
+  /**
+   * Remove all cached access/egress street searches. This must be called by real-time updaters
+   * which modify the street graph. The cache is shared by the scheduled and real-time layers.
+   */
+  public void invalidateAccessEgressCache() {
+    if (transitLayer != null) {
+      transitLayer.getAccessEgressCache().invalidate();
+    }
+  }
+
   public DefaultTransferService getTransferService() {
     return transferService;
   }
@@ -0,0 +1,181 @@
+package org.opentripplanner.updater.trip;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.opentripplanner.model.TimetableSnapshot;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.TransitLayerUpdater;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Owns the timetable snapshot buffer of a real-time updater and publishes committed snapshots to
+ * the routing threads. This is shared by the GTFS-RT and SIRI timetable snapshot sources.
+ * <p>
+ * The publication is single-writer/many-readers. Routing threads read the last committed snapshot
+ * from a volatile field, they never take a lock and never commit the buffer. The buffer is only
+ * modified by the graph writer thread, which holds the buffer lock while applying a batch of
+ * updates. Commits are throttled by {@code maxSnapshotFrequency}: updates arriving within the
+ * throttle period are batched, and if the buffer is still dirty when the period is over, a
+ * deferred commit is scheduled, so the last updates are published even if no new messages
+ * arrive. The lock is only contended by the writer thread and the deferred commit.
+ * <p>
+ * The time used to commit and the age of the published snapshot are recorded as micrometer
+ * metrics, tagged with the name of the source.
+ */
+public final class TimetableSnapshotManager {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TimetableSnapshotManager.class);
+
+  private static final String METRICS_PREFIX = "timetable_snapshot";
+
+  /**
+   * Commits deferred by the snapshot frequency throttle are run in this thread. It is shared by
+   * all snapshot managers, the commits are short and rare.
+   */
+  private static final ScheduledExecutorService DEFERRED_COMMIT_EXECUTOR = Executors.newSingleThreadScheduledExecutor(
+    new ThreadFactoryBuilder().setNameFormat("timetable-snapshot-commit").setDaemon(true).build()
+  );
+
+  /**
+   * The working copy of the timetable snapshot. Should not be visible to routing threads. Should
+   * only be modified by a thread that holds the {@link #bufferLock}.
+   */
+  private final TimetableSnapshot buffer = new TimetableSnapshot();
+
+  /**
+   * Lock to indicate that buffer is in use. Routing threads never take this lock.
+   */
+  private final ReentrantLock bufferLock = new ReentrantLock();
+
+  private final TransitLayerUpdater transitLayerUpdater;
+
+  /**
+   * If the buffer is committed less than this number of milliseconds after the previous commit,
+   * the commit is deferred. Throttles the potentially resource-consuming task of updating the
+   * transit layer with the new Timetables.
+   */
+  private final long maxSnapshotFrequency;
+
+  private final Timer commitTimer;
+
+  /**
+   * The last committed snapshot that was handed off to a routing thread. This snapshot may be given
+   * to more than one routing thread if the maximum snapshot frequency is exceeded.
+   */
+  private volatile TimetableSnapshot snapshot = null;
+
+  /** Epoch time in milliseconds at which the last snapshot was committed. */
+  private volatile long lastSnapshotTime = -1;
+
+  /** Guarded by the {@link #bufferLock}. */
+  private boolean deferredCommitScheduled = false;
+
+  public TimetableSnapshotManager(
+    String name,
+    TransitLayerUpdater transitLayerUpdater,
+    Duration maxSnapshotFrequency
+  ) {
+    this.transitLayerUpdater = transitLayerUpdater;
+    this.maxSnapshotFrequency = maxSnapshotFrequency.toMillis();
+    this.commitTimer =
+      Timer
+        .builder(METRICS_PREFIX + ".commit")
+        .description("Time used to commit the real-time buffer into a new snapshot")
+        .tag("source", name)
+        .register(Metrics.globalRegistry);
+    Gauge
+      .builder(METRICS_PREFIX + ".age", this, TimetableSnapshotManager::snapshotAgeSeconds)
+      .description("Seconds since the published real-time snapshot was committed")
+      .tag("source", name)
+      .baseUnit("seconds")
+      .register(Metrics.globalRegistry);
+  }
+
+  /**
+   * @return the last committed snapshot. This snapshot and the timetable objects it references are
+   * guaranteed to never change, so the requesting thread is provided a consistent view of all
+   * TripTimes. This never blocks.
+   */
+  public TimetableSnapshot getTimetableSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Return the buffer. The buffer may only be accessed while holding the lock, see
+   * {@link #lockBuffer()}.
+   */
+  public TimetableSnapshot getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * Acquire the buffer lock before applying a batch of updates. This should only be called by
+   * the graph writer thread.
+   */
+  public void lockBuffer() {
+    bufferLock.lock();
+  }
+
+  public void unlockBuffer() {
+    bufferLock.unlock();
+  }
+
+  /**
+   * Commit the buffer and publish a new snapshot, if the buffer is dirty and the last commit is
+   * older than the max snapshot frequency. If the commit is throttled, a deferred commit is
+   * scheduled. The caller must hold the buffer lock.
+   *
+   * @param force commit and publish a new snapshot, even if the buffer is not dirty or the commit
+   *              frequency is exceeded.
+   */
+  public void commitTimetableSnapshot(boolean force) {
+    long now = System.currentTimeMillis();
+    long timeToNextCommit = lastSnapshotTime + maxSnapshotFrequency - now;
+
+    if (force || timeToNextCommit < 0) {
+      if (force || buffer.isDirty()) {
+        LOG.debug("Committing {}", buffer);
+        snapshot = commitTimer.record(() -> buffer.commit(transitLayerUpdater, force));
+        // We only reset the time when the snapshot is updated. This will cause the first update
+        // to be committed after a silent period.
+        lastSnapshotTime = System.currentTimeMillis();
+      } else {
+        LOG.debug("Buffer was unchanged, keeping old snapshot.");
+      }
+    } else {
+      LOG.debug("Snapshot frequency exceeded. Reusing snapshot {}", snapshot);
+      if (!deferredCommitScheduled) {
+        deferredCommitScheduled = true;
+        DEFERRED_COMMIT_EXECUTOR.schedule(
+          this::deferredCommit,
+          timeToNextCommit + 1,
+          TimeUnit.MILLISECONDS
+        );
+      }
+    }
+  }
+
+  private void deferredCommit() {
+    bufferLock.lock();
+    try {
+      deferredCommitScheduled = false;
+      commitTimetableSnapshot(false);
+    } catch (Exception e) {
+      LOG.error("Deferred commit of the real-time buffer failed.", e);
+    } finally {
+      bufferLock.unlock();
+    }
+  }
+
+  private double snapshotAgeSeconds() {
+    long time = lastSnapshotTime;
+    return time < 0 ? 0.0 : (System.currentTimeMillis() - time) / 1000.0;
+  }
+}
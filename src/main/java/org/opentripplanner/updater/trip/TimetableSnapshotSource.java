@@ -21,7 +21,6 @@ import com.google.transit.realtime.GtfsRealtime.TripUpdate;
 import com.google.transit.realtime.GtfsRealtime.TripUpdate.StopTimeUpdate;
 import de.mfdz.MfdzRealtimeExtensions;
 import java.text.ParseException;
-import java.time.Duration;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
@@ -30,7 +29,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import org.opentripplanner.framework.i18n.I18NString;
@@ -42,7 +40,6 @@ import org.opentripplanner.model.StopTime;
 import org.opentripplanner.model.Timetable;
 import org.opentripplanner.model.TimetableSnapshot;
 import org.opentripplanner.model.TimetableSnapshotProvider;
-import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.TransitLayerUpdater;
 import org.opentripplanner.transit.model.basic.TransitMode;
 import org.opentripplanner.transit.model.framework.DataValidationException;
 import org.opentripplanner.transit.model.framework.Deduplicator;
@@ -86,16 +83,17 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
   private static final long MAX_ARRIVAL_DEPARTURE_TIME = 48 * 60 * 60;
 
   /**
-   * The working copy of the timetable snapshot. Should not be visible to routing threads. Should
-   * only be modified by a thread that holds a lock on {@link #bufferLock}. All public methods that
-   * might modify this buffer will correctly acquire the lock.
+   * Owns the working copy of the timetable snapshot, and publishes the committed snapshots to the
+   * routing threads. All public methods that might modify the buffer will correctly acquire the
+   * buffer lock.
    */
-  private final TimetableSnapshot buffer = new TimetableSnapshot();
+  private final TimetableSnapshotManager snapshotManager;
 
   /**
-   * Lock to indicate that buffer is in use
+   * The working copy of the timetable snapshot, owned by the {@link #snapshotManager}. Should not
+   * be visible to routing threads. Should only be modified by a thread that holds the buffer lock.
    */
-  private final ReentrantLock bufferLock = new ReentrantLock(true);
+  private final TimetableSnapshot buffer;
 
   /**
    * A synchronized cache of trip patterns that are added to the graph due to GTFS-realtime
@@ -106,29 +104,12 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
 
   private final ZoneId timeZone;
   private final TransitEditorService transitService;
-  private final TransitLayerUpdater transitLayerUpdater;
-
-  /**
-   * If a timetable snapshot is requested less than this number of milliseconds after the previous
-   * snapshot, just return the same one. Throttles the potentially resource-consuming task of
-   * duplicating a TripPattern → Timetable map and indexing the new Timetables.
-   */
-  private final Duration maxSnapshotFrequency;
-
-  /**
-   * The last committed snapshot that was handed off to a routing thread. This snapshot may be given
-   * to more than one routing thread if the maximum snapshot frequency is exceeded.
-   */
-  private volatile TimetableSnapshot snapshot = null;
 
   /** Should expired real-time data be purged from the graph. */
   private final boolean purgeExpiredData;
 
   protected LocalDate lastPurgeDate = null;
 
-  /** Epoch time in milliseconds at which the last snapshot was generated. */
-  protected long lastSnapshotTime = -1;
-
   private final Deduplicator deduplicator;
 
   private final Map<FeedScopedId, Integer> serviceCodes;
@@ -157,10 +138,15 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
   ) {
     this.timeZone = transitModel.getTimeZone();
     this.transitService = new DefaultTransitService(transitModel);
-    this.transitLayerUpdater = transitModel.getTransitLayerUpdater();
+    this.snapshotManager =
+      new TimetableSnapshotManager(
+        "gtfs",
+        transitModel.getTransitLayerUpdater(),
+        parameters.maxSnapshotFrequency()
+      );
+    this.buffer = snapshotManager.getBuffer();
     this.deduplicator = transitModel.getDeduplicator();
     this.serviceCodes = transitModel.getServiceCodes();
-    this.maxSnapshotFrequency = parameters.maxSnapshotFrequency();
     this.purgeExpiredData = parameters.purgeExpiredData();
     this.localDateNow = localDateNow;
 
@@ -172,26 +158,11 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
    * @return an up-to-date snapshot mapping TripPatterns to Timetables. This snapshot and the
    * timetable objects it references are guaranteed to never change, so the requesting thread is
    * provided a consistent view of all TripTimes. The routing thread need only release its reference
-   * to the snapshot to release resources.
+   * to the snapshot to release resources. This never blocks, the snapshot is committed by the
+   * thread applying the updates.
    */
   public TimetableSnapshot getTimetableSnapshot() {
-    TimetableSnapshot snapshotToReturn;
-
-    // Try to get a lock on the buffer
-    if (bufferLock.tryLock()) {
-      // Make a new snapshot if necessary
-      try {
-        snapshotToReturn = getTimetableSnapshot(false);
-      } finally {
-        bufferLock.unlock();
-      }
-    } else {
-      // No lock could be obtained because there is either a snapshot commit busy or updates
-      // are applied at this moment, just return the current snapshot
-      snapshotToReturn = snapshot;
-    }
-
-    return snapshotToReturn;
+    return snapshotManager.getTimetableSnapshot();
   }
 
   /**
@@ -221,7 +192,7 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
     }
 
     // Acquire lock on buffer
-    bufferLock.lock();
+    snapshotManager.lockBuffer();
 
     Map<TripDescriptor.ScheduleRelationship, Integer> failuresByRelationship = new HashMap<>();
     List<Result<UpdateSuccess, UpdateError>> results = new ArrayList<>();
@@ -327,16 +298,15 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
 
       // Make a snapshot after each message in anticipation of incoming requests
       // Purge data if necessary (and force new snapshot if anything was purged)
-      // Make sure that the public (locking) getTimetableSnapshot function is not called.
       if (purgeExpiredData) {
         final boolean modified = purgeExpiredData();
-        getTimetableSnapshot(modified);
+        snapshotManager.commitTimetableSnapshot(modified);
       } else {
-        getTimetableSnapshot(false);
+        snapshotManager.commitTimetableSnapshot(false);
       }
     } finally {
       // Always release lock
-      bufferLock.unlock();
+      snapshotManager.unlockBuffer();
     }
 
     var updateResult = UpdateResult.ofResults(results);
@@ -367,22 +337,6 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
       });
   }
 
-  private TimetableSnapshot getTimetableSnapshot(final boolean force) {
-    final long now = System.currentTimeMillis();
-    if (force || now - lastSnapshotTime > maxSnapshotFrequency.toMillis()) {
-      if (force || buffer.isDirty()) {
-        LOG.debug("Committing {}", buffer);
-        snapshot = buffer.commit(transitLayerUpdater, force);
-      } else {
-        LOG.debug("Buffer was unchanged, keeping old snapshot.");
-      }
-      lastSnapshotTime = System.currentTimeMillis();
-    } else {
-      LOG.debug("Snapshot frequency exceeded. Reusing snapshot {}", snapshot);
-    }
-    return snapshot;
-  }
-
   /**
    * Determine how the trip update should be handled.
    *
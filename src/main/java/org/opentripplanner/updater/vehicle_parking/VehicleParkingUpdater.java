@@ -156,6 +156,10 @@ public class VehicleParkingUpdater extends PollingGraphUpdater {
 
       vehicleParkingService.updateVehicleParking(toAdd, toRemove);
 
+      if (!toLink.isEmpty() || !toRemove.isEmpty()) {
+        transitModel.invalidateAccessEgressCache();
+      }
+
       oldVehicleParkings.removeAll(toRemove);
       oldVehicleParkings.addAll(toAdd);
     }
@@ -160,6 +160,7 @@ public class VehicleRentalUpdater extends PollingGraphUpdater {
       // Apply stations to graph
       Set<FeedScopedId> stationSet = new HashSet<>();
       var vertexFactory = new VertexFactory(graph);
+      boolean linksModified = false;
 
       /* add any new stations and update vehicle counts for existing stations */
       for (VehicleRentalPlace station : stations) {
@@ -211,6 +212,7 @@ public class VehicleRentalUpdater extends PollingGraphUpdater {
           }
           verticesByStation.put(station.getId(), vehicleRentalVertex);
           tempEdgesByStation.put(station.getId(), tempEdges);
+          linksModified = true;
         } else {
           vehicleRentalVertex.setStation(station);
         }
@@ -231,6 +233,10 @@ public class VehicleRentalUpdater extends PollingGraphUpdater {
         tempEdgesByStation.remove(station);
       }
 
+      if (linksModified || !toRemove.isEmpty()) {
+        transitModel.invalidateAccessEgressCache();
+      }
+
       // this check relies on the generated equals for the record which also recursively checks that
       // the JTS geometries are equal
       if (!geofencingZones.isEmpty() && !geofencingZones.equals(latestAppliedGeofencingZones)) {
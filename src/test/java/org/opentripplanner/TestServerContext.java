@@ -7,6 +7,7 @@ import java.util.List;
 import org.opentripplanner.ext.emissions.DefaultEmissionsService;
 import org.opentripplanner.ext.emissions.EmissionsDataModel;
 import org.opentripplanner.ext.emissions.EmissionsService;
+import org.opentripplanner.inspector.vector.VectorTileCache;
 import org.opentripplanner.raptor.configure.RaptorConfig;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.service.realtimevehicles.RealtimeVehicleService;
@@ -44,6 +45,7 @@ public class TestServerContext {
       new DefaultTransitService(transitModel),
       Metrics.globalRegistry,
       routerConfig.vectorTileConfig(),
+      new VectorTileCache(routerConfig.vectorTileConfig().cacheMaxMegabytes()),
       createWorldEnvelopeService(),
       createRealtimeVehicleService(transitService),
       createVehicleRentalService(),
@@ -28,6 +28,7 @@ import org.opentripplanner.apis.transmodel.TransmodelRequestContext;
 import org.opentripplanner.ext.emissions.DefaultEmissionsService;
 import org.opentripplanner.ext.emissions.EmissionsDataModel;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
+import org.opentripplanner.inspector.vector.VectorTileCache;
 import org.opentripplanner.model.calendar.CalendarServiceData;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.model.plan.Leg;
@@ -125,6 +126,7 @@ public class TripRequestMapperTest implements PlanTestConstants {
           transitService,
           Metrics.globalRegistry,
           RouterConfig.DEFAULT.vectorTileConfig(),
+          new VectorTileCache(RouterConfig.DEFAULT.vectorTileConfig().cacheMaxMegabytes()),
           new DefaultWorldEnvelopeService(new DefaultWorldEnvelopeRepository()),
           new DefaultRealtimeVehicleService(transitService),
           new DefaultVehicleRentalService(),
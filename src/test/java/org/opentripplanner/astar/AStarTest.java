@@ -2,6 +2,9 @@ package org.opentripplanner.astar;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.opentripplanner.street.model.vertex.VertexLabel.string;
 
@@ -13,7 +16,9 @@ import org.junit.jupiter.api.Test;
 import org.locationtech.jts.geom.Coordinate;
 import org.opentripplanner.astar.model.GraphPath;
 import org.opentripplanner.astar.model.ShortestPathTree;
+import org.opentripplanner.astar.model.VertexStateTable;
 import org.opentripplanner.astar.spi.SearchTerminationStrategy;
+import org.opentripplanner.astar.spi.TraverseVisitor;
 import org.opentripplanner.framework.i18n.NonLocalizedString;
 import org.opentripplanner.routing.algorithm.MultiTargetTerminationStrategy;
 import org.opentripplanner.routing.api.request.RouteRequest;
@@ -283,6 +288,89 @@ public class AStarTest {
     }
   }
 
+  @Test
+  public void testBidirectional() {
+    var request = new RouteRequest();
+
+    request.withPreferences(pref -> pref.withWalk(w -> w.withSpeed(1.0)));
+    Vertex from = graph.getVertex("56th_24th");
+    Vertex to = graph.getVertex("shilshole_20th");
+
+    var expected = StreetSearchBuilder
+      .of()
+      .setHeuristic(new EuclideanRemainingWeightHeuristic())
+      .setRequest(request)
+      .setFrom(from)
+      .setTo(to)
+      .getPathsToTarget();
+    var paths = StreetSearchBuilder
+      .of()
+      .setHeuristic(new EuclideanRemainingWeightHeuristic())
+      .setRequest(request)
+      .setFrom(from)
+      .setTo(to)
+      .setBidirectional(true)
+      .getPathsToTarget();
+
+    assertEquals(1, paths.size());
+    assertEquals(expected.get(0).getWeight(), paths.get(0).getWeight(), 1e-6);
+    assertEquals(expected.get(0).getDuration(), paths.get(0).getDuration());
+    assertEquals(to, paths.get(0).states.getLast().getVertex());
+  }
+
+  @Test
+  public void testStorageIsReleasedWhenSearchFails() {
+    VertexStateTable<Vertex, State> table = VertexStateTable.acquire();
+    table.release();
+
+    var builder = StreetSearchBuilder
+      .of()
+      .setRequest(new RouteRequest())
+      .setFrom(graph.getVertex("56th_24th"))
+      .setTraverseVisitor(
+        new TraverseVisitor<>() {
+          @Override
+          public void visitEdge(Edge edge) {}
+
+          @Override
+          public void visitVertex(State state) {
+            throw new IllegalStateException("Search failed");
+          }
+
+          @Override
+          public void visitEnqueue() {}
+        }
+      )
+      .setPooledStorage(true);
+
+    assertThrows(IllegalStateException.class, builder::getShortestPathTree);
+
+    // The table used by the failed search is returned to the pool
+    VertexStateTable<Vertex, State> next = VertexStateTable.acquire();
+    assertSame(table, next);
+    assertEquals(0, next.size());
+    next.release();
+  }
+
+  @Test
+  public void testReleaseTwiceIsIgnored() {
+    var spt = StreetSearchBuilder
+      .of()
+      .setRequest(new RouteRequest())
+      .setFrom(graph.getVertex("56th_24th"))
+      .setPooledStorage(true)
+      .getShortestPathTree();
+    spt.release();
+    spt.release();
+
+    // The storage is only returned to the pool once, so two searches can not share it
+    VertexStateTable<Vertex, State> first = VertexStateTable.acquire();
+    VertexStateTable<Vertex, State> second = VertexStateTable.acquire();
+    assertNotSame(first, second);
+    first.release();
+    second.release();
+  }
+
   /****
    * Private Methods
    ****/
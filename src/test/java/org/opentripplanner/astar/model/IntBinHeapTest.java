@@ -0,0 +1,48 @@
+package org.opentripplanner.astar.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class IntBinHeapTest {
+
+  @Test
+  void extractInPriorityOrder() {
+    var random = new Random(7);
+    var input = new ArrayList<Integer>();
+    for (int i = 0; i < 5_000; i++) {
+      input.add(random.nextInt(100_000));
+    }
+    // Start with a small capacity to test resize
+    var subject = new IntBinHeap(5);
+    for (int i : input) {
+      subject.insert(i, i * 0.5);
+    }
+    assertEquals(input.size(), subject.size());
+    assertEquals(Collections.min(input) * 0.5, subject.peekMinKey());
+
+    List<Integer> result = new ArrayList<>();
+    while (!subject.isEmpty()) {
+      result.add(subject.extractMin());
+    }
+    Collections.sort(input);
+    assertEquals(input, result);
+  }
+
+  @Test
+  void reset() {
+    var subject = new IntBinHeap(10);
+    subject.insert(1, 1.0);
+    subject.insert(2, 2.0);
+    subject.reset();
+    assertTrue(subject.isEmpty());
+    assertThrows(IllegalStateException.class, subject::extractMin);
+    assertThrows(IllegalStateException.class, subject::peekMinKey);
+  }
+}
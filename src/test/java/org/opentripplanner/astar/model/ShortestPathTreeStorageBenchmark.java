@@ -0,0 +1,127 @@
+package org.opentripplanner.astar.model;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compare the allocation rate and latency of the {@link ShortestPathTree} state storage: the
+ * {@link VertexStateTable} reused from the pool against the {@code IdentityHashMap<Vertex,
+ * List<State>>} used before. The workload is the sequence of add/visit operations of a minimum
+ * weight search: each vertex is reached a few times, and a better state replaces the existing
+ * one.
+ * <p>
+ * This is not a unit test, run the main method:
+ * <pre>
+ * ShortestPathTreeStorageBenchmark [vertices] [searches]
+ * </pre>
+ */
+public class ShortestPathTreeStorageBenchmark {
+
+  private static final int STATES_PER_VERTEX = 3;
+
+  private final Object[] vertices;
+  private final Double[] states;
+  private final int[] order;
+
+  private ShortestPathTreeStorageBenchmark(int nVertices) {
+    var random = new Random(42);
+    this.vertices = new Object[nVertices];
+    for (int i = 0; i < nVertices; i++) {
+      vertices[i] = new Object();
+    }
+    this.order = new int[nVertices * STATES_PER_VERTEX];
+    this.states = new Double[order.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = random.nextInt(nVertices);
+      states[i] = random.nextDouble() * 3600.0;
+    }
+  }
+
+  public static void main(String[] args) {
+    int nVertices = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    int nSearches = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+    var benchmark = new ShortestPathTreeStorageBenchmark(nVertices);
+
+    // Warm up
+    benchmark.run("IdentityHashMap", nSearches, false, benchmark::searchWithMap);
+    benchmark.run("VertexStateTable", nSearches, false, benchmark::searchWithTable);
+
+    benchmark.run("IdentityHashMap", nSearches, true, benchmark::searchWithMap);
+    benchmark.run("VertexStateTable", nSearches, true, benchmark::searchWithTable);
+  }
+
+  private void run(String name, int nSearches, boolean report, Search search) {
+    var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().threadId();
+
+    long bytesBefore = threadBean.getThreadAllocatedBytes(threadId);
+    long start = System.nanoTime();
+    long checksum = 0;
+    for (int i = 0; i < nSearches; i++) {
+      checksum += search.run();
+    }
+    long time = System.nanoTime() - start;
+    long bytes = threadBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+    if (report) {
+      System.out.printf(
+        "%-18s %8.3f ms/search %12d bytes/search (checksum %d)%n",
+        name,
+        time / 1_000_000.0 / nSearches,
+        bytes / nSearches,
+        checksum
+      );
+    }
+  }
+
+  private int searchWithMap() {
+    Map<Object, List<Double>> stateSets = new IdentityHashMap<>(10_000);
+    for (int i = 0; i < order.length; i++) {
+      Object vertex = vertices[order[i]];
+      Double state = states[i];
+      List<Double> stateList = stateSets.get(vertex);
+      if (stateList == null) {
+        stateList = new ArrayList<>();
+        stateSets.put(vertex, stateList);
+        stateList.add(state);
+      } else if (state < stateList.get(0)) {
+        stateList.remove(0);
+        stateList.add(state);
+      }
+      // visit
+      stateSets.get(vertex).get(0);
+    }
+    return stateSets.size();
+  }
+
+  private int searchWithTable() {
+    VertexStateTable<Object, Double> table = VertexStateTable.acquire();
+    try {
+      for (int i = 0; i < order.length; i++) {
+        Object vertex = vertices[order[i]];
+        Double state = states[i];
+        int slot = table.find(vertex);
+        if (slot == VertexStateTable.NOT_FOUND) {
+          slot = table.insert(vertex, state);
+        } else if (state < table.state(slot, 0)) {
+          table.replaceState(slot, 0, state);
+        }
+        // visit
+        table.state(table.find(vertex), 0);
+      }
+      return table.size();
+    } finally {
+      table.release();
+    }
+  }
+
+  @FunctionalInterface
+  private interface Search {
+    int run();
+  }
+}
@@ -0,0 +1,136 @@
+package org.opentripplanner.astar.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class VertexStateTableTest {
+
+  @Test
+  void insertAndFind() {
+    var subject = new VertexStateTable<String, String>(16);
+    var vertices = new ArrayList<String>();
+
+    // Force the table to grow a few times
+    for (int i = 0; i < 100; i++) {
+      var v = new String("V" + i);
+      vertices.add(v);
+      int slot = subject.insert(v, "S" + i);
+      assertEquals(slot, subject.find(v));
+    }
+
+    assertEquals(100, subject.size());
+    for (int i = 0; i < 100; i++) {
+      var v = vertices.get(i);
+      int slot = subject.find(v);
+      assertEquals(1, subject.stateCount(slot));
+      assertEquals("S" + i, subject.state(slot, 0));
+      assertSame(v, subject.vertexAt(i));
+      assertEquals(slot, subject.slotAt(i));
+    }
+    // Keys are compared by identity
+    assertEquals(VertexStateTable.NOT_FOUND, subject.find(new String("V1")));
+  }
+
+  @Test
+  void multipleStatesPerVertex() {
+    var subject = new VertexStateTable<String, String>();
+    int slot = subject.insert("A", "s1");
+
+    subject.addState(slot, "s2");
+    subject.addState(slot, "s3");
+    subject.addState(slot, "s4");
+    subject.addState(slot, "s5");
+    assertEquals(List.of("s1", "s2", "s3", "s4", "s5"), states(subject, slot));
+
+    subject.removeState(slot, 1);
+    subject.replaceState(slot, 0, "s0");
+    assertEquals(List.of("s0", "s3", "s4", "s5"), states(subject, slot));
+
+    subject.removeState(slot, 3);
+    subject.removeState(slot, 0);
+    subject.removeState(slot, 0);
+    assertEquals(List.of("s4"), states(subject, slot));
+    subject.replaceState(slot, 0, "s6");
+    assertEquals(List.of("s6"), states(subject, slot));
+
+    assertThrows(IllegalStateException.class, () -> subject.removeState(slot, 0));
+  }
+
+  @Test
+  void reset() {
+    var subject = new VertexStateTable<String, String>();
+    subject.insert("A", "s1");
+    subject.insert("B", "s2");
+
+    subject.reset();
+
+    assertEquals(0, subject.size());
+    assertEquals(VertexStateTable.NOT_FOUND, subject.find("A"));
+    int slot = subject.insert("B", "s3");
+    assertEquals(List.of("s3"), states(subject, slot));
+  }
+
+  @Test
+  void acquireAndRelease() {
+    VertexStateTable<String, String> first = VertexStateTable.acquire();
+    first.insert("A", "s1");
+
+    // The table is in use, a nested search gets another one
+    VertexStateTable<String, String> nested = VertexStateTable.acquire();
+    assertNotSame(first, nested);
+    nested.release();
+
+    first.release();
+    VertexStateTable<String, String> second = VertexStateTable.acquire();
+    assertSame(first, second);
+    assertEquals(0, second.size());
+    second.release();
+  }
+
+  @Test
+  void largeTablesAreShrunkBeforeTheyArePooled() {
+    var table = new VertexStateTable<String, String>(1 << 20);
+    table.insert("A", "s1");
+    table.release();
+
+    VertexStateTable<String, String> next = VertexStateTable.acquire();
+    assertSame(table, next);
+    assertEquals(0, next.size());
+    assertTrue(next.capacity() < 1 << 20);
+    next.release();
+  }
+
+  @Test
+  void tablesAreReusedByOtherThreads() throws InterruptedException {
+    VertexStateTable<String, String> table = VertexStateTable.acquire();
+    table.insert("A", "s1");
+    table.release();
+
+    var other = new ArrayList<VertexStateTable<String, String>>();
+    Thread
+      .ofVirtual()
+      .start(() -> {
+        VertexStateTable<String, String> t = VertexStateTable.acquire();
+        other.add(t);
+        t.release();
+      })
+      .join();
+
+    assertSame(table, other.get(0));
+  }
+
+  private static List<String> states(VertexStateTable<String, String> table, int slot) {
+    var list = new ArrayList<String>();
+    for (int i = 0; i < table.stateCount(slot); i++) {
+      list.add(table.state(slot, i));
+    }
+    return list;
+  }
+}
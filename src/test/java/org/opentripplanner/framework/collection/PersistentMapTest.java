@@ -0,0 +1,98 @@
+package org.opentripplanner.framework.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PersistentMapTest {
+
+  @Test
+  void putAndGet() {
+    PersistentMap<String, Integer> empty = PersistentMap.empty();
+    var subject = empty.put("A", 1).put("B", 2);
+
+    assertEquals(1, subject.get("A"));
+    assertEquals(2, subject.get("B"));
+    assertNull(subject.get("C"));
+    assertEquals(2, subject.size());
+
+    // The original map is not changed
+    assertTrue(empty.isEmpty());
+    assertNull(empty.get("A"));
+  }
+
+  @Test
+  void replaceValue() {
+    var subject = PersistentMap.<String, Integer>empty().put("A", 1);
+    var replaced = subject.put("A", 2);
+
+    assertEquals(1, subject.get("A"));
+    assertEquals(2, replaced.get("A"));
+    assertEquals(1, replaced.size());
+    assertSame(replaced, replaced.put("A", 2));
+  }
+
+  @Test
+  void remove() {
+    var subject = PersistentMap.<String, Integer>empty().put("A", 1).put("B", 2);
+    var removed = subject.remove("A");
+
+    assertEquals(1, subject.get("A"));
+    assertNull(removed.get("A"));
+    assertEquals(2, removed.get("B"));
+    assertEquals(1, removed.size());
+    assertSame(removed, removed.remove("A"));
+    assertTrue(removed.remove("B").isEmpty());
+  }
+
+  @Test
+  void removeIf() {
+    var subject = PersistentMap.<String, Integer>empty().put("A", 1).put("B", 2).put("C", 3);
+
+    assertEquals(Map.of("B", 2), subject.removeIf((k, v) -> v != 2).asMap());
+    assertSame(subject, subject.removeIf((k, v) -> false));
+  }
+
+  @Test
+  void keysWithSameHashCode() {
+    // "Aa" and "BB" have the same hash code
+    var subject = PersistentMap.<String, Integer>empty().put("Aa", 1).put("BB", 2).put("C", 3);
+
+    assertEquals(1, subject.get("Aa"));
+    assertEquals(2, subject.get("BB"));
+    assertEquals(3, subject.get("C"));
+    assertEquals(Map.of("BB", 2, "C", 3), subject.remove("Aa").asMap());
+    assertFalse(subject.remove("Aa").remove("BB").containsKey("BB"));
+  }
+
+  @Test
+  void sameContentAsHashMap() {
+    var random = new Random(7);
+    var expected = new HashMap<Integer, Integer>();
+    var subject = PersistentMap.<Integer, Integer>empty();
+
+    for (int i = 0; i < 10_000; ++i) {
+      int key = random.nextInt(2_000);
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        subject = subject.remove(key);
+      } else {
+        expected.put(key, i);
+        subject = subject.put(key, i);
+      }
+    }
+    assertEquals(expected.size(), subject.size());
+    assertEquals(expected, subject.asMap());
+    assertEquals(
+      expected.values().stream().sorted().toList(),
+      subject.values().stream().sorted().toList()
+    );
+  }
+}
@@ -0,0 +1,102 @@
+package org.opentripplanner.framework.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.framework.application.OTPRequestTimeoutException;
+
+class OtpRequestExecutorTest {
+
+  @Test
+  void runAllTasks() {
+    var threads = ConcurrentHashMap.<Thread>newKeySet();
+    var names = ConcurrentHashMap.<String>newKeySet();
+    Runnable task = () -> threads.add(Thread.currentThread());
+
+    OtpRequestExecutor.runInParallel(task, () -> names.add("B"), task);
+
+    assertEquals(Set.of("B"), names);
+    // The last task is run on the calling thread
+    assertTrue(threads.contains(Thread.currentThread()));
+  }
+
+  @Test
+  void rethrowTheExceptionThrownByATask() {
+    var error = new IllegalStateException("Failed");
+
+    var ex = assertThrows(
+      IllegalStateException.class,
+      () ->
+        OtpRequestExecutor.runInParallel(
+          () -> {
+            throw error;
+          },
+          () -> {}
+        )
+    );
+    assertSame(error, ex);
+  }
+
+  @Test
+  void interruptTheTasksWhenTheRequestTimesOut() throws InterruptedException {
+    var interrupted = new CountDownLatch(1);
+
+    assertThrows(
+      OTPRequestTimeoutException.class,
+      () ->
+        OtpRequestExecutor.runInParallel(
+          () -> {
+            try {
+              Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+              interrupted.countDown();
+            }
+          },
+          // Simulate the timeout, the request thread is interrupted
+          () -> Thread.currentThread().interrupt()
+        )
+    );
+    assertTrue(Thread.interrupted());
+    // The interrupted task has completed before the timeout is thrown
+    assertEquals(0, interrupted.getCount());
+  }
+
+  @Test
+  void waitForTheOtherTasksWhenATaskFails() {
+    var started = new CountDownLatch(1);
+    var completed = new AtomicBoolean(false);
+
+    assertThrows(
+      IllegalStateException.class,
+      () ->
+        OtpRequestExecutor.runInParallel(
+          () -> {
+            started.countDown();
+            try {
+              Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+              // Ignore, simulate a task which does some cleanup after it is interrupted
+            }
+            completed.set(true);
+          },
+          () -> {
+            try {
+              assertTrue(started.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+              throw new RuntimeException(e);
+            }
+            throw new IllegalStateException("Failed");
+          }
+        )
+    );
+    assertTrue(completed.get());
+  }
+}
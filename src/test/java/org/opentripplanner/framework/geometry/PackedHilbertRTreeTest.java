@@ -0,0 +1,108 @@
+package org.opentripplanner.framework.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.STRtree;
+
+class PackedHilbertRTreeTest {
+
+  private static final double X0 = -0.05;
+  private static final double Y0 = 44.0;
+  private static final double DX = 0.1;
+  private static final double DY = 0.1;
+
+  private final Random rand = new Random(42);
+
+  /**
+   * Compare the result of many random queries with the JTS STRtree. The tree returns only the
+   * intersecting items, and no duplicates.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  void sameResultAsStrTree() {
+    var builder = PackedHilbertRTree.<Envelope>of();
+    var strTree = new STRtree();
+
+    for (int i = 0; i < 10_000; i++) {
+      // Mostly small envelopes, like street edges
+      var envelope = randomEnvelope(i % 10 == 0 ? 1.0 : 0.01);
+      builder.add(envelope, envelope);
+      strTree.insert(envelope, envelope);
+    }
+    var subject = builder.build();
+    assertEquals(10_000, subject.size());
+
+    for (int i = 0; i < 1000; i++) {
+      var searchEnv = randomEnvelope(i % 2 == 0 ? 0.02 : 0.5);
+      List<Envelope> result = subject.query(searchEnv);
+
+      assertEquals(result.size(), Set.copyOf(result).size());
+      assertTrue(result.stream().allMatch(searchEnv::intersects));
+      assertEquals(
+        ((List<Envelope>) strTree.query(searchEnv)).stream()
+          .filter(searchEnv::intersects)
+          .collect(Collectors.toSet()),
+        new HashSet<>(result)
+      );
+    }
+  }
+
+  @Test
+  void emptyAndSingleItemTrees() {
+    var envelope = new Envelope(10, 11, 59, 60);
+
+    assertTrue(PackedHilbertRTree.of().build().query(envelope).isEmpty());
+
+    var subject = PackedHilbertRTree.<String>of().add(envelope, "A").build();
+    assertEquals(List.of("A"), subject.query(new Envelope(10.5, 12, 59.5, 61)));
+    assertTrue(subject.query(new Envelope(12, 13, 59, 60)).isEmpty());
+  }
+
+  @Test
+  void pointsWithTheSameLocation() {
+    var builder = PackedHilbertRTree.<Integer>of();
+    for (int i = 0; i < 100; i++) {
+      builder.add(new Envelope(new Coordinate(10, 60)), i);
+    }
+    var subject = builder.build();
+
+    assertEquals(100, subject.query(new Envelope(9, 11, 59, 61)).size());
+    assertTrue(subject.query(new Envelope(11, 12, 59, 61)).isEmpty());
+  }
+
+  @Test
+  void hilbertCurveVisitsAllCellsOneStepAtATime() {
+    // The first 16 x 16 values of the curve fill the 16 x 16 cells in the corner
+    var cells = new int[256][];
+    for (int x = 0; x < 16; x++) {
+      for (int y = 0; y < 16; y++) {
+        int h = PackedHilbertRTree.hilbert(x, y);
+        assertTrue(h >= 0 && h < 256 && cells[h] == null);
+        cells[h] = new int[] { x, y };
+      }
+    }
+    for (int h = 1; h < 256; h++) {
+      int dx = Math.abs(cells[h][0] - cells[h - 1][0]);
+      int dy = Math.abs(cells[h][1] - cells[h - 1][1]);
+      assertEquals(1, dx + dy);
+    }
+  }
+
+  private Envelope randomEnvelope(double maxSize) {
+    var a = new Coordinate(rand.nextDouble() * DX + X0, rand.nextDouble() * DY + Y0);
+    var b = new Coordinate(
+      a.x + rand.nextDouble() * DX * maxSize,
+      a.y + rand.nextDouble() * DY * maxSize
+    );
+    return new Envelope(a, b);
+  }
+}
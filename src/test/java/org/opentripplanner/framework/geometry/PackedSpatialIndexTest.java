@@ -0,0 +1,83 @@
+package org.opentripplanner.framework.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+
+class PackedSpatialIndexTest {
+
+  private static final Envelope A = new Envelope(10.0, 10.1, 60.0, 60.1);
+  private static final Envelope B = new Envelope(10.2, 10.3, 60.0, 60.1);
+  private static final Envelope C = new Envelope(10.4, 10.5, 60.0, 60.1);
+  private static final Envelope ALL = new Envelope(9, 11, 59, 61);
+
+  private final PackedSpatialIndex<String> subject = new PackedSpatialIndex<>(
+    PackedHilbertRTree.<String>of().add(A, "A").add(B, "B").build()
+  );
+
+  @Test
+  void insertIntoOverlay() {
+    subject.insert(C, "C");
+
+    assertEquals(Set.of("A", "B", "C"), Set.copyOf(subject.query(ALL)));
+    assertEquals(List.of("C"), subject.query(new Envelope(new Coordinate(10.45, 60.05))));
+
+    subject.compact();
+
+    assertEquals(Set.of("A", "B", "C"), Set.copyOf(subject.query(ALL)));
+  }
+
+  @Test
+  void removeFromTreeAndOverlay() {
+    subject.insert(C, "C");
+
+    assertTrue(subject.remove(A, "A"));
+    assertTrue(subject.remove(C, "C"));
+    assertFalse(subject.remove(A, "A"));
+    assertFalse(subject.remove(C, "C"));
+    assertEquals(List.of("B"), subject.query(ALL));
+
+    subject.compact();
+
+    assertEquals(List.of("B"), subject.query(ALL));
+  }
+
+  @Test
+  void reinsertRemovedItem() {
+    subject.remove(A, "A");
+    subject.insert(C, "A");
+
+    assertEquals(Set.of("A", "B"), Set.copyOf(subject.query(ALL)));
+    assertTrue(subject.query(A).isEmpty());
+    assertEquals(List.of("A"), subject.query(C));
+  }
+
+  @Test
+  void noDuplicatesIfAnItemIsInsertedTwice() {
+    subject.insert(A, "A");
+
+    assertEquals(2, subject.query(ALL).size());
+
+    subject.compact();
+
+    assertEquals(2, subject.query(ALL).size());
+  }
+
+  @Test
+  void compactWhenTheOverlayIsBig() {
+    var index = new PackedSpatialIndex<Integer>();
+    for (int i = 0; i < 5000; i++) {
+      index.insert(new Envelope(new Coordinate(10 + i * 1e-5, 60)), i);
+    }
+    assertEquals(5000, index.query(ALL).size());
+    // The index is compacted each time the overlay grows bigger than 1024 items
+    assertTrue(index.toString().contains("items: 4100"), index.toString());
+    assertTrue(index.toString().contains("overlay: 900"), index.toString());
+  }
+}
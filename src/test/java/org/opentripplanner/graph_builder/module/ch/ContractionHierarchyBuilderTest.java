@@ -0,0 +1,187 @@
+package org.opentripplanner.graph_builder.module.ch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.street.model._data.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdge;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.ch.ContractionHierarchy;
+import org.opentripplanner.street.model.compact.CompactStreetGraph;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.search.TraverseMode;
+import org.opentripplanner.street.search.ch.ContractionHierarchySearch;
+import org.opentripplanner.street.search.compact.CompactStreetSearch;
+
+class ContractionHierarchyBuilderTest {
+
+  private static final double DELTA = 1e-3;
+  private static final int SIZE = 5;
+
+  private final StreetVertex[][] grid = new StreetVertex[SIZE][SIZE];
+  private CompactStreetGraph streets;
+
+  /*
+   * A 5 x 5 grid of streets with different lengths. Every third horizontal street is one way,
+   * and every fourth vertical street is only for pedestrians.
+   */
+  @BeforeEach
+  void setUp() {
+    var edges = new ArrayList<StreetEdge>();
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        grid[i][j] = intersectionVertex("V" + i + j, 59.9 + i * 0.001, 10.7 + j * 0.001);
+      }
+    }
+    int n = 0;
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        if (j + 1 < SIZE) {
+          double length = 100 + 37 * (n++ % 5);
+          var permission = StreetTraversalPermission.ALL;
+          edges.add(streetEdge(grid[i][j], grid[i][j + 1], length, permission));
+          if (n % 3 != 0) {
+            edges.add(streetEdge(grid[i][j + 1], grid[i][j], length, permission));
+          }
+        }
+        if (i + 1 < SIZE) {
+          double length = 120 + 23 * (n++ % 7);
+          var permission = n % 4 == 0
+            ? StreetTraversalPermission.PEDESTRIAN
+            : StreetTraversalPermission.ALL;
+          edges.add(streetEdge(grid[i][j], grid[i + 1][j], length, permission));
+          edges.add(streetEdge(grid[i + 1][j], grid[i][j], length, permission));
+        }
+      }
+    }
+    streets = CompactStreetGraph.of(edges);
+  }
+
+  @Test
+  void shortestPathsMatchDijkstra() {
+    ContractionHierarchy hierarchy = ContractionHierarchyBuilder.build(streets);
+    assertNotNull(hierarchy);
+
+    var dijkstra = new CompactStreetSearch(streets, TraverseMode.CAR, 0.0, false);
+    int n = hierarchy.numberOfVertices();
+    for (int from = 0; from < n; from++) {
+      dijkstra.searchAll(streets.vertexIndex(hierarchy.vertex(from)), Double.POSITIVE_INFINITY);
+      for (int to = 0; to < n; to++) {
+        int target = streets.vertexIndex(hierarchy.vertex(to));
+        var search = new ContractionHierarchySearch(hierarchy);
+        double duration = search.search(
+          new int[] { from },
+          new double[1],
+          new int[] { to },
+          new double[1]
+        );
+
+        if (!dijkstra.isReached(target)) {
+          assertEquals(Double.POSITIVE_INFINITY, duration);
+          continue;
+        }
+        assertEquals(dijkstra.duration(target), duration, DELTA);
+        assertPath(search.path(), hierarchy.vertex(from), hierarchy.vertex(to), duration);
+      }
+    }
+  }
+
+  @Test
+  void shortcutsAreAdded() {
+    ContractionHierarchy hierarchy = ContractionHierarchyBuilder.build(streets);
+    assertNotNull(hierarchy);
+
+    int shortcuts = 0;
+    for (int arc = 0; arc < hierarchy.numberOfArcs(); arc++) {
+      shortcuts += hierarchy.isShortcut(arc) ? 1 : 0;
+    }
+    assertTrue(shortcuts > 0);
+  }
+
+  @Test
+  void searchFromSeveralOrigins() {
+    ContractionHierarchy hierarchy = ContractionHierarchyBuilder.build(streets);
+    assertNotNull(hierarchy);
+
+    int near = hierarchy.vertexIndex(grid[3][3]);
+    int far = hierarchy.vertexIndex(grid[0][0]);
+    int destination = hierarchy.vertexIndex(grid[4][4]);
+    var search = new ContractionHierarchySearch(hierarchy);
+    search.search(
+      new int[] { far, near },
+      new double[] { 0.0, 1000.0 },
+      new int[] { destination },
+      new double[1]
+    );
+
+    // The near origin has a large extra duration, so the far origin is used
+    assertEquals(far, search.origin());
+    assertEquals(destination, search.destination());
+  }
+
+  @Test
+  void noHierarchyWithoutCarStreets() {
+    var walkOnly = CompactStreetGraph.of(
+      List.of(
+        streetEdge(grid[0][0], grid[0][1], 100, StreetTraversalPermission.PEDESTRIAN),
+        streetEdge(grid[0][1], grid[0][0], 100, StreetTraversalPermission.PEDESTRIAN)
+      )
+    );
+    assertNull(ContractionHierarchyBuilder.build(walkOnly));
+  }
+
+  @Test
+  void buildGraph() {
+    var graph = new Graph();
+    var a = intersectionVertex("A", 59.900, 10.700);
+    var b = intersectionVertex("B", 59.901, 10.701);
+    var c = intersectionVertex("C", 59.902, 10.702);
+    graph.addVertex(a);
+    graph.addVertex(b);
+    graph.addVertex(c);
+    streetEdge(a, b, 100, StreetTraversalPermission.ALL);
+    streetEdge(b, a, 100, StreetTraversalPermission.ALL);
+    streetEdge(b, c, 100, StreetTraversalPermission.PEDESTRIAN);
+
+    new ContractionHierarchyModule(graph).buildGraph();
+
+    var hierarchy = graph.getCarContractionHierarchy();
+    assertNotNull(hierarchy);
+    assertEquals(2, hierarchy.numberOfVertices());
+    assertNotEquals(ContractionHierarchy.NOT_FOUND, hierarchy.vertexIndex(a));
+    assertEquals(ContractionHierarchy.NOT_FOUND, hierarchy.vertexIndex(c));
+  }
+
+  /**
+   * The edges must be connected, allow cars, and the sum of the travel times must be the duration
+   * of the path.
+   */
+  private static void assertPath(List<StreetEdge> path, Object from, Object to, double duration) {
+    if (from == to) {
+      assertTrue(path.isEmpty());
+      return;
+    }
+    assertSame(from, path.getFirst().getFromVertex());
+    assertSame(to, path.getLast().getToVertex());
+    double sum = 0.0;
+    for (int i = 0; i < path.size(); i++) {
+      var edge = path.get(i);
+      assertTrue(edge.canTraverse(TraverseMode.CAR));
+      if (i > 0) {
+        assertSame(path.get(i - 1).getToVertex(), edge.getFromVertex());
+      }
+      sum += edge.getDistanceMeters() / edge.getCarSpeed();
+    }
+    assertEquals(duration, sum, DELTA);
+  }
+}
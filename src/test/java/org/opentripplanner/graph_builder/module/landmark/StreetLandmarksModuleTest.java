@@ -0,0 +1,130 @@
+package org.opentripplanner.graph_builder.module.landmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.street.model._data.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdge;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.compact.CompactStreetGraph;
+import org.opentripplanner.street.model.landmark.StreetLandmarks;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.search.TraverseMode;
+import org.opentripplanner.street.search.compact.CompactStreetSearch;
+
+class StreetLandmarksModuleTest {
+
+  private static final double DELTA = 1e-3;
+
+  private final StreetVertex a = intersectionVertex("A", 59.900, 10.700);
+  private final StreetVertex b = intersectionVertex("B", 59.901, 10.701);
+  private final StreetVertex c = intersectionVertex("C", 59.902, 10.702);
+  private final StreetVertex d = intersectionVertex("D", 59.903, 10.703);
+  private final StreetVertex e = intersectionVertex("E", 59.902, 10.704);
+
+  /*
+   * A -100m- B -100m- C -100m- D  (both directions)
+   *                   C -150m-> E -150m-> D  (one way)
+   */
+  private final CompactStreetGraph streets = CompactStreetGraph.of(
+    List.of(
+      streetEdge(a, b, 100, StreetTraversalPermission.ALL),
+      streetEdge(b, a, 100, StreetTraversalPermission.ALL),
+      streetEdge(b, c, 100, StreetTraversalPermission.ALL),
+      streetEdge(c, b, 100, StreetTraversalPermission.ALL),
+      streetEdge(c, d, 100, StreetTraversalPermission.ALL),
+      streetEdge(d, c, 100, StreetTraversalPermission.ALL),
+      streetEdge(c, e, 150, StreetTraversalPermission.ALL),
+      streetEdge(e, d, 150, StreetTraversalPermission.ALL)
+    )
+  );
+
+  @Test
+  void landmarksGiveLowerBounds() {
+    var distances = StreetLandmarksModule.computeDistances(streets, TraverseMode.BICYCLE, 2);
+
+    assertNotNull(distances);
+    assertEquals(2, distances.numberOfLandmarks());
+    assertNotEquals(distances.landmarkVertex(0), distances.landmarkVertex(1));
+
+    var search = new CompactStreetSearch(streets, TraverseMode.BICYCLE, 1.0, false);
+    for (int v = 0; v < streets.numberOfVertices(); v++) {
+      search.searchAll(v, Double.POSITIVE_INFINITY);
+      for (int t = 0; t < streets.numberOfVertices(); t++) {
+        if (!search.isReached(t)) {
+          continue;
+        }
+        double distance = search.duration(t);
+        for (int l = 0; l < distances.numberOfLandmarks(); l++) {
+          double fromBound = distances.fromLandmark(l, t) - distances.fromLandmark(l, v);
+          double toBound = distances.toLandmark(l, v) - distances.toLandmark(l, t);
+          assertTrue(fromBound <= distance + DELTA, "d(L,t) - d(L,v) <= d(v,t)");
+          assertTrue(toBound <= distance + DELTA, "d(v,L) - d(t,L) <= d(v,t)");
+        }
+      }
+    }
+  }
+
+  @Test
+  void distancesFromAndToLandmark() {
+    var distances = StreetLandmarksModule.computeDistances(streets, TraverseMode.BICYCLE, 1);
+
+    assertNotNull(distances);
+    int landmark = distances.landmarkVertex(0);
+    assertEquals(0f, distances.fromLandmark(0, landmark));
+    assertEquals(0f, distances.toLandmark(0, landmark));
+
+    // The distances are the shortest paths from and to the landmark, E is only on a one-way path
+    var forward = new CompactStreetSearch(streets, TraverseMode.BICYCLE, 1.0, false);
+    var reverse = new CompactStreetSearch(streets, TraverseMode.BICYCLE, 1.0, true);
+    forward.searchAll(landmark, Double.POSITIVE_INFINITY);
+    reverse.searchAll(landmark, Double.POSITIVE_INFINITY);
+    for (int v = 0; v < streets.numberOfVertices(); v++) {
+      assertEquals(forward.duration(v), distances.fromLandmark(0, v), DELTA);
+      assertEquals(reverse.duration(v), distances.toLandmark(0, v), DELTA);
+    }
+  }
+
+  @Test
+  void noLandmarksWithoutStreetsForMode() {
+    var walkOnly = CompactStreetGraph.of(
+      List.of(
+        streetEdge(a, b, 100, StreetTraversalPermission.PEDESTRIAN),
+        streetEdge(b, a, 100, StreetTraversalPermission.PEDESTRIAN)
+      )
+    );
+    assertNull(StreetLandmarksModule.computeDistances(walkOnly, TraverseMode.CAR, 4));
+  }
+
+  @Test
+  void buildGraph() {
+    // The vertices of the test graph above already have edges, so use new vertices
+    var x = intersectionVertex("X", 59.910, 10.710);
+    var y = intersectionVertex("Y", 59.911, 10.711);
+    var z = intersectionVertex("Z", 59.912, 10.712);
+    var graph = new Graph();
+    for (var v : Set.of(x, y, z)) {
+      graph.addVertex(v);
+    }
+    streetEdge(x, y, 100, StreetTraversalPermission.ALL);
+    streetEdge(y, x, 100, StreetTraversalPermission.ALL);
+
+    new StreetLandmarksModule(graph, 4).buildGraph();
+
+    StreetLandmarks landmarks = graph.getStreetLandmarks();
+    assertNotNull(landmarks);
+    assertEquals(2, landmarks.numberOfVertices());
+    assertNotEquals(StreetLandmarks.NOT_FOUND, landmarks.vertexIndex(x));
+    assertEquals(StreetLandmarks.NOT_FOUND, landmarks.vertexIndex(z));
+    // Only two vertices, so only two landmarks can be selected
+    assertEquals(2, landmarks.distances(TraverseMode.CAR).numberOfLandmarks());
+    assertNull(landmarks.distances(TraverseMode.WALK));
+  }
+}
@@ -0,0 +1,81 @@
+package org.opentripplanner.graph_builder.module.osm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.openstreetmap.model.OSMNode;
+
+class CompactOsmNodeStoreTest {
+
+  private final CompactOsmNodeStore subject = new CompactOsmNodeStore();
+
+  @Test
+  void addAndGet() {
+    subject.add(node(1, 59.9134567, 10.7512345, Map.of("highway", "crossing")));
+    subject.add(node(2, -33.8688197, 151.2092955, Map.of()));
+
+    var node = subject.get(1);
+    assertEquals(1, node.getId());
+    assertEquals(59.9134567, node.lat, 1e-9);
+    assertEquals(10.7512345, node.lon, 1e-9);
+    assertEquals(Map.of("highway", "crossing"), node.getTags());
+
+    assertEquals(-33.8688197, subject.get(2).lat, 1e-9);
+    assertEquals(Map.of(), subject.get(2).getTags());
+    assertNull(subject.get(3));
+    assertEquals(2, subject.size());
+  }
+
+  @Test
+  void nodesWithTheSameIdAreEqual() {
+    subject.add(node(1, 60, 10, Map.of()));
+
+    assertEquals(subject.get(1), subject.get(1));
+    assertEquals(subject.get(1).hashCode(), subject.get(1).hashCode());
+  }
+
+  @Test
+  void firstNodeAddedIsKept() {
+    subject.add(node(1, 60, 10, Map.of()));
+    subject.add(node(2, 60, 10, Map.of()));
+    subject.add(node(2, 61, 11, Map.of()));
+    subject.add(node(1, 61, 11, Map.of()));
+
+    assertEquals(60, subject.get(1).lat);
+    assertEquals(60, subject.get(2).lat);
+    assertEquals(2, subject.size());
+  }
+
+  @Test
+  void nodesAddedOutOfOrder() {
+    // Add enough nodes out of order to merge them into the sorted arrays a few times
+    for (int id = 0; id < 20_000; id += 2) {
+      subject.add(node(id, 60, 10, Map.of()));
+    }
+    for (int id = 19_999; id > 0; id -= 2) {
+      subject.add(node(id, 61, 11, Map.of()));
+    }
+    subject.add(node(-100_000, 62, 12, Map.of("virtual", "yes")));
+
+    assertEquals(20_001, subject.size());
+    for (int id = 0; id < 20_000; ++id) {
+      assertTrue(subject.containsKey(id));
+      assertEquals(id % 2 == 0 ? 60 : 61, subject.get(id).lat);
+    }
+    assertEquals(Map.of("virtual", "yes"), subject.get(-100_000).getTags());
+    assertFalse(subject.containsKey(20_000));
+  }
+
+  private static OSMNode node(long id, double lat, double lon, Map<String, String> tags) {
+    var node = new OSMNode();
+    node.setId(id);
+    node.lat = lat;
+    node.lon = lon;
+    tags.forEach(node::addTag);
+    return node;
+  }
+}
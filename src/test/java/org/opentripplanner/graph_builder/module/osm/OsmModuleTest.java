@@ -103,6 +103,27 @@ public class OsmModuleTest {
     );
   }
 
+  @Test
+  void compactNodeStoreBuildsTheSameGraph() {
+    File file = RESOURCE_LOADER.file("map.osm.pbf");
+    var graph = new Graph();
+    OsmModule
+      .of(new OsmProvider(file, true), graph)
+      .withAreaVisibility(true)
+      .build()
+      .buildGraph();
+    var compactGraph = new Graph();
+    OsmModule
+      .of(new OsmProvider(file, true), compactGraph)
+      .withAreaVisibility(true)
+      .withCompactNodeStore(true)
+      .build()
+      .buildGraph();
+
+    assertEquals(graph.getVertices().size(), compactGraph.getVertices().size());
+    assertEquals(graph.getEdges().size(), compactGraph.getEdges().size());
+  }
+
   /**
    * Detailed testing of OSM graph building using a very small chunk of NYC (SOHO-ish).
    */
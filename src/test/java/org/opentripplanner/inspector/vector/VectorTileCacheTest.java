@@ -0,0 +1,91 @@
+package org.opentripplanner.inspector.vector;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import edu.colorado.cires.cmg.mvt.VectorTile;
+import java.io.ByteArrayOutputStream;
+import java.util.Locale;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class VectorTileCacheTest {
+
+  enum LayerType {
+    RED,
+    GREEN,
+  }
+
+  private record LayerParams(String name, LayerType type, int cacheMaxSeconds)
+    implements LayerParameters<LayerType> {
+    @Override
+    public String mapper() {
+      return "Colors";
+    }
+  }
+
+  private static final LayerParams RED = new LayerParams("red", LayerType.RED, 600);
+  private static final LayerParams GREEN = new LayerParams("green", LayerType.GREEN, 600);
+  private static final LayerParams NOT_CACHED = new LayerParams("red", LayerType.RED, -1);
+
+  private final VectorTileCache subject = new VectorTileCache(1);
+  private int nBuilt = 0;
+
+  @Test
+  void cachedLayerIsOnlyBuiltOnce() {
+    var first = subject.layer(RED, 1, 2, 3, Locale.ENGLISH, layer("red"));
+    var second = subject.layer(RED, 1, 2, 3, Locale.ENGLISH, layer("red"));
+
+    assertEquals(1, nBuilt);
+    assertArrayEquals(first, second);
+  }
+
+  @Test
+  void tilesLayersAndLocalesAreCachedSeparately() {
+    subject.layer(RED, 1, 2, 3, Locale.ENGLISH, layer("red"));
+    subject.layer(RED, 2, 2, 3, Locale.ENGLISH, layer("red"));
+    subject.layer(RED, 1, 2, 4, Locale.ENGLISH, layer("red"));
+    subject.layer(RED, 1, 2, 3, Locale.GERMAN, layer("red"));
+    subject.layer(GREEN, 1, 2, 3, Locale.ENGLISH, layer("green"));
+
+    assertEquals(5, nBuilt);
+  }
+
+  @Test
+  void layerWithoutCacheMaxSecondsIsNotCached() {
+    subject.layer(NOT_CACHED, 1, 2, 3, Locale.ENGLISH, layer("red"));
+    subject.layer(NOT_CACHED, 1, 2, 3, Locale.ENGLISH, layer("red"));
+
+    assertEquals(2, nBuilt);
+  }
+
+  @Test
+  void disabledCache() {
+    var disabled = new VectorTileCache(0);
+    disabled.layer(RED, 1, 2, 3, Locale.ENGLISH, layer("red"));
+    disabled.layer(RED, 1, 2, 3, Locale.ENGLISH, layer("red"));
+
+    assertEquals(2, nBuilt);
+  }
+
+  @Test
+  void concatenatedLayersIsATileWithAllTheLayers() throws InvalidProtocolBufferException {
+    var bytes = new ByteArrayOutputStream();
+    bytes.writeBytes(subject.layer(RED, 1, 2, 3, Locale.ENGLISH, layer("red")));
+    bytes.writeBytes(subject.layer(GREEN, 1, 2, 3, Locale.ENGLISH, layer("green")));
+
+    var tile = VectorTile.Tile.parseFrom(bytes.toByteArray());
+
+    assertEquals(2, tile.getLayersCount());
+    assertEquals("red", tile.getLayers(0).getName());
+    assertEquals("green", tile.getLayers(1).getName());
+  }
+
+  private Supplier<VectorTile.Tile.Layer> layer(String name) {
+    return () -> {
+      ++nBuilt;
+      return VectorTile.Tile.Layer.newBuilder().setName(name).setVersion(2).build();
+    };
+  }
+}
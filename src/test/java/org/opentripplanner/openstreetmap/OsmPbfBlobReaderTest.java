@@ -0,0 +1,59 @@
+package org.opentripplanner.openstreetmap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.test.support.ResourceLoader;
+
+class OsmPbfBlobReaderTest {
+
+  private static final File OSM_FILE = ResourceLoader
+    .of(OsmPbfBlobReaderTest.class)
+    .file("/org/opentripplanner/graph_builder/module/osm/map.osm.pbf");
+
+  @Test
+  void readTheSameBlobsFromMappedFileBytesAndStream() throws IOException {
+    byte[] bytes = Files.readAllBytes(OSM_FILE.toPath());
+
+    var expected = readAll(OsmPbfBlobReader.map(OSM_FILE.toPath()));
+
+    assertFalse(expected.isEmpty());
+    assertTrue(expected.stream().allMatch(it -> it.type().equals("OSMData")));
+    assertEquals(expected, readAll(OsmPbfBlobReader.of(bytes)));
+    assertEquals(expected, readAll(OsmPbfBlobReader.of(new ByteArrayInputStream(bytes))));
+  }
+
+  @Test
+  void truncatedFile() throws IOException {
+    byte[] bytes = Files.readAllBytes(OSM_FILE.toPath());
+    byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+
+    assertThrows(EOFException.class, () -> readAll(OsmPbfBlobReader.of(truncated)));
+    assertThrows(
+      EOFException.class,
+      () -> readAll(OsmPbfBlobReader.of(new ByteArrayInputStream(truncated)))
+    );
+  }
+
+  private static List<OsmPbfBlobReader.Blob> readAll(OsmPbfBlobReader reader) throws IOException {
+    try (reader) {
+      var result = new ArrayList<OsmPbfBlobReader.Blob>();
+      OsmPbfBlobReader.Blob blob;
+      while ((blob = reader.next()) != null) {
+        result.add(blob);
+      }
+      return result;
+    }
+  }
+}
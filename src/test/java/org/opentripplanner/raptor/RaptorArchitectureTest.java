@@ -217,6 +217,7 @@ public class RaptorArchitectureTest {
         RR_CONTEXT,
         RR_STD_CONFIGURE,
         RR_MC_CONFIGURE,
+        RAPTOR_UTIL,
         FRAMEWORK_UTILS
       )
       .verify();
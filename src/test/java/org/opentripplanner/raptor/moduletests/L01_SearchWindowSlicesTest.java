@@ -0,0 +1,115 @@
+package org.opentripplanner.raptor.moduletests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.opentripplanner.raptor._data.api.PathUtils.pathsToString;
+import static org.opentripplanner.raptor._data.transit.TestRoute.route;
+import static org.opentripplanner.raptor._data.transit.TestTripPattern.pattern;
+import static org.opentripplanner.raptor._data.transit.TestTripSchedule.schedule;
+
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.raptor.RaptorService;
+import org.opentripplanner.raptor._data.RaptorTestConstants;
+import org.opentripplanner.raptor._data.transit.TestAccessEgress;
+import org.opentripplanner.raptor._data.transit.TestTransitData;
+import org.opentripplanner.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.raptor.api.request.Optimization;
+import org.opentripplanner.raptor.api.request.RaptorProfile;
+import org.opentripplanner.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.raptor.api.request.RaptorTuningParameters;
+import org.opentripplanner.raptor.configure.RaptorConfig;
+
+/**
+ * FEATURE UNDER TEST
+ * <p>
+ * Raptor should split a wide search-window into slices and search them in parallel, if a thread
+ * pool is configured and the request allows it. The result should be the same as for a search
+ * without slices.
+ */
+public class L01_SearchWindowSlicesTest implements RaptorTestConstants {
+
+  private final TestTransitData data = new TestTransitData();
+  private final RaptorRequestBuilder<TestTripSchedule> requestBuilder = new RaptorRequestBuilder<>();
+  private final RaptorConfig<TestTripSchedule> slicesConfig = new RaptorConfig<>(
+    new RaptorTuningParameters() {
+      @Override
+      public int searchThreadPoolSize() {
+        return 3;
+      }
+
+      @Override
+      public Duration minSearchWindowSlice() {
+        return Duration.ofMinutes(30);
+      }
+    }
+  );
+
+  /**
+   * Stops: 0..3
+   *
+   * Stop on route (stop indexes):
+   *   R1:  1 - 2 - 3
+   *   R2:  1 - 3
+   *
+   * Schedule:
+   *   R1: every 20 minutes, 10 minutes travel time
+   *   R2: every 30 minutes, 15 minutes travel time, no transfer
+   *
+   * Access (toStop & duration):
+   *   1  30s
+   *
+   * Egress (fromStop & duration):
+   *   3  20s
+   */
+  @BeforeEach
+  void setup() {
+    data.withRoute(
+      route(pattern("R1", STOP_B, STOP_C, STOP_D))
+        .withTimetable(
+          schedule("00:05 00:10 00:15"),
+          schedule("00:25 00:30 00:35"),
+          schedule("00:45 00:50 00:55"),
+          schedule("01:05 01:10 01:15"),
+          schedule("01:25 01:30 01:35"),
+          schedule("01:45 01:50 01:55")
+        )
+    );
+    data.withRoute(
+      route(pattern("R2", STOP_B, STOP_D))
+        .withTimetable(
+          schedule("00:12 00:27"),
+          schedule("00:42 00:57"),
+          schedule("01:12 01:27"),
+          schedule("01:42 01:57")
+        )
+    );
+    requestBuilder
+      .profile(RaptorProfile.MULTI_CRITERIA)
+      .enableOptimization(Optimization.PARALLEL)
+      .searchParams()
+      .addAccessPaths(TestAccessEgress.walk(STOP_B, D30s))
+      .addEgressPaths(TestAccessEgress.walk(STOP_D, D20s))
+      .earliestDepartureTime(T00_00)
+      .searchWindow(Duration.ofHours(2))
+      .timetable(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    slicesConfig.shutdown();
+  }
+
+  @Test
+  void sameResultAsSearchWithoutSlices() {
+    var request = requestBuilder.build();
+
+    var expected = new RaptorService<>(RaptorConfig.<TestTripSchedule>defaultConfigForTest())
+      .route(request, data);
+    var result = new RaptorService<>(slicesConfig).route(request, data);
+
+    assertEquals(8, expected.paths().size());
+    assertEquals(pathsToString(expected), pathsToString(result));
+  }
+}
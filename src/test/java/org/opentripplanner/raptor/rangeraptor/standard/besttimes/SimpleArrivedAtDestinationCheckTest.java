@@ -8,6 +8,7 @@ import org.opentripplanner.raptor._data.transit.TestTripSchedule;
 import org.opentripplanner.raptor.rangeraptor.lifecycle.LifeCycleEventPublisher;
 import org.opentripplanner.raptor.rangeraptor.lifecycle.LifeCycleSubscriptions;
 import org.opentripplanner.raptor.rangeraptor.transit.ForwardTransitCalculator;
+import org.opentripplanner.raptor.util.StopArrayPool;
 
 class SimpleArrivedAtDestinationCheckTest {
 
@@ -19,6 +20,7 @@ class SimpleArrivedAtDestinationCheckTest {
     var lifeCycleSubscriptions = new LifeCycleSubscriptions();
     var bestTimes = new BestTimes(
       3,
+      StopArrayPool.unpooled(),
       new ForwardTransitCalculator<TestTripSchedule>(),
       lifeCycleSubscriptions
     );
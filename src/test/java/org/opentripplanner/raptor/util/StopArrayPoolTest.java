@@ -0,0 +1,78 @@
+package org.opentripplanner.raptor.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class StopArrayPoolTest {
+
+  private static final int N_STOPS = 5;
+  private static final int UNREACHED = 999;
+
+  private final StopArrayPool subject = new StopArrayPool(2);
+
+  @Test
+  void reuseReleasedArrays() {
+    var lease = subject.lease();
+    int[] array = lease.intArray(N_STOPS, UNREACHED);
+    var set = lease.bitSet(N_STOPS);
+    array[2] = 7;
+    set.set(3);
+    lease.release();
+
+    var other = subject.lease();
+    assertSame(array, other.intArray(N_STOPS, UNREACHED));
+    assertSame(set, other.bitSet(N_STOPS));
+
+    // The arrays are reset when borrowed
+    assertArrayEquals(new int[] { UNREACHED, UNREACHED, UNREACHED, UNREACHED, UNREACHED }, array);
+    assertTrue(set.isEmpty());
+  }
+
+  @Test
+  void doNotReuseArraysInUse() {
+    var lease = subject.lease();
+    int[] a = lease.intArray(N_STOPS, UNREACHED);
+    int[] b = lease.intArray(N_STOPS, UNREACHED);
+    assertNotSame(a, b);
+  }
+
+  @Test
+  void dropArraysWithAnotherSize() {
+    var lease = subject.lease();
+    int[] array = lease.intArray(N_STOPS, UNREACHED);
+    lease.release();
+
+    int[] other = subject.lease().intArray(N_STOPS + 1, UNREACHED);
+    assertNotSame(array, other);
+    assertArrayEquals(
+      new int[] { UNREACHED, UNREACHED, UNREACHED, UNREACHED, UNREACHED, UNREACHED },
+      other
+    );
+  }
+
+  @Test
+  void keepAtMostMaxSizeArrays() {
+    var lease = subject.lease();
+    int[] a = lease.intArray(N_STOPS, UNREACHED);
+    int[] b = lease.intArray(N_STOPS, UNREACHED);
+    int[] c = lease.intArray(N_STOPS, UNREACHED);
+    lease.release();
+
+    var other = subject.lease();
+    assertSame(a, other.intArray(N_STOPS, UNREACHED));
+    assertSame(b, other.intArray(N_STOPS, UNREACHED));
+    assertNotSame(c, other.intArray(N_STOPS, UNREACHED));
+  }
+
+  @Test
+  void unpooledLeaseDoesNotReuseArrays() {
+    var lease = StopArrayPool.unpooled();
+    int[] array = lease.intArray(N_STOPS, UNREACHED);
+    lease.release();
+    assertNotSame(array, StopArrayPool.unpooled().intArray(N_STOPS, UNREACHED));
+  }
+}
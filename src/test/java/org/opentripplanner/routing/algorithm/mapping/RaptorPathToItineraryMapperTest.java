@@ -217,6 +217,8 @@ public class RaptorPathToItineraryMapperTest {
       null,
       null,
       null,
+      null,
+      null,
       null
     );
   }
@@ -0,0 +1,104 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.router.street;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.model.GenericLocation;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.request.StreetRequest;
+import org.opentripplanner.routing.graphfinder.NearbyStop;
+
+class AccessEgressCacheTest {
+
+  private static final Duration DURATION_LIMIT = Duration.ofMinutes(45);
+  private static final int MAX_STOP_COUNT = 100;
+
+  private final AccessEgressCache subject = new AccessEgressCache(10, Duration.ofMinutes(10));
+
+  private int searches = 0;
+
+  @Test
+  void reuseSearchFromSamePlace() {
+    search(request(59.90, 10.70), StreetMode.WALK);
+    search(request(59.90, 10.70), StreetMode.WALK);
+    assertEquals(1, searches);
+  }
+
+  @Test
+  void searchFromOtherPlace() {
+    search(request(59.90, 10.70), StreetMode.WALK);
+    search(request(59.91, 10.70), StreetMode.WALK);
+    assertEquals(2, searches);
+  }
+
+  @Test
+  void searchWithOtherPreferences() {
+    search(request(59.90, 10.70), StreetMode.WALK);
+
+    var request = request(59.90, 10.70);
+    request.withPreferences(p -> p.withWalk(w -> w.withSpeed(2.0)));
+    search(request, StreetMode.WALK);
+    search(request(59.90, 10.70), StreetMode.BIKE);
+
+    assertEquals(3, searches);
+  }
+
+  @Test
+  void carSearchIsNotCached() {
+    search(request(59.90, 10.70), StreetMode.CAR);
+    search(request(59.90, 10.70), StreetMode.CAR);
+    assertEquals(2, searches);
+  }
+
+  @Test
+  void disabled() {
+    var disabled = new AccessEgressCache(0, Duration.ofMinutes(10));
+    for (int i = 0; i < 2; i++) {
+      disabled.get(
+        request(59.90, 10.70),
+        new StreetRequest(StreetMode.WALK),
+        null,
+        false,
+        DURATION_LIMIT,
+        MAX_STOP_COUNT,
+        this::doSearch
+      );
+    }
+    assertEquals(2, searches);
+  }
+
+  @Test
+  void invalidate() {
+    search(request(59.90, 10.70), StreetMode.WALK);
+    subject.invalidate();
+    search(request(59.90, 10.70), StreetMode.WALK);
+    assertEquals(2, searches);
+  }
+
+  private void search(RouteRequest request, StreetMode mode) {
+    subject.get(
+      request,
+      new StreetRequest(mode),
+      null,
+      false,
+      DURATION_LIMIT,
+      MAX_STOP_COUNT,
+      this::doSearch
+    );
+  }
+
+  private List<NearbyStop> doSearch() {
+    ++searches;
+    return List.of();
+  }
+
+  private static RouteRequest request(double lat, double lon) {
+    var request = new RouteRequest();
+    request.setFrom(new GenericLocation(lat, lon));
+    request.setTo(new GenericLocation(60.0, 11.0));
+    return request;
+  }
+}
@@ -0,0 +1,95 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.raptor.api.model.RaptorTransfer;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+
+class RaptorTransferIndexTest {
+
+  private static final int STOP_A = 0;
+  private static final int STOP_B = 1;
+  private static final int STOP_C = 2;
+  private static final int STOP_D = 3;
+
+  private static final Transfer A_C = new Transfer(STOP_C, 100);
+  private static final Transfer A_B_LONG = new Transfer(STOP_B, 200);
+  private static final Transfer A_B_SHORT = new Transfer(STOP_B, 50);
+  private static final Transfer B_C = new Transfer(STOP_C, 100);
+
+  private static final TransfersByStopIndex TRANSFERS = TransfersByStopIndex.of(
+    List.of(List.of(A_C, A_B_LONG, A_B_SHORT), List.of(B_C), List.of(), List.of())
+  );
+
+  private final RaptorTransferIndex subject = RaptorTransferIndex.create(
+    TRANSFERS,
+    StreetSearchRequest.of().build()
+  );
+
+  @Test
+  void transfersByStopIndex() {
+    assertEquals(4, TRANSFERS.numberOfStops());
+    assertEquals(4, TRANSFERS.numberOfTransfers());
+
+    // Sorted by to-stop
+    assertEquals(List.of(A_B_LONG, A_B_SHORT, A_C), TRANSFERS.transfersFromStop(STOP_A));
+    assertEquals(List.of(B_C), TRANSFERS.transfersFromStop(STOP_B));
+    assertEquals(List.of(), TRANSFERS.transfersFromStop(STOP_D));
+  }
+
+  @Test
+  void forwardTransfers() {
+    // Only the cheapest transfer between two stops is kept
+    var transfers = toList(subject.getForwardTransfers(STOP_A));
+    assertEquals(2, transfers.size());
+    assertTransfer(STOP_B, A_B_SHORT, transfers.get(0));
+    assertTransfer(STOP_C, A_C, transfers.get(1));
+
+    transfers = toList(subject.getForwardTransfers(STOP_B));
+    assertEquals(1, transfers.size());
+    assertTransfer(STOP_C, B_C, transfers.get(0));
+
+    assertFalse(subject.getForwardTransfers(STOP_C).hasNext());
+    assertFalse(subject.getForwardTransfers(STOP_D).hasNext());
+  }
+
+  @Test
+  void reversedTransfers() {
+    var transfers = toList(subject.getReversedTransfers(STOP_C));
+    assertEquals(2, transfers.size());
+    assertTransfer(STOP_A, A_C, transfers.get(0));
+    assertTransfer(STOP_B, B_C, transfers.get(1));
+
+    transfers = toList(subject.getReversedTransfers(STOP_B));
+    assertEquals(1, transfers.size());
+    assertTransfer(STOP_A, A_B_SHORT, transfers.get(0));
+
+    assertFalse(subject.getReversedTransfers(STOP_A).hasNext());
+  }
+
+  @Test
+  void durationAndCostAreTheSameInBothDirections() {
+    var forward = toList(subject.getForwardTransfers(STOP_B)).get(0);
+    var reversed = toList(subject.getReversedTransfers(STOP_C)).get(1);
+
+    assertEquals(forward.durationInSeconds(), reversed.durationInSeconds());
+    assertEquals(forward.c1(), reversed.c1());
+  }
+
+  private static void assertTransfer(int stop, Transfer expected, RaptorTransfer actual) {
+    assertEquals(stop, actual.stop());
+    assertSame(expected, ((DefaultRaptorTransfer) actual).transfer());
+  }
+
+  private static List<RaptorTransfer> toList(Iterator<RaptorTransfer> it) {
+    var list = new ArrayList<RaptorTransfer>();
+    it.forEachRemaining(list::add);
+    return list;
+  }
+}
@@ -0,0 +1,80 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.framework.Deduplicator;
+import org.opentripplanner.transit.model.network.RoutingTripPattern;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+import org.opentripplanner.transit.model.timetable.TripTimesFactory;
+
+class TripPatternsRunningOnDateTest {
+
+  private static final TransitModelForTest TEST_MODEL = TransitModelForTest.of();
+  private static final LocalDate DATE = LocalDate.of(2024, 1, 15);
+
+  private final TripPatternForDate a = tripPatternForDate("A");
+  private final TripPatternForDate b = tripPatternForDate("B");
+  private final TripPatternForDate c = tripPatternForDate("C");
+
+  private final TripPatternsRunningOnDate subject = TripPatternsRunningOnDate.of(List.of(a, b));
+
+  @Test
+  void values() {
+    assertEquals(List.of(a, b), subject.values());
+  }
+
+  @Test
+  void patch() {
+    var updatedA = tripPatternForDate(a.getTripPattern(), "A2");
+
+    var patched = subject.patch(List.of(a, b), List.of(updatedA, c));
+
+    assertEquals(Set.of(updatedA, c), Set.copyOf(patched.values()));
+    // The original is not changed
+    assertEquals(List.of(a, b), subject.values());
+  }
+
+  @Test
+  void addedPatternReplacesPatternWithSameServiceDate() {
+    var updatedA = tripPatternForDate(a.getTripPattern(), "A2");
+
+    var patched = subject.patch(List.of(), List.of(updatedA));
+
+    assertEquals(Set.of(updatedA, b), Set.copyOf(patched.values()));
+  }
+
+  @Test
+  void doNotRemovePatternNotInUse() {
+    var updatedA = tripPatternForDate(a.getTripPattern(), "A2");
+    var patched = subject.patch(List.of(), List.of(updatedA));
+
+    // The old pattern for A is not in use anymore, removing it does nothing
+    patched = patched.patch(List.of(a), List.of());
+
+    assertEquals(Set.of(updatedA, b), Set.copyOf(patched.values()));
+  }
+
+  private static TripPatternForDate tripPatternForDate(String id) {
+    RoutingTripPattern pattern = TransitModelForTest
+      .tripPattern(id, TransitModelForTest.route(id).build())
+      .withStopPattern(TEST_MODEL.stopPattern(2))
+      .build()
+      .getRoutingTripPattern();
+    return tripPatternForDate(pattern, id);
+  }
+
+  private static TripPatternForDate tripPatternForDate(RoutingTripPattern pattern, String tripId) {
+    var trip = TransitModelForTest.trip(tripId).build();
+    TripTimes tripTimes = TripTimesFactory.tripTimes(
+      trip,
+      TEST_MODEL.stopTimesEvery5Minutes(2, trip, 0),
+      new Deduplicator()
+    );
+    return new TripPatternForDate(pattern, List.of(tripTimes), List.of(), DATE);
+  }
+}
@@ -0,0 +1,71 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransfersByStopIndex;
+import org.opentripplanner.routing.api.request.RouteRequest;
+
+class RaptorRequestTransferCacheTest {
+
+  private static final TransfersByStopIndex TRANSFERS = TransfersByStopIndex.of(
+    List.of(List.of(new Transfer(1, 100)), List.of())
+  );
+
+  @Test
+  void cacheTransfers() {
+    var subject = new RaptorRequestTransferCache(10, false);
+    var index = subject.get(TRANSFERS, new RouteRequest());
+
+    assertSame(index, subject.get(TRANSFERS, new RouteRequest()));
+    assertNotSame(index, subject.get(TRANSFERS, walkSpeed(2.0)));
+    assertEquals(2, subject.getTransferCache().size());
+  }
+
+  @Test
+  void useClosestCompatibleTransfersWhileBuildingAsync() throws InterruptedException {
+    var subject = new RaptorRequestTransferCache(10, true);
+
+    // Nothing is cached, so the request waits for the transfers
+    var index = subject.get(TRANSFERS, new RouteRequest());
+    assertSame(index, subject.get(TRANSFERS, new RouteRequest()));
+
+    // The transfers for the default request are used while the new transfers are created
+    var walkSpeed = walkSpeed(2.0);
+    assertSame(index, subject.get(TRANSFERS, walkSpeed));
+
+    waitForCacheSize(subject, 2);
+    assertNotSame(index, subject.get(TRANSFERS, walkSpeed));
+  }
+
+  @Test
+  void waitForIncompatibleTransfersWhenBuildingAsync() {
+    var subject = new RaptorRequestTransferCache(10, true);
+    var index = subject.get(TRANSFERS, new RouteRequest());
+
+    var wheelchair = new RouteRequest();
+    wheelchair.setWheelchair(true);
+
+    var wheelchairIndex = subject.get(TRANSFERS, wheelchair);
+    assertNotSame(index, wheelchairIndex);
+    assertSame(wheelchairIndex, subject.get(TRANSFERS, wheelchair));
+  }
+
+  private static RouteRequest walkSpeed(double speed) {
+    var request = new RouteRequest();
+    request.withPreferences(pref -> pref.withWalk(w -> w.withSpeed(speed)));
+    return request;
+  }
+
+  private static void waitForCacheSize(RaptorRequestTransferCache subject, int size)
+    throws InterruptedException {
+    for (int i = 0; i < 100 && subject.getTransferCache().size() < size; ++i) {
+      Thread.sleep(50);
+    }
+    assertEquals(size, subject.getTransferCache().size());
+  }
+}
@@ -1,6 +1,10 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.opentripplanner.transit.model._data.TransitModelForTest.id;
 
 import java.time.LocalDate;
@@ -8,6 +12,7 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.opentripplanner._support.time.ZoneIds;
 import org.opentripplanner.framework.time.ServiceDateUtils;
@@ -64,6 +69,7 @@ public class RaptorRoutingRequestTransitDataCreatorTest {
     List<TripPatternForDates> combinedTripPatterns = RaptorRoutingRequestTransitDataCreator.merge(
       startOfTime,
       tripPatternsForDates,
+      Map.of(),
       new TestTransitDataProviderFilter(),
       PriorityGroupConfigurator.empty()
     );
@@ -85,6 +91,77 @@ public class RaptorRoutingRequestTransitDataCreatorTest {
     assertEquals(86400, ((TripScheduleWithOffset) r3.getTripSchedule(2)).getSecondsOffset());
   }
 
+  @Test
+  public void testMergeExcludedTrips() {
+    LocalDate first = LocalDate.of(2019, 3, 30);
+    LocalDate second = LocalDate.of(2019, 3, 31);
+
+    ZonedDateTime startOfTime = ServiceDateUtils.asStartOfService(second, ZoneIds.LONDON);
+
+    List<TripTimes> tripTimes = List.of(createTripTimesForTest(), createTripTimesForTest());
+
+    RoutingTripPattern tripPattern1 = createTripPattern(TP_ID_1);
+    RoutingTripPattern tripPattern2 = createTripPattern(TP_ID_2);
+
+    var p1First = new TripPatternForDate(tripPattern1, tripTimes, List.of(), first);
+    var p1Second = new TripPatternForDate(tripPattern1, tripTimes, List.of(), second);
+    var p2First = new TripPatternForDate(tripPattern2, tripTimes, List.of(), first);
+
+    // Exclude the first trip on the second day
+    var excluded = new BitSet();
+    excluded.set(0);
+
+    List<TripPatternForDates> combinedTripPatterns = RaptorRoutingRequestTransitDataCreator.merge(
+      startOfTime,
+      List.of(p1Second, p1First, p2First),
+      Map.of(p1Second, excluded),
+      new TestTransitDataProviderFilter(),
+      PriorityGroupConfigurator.empty()
+    );
+
+    var r1 = findTripPatternForDate(tripPattern1.patternIndex(), combinedTripPatterns);
+    var r2 = findTripPatternForDate(tripPattern2.patternIndex(), combinedTripPatterns);
+
+    // The trip indexes of the second day follow the trips of the first day
+    assertEquals(4, r1.numberOfTripSchedules());
+    assertEquals("{2}", r1.excludedTrips().toString());
+    assertNull(r2.excludedTrips());
+  }
+
+  @Test
+  public void testBoardingOnlyAt() {
+    LocalDate date = LocalDate.of(2019, 3, 30);
+    ZonedDateTime startOfTime = ServiceDateUtils.asStartOfService(date, ZoneIds.LONDON);
+    List<TripTimes> tripTimes = List.of(createTripTimesForTest());
+    RoutingTripPattern tripPattern = createTripPattern(TP_ID_1);
+
+    var subject = RaptorRoutingRequestTransitDataCreator
+      .merge(
+        startOfTime,
+        List.of(new TripPatternForDate(tripPattern, tripTimes, List.of(), date)),
+        Map.of(),
+        new TestTransitDataProviderFilter(),
+        PriorityGroupConfigurator.empty()
+      )
+      .get(0);
+
+    int secondStop = tripPattern.stopIndex(1);
+    var restricted = subject.withBoardingOnlyAt(stopIndex -> stopIndex == secondStop);
+
+    assertFalse(restricted.boardingPossibleAt(0));
+    assertTrue(restricted.boardingPossibleAt(1));
+    assertTrue(restricted.alightingPossibleAt(0));
+    assertEquals(1, restricted.numberOfTripSchedules());
+    assertEquals(
+      subject.getDepartureTimes(0).applyAsInt(0),
+      restricted.getDepartureTimes(0).applyAsInt(0)
+    );
+
+    // The pattern may be shared with other requests, it must not be changed
+    assertTrue(subject.boardingPossibleAt(0));
+    assertSame(subject, subject.withBoardingOnlyAt(stopIndex -> true));
+  }
+
   private static TripPatternForDates findTripPatternForDate(
     int patternIndex,
     List<TripPatternForDates> list
@@ -2,6 +2,7 @@ package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDate;
@@ -707,6 +708,41 @@ class RouteRequestTransitDataProviderFilterTest {
     );
   }
 
+  @Test
+  void cacheKey() {
+    var subject = filterForCacheKey(Set.of(TRIP_ID), TransitMode.BUS);
+
+    var same = filterForCacheKey(Set.of(TRIP_ID), TransitMode.BUS);
+    var otherBannedTrips = filterForCacheKey(Set.of(), TransitMode.BUS);
+
+    assertEquals(subject.cacheKey(), same.cacheKey());
+    assertNotEquals(subject.cacheKey(), otherBannedTrips.cacheKey());
+    assertNotEquals(
+      subject.cacheKey(),
+      filterForCacheKey(Set.of(TRIP_ID), TransitMode.RAIL).cacheKey()
+    );
+  }
+
+  private static RouteRequestTransitDataProviderFilter filterForCacheKey(
+    Set<FeedScopedId> bannedTrips,
+    TransitMode mode
+  ) {
+    return new RouteRequestTransitDataProviderFilter(
+      false,
+      false,
+      DEFAULT_ACCESSIBILITY,
+      false,
+      false,
+      bannedTrips,
+      List.of(
+        TransitFilterRequest
+          .of()
+          .addSelect(SelectRequest.of().addTransportMode(new MainAndSubMode(mode)).build())
+          .build()
+      )
+    );
+  }
+
   @Test
   void multipleFilteringTest() {
     TripTimes matchingTripTimes = createTestTripTimes(
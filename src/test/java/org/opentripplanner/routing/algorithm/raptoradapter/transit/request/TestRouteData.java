@@ -75,7 +75,8 @@ public class TestRouteData {
       new int[] { OFFSET },
       null,
       null,
-      0
+      0,
+      null
     );
     int id = 0;
     for (Trip trip : trips) {
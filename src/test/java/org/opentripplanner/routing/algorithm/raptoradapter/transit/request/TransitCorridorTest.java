@@ -0,0 +1,69 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.framework.geometry.WgsCoordinate;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.site.RegularStop;
+
+class TransitCorridorTest {
+
+  private static final TransitModelForTest TEST_MODEL = TransitModelForTest.of();
+
+  private static final WgsCoordinate FROM = new WgsCoordinate(60.0, 10.0);
+  private static final WgsCoordinate TO = new WgsCoordinate(60.0, 10.2);
+
+  private static final RegularStop ON_THE_WAY = TEST_MODEL.stop("A", 60.0, 10.1).build();
+  private static final RegularStop SMALL_DETOUR = TEST_MODEL.stop("B", 60.01, 10.1).build();
+  private static final RegularStop BEHIND_ORIGIN = TEST_MODEL.stop("C", 60.0, 9.8).build();
+
+  private final TransitLayer transitLayer = new TransitLayer(
+    new HashMap<>(),
+    null,
+    null,
+    TEST_MODEL
+      .stopModelBuilder()
+      .withRegularStop(ON_THE_WAY)
+      .withRegularStop(SMALL_DETOUR)
+      .withRegularStop(BEHIND_ORIGIN)
+      .build(),
+    null,
+    null,
+    null,
+    null,
+    null,
+    null,
+    null
+  );
+
+  @Test
+  void disabled() {
+    assertNull(TransitCorridor.of(transitLayer, FROM, TO, 1.0, 0));
+    assertNull(TransitCorridor.of(transitLayer, null, TO, 1.5, 0));
+    assertNull(TransitCorridor.of(transitLayer, FROM, null, 1.5, 0));
+  }
+
+  @Test
+  void stopsInsideCorridor() {
+    var subject = TransitCorridor.of(transitLayer, FROM, TO, 1.2, 0);
+
+    assertNotNull(subject);
+    assertTrue(subject.contains(ON_THE_WAY.getIndex()));
+    assertTrue(subject.contains(SMALL_DETOUR.getIndex()));
+    assertFalse(subject.contains(BEHIND_ORIGIN.getIndex()));
+  }
+
+  @Test
+  void marginExtendsCorridor() {
+    var subject = TransitCorridor.of(transitLayer, FROM, TO, 1.2, 12_000);
+
+    assertNotNull(subject);
+    assertTrue(subject.contains(BEHIND_ORIGIN.getIndex()));
+  }
+}
@@ -0,0 +1,143 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.opentripplanner.transit.model._data.TransitModelForTest.id;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner._support.time.ZoneIds;
+import org.opentripplanner.framework.time.ServiceDateUtils;
+import org.opentripplanner.model.StopTime;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.basic.TransitMode;
+import org.opentripplanner.transit.model.network.RoutingTripPattern;
+import org.opentripplanner.transit.model.network.StopPattern;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.timetable.ScheduledTripTimes;
+
+class TripPatternForDatesCacheTest {
+
+  private static final TransitModelForTest TEST_MODEL = TransitModelForTest.of();
+  private static final LocalDate DATE = LocalDate.of(2023, 11, 20);
+
+  private static final RoutingTripPattern PATTERN_1 = createTripPattern("1");
+  private static final RoutingTripPattern PATTERN_2 = createTripPattern("2");
+
+  private static final TripPatternForDatesCache.Key KEY = new TripPatternForDatesCache.Key(
+    ServiceDateUtils.asStartOfService(DATE, ZoneIds.OSLO),
+    0,
+    1,
+    "filter"
+  );
+
+  @Test
+  void cacheTripPatterns() {
+    var subject = new TripPatternForDatesCache(10);
+    assertTrue(subject.isEnabled());
+
+    var patterns = subject.get(KEY, TripPatternForDatesCacheTest::create);
+
+    assertEquals(2, patterns.size());
+    assertSame(patterns, subject.get(KEY, TripPatternForDatesCacheTest::notCalled));
+  }
+
+  @Test
+  void createInvalidatedPatternsOnlyInTheCopy() {
+    var subject = new TripPatternForDatesCache(10);
+    var patterns = subject.get(KEY, TripPatternForDatesCacheTest::create);
+    var copy = subject.copy();
+
+    copy.invalidate(Set.of(PATTERN_2));
+    var updated = copy.get(
+      KEY,
+      includePattern -> {
+        assertFalse(includePattern.test(PATTERN_1));
+        assertTrue(includePattern.test(PATTERN_2));
+        return create(includePattern);
+      }
+    );
+
+    assertEquals(2, updated.size());
+    assertSame(find(patterns, PATTERN_1), find(updated, PATTERN_1));
+    assertNotSame(find(patterns, PATTERN_2), find(updated, PATTERN_2));
+    assertSame(updated, copy.get(KEY, TripPatternForDatesCacheTest::notCalled));
+
+    // The original cache is not changed
+    assertSame(patterns, subject.get(KEY, TripPatternForDatesCacheTest::notCalled));
+  }
+
+  @Test
+  void removePatternsNoLongerRunning() {
+    var subject = new TripPatternForDatesCache(10);
+    subject.get(KEY, TripPatternForDatesCacheTest::create);
+
+    subject.invalidate(Set.of(PATTERN_1));
+    var updated = subject.get(KEY, includePattern -> List.of());
+
+    assertEquals(1, updated.size());
+    assertSame(PATTERN_2, updated.get(0).getTripPattern());
+  }
+
+  @Test
+  void disabled() {
+    assertFalse(new TripPatternForDatesCache(0).isEnabled());
+  }
+
+  private static List<TripPatternForDates> create(Predicate<RoutingTripPattern> includePattern) {
+    return List
+      .of(PATTERN_1, PATTERN_2)
+      .stream()
+      .filter(includePattern)
+      .map(TripPatternForDatesCacheTest::createTripPatternForDates)
+      .toList();
+  }
+
+  private static List<TripPatternForDates> notCalled(Predicate<RoutingTripPattern> includePattern) {
+    return fail("The trip patterns should be cached");
+  }
+
+  private static TripPatternForDates find(
+    List<TripPatternForDates> list,
+    RoutingTripPattern pattern
+  ) {
+    return list.stream().filter(it -> it.getTripPattern() == pattern).findFirst().orElseThrow();
+  }
+
+  private static TripPatternForDates createTripPatternForDates(RoutingTripPattern pattern) {
+    var tripTimes = ScheduledTripTimes
+      .of()
+      .withTrip(TransitModelForTest.trip("Trip-" + pattern.patternIndex()).build())
+      .withDepartureTimes("10:00 10:10")
+      .build();
+    var tripPatternForDate = new TripPatternForDate(pattern, List.of(tripTimes), List.of(), DATE);
+    return new TripPatternForDates(
+      pattern,
+      new TripPatternForDate[] { tripPatternForDate },
+      new int[] { 0 },
+      pattern.getBoardingPossible(),
+      pattern.getAlightingPossible(),
+      0,
+      null
+    );
+  }
+
+  private static RoutingTripPattern createTripPattern(String id) {
+    var stopTime = new StopTime();
+    stopTime.setStop(TEST_MODEL.stop("Stop:" + id, 0.0, 0.0).build());
+    return TripPattern
+      .of(id(id))
+      .withRoute(TransitModelForTest.route("1").withMode(TransitMode.BUS).build())
+      .withStopPattern(new StopPattern(List.of(stopTime, stopTime)))
+      .build()
+      .getRoutingTripPattern();
+  }
+}
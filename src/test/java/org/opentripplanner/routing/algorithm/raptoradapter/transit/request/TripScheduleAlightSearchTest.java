@@ -4,6 +4,7 @@ import static org.opentripplanner.raptor._data.transit.TestTripPattern.pattern;
 import static org.opentripplanner.raptor._data.transit.TestTripSchedule.schedule;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import org.opentripplanner.raptor._data.RaptorTestConstants;
 import org.opentripplanner.raptor._data.transit.TestRoute;
 import org.opentripplanner.raptor._data.transit.TestTripPattern;
 import org.opentripplanner.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.raptor._data.transit.TestTripSearchTimetable;
 import org.opentripplanner.raptor.api.model.SearchDirection;
 import org.opentripplanner.raptor.spi.RaptorTripScheduleSearch;
 
@@ -196,6 +198,18 @@ public class TripScheduleAlightSearchTest implements RaptorTestConstants {
     searchForTrip(TIME_A2, STOP_POS_1).assertTripFound().withIndex(indexA).withAlightTime(TIME_A2);
   }
 
+  @Test
+  public void skipExcludedTrips() {
+    withExcludedTrips(TRIP_B);
+
+    searchForTrip(TIME_LATE, STOP_POS_0).assertTripFound().withIndex(TRIP_C);
+    searchForTrip(TIME_C1 - 1, STOP_POS_0).assertTripFound().withIndex(TRIP_A);
+    searchForTrip(TIME_C2 - 1, STOP_POS_1).assertTripFound().withIndex(TRIP_A);
+
+    // Trip B is excluded and trip C arrives too late
+    searchForTrip(TIME_C1 - 1, STOP_POS_0, TRIP_A).assertNoTripFound();
+  }
+
   private void withTrips(TestTripSchedule... schedules) {
     useRoute(TestRoute.route(pattern).withTimetable(schedules));
   }
@@ -215,6 +229,20 @@ public class TripScheduleAlightSearchTest implements RaptorTestConstants {
     }
   }
 
+  private void withExcludedTrips(int... tripIndexes) {
+    var excludedTrips = new BitSet();
+    for (int tripIndex : tripIndexes) {
+      excludedTrips.set(tripIndex);
+    }
+    var timetable = new TestTripSearchTimetable(route) {
+      @Override
+      public BitSet excludedTrips() {
+        return excludedTrips;
+      }
+    };
+    this.subject = timetable.tripSearch(SearchDirection.REVERSE);
+  }
+
   private TripAssert searchForTrip(int arrivalTime, int stopPosition) {
     return new TripAssert(subject).search(arrivalTime, stopPosition);
   }
@@ -3,6 +3,7 @@ package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 import static org.opentripplanner.raptor._data.transit.TestTripSchedule.schedule;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 import org.junit.jupiter.api.Test;
@@ -10,6 +11,7 @@ import org.opentripplanner.raptor._data.RaptorTestConstants;
 import org.opentripplanner.raptor._data.transit.TestRoute;
 import org.opentripplanner.raptor._data.transit.TestTripPattern;
 import org.opentripplanner.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.raptor._data.transit.TestTripSearchTimetable;
 import org.opentripplanner.raptor.api.model.SearchDirection;
 import org.opentripplanner.raptor.spi.RaptorTripScheduleSearch;
 
@@ -167,6 +169,47 @@ public class TripScheduleBoardSearchTest implements RaptorTestConstants {
     }
   }
 
+  @Test
+  public void skipExcludedTrips() {
+    withExcludedTrips(TRIP_B);
+
+    searchForTrip(TIME_0, STOP_POS_0).assertTripFound().withIndex(TRIP_A);
+    searchForTrip(TIME_A1 + 1, STOP_POS_0).assertTripFound().withIndex(TRIP_C);
+    searchForTrip(TIME_A2 + 1, STOP_POS_1).assertTripFound().withIndex(TRIP_C);
+
+    // Trip B is excluded and trip A departs too early
+    searchForTrip(TIME_A1 + 1, STOP_POS_0, TRIP_C).assertNoTripFound();
+  }
+
+  @Test
+  public void skipExcludedTripsForABigNumberOfTrips() {
+    // Exclude every second trip in a pattern large enough to use the binary search
+    final int N = 7 * TRIPS_BINARY_SEARCH_THRESHOLD + 3;
+    final int dT = 1000;
+
+    List<TestTripSchedule> tripSchedules = new ArrayList<>();
+    int[] excluded = new int[(N + 1) / 2];
+    for (int i = 0; i < N; ++i) {
+      tripSchedules.add(schedule().departures(dT * (i + 1)).build());
+      if (i % 2 == 0) {
+        excluded[i / 2] = i;
+      }
+    }
+    withTrips(tripSchedules);
+    withExcludedTrips(excluded);
+
+    for (int i = 0; i < N; ++i) {
+      int tripBoardTime = dT * (i + 1);
+      int expectedIndex = i % 2 == 0 ? i + 1 : i;
+
+      if (expectedIndex < N) {
+        searchForTrip(tripBoardTime, STOP_POS_0).assertTripFound().withIndex(expectedIndex);
+      } else {
+        searchForTrip(tripBoardTime, STOP_POS_0).assertNoTripFound();
+      }
+    }
+  }
+
   private void withTrips(TestTripSchedule... schedules) {
     useTripPattern(TestRoute.route(pattern).withTimetable(schedules));
   }
@@ -180,6 +223,20 @@ public class TripScheduleBoardSearchTest implements RaptorTestConstants {
     this.subject = route.tripSearch(SearchDirection.FORWARD);
   }
 
+  private void withExcludedTrips(int... tripIndexes) {
+    var excludedTrips = new BitSet();
+    for (int tripIndex : tripIndexes) {
+      excludedTrips.set(tripIndex);
+    }
+    var timetable = new TestTripSearchTimetable(route) {
+      @Override
+      public BitSet excludedTrips() {
+        return excludedTrips;
+      }
+    };
+    this.subject = timetable.tripSearch(SearchDirection.FORWARD);
+  }
+
   private TripAssert searchForTrip(int arrivalTime, int stopPosition) {
     return new TripAssert(subject).search(arrivalTime, stopPosition);
   }
@@ -0,0 +1,165 @@
+package org.opentripplanner.routing.linking;
+
+import static org.opentripplanner.street.model._data.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.opentripplanner.framework.geometry.HashGridSpatialIndex;
+import org.opentripplanner.framework.geometry.PackedHilbertRTree;
+import org.opentripplanner.framework.geometry.PackedSpatialIndex;
+import org.opentripplanner.framework.i18n.I18NString;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.TemporaryFreeEdge;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.model.vertex.TemporaryStreetLocation;
+import org.opentripplanner.street.search.TraverseMode;
+import org.opentripplanner.street.search.TraverseModeSet;
+import org.opentripplanner.transit.service.StopModel;
+
+/**
+ * Measure the throughput of linking random points to the nearest street edges with the
+ * {@link VertexLinker}, and of the spatial index queries made by the linker, for the hash grid and
+ * the packed R-tree. The streets are a grid of two-way streets, with 50 meters between the
+ * intersections, which is like a dense city center.
+ * <p>
+ * This is not a unit test, run the main method:
+ * <pre>
+ * VertexLinkerBenchmark [grid size] [links]
+ * </pre>
+ */
+public class VertexLinkerBenchmark {
+
+  private static final double BLOCK_DEGREES = 0.0005;
+  private static final double LAT0 = 59.9;
+  private static final double LON0 = 10.7;
+
+  /** The initial search radius of the linker, 100 meters. */
+  private static final double SEARCH_RADIUS_DEGREES = 0.0009;
+
+  private final int size;
+  private final Graph graph = new Graph();
+  private final List<Edge> edges = new ArrayList<>();
+
+  private VertexLinkerBenchmark(int size) {
+    this.size = size;
+    var grid = new StreetVertex[size][size];
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < size; j++) {
+        var coordinate = new Coordinate(LON0 + j * BLOCK_DEGREES, LAT0 + i * BLOCK_DEGREES);
+        grid[i][j] = intersectionVertex(coordinate);
+        graph.addVertex(grid[i][j]);
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < size; j++) {
+        if (j + 1 < size) {
+          street(grid[i][j], grid[i][j + 1]);
+        }
+        if (i + 1 < size) {
+          street(grid[i][j], grid[i + 1][j]);
+        }
+      }
+    }
+    graph.index(new StopModel());
+  }
+
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+    int nLinks = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+
+    var benchmark = new VertexLinkerBenchmark(size);
+
+    var hashGrid = new HashGridSpatialIndex<Edge>();
+    var packedTree = PackedHilbertRTree.<Edge>of();
+    for (Edge edge : benchmark.edges) {
+      hashGrid.insert(edge.getGeometry(), edge);
+      packedTree.add(edge.getGeometry().getEnvelopeInternal(), edge);
+    }
+    var packedIndex = new PackedSpatialIndex<>(packedTree.build());
+
+    // Run everything twice, the first run is a warm up
+    for (boolean report : new boolean[] { false, true }) {
+      benchmark.runQueries("HashGridSpatialIndex", hashGrid::query, nLinks, report);
+      benchmark.runQueries("PackedSpatialIndex", packedIndex::query, nLinks, report);
+      benchmark.runLinker(nLinks, report);
+    }
+  }
+
+  private void runQueries(
+    String name,
+    Function<Envelope, List<Edge>> index,
+    int nQueries,
+    boolean report
+  ) {
+    var random = new Random(42);
+    long nCandidates = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < nQueries; i++) {
+      var envelope = new Envelope(randomCoordinate(random));
+      double xScale = Math.cos(Math.toRadians(LAT0));
+      envelope.expandBy(SEARCH_RADIUS_DEGREES / xScale, SEARCH_RADIUS_DEGREES);
+      nCandidates += index.apply(envelope).size();
+    }
+    long time = System.nanoTime() - start;
+
+    if (report) {
+      System.out.printf(
+        "%-20s %10.0f queries/s %8d candidates/query%n",
+        name,
+        nQueries / (time / 1e9),
+        nCandidates / nQueries
+      );
+    }
+  }
+
+  private void runLinker(int nLinks, boolean report) {
+    var random = new Random(42);
+    var linker = graph.getLinker();
+    var modes = new TraverseModeSet(TraverseMode.WALK);
+    long start = System.nanoTime();
+    for (int i = 0; i < nLinks; i++) {
+      var location = new TemporaryStreetLocation(
+        UUID.randomUUID().toString(),
+        randomCoordinate(random),
+        I18NString.of("Origin"),
+        false
+      );
+      var tempEdges = linker.linkVertexForRequest(
+        location,
+        modes,
+        LinkingDirection.INCOMING,
+        (vertex, streetVertex) ->
+          List.of(
+            TemporaryFreeEdge.createTemporaryFreeEdge(
+              (TemporaryStreetLocation) vertex,
+              streetVertex
+            )
+          )
+      );
+      tempEdges.disposeEdges();
+    }
+    long time = System.nanoTime() - start;
+
+    if (report) {
+      System.out.printf("%-20s %10.0f links/s%n", "VertexLinker", nLinks / (time / 1e9));
+    }
+  }
+
+  private Coordinate randomCoordinate(Random random) {
+    double extent = (size - 1) * BLOCK_DEGREES;
+    return new Coordinate(LON0 + random.nextDouble() * extent, LAT0 + random.nextDouble() * extent);
+  }
+
+  private void street(StreetVertex a, StreetVertex b) {
+    edges.add(streetEdge(a, b, 50, StreetTraversalPermission.ALL));
+    edges.add(streetEdge(b, a, 50, StreetTraversalPermission.ALL));
+  }
+}
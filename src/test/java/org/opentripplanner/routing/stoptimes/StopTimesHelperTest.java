@@ -15,6 +15,7 @@ import org.opentripplanner.TestOtpModel;
 import org.opentripplanner.model.StopTimesInPattern;
 import org.opentripplanner.transit.model.framework.FeedScopedId;
 import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.site.StopLocation;
 import org.opentripplanner.transit.service.DefaultTransitService;
 import org.opentripplanner.transit.service.TransitModel;
 
@@ -185,6 +186,43 @@ class StopTimesHelperTest {
     assertEquals(serviceDate.plusDays(1), stopTime.getServiceDay());
   }
 
+  /**
+   * Case 5, several stops searched at once should give the same result as each stop on its own
+   */
+  @Test
+  void stopTimesForStops_sameAsForEachStop() {
+    var start = serviceDate.atStartOfDay(transitService.getTimeZone()).toInstant();
+    List<StopLocation> stops = List.of(
+      transitService.getRegularStop(stopId),
+      transitService.getRegularStop(new FeedScopedId(feedId, "K"))
+    );
+
+    var result = StopTimesHelper.stopTimesForStops(
+      transitService,
+      stops,
+      start,
+      Duration.ofHours(24),
+      2,
+      ArrivalDeparture.BOTH,
+      true
+    );
+
+    assertEquals(2, result.size());
+    for (var stop : stops) {
+      var expected = StopTimesHelper.stopTimesForStop(
+        transitService,
+        stop,
+        start,
+        Duration.ofHours(24),
+        2,
+        ArrivalDeparture.BOTH,
+        true
+      );
+      assertFalse(expected.isEmpty());
+      assertEquals(describe(expected), describe(result.get(stop)));
+    }
+  }
+
   /**
    * Case 1, midnight, time range one day, should only find one trip, which is on the same day
    */
@@ -313,4 +351,12 @@ class StopTimesHelperTest {
       .findAny()
       .isEmpty();
   }
+
+  private static List<String> describe(List<StopTimesInPattern> result) {
+    return result
+      .stream()
+      .flatMap(s -> s.times.stream())
+      .map(t -> t.getTrip().getId() + "@" + t.getStop().getId() + ":" + t.getScheduledDeparture())
+      .toList();
+  }
 }
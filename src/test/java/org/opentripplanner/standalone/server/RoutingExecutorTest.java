@@ -0,0 +1,126 @@
+package org.opentripplanner.standalone.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class RoutingExecutorTest {
+
+  private static final Duration NO_TIMEOUT = Duration.ofSeconds(-1);
+
+  private RoutingExecutor subject;
+  private final AtomicInteger rejected = new AtomicInteger();
+
+  @AfterEach
+  void tearDown() {
+    subject.shutdown();
+  }
+
+  @Test
+  void rejectWhenTheQueueIsFull() throws InterruptedException {
+    subject = new RoutingExecutor(1, NO_TIMEOUT, 1, NO_TIMEOUT);
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var done = new CountDownLatch(2);
+
+    execute(() -> {
+      started.countDown();
+      await(release);
+      done.countDown();
+    });
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    // The second request is queued, the third is rejected on the calling thread
+    execute(done::countDown);
+    execute(done::countDown);
+    assertEquals(1, rejected.get());
+
+    release.countDown();
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(1, rejected.get());
+  }
+
+  @Test
+  void rejectWhenTheExpectedWaitTimeIsTooLong() throws InterruptedException {
+    subject = new RoutingExecutor(1, NO_TIMEOUT, 10, Duration.ofMillis(50));
+    var done = new CountDownLatch(1);
+
+    // The average processing time is 200ms after the first request
+    execute(() -> {
+      sleep(200);
+      done.countDown();
+    });
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    // Wait for the first request to complete, the thread is idle so there is no waiting time
+    long end = System.currentTimeMillis() + 5000;
+    while (!subject.expectedWaitTime().isZero() && System.currentTimeMillis() < end) {
+      Thread.sleep(1);
+    }
+
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    execute(() -> {
+      started.countDown();
+      await(release);
+    });
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    assertEquals(0, rejected.get());
+
+    execute(() -> {});
+    assertEquals(1, rejected.get());
+    release.countDown();
+  }
+
+  @Test
+  void interruptWhenTheProcessingTimeoutExpires() throws InterruptedException {
+    subject = new RoutingExecutor(1, Duration.ofMillis(50), 10, NO_TIMEOUT);
+    var interrupted = new AtomicBoolean(false);
+    var interruptedAfter = new AtomicBoolean(true);
+    var done = new CountDownLatch(2);
+
+    execute(() -> {
+      long end = System.currentTimeMillis() + 5000;
+      while (!Thread.currentThread().isInterrupted() && System.currentTimeMillis() < end) {
+        Thread.onSpinWait();
+      }
+      interrupted.set(Thread.currentThread().isInterrupted());
+      done.countDown();
+    });
+    // The interrupt flag is cleared before the next request
+    execute(() -> {
+      interruptedAfter.set(Thread.currentThread().isInterrupted());
+      done.countDown();
+    });
+
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    assertTrue(interrupted.get());
+    assertFalse(interruptedAfter.get());
+  }
+
+  private void execute(Runnable task) {
+    subject.execute(task, rejected::incrementAndGet);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
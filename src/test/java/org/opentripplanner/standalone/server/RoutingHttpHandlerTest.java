@@ -0,0 +1,30 @@
+package org.opentripplanner.standalone.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class RoutingHttpHandlerTest {
+
+  @ParameterizedTest
+  @CsvSource(
+    {
+      "/otp/routers/default/plan, true",
+      "/otp/routers/default/index/graphql, true",
+      "/otp/routers/default/transmodel/index/graphql, true",
+      "/otp/gtfs/v1, true",
+      "/otp/gtfs/v1/, true",
+      "/otp/transmodel/v3, true",
+      "/otp/traveltime/isochrone, true",
+      "/otp/routers/default/index/stops, false",
+      "/otp/routers/default/index/stops/F:1, false",
+      "/otp/routers/default/inspector/vectortile/edges/0/0/0.pbf, false",
+      "/otp/actuators/health, false",
+      "/otp/, false",
+    }
+  )
+  void isRoutingRequest(String path, boolean expected) {
+    assertEquals(expected, RoutingHttpHandler.isRoutingRequest(path));
+  }
+}
@@ -0,0 +1,112 @@
+package org.opentripplanner.street.model.compact;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.street.model._data.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdge;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.vertex.BarrierVertex;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.search.TraverseMode;
+
+class CompactStreetGraphTest {
+
+  private final StreetVertex a = intersectionVertex("A", 59.90, 10.70);
+  private final StreetVertex b = intersectionVertex("B", 59.91, 10.71);
+  private final StreetVertex c = intersectionVertex("C", 59.92, 10.71);
+  private final BarrierVertex barrier = new BarrierVertex(10.72, 59.92, 1);
+
+  private final List<StreetEdge> edges = new ArrayList<>();
+  private final CompactStreetGraph subject;
+
+  CompactStreetGraphTest() {
+    barrier.setBarrierPermissions(StreetTraversalPermission.PEDESTRIAN);
+    edges.add(streetEdge(a, b, 100, StreetTraversalPermission.ALL));
+    edges.add(streetEdge(b, a, 100, StreetTraversalPermission.ALL));
+    edges.add(streetEdge(b, c, 200, StreetTraversalPermission.PEDESTRIAN));
+    edges.add(streetEdge(a, c, 500, StreetTraversalPermission.CAR));
+    edges.add(streetEdge(c, barrier, 50, StreetTraversalPermission.ALL));
+    subject = CompactStreetGraph.of(edges);
+  }
+
+  @Test
+  void vertexAndEdgeIndexes() {
+    assertEquals(4, subject.numberOfVertices());
+    assertEquals(5, subject.numberOfEdges());
+
+    assertEquals(0, subject.vertexIndex(a));
+    assertEquals(1, subject.vertexIndex(b));
+    assertEquals(2, subject.vertexIndex(c));
+    assertEquals(3, subject.vertexIndex(barrier));
+    assertEquals(CompactStreetGraph.NOT_FOUND, subject.vertexIndex(intersectionVertex(1, 1)));
+    assertSame(c, subject.vertex(2));
+    assertSame(edges.get(3), subject.edge(3));
+
+    assertEquals(a.getLat(), subject.lat(0));
+    assertEquals(c.getLon(), subject.lon(2));
+    assertEquals(200.0, subject.distanceMeters(2));
+    assertEquals(200_000, subject.lengthMm(2));
+  }
+
+  @Test
+  void adjacency() {
+    int ia = subject.vertexIndex(a);
+    int ic = subject.vertexIndex(c);
+
+    assertEquals(List.of(0, 3), outgoing(ia));
+    assertEquals(List.of(1), incoming(ia));
+    assertEquals(List.of(4), outgoing(ic));
+    assertEquals(List.of(2, 3), incoming(ic));
+    assertEquals(List.of(), outgoing(subject.vertexIndex(barrier)));
+
+    for (int e = 0; e < subject.numberOfEdges(); e++) {
+      assertTrue(outgoing(subject.fromVertex(e)).contains(e));
+      assertTrue(incoming(subject.toVertex(e)).contains(e));
+    }
+  }
+
+  @Test
+  void permissionsIncludeBarriers() {
+    assertTrue(subject.allows(3, TraverseMode.CAR));
+    assertFalse(subject.allows(3, TraverseMode.WALK));
+    assertTrue(subject.allows(2, TraverseMode.WALK));
+    assertFalse(subject.allows(2, TraverseMode.BICYCLE));
+
+    // The edge to the barrier is only walkable
+    assertEquals(StreetTraversalPermission.PEDESTRIAN, subject.permission(4));
+    assertFalse(subject.allows(4, TraverseMode.CAR));
+    assertTrue(subject.allows(4, TraverseMode.WALK));
+  }
+
+  @Test
+  void maxCarSpeed() {
+    float expected = 0f;
+    for (var e : edges) {
+      expected = Math.max(expected, e.getCarSpeed());
+    }
+    assertEquals(expected, subject.maxCarSpeed());
+  }
+
+  private List<Integer> outgoing(int v) {
+    var list = new ArrayList<Integer>();
+    for (int i = subject.outStart(v); i < subject.outEnd(v); i++) {
+      list.add(subject.outEdge(i));
+    }
+    return list;
+  }
+
+  private List<Integer> incoming(int v) {
+    var list = new ArrayList<Integer>();
+    for (int i = subject.inStart(v); i < subject.inEnd(v); i++) {
+      list.add(subject.inEdge(i));
+    }
+    return list;
+  }
+}
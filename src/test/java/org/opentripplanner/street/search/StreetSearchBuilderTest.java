@@ -0,0 +1,26 @@
+package org.opentripplanner.street.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Set;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.request.StreetRequest;
+
+class StreetSearchBuilderTest {
+
+  private static final Set<StreetMode> BIDIRECTIONAL_MODES = Set.of(
+    StreetMode.WALK,
+    StreetMode.BIKE,
+    StreetMode.CAR
+  );
+
+  @ParameterizedTest
+  @EnumSource(StreetMode.class)
+  void supportsBidirectionalSearch(StreetMode mode) {
+    var subject = StreetSearchBuilder.of().setStreetRequest(new StreetRequest(mode));
+
+    assertEquals(BIDIRECTIONAL_MODES.contains(mode), subject.supportsBidirectionalSearch());
+  }
+}
@@ -0,0 +1,125 @@
+package org.opentripplanner.street.search;
+
+import static org.opentripplanner.street.model._data.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdge;
+
+import java.lang.management.ManagementFactory;
+import org.opentripplanner.astar.spi.TraverseVisitor;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.request.StreetRequest;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.search.state.State;
+
+/**
+ * Measure the allocations per expanded edge of a street search, for walk, bike and car. The
+ * search builds a complete shortest path tree on a grid of two-way streets, starting in a corner.
+ * An edge is expanded when the search visits its from vertex, also if the traversal is skipped
+ * because the new state would be dominated.
+ * <p>
+ * This is not a unit test, run the main method:
+ * <pre>
+ * StreetTraversalBenchmark [grid size] [searches]
+ * </pre>
+ */
+public class StreetTraversalBenchmark {
+
+  private static final double BLOCK_DEGREES = 0.001;
+
+  private final StreetVertex origin;
+
+  private StreetTraversalBenchmark(int size) {
+    var grid = new StreetVertex[size][size];
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < size; j++) {
+        grid[i][j] =
+          intersectionVertex("V" + i + "_" + j, 59.9 + i * BLOCK_DEGREES, 10.7 + j * BLOCK_DEGREES);
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < size; j++) {
+        if (j + 1 < size) {
+          street(grid[i][j], grid[i][j + 1]);
+        }
+        if (i + 1 < size) {
+          street(grid[i][j], grid[i + 1][j]);
+        }
+      }
+    }
+    this.origin = grid[0][0];
+  }
+
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+    int nSearches = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+    var benchmark = new StreetTraversalBenchmark(size);
+    var modes = new StreetMode[] { StreetMode.WALK, StreetMode.BIKE, StreetMode.CAR };
+
+    // Warm up
+    for (StreetMode mode : modes) {
+      benchmark.run(mode, nSearches, false);
+    }
+    for (StreetMode mode : modes) {
+      benchmark.run(mode, nSearches, true);
+    }
+  }
+
+  private void run(StreetMode mode, int nSearches, boolean report) {
+    var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().threadId();
+    var counter = new ExpandedEdgeCounter();
+
+    long bytesBefore = threadBean.getThreadAllocatedBytes(threadId);
+    long start = System.nanoTime();
+    for (int i = 0; i < nSearches; i++) {
+      search(mode, counter);
+    }
+    long time = System.nanoTime() - start;
+    long bytes = threadBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+    if (report) {
+      System.out.printf(
+        "%-5s %8.3f ms/search %10d edges/search %8.1f bytes/edge%n",
+        mode,
+        time / 1_000_000.0 / nSearches,
+        counter.expandedEdges / nSearches,
+        (double) bytes / counter.expandedEdges
+      );
+    }
+  }
+
+  private void search(StreetMode mode, ExpandedEdgeCounter counter) {
+    var request = new RouteRequest();
+    StreetSearchBuilder
+      .of()
+      .setRequest(request)
+      .setStreetRequest(new StreetRequest(mode))
+      .setTraverseVisitor(counter)
+      .setFrom(origin)
+      .getShortestPathTree();
+  }
+
+  private static void street(StreetVertex a, StreetVertex b) {
+    streetEdge(a, b, 100, StreetTraversalPermission.ALL);
+    streetEdge(b, a, 100, StreetTraversalPermission.ALL);
+  }
+
+  private static class ExpandedEdgeCounter implements TraverseVisitor<State, Edge> {
+
+    private long expandedEdges = 0;
+
+    @Override
+    public void visitEdge(Edge edge) {}
+
+    @Override
+    public void visitVertex(State state) {
+      expandedEdges += state.getVertex().getDegreeOut();
+    }
+
+    @Override
+    public void visitEnqueue() {}
+  }
+}
@@ -0,0 +1,106 @@
+package org.opentripplanner.street.search.compact;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.street.model._data.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdge;
+import static org.opentripplanner.street.model._data.StreetModelForTest.streetEdgeBuilder;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.compact.CompactStreetGraph;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.search.TraverseMode;
+
+class CompactStreetSearchTest {
+
+  private static final double DELTA = 1e-6;
+  private static final double WALK_SPEED = 1.25;
+
+  private final StreetVertex a = intersectionVertex("A", 59.900, 10.700);
+  private final StreetVertex b = intersectionVertex("B", 59.901, 10.701);
+  private final StreetVertex c = intersectionVertex("C", 59.902, 10.702);
+  private final StreetVertex d = intersectionVertex("D", 59.903, 10.703);
+
+  /*
+   * A -100m- B -100m- C -100m- D  (walk + car, both directions)
+   * A -------- 250m, car only ---------> D
+   */
+  private final CompactStreetGraph graph = CompactStreetGraph.of(
+    List.of(
+      streetEdge(a, b, 100, StreetTraversalPermission.ALL),
+      streetEdge(b, a, 100, StreetTraversalPermission.ALL),
+      streetEdge(b, c, 100, StreetTraversalPermission.ALL),
+      streetEdge(c, b, 100, StreetTraversalPermission.ALL),
+      streetEdge(c, d, 100, StreetTraversalPermission.ALL),
+      streetEdge(d, c, 100, StreetTraversalPermission.ALL),
+      streetEdgeBuilder(a, d, 250, StreetTraversalPermission.CAR)
+        .withCarSpeed(25f)
+        .buildAndConnect()
+    )
+  );
+
+  private final int ia = graph.vertexIndex(a);
+  private final int ib = graph.vertexIndex(b);
+  private final int ic = graph.vertexIndex(c);
+  private final int id = graph.vertexIndex(d);
+
+  @Test
+  void walkSearchAll() {
+    var subject = new CompactStreetSearch(graph, TraverseMode.WALK, WALK_SPEED, false);
+    subject.searchAll(ia, Double.POSITIVE_INFINITY);
+
+    assertEquals(0.0, subject.duration(ia), DELTA);
+    assertEquals(100 / WALK_SPEED, subject.duration(ib), DELTA);
+    assertEquals(300 / WALK_SPEED, subject.duration(id), DELTA);
+    assertArrayEquals(new int[] { ia, ib, ic, id }, subject.settledVertices());
+    assertEquals(3, subject.path(id).length);
+    assertEquals(ia, graph.fromVertex(subject.path(id)[0]));
+  }
+
+  @Test
+  void maxDurationLimitsTheSearch() {
+    var subject = new CompactStreetSearch(graph, TraverseMode.WALK, WALK_SPEED, false);
+    subject.searchAll(ia, 200 / WALK_SPEED);
+
+    assertTrue(subject.isReached(ic));
+    assertFalse(subject.isReached(id));
+    assertEquals(Double.POSITIVE_INFINITY, subject.duration(id));
+  }
+
+  @Test
+  void carUsesEdgeSpeed() {
+    var subject = new CompactStreetSearch(graph, TraverseMode.CAR, 0.0, false);
+
+    assertEquals(250 / 25.0, subject.searchTo(ia, id), DELTA);
+    int[] path = subject.path(id);
+    assertEquals(1, path.length);
+    assertFalse(graph.allows(path[0], TraverseMode.WALK));
+  }
+
+  @Test
+  void arriveBySearchFollowsIncomingEdges() {
+    var subject = new CompactStreetSearch(graph, TraverseMode.WALK, WALK_SPEED, true);
+    subject.searchAll(id, Double.POSITIVE_INFINITY);
+
+    // The car only edge A->D can not be used when walking
+    assertEquals(300 / WALK_SPEED, subject.duration(ia), DELTA);
+    int[] path = subject.path(ia);
+    assertEquals(ia, graph.fromVertex(path[0]));
+    assertEquals(id, graph.toVertex(path[path.length - 1]));
+  }
+
+  @Test
+  void searchStateIsResetBetweenSearches() {
+    var subject = new CompactStreetSearch(graph, TraverseMode.WALK, WALK_SPEED, false);
+    subject.searchAll(ia, Double.POSITIVE_INFINITY);
+    assertTrue(subject.isReached(ib));
+
+    subject.searchAll(id, 50.0 / WALK_SPEED);
+    assertFalse(subject.isReached(ib));
+    assertArrayEquals(new int[] { id }, subject.settledVertices());
+  }
+}
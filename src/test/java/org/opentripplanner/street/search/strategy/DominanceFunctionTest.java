@@ -8,6 +8,7 @@ import java.time.Instant;
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.astar.spi.DominanceFunction;
 import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.street.model.StreetTraversalPermission;
 import org.opentripplanner.street.model._data.StreetModelForTest;
 import org.opentripplanner.street.model.vertex.Vertex;
 import org.opentripplanner.street.search.request.StreetSearchRequest;
@@ -63,4 +64,54 @@ public class DominanceFunctionTest {
     assertFalse(dominanceF.betterOrEqualAndComparable(insideZone, outsideZone));
     assertFalse(dominanceF.betterOrEqualAndComparable(outsideZone, insideZone));
   }
+
+  @Test
+  public void dominatesTraversal() {
+    var dominanceF = new DominanceFunctions.MinimumWeight();
+    var fromVertex = intersectionVertex(1, 1);
+    var toVertex = intersectionVertex(2, 2);
+    var edge = StreetModelForTest.streetEdge(fromVertex, toVertex);
+
+    var req = StreetSearchRequest.of().withMode(StreetMode.WALK).build();
+    StateData stateData = StateData.getBaseCaseStateData(req);
+    State parent = new State(fromVertex, Instant.EPOCH, stateData, req);
+    State existing = new State(toVertex, Instant.EPOCH, stateData, req);
+    parent.weight = 2;
+    existing.weight = 1;
+
+    assertTrue(dominanceF.dominatesTraversal(existing, parent, edge));
+    assertFalse(dominanceF.dominatesTraversal(parent, existing, edge));
+  }
+
+  @Test
+  public void doesNotDominateTraversalChangingPlane() {
+    var dominanceF = new DominanceFunctions.MinimumWeight();
+    var fromVertex = intersectionVertex(1, 1);
+    var toVertex = intersectionVertex(2, 2);
+
+    // Entering a no-through-traffic area puts the new state on another plane
+    var noThruTraffic = StreetModelForTest
+      .streetEdgeBuilder(fromVertex, toVertex, 100, StreetTraversalPermission.ALL)
+      .withWalkNoThruTraffic(true)
+      .buildAndConnect();
+    var req = StreetSearchRequest.of().withMode(StreetMode.WALK).build();
+    StateData stateData = StateData.getBaseCaseStateData(req);
+    State parent = new State(fromVertex, Instant.EPOCH, stateData, req);
+    State existing = new State(toVertex, Instant.EPOCH, stateData, req);
+    parent.weight = 2;
+    existing.weight = 1;
+
+    assertFalse(dominanceF.dominatesTraversal(existing, parent, noThruTraffic));
+
+    // The rental state may change on any street edge
+    var edge = StreetModelForTest.streetEdge(fromVertex, toVertex);
+    var rentalReq = StreetSearchRequest.of().withMode(StreetMode.SCOOTER_RENTAL).build();
+    StateData rentalData = StateData.getBaseCaseStateData(rentalReq);
+    State rentalParent = new State(fromVertex, Instant.EPOCH, rentalData, rentalReq);
+    State rentalExisting = new State(toVertex, Instant.EPOCH, rentalData, rentalReq);
+    rentalParent.weight = 2;
+    rentalExisting.weight = 1;
+
+    assertFalse(dominanceF.dominatesTraversal(rentalExisting, rentalParent, edge));
+  }
 }
@@ -6,6 +6,8 @@ import static org.opentripplanner.standalone.configure.ConstructApplication.init
 import static org.opentripplanner.transit.speed_test.support.AssertSpeedTestSetup.assertTestDateHasData;
 
 import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.lang.ref.WeakReference;
 import java.net.URI;
 import java.util.ArrayList;
@@ -16,6 +18,7 @@ import java.util.function.Predicate;
 import org.opentripplanner.TestServerContext;
 import org.opentripplanner.datastore.OtpDataStore;
 import org.opentripplanner.framework.application.OtpAppException;
+import org.opentripplanner.inspector.vector.VectorTileCache;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.raptor.configure.RaptorConfig;
 import org.opentripplanner.routing.api.response.RoutingResponse;
@@ -65,6 +68,8 @@ public class SpeedTest {
   private final OtpServerRequestContext serverContext;
   private final Map<SpeedTestProfile, List<Integer>> workerResults = new HashMap<>();
   private final Map<SpeedTestProfile, List<Integer>> totalResults = new HashMap<>();
+  private final Map<SpeedTestProfile, List<Integer>> allocationResults = new HashMap<>();
+  private final Map<SpeedTestProfile, List<Integer>> gcResults = new HashMap<>();
   private final CsvFileSupport tcIO;
   private SpeedTestProfile profile;
   private TestStatus status = TestStatus.OK;
@@ -113,6 +118,7 @@ public class SpeedTest {
         new DefaultTransitService(transitModel),
         timer.getRegistry(),
         VectorTileConfig.DEFAULT,
+        new VectorTileCache(VectorTileConfig.DEFAULT.cacheMaxMegabytes()),
         TestServerContext.createWorldEnvelopeService(),
         TestServerContext.createRealtimeVehicleService(transitService),
         TestServerContext.createVehicleRentalService(),
@@ -205,13 +211,20 @@ public class SpeedTest {
     ResultPrinter.logSingleTestHeader(profile);
 
     timer.startTest();
+    long allocatedBytesBefore = totalAllocatedBytes();
+    long gcCountBefore = totalGcCount();
 
     for (TestCase testCase : testCases.iterable()) {
       runSingleTestCase(testCase);
     }
 
+    long allocatedBytes = totalAllocatedBytes() - allocatedBytesBefore;
+    int nTestCases = Math.max(1, testCases.numberOfTestCases());
+
     workerResults.get(profile).add(timer.totalTimerMean(DebugTimingAggregator.ROUTING_RAPTOR));
     totalResults.get(profile).add(timer.totalTimerMean(DebugTimingAggregator.ROUTING_TOTAL));
+    allocationResults.get(profile).add((int) (allocatedBytes / (1024L * nTestCases)));
+    gcResults.get(profile).add((int) (totalGcCount() - gcCountBefore));
     timer.lapTest();
 
     ResultPrinter.logSingleTestResult(profile, testCases, sample, nSamples, timer);
@@ -280,6 +293,8 @@ public class SpeedTest {
     for (SpeedTestProfile key : opts.profiles()) {
       workerResults.put(key, new ArrayList<>());
       totalResults.put(key, new ArrayList<>());
+      allocationResults.put(key, new ArrayList<>());
+      gcResults.put(key, new ArrayList<>());
     }
   }
 
@@ -301,11 +316,30 @@ public class SpeedTest {
     }
   }
 
+  /**
+   * The number of bytes allocated by all live threads, including the Raptor search threads.
+   */
+  private static long totalAllocatedBytes() {
+    var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    return Math.max(0, threadBean.getTotalThreadAllocatedBytes());
+  }
+
+  private static long totalGcCount() {
+    return ManagementFactory
+      .getGarbageCollectorMXBeans()
+      .stream()
+      .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+      .filter(it -> it > 0)
+      .sum();
+  }
+
   /* report helper methods */
 
   private void printProfileStatistics() {
     ResultPrinter.printProfileResults("Worker: ", opts.profiles(), workerResults);
     ResultPrinter.printProfileResults("Total:  ", opts.profiles(), totalResults);
+    ResultPrinter.printProfileResults("Alloc KB/search: ", opts.profiles(), allocationResults);
+    ResultPrinter.printProfileResults("GC count: ", opts.profiles(), gcResults);
   }
 
   /**
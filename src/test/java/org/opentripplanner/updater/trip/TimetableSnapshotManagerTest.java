@@ -0,0 +1,87 @@
+package org.opentripplanner.updater.trip;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.framework.Deduplicator;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+import org.opentripplanner.transit.model.timetable.TripTimesFactory;
+
+class TimetableSnapshotManagerTest {
+
+  private static final TransitModelForTest TEST_MODEL = TransitModelForTest.of();
+  private static final LocalDate SERVICE_DATE = LocalDate.of(2024, 1, 15);
+
+  private final TripPattern pattern = TransitModelForTest
+    .tripPattern("P1", TransitModelForTest.route("R1").build())
+    .withStopPattern(TEST_MODEL.stopPattern(2))
+    .build();
+
+  private final TripTimes tripTimes = tripTimes();
+
+  @Test
+  void publishSnapshotOnCommit() {
+    var subject = new TimetableSnapshotManager("test", null, Duration.ofMinutes(1));
+    assertNull(subject.getTimetableSnapshot());
+
+    update(subject);
+
+    var snapshot = subject.getTimetableSnapshot();
+    assertNotNull(snapshot);
+    assertNotSame(pattern.getScheduledTimetable(), snapshot.resolve(pattern, SERVICE_DATE));
+  }
+
+  @Test
+  void throttleCommits() {
+    var subject = new TimetableSnapshotManager("test", null, Duration.ofMinutes(1));
+    update(subject);
+    var snapshot = subject.getTimetableSnapshot();
+
+    update(subject);
+
+    assertSame(snapshot, subject.getTimetableSnapshot());
+    assertTrue(subject.getBuffer().isDirty());
+  }
+
+  @Test
+  void commitThrottledUpdatesLater() throws InterruptedException {
+    var subject = new TimetableSnapshotManager("test", null, Duration.ofMillis(20));
+    update(subject);
+    var snapshot = subject.getTimetableSnapshot();
+
+    update(subject);
+
+    // Wait for the deferred commit
+    for (int i = 0; i < 100 && subject.getTimetableSnapshot() == snapshot; ++i) {
+      Thread.sleep(20);
+    }
+    assertNotSame(snapshot, subject.getTimetableSnapshot());
+  }
+
+  private void update(TimetableSnapshotManager subject) {
+    subject.lockBuffer();
+    try {
+      subject.getBuffer().update(pattern, tripTimes, SERVICE_DATE);
+      subject.commitTimetableSnapshot(false);
+    } finally {
+      subject.unlockBuffer();
+    }
+  }
+
+  private static TripTimes tripTimes() {
+    var trip = TransitModelForTest.trip("T1").build();
+    return TripTimesFactory.tripTimes(
+      trip,
+      TEST_MODEL.stopTimesEvery5Minutes(2, trip, 0),
+      new Deduplicator()
+    );
+  }
+}